@@ -5,6 +5,7 @@ import cn.dev33.satoken.stp.parameter.SaLoginParameter;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.http.useragent.UserAgent;
 import cn.hutool.http.useragent.UserAgentUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.ppxb.common.core.constant.CacheConstants;
@@ -22,6 +23,7 @@ import com.ppxb.web.service.SysLoginService;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Date;
 
 /**
  * 用户行为 侦听器的实现
@@ -40,8 +42,10 @@ public class UserActionListener implements SaTokenListener {
      */
     @Override
     public void doLogin(String loginType, Object loginId, String tokenValue, SaLoginParameter loginParameter) {
-        UserAgent userAgent = UserAgentUtil.parse(ServletUtils.getRequest().getHeader("User-Agent"));
-        String ip = ServletUtils.getClientIP();
+        HttpServletRequest request = ServletUtils.getRequest();
+        String userAgentHeader = request.getHeader("User-Agent");
+        UserAgent userAgent = UserAgentUtil.parse(userAgentHeader);
+        String ip = ServletUtils.getClientIP(request);
         UserOnlineDTO dto = new UserOnlineDTO();
         dto.setIpaddr(ip);
         dto.setLoginLocation(AddressUtils.getRealAddressByIP(ip));
@@ -68,7 +72,10 @@ public class UserActionListener implements SaTokenListener {
         logininforEvent.setUsername(username);
         logininforEvent.setStatus(Constants.LOGIN_SUCCESS);
         logininforEvent.setMessage(MessageUtils.message("user.login.success"));
-        logininforEvent.setRequest(ServletUtils.getRequest());
+        logininforEvent.setIpaddr(ip);
+        logininforEvent.setUserAgent(userAgentHeader);
+        logininforEvent.setClientId(request.getHeader(LoginHelper.CLIENT_KEY));
+        logininforEvent.setLoginTime(new Date());
         SpringUtils.context().publishEvent(logininforEvent);
         // 更新登录信息
         loginService.recordLoginInfo((Long) loginParameter.getExtra(LoginHelper.USER_KEY), ip);
@@ -6,6 +6,7 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.lock.annotation.Lock4j;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import me.zhyd.oauth.model.AuthUser;
@@ -23,6 +24,7 @@ import com.ppxb.common.core.utils.*;
 import com.ppxb.common.log.event.LogininforEvent;
 import com.ppxb.common.mybatis.helper.DataPermissionHelper;
 import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.satoken.core.context.LoginContextHolder;
 import com.ppxb.common.satoken.utils.LoginHelper;
 import com.ppxb.common.tenant.exception.TenantException;
 import com.ppxb.common.tenant.helper.TenantHelper;
@@ -122,6 +124,9 @@ public class SysLoginService {
             try {
                 StpUtil.logout();
             } catch (NotLoginException ignored) {
+            } finally {
+                // token 已注销 丢弃本次请求已解析的登录上下文
+                LoginContextHolder.reset();
             }
         }
     }
@@ -140,7 +145,13 @@ public class SysLoginService {
         logininforEvent.setUsername(username);
         logininforEvent.setStatus(status);
         logininforEvent.setMessage(message);
-        logininforEvent.setRequest(ServletUtils.getRequest());
+        HttpServletRequest request = ServletUtils.getRequest();
+        if (request != null) {
+            logininforEvent.setIpaddr(ServletUtils.getClientIP(request));
+            logininforEvent.setUserAgent(request.getHeader("User-Agent"));
+            logininforEvent.setClientId(request.getHeader(LoginHelper.CLIENT_KEY));
+        }
+        logininforEvent.setLoginTime(new Date());
         SpringUtils.context().publishEvent(logininforEvent);
     }
 
@@ -1,6 +1,7 @@
 package com.ppxb.web.service;
 import cn.hutool.crypto.digest.BCrypt;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.Constants;
 import com.ppxb.common.core.constant.GlobalConstants;
@@ -15,6 +16,7 @@ import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.log.event.LogininforEvent;
 import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.satoken.utils.LoginHelper;
 import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.common.web.config.properties.CaptchaProperties;
 import com.ppxb.system.domain.SysUser;
@@ -107,7 +109,13 @@ public class SysRegisterService {
         logininforEvent.setUsername(username);
         logininforEvent.setStatus(status);
         logininforEvent.setMessage(message);
-        logininforEvent.setRequest(ServletUtils.getRequest());
+        HttpServletRequest request = ServletUtils.getRequest();
+        if (request != null) {
+            logininforEvent.setIpaddr(ServletUtils.getClientIP(request));
+            logininforEvent.setUserAgent(request.getHeader("User-Agent"));
+            logininforEvent.setClientId(request.getHeader(LoginHelper.CLIENT_KEY));
+        }
+        logininforEvent.setLoginTime(new Date());
         SpringUtils.context().publishEvent(logininforEvent);
     }
 
@@ -0,0 +1,120 @@
+package com.ppxb.system.service.impl;
+import com.ppxb.common.core.constant.SystemConstants;
+import com.ppxb.system.domain.SysDept;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 部门树索引快照单元测试
+ * <p>
+ * 快照为包内可见 测试与其放在相同包下
+ *
+ * @author Lion Li
+ */
+@DisplayName("部门树索引快照单元测试")
+public class SysDeptTreeIndexUnitTest {
+
+    /**
+     * 100
+     * ├── 101
+     * │   ├── 103
+     * │   └── 104(停用)
+     * │       └── 107
+     * └── 102
+     *     └── 105
+     */
+    private static List<SysDept> tree() {
+        List<SysDept> list = new ArrayList<>();
+        // 乱序放入 快照不依赖查询顺序
+        list.add(dept(105L, 102L, SystemConstants.NORMAL));
+        list.add(dept(101L, 100L, SystemConstants.NORMAL));
+        list.add(dept(107L, 104L, SystemConstants.NORMAL));
+        list.add(dept(100L, 0L, SystemConstants.NORMAL));
+        list.add(dept(104L, 101L, SystemConstants.DISABLE));
+        list.add(dept(103L, 101L, SystemConstants.NORMAL));
+        list.add(dept(102L, 100L, SystemConstants.NORMAL));
+        return list;
+    }
+
+    private static SysDept dept(Long deptId, Long parentId, String status) {
+        SysDept dept = new SysDept();
+        dept.setDeptId(deptId);
+        dept.setParentId(parentId);
+        dept.setStatus(status);
+        return dept;
+    }
+
+    private static List<Long> sorted(List<Long> list) {
+        List<Long> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @DisplayName("测试 查询子孙部门")
+    @Test
+    public void testDescendants() {
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(tree());
+        Assertions.assertEquals(7, snapshot.size());
+        Assertions.assertEquals(List.of(101L, 102L, 103L, 104L, 105L, 107L), sorted(snapshot.descendants(100L)));
+        Assertions.assertEquals(List.of(103L, 104L, 107L), sorted(snapshot.descendants(101L)));
+        Assertions.assertEquals(List.of(107L), snapshot.descendants(104L));
+        Assertions.assertTrue(snapshot.descendants(107L).isEmpty());
+    }
+
+    @DisplayName("测试 查询祖先部门 由近及远")
+    @Test
+    public void testAncestors() {
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(tree());
+        Assertions.assertEquals(List.of(104L, 101L, 100L), snapshot.ancestors(107L));
+        Assertions.assertEquals(List.of(100L), snapshot.ancestors(102L));
+        Assertions.assertTrue(snapshot.ancestors(100L).isEmpty());
+    }
+
+    @DisplayName("测试 统计正常状态的子孙部门")
+    @Test
+    public void testCountNormalDescendants() {
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(tree());
+        Assertions.assertEquals(5, snapshot.countNormalDescendants(100L));
+        Assertions.assertEquals(2, snapshot.countNormalDescendants(101L));
+        Assertions.assertEquals(1, snapshot.countNormalDescendants(104L));
+    }
+
+    @DisplayName("测试 不存在的部门与空部门id")
+    @Test
+    public void testUnknownDept() {
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(tree());
+        Assertions.assertTrue(snapshot.descendants(999L).isEmpty());
+        Assertions.assertTrue(snapshot.ancestors(999L).isEmpty());
+        Assertions.assertEquals(0, snapshot.countNormalDescendants(999L));
+        Assertions.assertTrue(snapshot.descendants(null).isEmpty());
+    }
+
+    @DisplayName("测试 空部门列表")
+    @Test
+    public void testEmpty() {
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(new ArrayList<>());
+        Assertions.assertEquals(0, snapshot.size());
+        Assertions.assertTrue(snapshot.descendants(100L).isEmpty());
+    }
+
+    @DisplayName("测试 父子关系成环的部门不参与索引")
+    @Test
+    public void testCycle() {
+        List<SysDept> list = tree();
+        list.add(dept(201L, 202L, SystemConstants.NORMAL));
+        list.add(dept(202L, 201L, SystemConstants.NORMAL));
+        list.add(dept(203L, 203L, SystemConstants.NORMAL));
+        SysDeptTreeIndex.Snapshot snapshot = new SysDeptTreeIndex.Snapshot(list);
+        // 自身为父节点的部门视为根节点 成环的部门无法从根节点到达
+        Assertions.assertEquals(8, snapshot.size());
+        Assertions.assertTrue(snapshot.descendants(201L).isEmpty());
+        Assertions.assertTrue(snapshot.ancestors(203L).isEmpty());
+        Assertions.assertEquals(List.of(101L, 102L, 103L, 104L, 105L, 107L), sorted(snapshot.descendants(100L)));
+    }
+
+}
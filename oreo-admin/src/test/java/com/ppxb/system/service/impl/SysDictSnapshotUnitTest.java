@@ -0,0 +1,71 @@
+package com.ppxb.system.service.impl;
+import com.ppxb.system.domain.vo.SysDictDataVo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字典快照翻译单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("字典快照翻译单元测试")
+public class SysDictSnapshotUnitTest {
+
+    private static SysDictSnapshot.DictLookup lookup() {
+        List<SysDictDataVo> list = new ArrayList<>();
+        list.add(data("0", "男"));
+        list.add(data("1", "女"));
+        list.add(data("2", "未知"));
+        return SysDictSnapshot.DictLookup.of(list);
+    }
+
+    private static SysDictDataVo data(String value, String label) {
+        SysDictDataVo vo = new SysDictDataVo();
+        vo.setDictValue(value);
+        vo.setDictLabel(label);
+        return vo;
+    }
+
+    @DisplayName("测试 单个值与标签互相转换")
+    @Test
+    public void testSingle() {
+        SysDictSnapshot.DictLookup lookup = lookup();
+        Assertions.assertEquals("女", lookup.label("1", ","));
+        Assertions.assertEquals("2", lookup.value("未知", ","));
+        Assertions.assertEquals("男", lookup.label("0", null));
+    }
+
+    @DisplayName("测试 多个值按分隔符转换 保留分隔符与顺序")
+    @Test
+    public void testMultiple() {
+        SysDictSnapshot.DictLookup lookup = lookup();
+        Assertions.assertEquals("女,男,未知", lookup.label("1,0,2", ","));
+        Assertions.assertEquals("1||0", lookup.value("女||男", "||"));
+    }
+
+    @DisplayName("测试 未匹配与空值转为空串")
+    @Test
+    public void testUnmatched() {
+        SysDictSnapshot.DictLookup lookup = lookup();
+        Assertions.assertEquals("", lookup.label("9", ","));
+        Assertions.assertEquals("男,,女", lookup.label("0,9,1", ","));
+        Assertions.assertEquals(",", lookup.label(",", ","));
+        Assertions.assertEquals("", lookup.label("", ","));
+        Assertions.assertEquals("", lookup.label(null, ","));
+        // 分隔符为空时整体作为单个值查找
+        Assertions.assertEquals("", lookup.label("0,1", ""));
+    }
+
+    @DisplayName("测试 值到标签按字典排序 空列表返回空映射")
+    @Test
+    public void testOrderAndEmpty() {
+        Assertions.assertEquals(List.of("0", "1", "2"), new ArrayList<>(lookup().valueToLabel().keySet()));
+        Assertions.assertSame(SysDictSnapshot.DictLookup.EMPTY, SysDictSnapshot.DictLookup.of(new ArrayList<>()));
+        Assertions.assertEquals("", SysDictSnapshot.DictLookup.EMPTY.label("0", ","));
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.ppxb.system.service.impl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 文件下载 Range 与 ETag 解析单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("文件下载 Range 与 ETag 解析单元测试")
+public class SysOssRangeUnitTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    private static MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    @DisplayName("测试 解析单段范围")
+    @Test
+    public void testRange() {
+        Assertions.assertArrayEquals(new long[]{0, 99}, SysOssServiceImpl.parseRange(request("bytes=0-99"), ETAG, 1000));
+        Assertions.assertArrayEquals(new long[]{500, 999}, SysOssServiceImpl.parseRange(request("bytes=500-"), ETAG, 1000));
+        Assertions.assertArrayEquals(new long[]{900, 999}, SysOssServiceImpl.parseRange(request("bytes=-100"), ETAG, 1000));
+        // 结束位置超过文件长度时截断 后缀长度超过文件长度时返回完整文件
+        Assertions.assertArrayEquals(new long[]{900, 999}, SysOssServiceImpl.parseRange(request("bytes=900-5000"), ETAG, 1000));
+        Assertions.assertArrayEquals(new long[]{0, 999}, SysOssServiceImpl.parseRange(request("bytes=-5000"), ETAG, 1000));
+    }
+
+    @DisplayName("测试 无范围 多段范围与格式错误时返回完整文件")
+    @Test
+    public void testFullContent() {
+        Assertions.assertNull(SysOssServiceImpl.parseRange(null, ETAG, 1000));
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request(null), ETAG, 1000));
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request("bytes=0-1,5-9"), ETAG, 1000));
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request("items=0-9"), ETAG, 1000));
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request("bytes=10"), ETAG, 1000));
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request("bytes=a-b"), ETAG, 1000));
+    }
+
+    @DisplayName("测试 范围无效时返回空数组")
+    @Test
+    public void testUnsatisfiable() {
+        Assertions.assertEquals(0, SysOssServiceImpl.parseRange(request("bytes=1000-"), ETAG, 1000).length);
+        Assertions.assertEquals(0, SysOssServiceImpl.parseRange(request("bytes=50-10"), ETAG, 1000).length);
+        Assertions.assertEquals(0, SysOssServiceImpl.parseRange(request("bytes=-0"), ETAG, 1000).length);
+        Assertions.assertEquals(0, SysOssServiceImpl.parseRange(request("bytes=0-"), ETAG, 0).length);
+    }
+
+    @DisplayName("测试 If-Range 与 ETag 不一致时返回完整文件")
+    @Test
+    public void testIfRange() {
+        MockHttpServletRequest request = request("bytes=0-99");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"old\"");
+        Assertions.assertNull(SysOssServiceImpl.parseRange(request, ETAG, 1000));
+
+        request = request("bytes=0-99");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        Assertions.assertArrayEquals(new long[]{0, 99}, SysOssServiceImpl.parseRange(request, ETAG, 1000));
+    }
+
+    @DisplayName("测试 If-None-Match 匹配")
+    @Test
+    public void testMatchETag() {
+        Assertions.assertTrue(SysOssServiceImpl.matchETag(ETAG, ETAG));
+        Assertions.assertTrue(SysOssServiceImpl.matchETag("W/" + ETAG, ETAG));
+        Assertions.assertTrue(SysOssServiceImpl.matchETag("\"x\", " + ETAG, ETAG));
+        Assertions.assertTrue(SysOssServiceImpl.matchETag("*", ETAG));
+        Assertions.assertFalse(SysOssServiceImpl.matchETag("\"x\"", ETAG));
+        Assertions.assertFalse(SysOssServiceImpl.matchETag("", ETAG));
+        Assertions.assertFalse(SysOssServiceImpl.matchETag(null, ETAG));
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.ppxb.test;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ppxb.common.redis.manager.CaffeineCacheDecorator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一级缓存装饰器集群失效单元测试
+ * <p>
+ * 使用内存缓存代替 redis
+ *
+ * @author LionLi
+ */
+@DisplayName("一级缓存装饰器集群失效单元测试")
+public class CaffeineCacheDecoratorUnitTest {
+
+    private final List<String> invalidated = new ArrayList<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("test");
+
+    private final CaffeineCacheDecorator cache = new CaffeineCacheDecorator("test", remote,
+        Caffeine.newBuilder().build(), invalidated::add, published::add);
+
+    @DisplayName("测试 写入广播到其他节点 本节点保留新值且不触发失效监听")
+    @Test
+    public void testPut() {
+        cache.put(1L, "a");
+        Assertions.assertEquals(List.of("1"), published);
+        Assertions.assertTrue(invalidated.isEmpty());
+        // redis 中的值被其他节点修改 本节点一级缓存仍命中
+        remote.put(1L, "b");
+        Assertions.assertEquals("a", cache.get(1L, String.class));
+    }
+
+    @DisplayName("测试 已存在时 putIfAbsent 不广播")
+    @Test
+    public void testPutIfAbsent() {
+        Assertions.assertNull(cache.putIfAbsent(1L, "a"));
+        Assertions.assertEquals("a", cache.putIfAbsent(1L, "b").get());
+        Assertions.assertEquals(List.of("1"), published);
+        Assertions.assertEquals("a", cache.get(1L, String.class));
+    }
+
+    @DisplayName("测试 删除与清空 清理本节点并触发失效通知")
+    @Test
+    public void testEvict() {
+        cache.put(1L, "a");
+        cache.evict(1L);
+        cache.clear();
+        Assertions.assertEquals(2, invalidated.size());
+        Assertions.assertEquals("1", invalidated.get(0));
+        Assertions.assertNull(invalidated.get(1));
+        Assertions.assertNull(cache.get(1L));
+    }
+
+    @DisplayName("测试 收到其他节点通知后从 redis 重新加载")
+    @Test
+    public void testEvictLocal() {
+        cache.put(1L, "a");
+        remote.put(1L, "b");
+        cache.evictLocal(cache.getLocalKey(1L));
+        Assertions.assertEquals("b", cache.get(1L, String.class));
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.ppxb.test;
+import com.ppxb.common.excel.annotation.CellMerge;
+import com.ppxb.common.excel.core.CellMergeStrategy;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列值重复合并策略单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("列值重复合并策略单元测试")
+public class CellMergeStrategyUnitTest {
+
+    @DisplayName("测试 流式模式跨批次接续合并区域 与列表模式结果一致")
+    @Test
+    public void testStreamAcrossBatches() throws IOException {
+        List<Row> rows = rows("A", "A", "A", "A", "B", "B", "C");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet stream = workbook.createSheet("stream");
+            CellMergeStrategy strategy = new CellMergeStrategy(Row.class, false);
+            strategy.prepare(rows.subList(0, 3));
+            strategy.flush(stream);
+            // 第一批末尾的区间尚未结束 不应写入工作表
+            Assertions.assertTrue(stream.getMergedRegions().isEmpty());
+            strategy.prepare(rows.subList(3, 7));
+            strategy.flush(stream);
+            strategy.finishSheet(stream);
+
+            Assertions.assertEquals(List.of("A1:A4", "A5:A6"), regions(stream));
+
+            Sheet list = workbook.createSheet("list");
+            new CellMergeStrategy(rows, false).flush(list);
+            Assertions.assertEquals(regions(list), regions(stream));
+        }
+    }
+
+    @DisplayName("测试 流式模式最后一个区间在结束工作表时写入")
+    @Test
+    public void testStreamFinishSheet() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            CellMergeStrategy strategy = new CellMergeStrategy(Row.class, false);
+            strategy.prepare(rows("A", "B"));
+            strategy.flush(sheet);
+            strategy.prepare(rows("B", "B"));
+            strategy.flush(sheet);
+            Assertions.assertTrue(sheet.getMergedRegions().isEmpty());
+            strategy.finishSheet(sheet);
+            Assertions.assertEquals(List.of("A2:A4"), regions(sheet));
+        }
+    }
+
+    @DisplayName("测试 流式模式 mergeBy 依赖字段不同时不合并")
+    @Test
+    public void testStreamMergeBy() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row("A", "g1"));
+        rows.add(new Row("A", "g1"));
+        rows.add(new Row("B", "g1"));
+        rows.add(new Row("B", "g1"));
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            CellMergeStrategy strategy = new CellMergeStrategy(Row.class, false);
+            strategy.prepare(rows);
+            strategy.finishSheet(sheet);
+            Assertions.assertEquals(List.of("A1:A2", "B1:B2", "A3:A4", "B3:B4"), regions(sheet));
+        }
+    }
+
+    @DisplayName("测试 流式模式结束工作表后重置状态 下一个工作表重新计算")
+    @Test
+    public void testStreamNextSheet() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet first = workbook.createSheet();
+            Sheet second = workbook.createSheet();
+            CellMergeStrategy strategy = new CellMergeStrategy(Row.class, false);
+            strategy.prepare(rows("A", "A"));
+            strategy.finishSheet(first);
+            // 与上一个工作表末尾值相同 也不能接续
+            strategy.prepare(rows("A", "B", "B"));
+            strategy.finishSheet(second);
+
+            Assertions.assertEquals(List.of("A1:A2"), regions(first));
+            Assertions.assertEquals(List.of("A2:A3"), regions(second));
+        }
+    }
+
+    @DisplayName("测试 流式模式空值不合并")
+    @Test
+    public void testStreamBlankValue() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            CellMergeStrategy strategy = new CellMergeStrategy(Row.class, false);
+            strategy.prepare(rows(null, null, "", ""));
+            strategy.finishSheet(sheet);
+            Assertions.assertTrue(sheet.getMergedRegions().isEmpty());
+        }
+    }
+
+    private static List<Row> rows(String... depts) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < depts.length; i++) {
+            // 分组各不相同 只有部门列会合并
+            rows.add(new Row(depts[i], "g" + i));
+        }
+        return rows;
+    }
+
+    private static List<String> regions(Sheet sheet) {
+        List<String> list = new ArrayList<>();
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            list.add(region.formatAsString());
+        }
+        return list;
+    }
+
+    public static class Row {
+
+        @CellMerge
+        private String dept;
+
+        @CellMerge(mergeBy = "dept")
+        private String group;
+
+        public Row(String dept, String group) {
+            this.dept = dept;
+            this.group = group;
+        }
+
+        public String getDept() {
+            return dept;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+    }
+
+}
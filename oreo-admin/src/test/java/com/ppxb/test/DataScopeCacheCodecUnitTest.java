@@ -0,0 +1,64 @@
+package com.ppxb.test;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.redis.config.RedisConfig;
+import com.ppxb.common.redis.config.properties.RedissonProperties;
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.config.Config;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 数据权限缓存值 redis 编解码单元测试
+ * <p>
+ * 使用 {@link RedisConfig} 实际配置的编解码器 只加载 spring 工具类 不连接 redis
+ *
+ * @author Lion Li
+ */
+@SpringBootTest(classes = SpringUtils.class)
+@DisplayName("数据权限缓存值 redis 编解码单元测试")
+public class DataScopeCacheCodecUnitTest {
+
+    private Codec codec;
+
+    @BeforeEach
+    public void initCodec() {
+        RedissonProperties properties = new RedissonProperties();
+        properties.setThreads(1);
+        properties.setNettyThreads(1);
+        RedisConfig redisConfig = new RedisConfig();
+        ReflectionTestUtils.setField(redisConfig, "redissonProperties", properties);
+        Config config = new Config();
+        redisConfig.redissonCustomizer().customize(config);
+        codec = config.getCodec();
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        try {
+            return codec.getValueDecoder().decode(buf, new State());
+        } finally {
+            buf.release();
+        }
+    }
+
+    @DisplayName("测试 部门id字符串写入 redis 后原样读回")
+    @Test
+    public void testDeptIds() throws Exception {
+        Assertions.assertEquals("100,101,103", roundTrip("100,101,103"));
+        Assertions.assertEquals("-1", roundTrip("-1"));
+    }
+
+    @DisplayName("测试 基本类型数组没有类型信息 无法读回")
+    @Test
+    public void testPrimitiveArray() {
+        // 缓存值不能使用 long[] 的原因
+        Assertions.assertThrows(Exception.class, () -> roundTrip(new long[]{100L, 101L}));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.ppxb.test;
+import com.ppxb.common.core.domain.dto.UserDTO;
+import com.ppxb.common.core.service.DeptService;
+import com.ppxb.common.core.service.PostService;
+import com.ppxb.common.core.service.RoleService;
+import com.ppxb.common.core.service.TaskAssigneeService;
+import com.ppxb.common.core.service.UserService;
+import com.ppxb.workflow.service.IFlwSpelService;
+import com.ppxb.workflow.service.impl.FlwAssigneeCache;
+import com.ppxb.workflow.service.impl.FlwTaskAssigneeServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 办理人标识解析用户单元测试
+ * <p>
+ * 用户服务与办理人缓存均为 mock 统计查询次数
+ *
+ * @author AprilWind
+ */
+@DisplayName("办理人标识解析用户单元测试")
+public class FlwTaskAssigneeUsersUnitTest {
+
+    private UserService userService;
+
+    private FlwAssigneeCache assigneeCache;
+
+    private FlwTaskAssigneeServiceImpl service;
+
+    @BeforeEach
+    public void init() {
+        userService = Mockito.mock(UserService.class);
+        assigneeCache = Mockito.mock(FlwAssigneeCache.class);
+        service = new FlwTaskAssigneeServiceImpl(Mockito.mock(TaskAssigneeService.class), userService,
+            Mockito.mock(DeptService.class), Mockito.mock(RoleService.class), Mockito.mock(PostService.class),
+            Mockito.mock(IFlwSpelService.class), assigneeCache);
+    }
+
+    private static UserDTO user(long userId) {
+        UserDTO user = new UserDTO();
+        user.setUserId(userId);
+        return user;
+    }
+
+    @SuppressWarnings("unchecked")
+    @DisplayName("测试 缓存未命中时每种类型只查询一次 结果按标识写入缓存")
+    @Test
+    public void testColdCache() {
+        Mockito.when(assigneeCache.getUsers(Mockito.anyCollection())).thenAnswer(invocation -> new HashMap<>());
+        Mockito.when(userService.selectListByIds(List.of(1L, 2L))).thenReturn(List.of(user(1L)));
+        Mockito.when(userService.selectUserMapByRoleIds(List.of(10L, 11L, 12L)))
+            .thenReturn(Map.of(10L, List.of(user(1L), user(3L)), 11L, List.of(user(4L))));
+        Mockito.when(userService.selectUserMapByDeptIds(List.of(20L, 21L)))
+            .thenReturn(Map.of(20L, List.of(user(5L))));
+        Mockito.when(userService.selectUserMapByPostIds(List.of(30L)))
+            .thenReturn(Map.of(30L, List.of(user(3L))));
+
+        List<UserDTO> users = service.fetchUsersByStorageIds(
+            "1,2,role:10,role:11,role:12,dept:20,dept:21,post:30,role:10,$initiator");
+
+        Assertions.assertEquals(List.of(1L, 3L, 4L, 5L), users.stream().map(UserDTO::getUserId).toList());
+        Mockito.verify(userService, Mockito.times(1)).selectListByIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.times(1)).selectUserMapByRoleIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.times(1)).selectUserMapByDeptIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.times(1)).selectUserMapByPostIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.never()).selectUsersByRoleIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.never()).selectUsersByDeptIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.never()).selectUsersByPostIds(Mockito.anyList());
+
+        ArgumentCaptor<Map<String, List<UserDTO>>> loaded = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(assigneeCache).putUsers(loaded.capture(), Mockito.anyLong());
+        Assertions.assertEquals(8, loaded.getValue().size());
+        Assertions.assertEquals(2, loaded.getValue().get("role:10").size());
+        // 查无用户的标识同样缓存空列表
+        Assertions.assertEquals(List.of(), loaded.getValue().get("2"));
+        Assertions.assertEquals(List.of(), loaded.getValue().get("role:12"));
+        Assertions.assertEquals(List.of(), loaded.getValue().get("dept:21"));
+    }
+
+    @DisplayName("测试 缓存命中的标识不再查询")
+    @Test
+    public void testWarmCache() {
+        Mockito.when(assigneeCache.getUsers(Mockito.anyCollection()))
+            .thenAnswer(invocation -> new HashMap<>(Map.of("role:10", List.of(user(1L)))));
+        Mockito.when(userService.selectUserMapByDeptIds(List.of(20L)))
+            .thenReturn(Map.of(20L, List.of(user(2L))));
+
+        List<UserDTO> users = service.fetchUsersByStorageIds("role:10,dept:20");
+
+        Assertions.assertEquals(List.of(1L, 2L), users.stream().map(UserDTO::getUserId).toList());
+        Mockito.verify(userService, Mockito.never()).selectUserMapByRoleIds(Mockito.anyList());
+        Mockito.verify(userService, Mockito.times(1)).selectUserMapByDeptIds(List.of(20L));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.ppxb.test;
+import com.ppxb.common.ratelimiter.core.LeasedTokenBucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 租约令牌桶单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("租约令牌桶单元测试")
+public class LeasedTokenBucketUnitTest {
+
+    @DisplayName("测试 一次租约内的令牌在本地扣减 不重复申请")
+    @Test
+    public void testLeaseConsumedLocally() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket();
+        List<Integer> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(bucket.tryAcquire(5, 60000, 1000, size -> requests.add(size)));
+        }
+        Assertions.assertEquals(List.of(5, 5), requests);
+    }
+
+    @DisplayName("测试 剩余令牌不足一个租约时退化为申请单个令牌")
+    @Test
+    public void testFallbackToSingle() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket();
+        AtomicInteger remaining = new AtomicInteger(3);
+        int acquired = 0;
+        for (int i = 0; i < 6; i++) {
+            if (bucket.tryAcquire(5, 60000, 0, size -> take(remaining, size))) {
+                acquired++;
+            }
+        }
+        Assertions.assertEquals(3, acquired);
+        Assertions.assertEquals(0, remaining.get());
+    }
+
+    @DisplayName("测试 redis 拒绝后在拒绝时长内本地直接拒绝")
+    @Test
+    public void testDenyWindow() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket();
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertFalse(bucket.tryAcquire(5, 60000, 60000, size -> {
+                calls.incrementAndGet();
+                return false;
+            }));
+        }
+        // 第一次申请租约与单个令牌各调用一次 之后均本地拒绝
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @DisplayName("测试 租约过期后未用完的令牌失效 重新申请")
+    @Test
+    public void testLeaseExpire() throws InterruptedException {
+        LeasedTokenBucket bucket = new LeasedTokenBucket();
+        AtomicInteger calls = new AtomicInteger();
+        Assertions.assertTrue(bucket.tryAcquire(100, 50, 0, size -> calls.incrementAndGet() > 0));
+        Assertions.assertTrue(bucket.tryAcquire(100, 50, 0, size -> calls.incrementAndGet() > 0));
+        Assertions.assertEquals(1, calls.get());
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assertions.assertTrue(bucket.tryAcquire(100, 50, 0, size -> calls.incrementAndGet() > 0));
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Timeout(value = 10L, unit = TimeUnit.SECONDS)
+    @DisplayName("测试 并发获取令牌不超过 redis 发放的总数")
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        LeasedTokenBucket bucket = new LeasedTokenBucket();
+        AtomicInteger remaining = new AtomicInteger(1000);
+        AtomicLong acquired = new AtomicLong();
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(16, 60000, 0, size -> take(remaining, size))) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        Assertions.assertEquals(1000, acquired.get());
+        Assertions.assertEquals(0, remaining.get());
+    }
+
+    /**
+     * 模拟 redis 令牌桶 剩余数量足够时扣减并返回 true
+     */
+    private static boolean take(AtomicInteger remaining, int size) {
+        int value;
+        do {
+            value = remaining.get();
+            if (value < size) {
+                return false;
+            }
+        } while (!remaining.compareAndSet(value, value - size));
+        return true;
+    }
+
+}
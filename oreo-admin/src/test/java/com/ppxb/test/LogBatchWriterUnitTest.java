@@ -0,0 +1,175 @@
+package com.ppxb.test;
+import com.ppxb.common.log.core.LogBatchWriter;
+import com.ppxb.common.log.core.LogRingBuffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志环形缓冲区与批量写入器单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("日志批量写入单元测试")
+public class LogBatchWriterUnitTest {
+
+    @DisplayName("测试 环形缓冲区容量向上取整为 2 的幂")
+    @Test
+    public void testRingBufferCapacity() {
+        Assertions.assertEquals(8, new LogRingBuffer<Integer>(5).capacity());
+        Assertions.assertEquals(8, new LogRingBuffer<Integer>(8).capacity());
+        Assertions.assertEquals(1, new LogRingBuffer<Integer>(1).capacity());
+    }
+
+    @DisplayName("测试 环形缓冲区满时拒绝写入 读取后可继续写入")
+    @Test
+    public void testRingBufferFull() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+        Assertions.assertEquals(4, buffer.size());
+
+        Assertions.assertEquals(0, buffer.poll());
+        Assertions.assertTrue(buffer.offer(4));
+        Assertions.assertFalse(buffer.offer(5));
+    }
+
+    @DisplayName("测试 环形缓冲区按写入顺序读取 跨越多轮槽位")
+    @Test
+    public void testRingBufferOrder() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+            if (i % 3 == 2) {
+                buffer.drainTo(result, 2);
+            }
+        }
+        buffer.drainTo(result, Integer.MAX_VALUE);
+        Assertions.assertNull(buffer.poll());
+        Assertions.assertEquals(0, buffer.size());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, result);
+    }
+
+    @Timeout(value = 10L, unit = TimeUnit.SECONDS)
+    @DisplayName("测试 环形缓冲区多生产者并发写入不丢失不重复")
+    @Test
+    public void testRingBufferConcurrentOffer() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10000;
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(1024);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        List<Integer> result = new ArrayList<>(producers * perProducer);
+        while (result.size() < producers * perProducer) {
+            if (buffer.drainTo(result, 256) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        done.await();
+        Collections.sort(result);
+        for (int i = 0; i < result.size(); i++) {
+            Assertions.assertEquals(i, result.get(i));
+        }
+    }
+
+    @Timeout(value = 10L, unit = TimeUnit.SECONDS)
+    @DisplayName("测试 写入器按批量大小写入 关闭时写入剩余日志")
+    @Test
+    public void testWriterBatchAndShutdown() {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        LogBatchWriter<Integer> writer = new LogBatchWriter<>("test", 64, 10, 60000, batches::add);
+        writer.start();
+        for (int i = 0; i < 25; i++) {
+            Assertions.assertTrue(writer.offer(i));
+        }
+        writer.shutdown();
+
+        Assertions.assertEquals(25, writer.getWrittenCount());
+        Assertions.assertEquals(0, writer.getPendingCount());
+        List<Integer> result = new ArrayList<>();
+        for (List<Integer> batch : batches) {
+            Assertions.assertTrue(batch.size() <= 10);
+            result.addAll(batch);
+        }
+        Assertions.assertEquals(25, result.size());
+    }
+
+    @DisplayName("测试 写入器未启动时关闭 由关闭线程写入 关闭后拒绝写入")
+    @Test
+    public void testWriterShutdownWithoutStart() {
+        List<Integer> result = new ArrayList<>();
+        LogBatchWriter<Integer> writer = new LogBatchWriter<>("test", 16, 4, 60000, result::addAll);
+        for (int i = 0; i < 6; i++) {
+            writer.offer(i);
+        }
+        writer.shutdown();
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5), result);
+
+        // 关闭后持续写入 只计数 不逐条输出告警
+        for (int i = 6; i < 1006; i++) {
+            Assertions.assertFalse(writer.offer(i));
+        }
+        Assertions.assertEquals(1000, writer.getDroppedCount());
+        Assertions.assertEquals(6, result.size());
+    }
+
+    @DisplayName("测试 写入器缓冲区满时丢弃并计数")
+    @Test
+    public void testWriterDropWhenFull() {
+        List<Integer> result = new ArrayList<>();
+        LogBatchWriter<Integer> writer = new LogBatchWriter<>("test", 4, 4, 60000, result::addAll);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(writer.offer(i));
+        }
+        Assertions.assertFalse(writer.offer(4));
+        Assertions.assertEquals(1, writer.getDroppedCount());
+        writer.shutdown();
+        Assertions.assertEquals(List.of(0, 1, 2, 3), result);
+    }
+
+    @DisplayName("测试 批量写入失败时逐条重试 只跳过异常数据")
+    @Test
+    public void testWriterRetryOneByOne() {
+        List<Integer> result = new ArrayList<>();
+        LogBatchWriter<Integer> writer = new LogBatchWriter<>("test", 16, 16, 60000, batch -> {
+            if (batch.contains(3)) {
+                throw new IllegalStateException("bad element");
+            }
+            result.addAll(batch);
+        });
+        for (int i = 0; i < 6; i++) {
+            writer.offer(i);
+        }
+        writer.shutdown();
+
+        Assertions.assertEquals(List.of(0, 1, 2, 4, 5), result);
+        Assertions.assertEquals(5, writer.getWrittenCount());
+        Assertions.assertEquals(1, writer.getFailedCount());
+    }
+
+}
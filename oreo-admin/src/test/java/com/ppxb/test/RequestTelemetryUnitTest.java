@@ -0,0 +1,115 @@
+package com.ppxb.test;
+import com.ppxb.common.web.config.properties.RequestTelemetryProperties;
+import com.ppxb.common.web.core.RequestTelemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求统计单元测试
+ *
+ * @author Lion Li
+ */
+@DisplayName("请求统计单元测试")
+public class RequestTelemetryUnitTest {
+
+    private static RequestTelemetry telemetry(int maxRoutes) {
+        RequestTelemetryProperties properties = new RequestTelemetryProperties();
+        properties.setMaxRoutes(maxRoutes);
+        return new RequestTelemetry(properties);
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @DisplayName("测试 按路由统计请求数 状态码分类与字节数")
+    @Test
+    public void testRecord() {
+        RequestTelemetry telemetry = telemetry(100);
+        telemetry.record("GET", "/a", 200, millis(1), -1, 100);
+        telemetry.record("GET", "/a", 404, millis(1), -1, -1);
+        telemetry.record("GET", "/a", 500, millis(1), 10, 20);
+        telemetry.record("POST", "/a", 200, millis(1), 30, 40);
+
+        List<RequestTelemetry.RouteSnapshot> snapshots = telemetry.snapshots();
+        Assertions.assertEquals(2, snapshots.size());
+        // 按请求数倒序
+        RequestTelemetry.RouteSnapshot get = snapshots.get(0);
+        Assertions.assertEquals("GET", get.method());
+        Assertions.assertEquals("/a", get.uri());
+        Assertions.assertEquals(3, get.count());
+        Assertions.assertEquals(Map.of("2xx", 1L, "4xx", 1L, "5xx", 1L), get.statuses());
+        Assertions.assertEquals(10, get.requestBytes());
+        Assertions.assertEquals(120, get.responseBytes());
+        Assertions.assertEquals(1, snapshots.get(1).count());
+    }
+
+    @DisplayName("测试 超出范围的状态码归入首尾分类")
+    @Test
+    public void testStatusBounds() {
+        RequestTelemetry telemetry = telemetry(100);
+        telemetry.record("GET", "/a", 0, millis(1), -1, -1);
+        telemetry.record("GET", "/a", 600, millis(1), -1, -1);
+        Assertions.assertEquals(Map.of("1xx", 1L, "5xx", 1L), telemetry.snapshots().get(0).statuses());
+    }
+
+    @DisplayName("测试 路由数超出上限后归入同一个统计项")
+    @Test
+    public void testMaxRoutes() {
+        RequestTelemetry telemetry = telemetry(2);
+        telemetry.record("GET", "/a", 200, millis(1), -1, -1);
+        telemetry.record("GET", "/b", 200, millis(1), -1, -1);
+        telemetry.record("GET", "/c", 200, millis(1), -1, -1);
+        telemetry.record("POST", "/d", 200, millis(1), -1, -1);
+        // 已统计的路由不受上限影响
+        telemetry.record("GET", "/a", 200, millis(1), -1, -1);
+
+        List<RequestTelemetry.RouteSnapshot> snapshots = telemetry.snapshots();
+        Assertions.assertEquals(4, snapshots.size());
+        Assertions.assertEquals(2, snapshots.stream()
+            .filter(s -> RequestTelemetry.OTHER_ROUTE.equals(s.uri())).count());
+        Assertions.assertEquals(2, snapshots.stream()
+            .filter(s -> "/a".equals(s.uri())).findFirst().orElseThrow().count());
+    }
+
+    @DisplayName("测试 延迟分位数 误差在 1% 以内")
+    @Test
+    public void testPercentiles() {
+        RequestTelemetry telemetry = telemetry(100);
+        for (int i = 1; i <= 1000; i++) {
+            telemetry.record("GET", "/a", 200, millis(i), -1, -1);
+        }
+        RequestTelemetry.RouteSnapshot snapshot = telemetry.snapshots().get(0);
+        Assertions.assertEquals(500, snapshot.percentiles().get(50D), 5);
+        Assertions.assertEquals(990, snapshot.percentiles().get(99D), 10);
+        Assertions.assertEquals(1000, snapshot.max(), 10);
+        Assertions.assertEquals(500.5, snapshot.mean(), 5);
+    }
+
+    @DisplayName("测试 绑定前后新增的路由均注册 Micrometer 指标")
+    @Test
+    public void testBindTo() {
+        RequestTelemetry telemetry = telemetry(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        telemetry.record("GET", "/a", 200, millis(1), 5, -1);
+        telemetry.bindTo(registry);
+        telemetry.record("GET", "/a", 200, millis(1), 5, -1);
+        telemetry.record("GET", "/b", 503, millis(1), -1, -1);
+
+        Assertions.assertEquals(2, registry.get("http.route.requests")
+            .tags("method", "GET", "uri", "/a", "status", "2xx").functionCounter().count());
+        Assertions.assertEquals(10, registry.get("http.route.request.size")
+            .tags("uri", "/a").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("http.route.requests")
+            .tags("uri", "/b", "status", "5xx").functionCounter().count());
+        Assertions.assertNotNull(registry.get("http.route.latency")
+            .tags("uri", "/b", "quantile", "1.0").gauge());
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.ppxb.test;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.satoken.utils.LoginHelper;
+import com.ppxb.system.domain.vo.SysUserImportVo;
+import com.ppxb.system.listener.SysUserImportListener;
+import com.ppxb.system.service.ISysConfigService;
+import com.ppxb.system.service.ISysUserService;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 用户导入校验语言环境单元测试
+ * <p>
+ * 校验器与用户服务均为 mock 记录校验时的语言环境
+ *
+ * @author Lion Li
+ */
+@SpringBootTest(classes = SpringUtils.class)
+@DisplayName("用户导入校验语言环境单元测试")
+public class SysUserImportLocaleUnitTest {
+
+    @MockitoBean
+    private ISysConfigService configService;
+
+    @MockitoBean
+    private ISysUserService userService;
+
+    @MockitoBean
+    private Validator validator;
+
+    @DisplayName("测试 每一行都使用请求的语言环境校验")
+    @Test
+    public void testValidateLocale() {
+        List<Locale> locales = new CopyOnWriteArrayList<>();
+        Mockito.when(configService.selectConfigByKey("sys.user.initPassword")).thenReturn("123456");
+        Mockito.doAnswer(invocation -> {
+            locales.add(LocaleContextHolder.getLocale());
+            return Collections.emptySet();
+        }).when(validator).validate(Mockito.any(), Mockito.any(Class[].class));
+
+        Locale locale = Locale.getDefault().equals(Locale.US) ? Locale.SIMPLIFIED_CHINESE : Locale.US;
+        LocaleContextHolder.setLocale(locale);
+        try (MockedStatic<LoginHelper> loginHelper = Mockito.mockStatic(LoginHelper.class)) {
+            SysUserImportListener listener = new SysUserImportListener(false);
+            for (int i = 0; i < 1200; i++) {
+                SysUserImportVo vo = new SysUserImportVo();
+                vo.setUserName("import" + i);
+                vo.setNickName("import" + i);
+                listener.invoke(vo, null);
+            }
+            listener.doAfterAllAnalysed(null);
+            Assertions.assertTrue(listener.getExcelResult().getAnalysis().contains("共 1200 条"));
+        } finally {
+            LocaleContextHolder.resetLocaleContext();
+        }
+
+        Assertions.assertEquals(1200, locales.size());
+        Assertions.assertTrue(locales.stream().allMatch(locale::equals));
+        Mockito.verify(userService, Mockito.times(3)).insertUserBatch(Mockito.anyList());
+    }
+
+}
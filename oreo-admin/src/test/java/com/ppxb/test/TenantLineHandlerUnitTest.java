@@ -0,0 +1,104 @@
+package com.ppxb.test;
+import com.ppxb.common.tenant.handle.PlusTenantLineHandler;
+import com.ppxb.common.tenant.properties.TenantProperties;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.StringValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 租户处理器排除表单元测试
+ * <p>
+ * 通过 withTenantId 绑定租户 不依赖登录上下文
+ *
+ * @author Lion Li
+ */
+@DisplayName("租户处理器排除表单元测试")
+public class TenantLineHandlerUnitTest {
+
+    private static final String TENANT_ID = "000000";
+
+    private static PlusTenantLineHandler handler(List<String> excludes) {
+        TenantProperties properties = new TenantProperties();
+        properties.setExcludes(excludes);
+        return new PlusTenantLineHandler(properties);
+    }
+
+    @DisplayName("测试 默认与配置的排除表忽略大小写和空格")
+    @Test
+    public void testExcludes() {
+        PlusTenantLineHandler handler = handler(List.of("sys_menu", " SYS_Dict_Type ", ""));
+        handler.withTenantId(TENANT_ID, () -> {
+            Assertions.assertTrue(handler.ignoreTable("gen_table"));
+            Assertions.assertTrue(handler.ignoreTable("GEN_TABLE_COLUMN"));
+            Assertions.assertTrue(handler.ignoreTable("SYS_MENU"));
+            Assertions.assertTrue(handler.ignoreTable("sys_dict_type"));
+            Assertions.assertFalse(handler.ignoreTable("sys_user"));
+            Assertions.assertFalse(handler.ignoreTable(""));
+            Assertions.assertFalse(handler.ignoreTable(null));
+            return null;
+        });
+    }
+
+    @DisplayName("测试 未配置排除表时只排除默认表")
+    @Test
+    public void testNoExcludes() {
+        PlusTenantLineHandler handler = handler(null);
+        handler.withTenantId(TENANT_ID, () -> {
+            Assertions.assertTrue(handler.ignoreTable("gen_table"));
+            Assertions.assertFalse(handler.ignoreTable("sys_menu"));
+            return null;
+        });
+    }
+
+    @DisplayName("测试 无租户时忽略所有表 租户id为空值")
+    @Test
+    public void testNoTenant() {
+        PlusTenantLineHandler handler = handler(List.of("sys_menu"));
+        handler.withTenantId(null, () -> {
+            Assertions.assertTrue(handler.ignoreTable("sys_user"));
+            Assertions.assertTrue(handler.ignoreTable(null));
+            Assertions.assertInstanceOf(NullValue.class, handler.getTenantId());
+            return null;
+        });
+    }
+
+    @DisplayName("测试 绑定的租户id在嵌套调用结束后恢复")
+    @Test
+    public void testWithTenantId() {
+        PlusTenantLineHandler handler = handler(null);
+        handler.withTenantId(TENANT_ID, () -> {
+            handler.withTenantId("123456", () -> {
+                Assertions.assertEquals("123456", ((StringValue) handler.getTenantId()).getValue());
+                return null;
+            });
+            Assertions.assertEquals(TENANT_ID, ((StringValue) handler.getTenantId()).getValue());
+            return null;
+        });
+    }
+
+    @DisplayName("测试 排除表列表被替换后重建 版本号递增")
+    @Test
+    public void testExcludesReplaced() {
+        TenantProperties properties = new TenantProperties();
+        properties.setExcludes(new ArrayList<>(List.of("sys_menu")));
+        PlusTenantLineHandler handler = new PlusTenantLineHandler(properties);
+        long version = handler.getExcludesVersion();
+        // 列表未替换时不重建
+        Assertions.assertEquals(version, handler.getExcludesVersion());
+
+        properties.setExcludes(List.of("sys_config"));
+        Assertions.assertEquals(version + 1, handler.getExcludesVersion());
+        handler.withTenantId(TENANT_ID, () -> {
+            Assertions.assertFalse(handler.ignoreTable("sys_menu"));
+            Assertions.assertTrue(handler.ignoreTable("sys_config"));
+            return null;
+        });
+        Assertions.assertEquals(version + 1, handler.getExcludesVersion());
+    }
+
+}
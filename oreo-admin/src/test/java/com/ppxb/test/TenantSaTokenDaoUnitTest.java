@@ -0,0 +1,91 @@
+package com.ppxb.test;
+import cn.hutool.core.util.IdUtil;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.tenant.core.TenantSaTokenDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 多租户 Sa-Token 持久层单元测试
+ * <p>
+ * redis 工具类静态方法全部 mock 不连接 redis
+ *
+ * @author Lion Li
+ */
+@SpringBootTest(classes = SpringUtils.class)
+@DisplayName("多租户 Sa-Token 持久层单元测试")
+public class TenantSaTokenDaoUnitTest {
+
+    /**
+     * 仅用于 RedisUtils 类初始化
+     */
+    @MockitoBean
+    private RedissonClient redissonClient;
+
+    private MockedStatic<RedisUtils> redisUtils;
+
+    private final TenantSaTokenDao dao = new TenantSaTokenDao();
+
+    @BeforeEach
+    public void mockRedis() {
+        redisUtils = Mockito.mockStatic(RedisUtils.class);
+        redisUtils.when(RedisUtils::getClient).thenReturn(redissonClient);
+    }
+
+    @AfterEach
+    public void closeRedis() {
+        redisUtils.close();
+    }
+
+    /**
+     * 模拟 pipeline 读取的 值 + ttl
+     */
+    private void mockLoad(Object value, long ttl) {
+        RBatch batch = Mockito.mock(RBatch.class);
+        Mockito.doReturn(batch).when(redissonClient).createBatch();
+        Mockito.doReturn(Mockito.mock(RBucketAsync.class)).when(batch).getBucket(Mockito.anyString());
+        Mockito.doReturn(new BatchResult<>(Arrays.asList(value, ttl), 0)).when(batch).execute();
+    }
+
+    @DisplayName("测试 更新值保留 redis 中的过期时间 不使用本地缓存的过期时间重写")
+    @Test
+    public void testUpdateKeepTtl() {
+        String key = "satoken:" + IdUtil.fastSimpleUUID();
+        mockLoad("old", 60000L);
+
+        dao.update(key, "new");
+        dao.updateObject(key, "newObject");
+
+        redisUtils.verify(() -> RedisUtils.setCacheObject("global:" + key, "new", true));
+        redisUtils.verify(() -> RedisUtils.setCacheObject("global:" + key, "newObject", true));
+        redisUtils.verify(() -> RedisUtils.setCacheObject(Mockito.anyString(), Mockito.any(), Mockito.any(Duration.class)), Mockito.never());
+    }
+
+    @DisplayName("测试 不存在的键不写入")
+    @Test
+    public void testUpdateMissing() {
+        String key = "satoken:" + IdUtil.fastSimpleUUID();
+        mockLoad(null, -2L);
+
+        dao.update(key, "new");
+        dao.updateObject(key, "newObject");
+
+        redisUtils.verify(() -> RedisUtils.setCacheObject(Mockito.anyString(), Mockito.any(), Mockito.anyBoolean()), Mockito.never());
+        redisUtils.verify(() -> RedisUtils.setCacheObject(Mockito.anyString(), Mockito.any(), Mockito.any(Duration.class)), Mockito.never());
+    }
+
+}
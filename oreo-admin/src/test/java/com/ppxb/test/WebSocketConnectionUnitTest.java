@@ -0,0 +1,177 @@
+package com.ppxb.test;
+import com.ppxb.common.websocket.core.WebSocketConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket 会话发送队列单元测试
+ *
+ * @author zendwang
+ */
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+@DisplayName("WebSocket 会话发送队列单元测试")
+public class WebSocketConnectionUnitTest {
+
+    @DisplayName("测试 队列中的消息按入队顺序全部发送")
+    @Test
+    public void testDrainInOrder() throws Exception {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+        WebSocketSession session = openSession();
+        Mockito.doAnswer(invocation -> {
+            sent.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            done.countDown();
+            return null;
+        }).when(session).sendMessage(Mockito.any());
+        WebSocketConnection connection = new WebSocketConnection(1L, session, 1000, 10000, 1024 * 1024);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add("m" + i);
+            Assertions.assertTrue(connection.send(new TextMessage("m" + i)));
+        }
+        done.await();
+        Assertions.assertEquals(expected, sent);
+        awaitEmpty(connection);
+        Assertions.assertEquals(0, connection.getBufferSize());
+    }
+
+    @DisplayName("测试 队列已满时关闭慢客户端并丢弃积压")
+    @Test
+    public void testQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession session = openSession();
+        CountDownLatch sending = blockSend(session, release);
+        WebSocketConnection connection = new WebSocketConnection(1L, session, 2, 10000, 1024 * 1024);
+
+        Assertions.assertTrue(connection.send(new TextMessage("m0")));
+        sending.await();
+        Assertions.assertTrue(connection.send(new TextMessage("m1")));
+        Assertions.assertTrue(connection.send(new TextMessage("m2")));
+        Assertions.assertFalse(connection.send(new TextMessage("m3")));
+
+        Mockito.verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        Assertions.assertEquals(0, connection.getQueueSize());
+        Assertions.assertEquals(0, connection.getBufferSize());
+        Assertions.assertFalse(connection.send(new TextMessage("m4")));
+        release.countDown();
+    }
+
+    @DisplayName("测试 积压字节数超过上限时关闭慢客户端")
+    @Test
+    public void testBufferSizeLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession session = openSession();
+        CountDownLatch sending = blockSend(session, release);
+        WebSocketConnection connection = new WebSocketConnection(1L, session, 100, 10000, 10);
+
+        Assertions.assertTrue(connection.send(new TextMessage("000000")));
+        sending.await();
+        Assertions.assertTrue(connection.send(new TextMessage("111111")));
+        Assertions.assertEquals(6, connection.getBufferSize());
+        Assertions.assertFalse(connection.send(new TextMessage("222222")));
+
+        Mockito.verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        Assertions.assertEquals(0, connection.getBufferSize());
+        release.countDown();
+    }
+
+    @DisplayName("测试 单次发送超过时间上限时关闭慢客户端")
+    @Test
+    public void testSendTimeLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession session = openSession();
+        CountDownLatch sending = blockSend(session, release);
+        WebSocketConnection connection = new WebSocketConnection(1L, session, 100, 50, 1024 * 1024);
+
+        Assertions.assertTrue(connection.send(new TextMessage("m0")));
+        sending.await();
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assertions.assertFalse(connection.send(new TextMessage("m1")));
+
+        Mockito.verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        release.countDown();
+    }
+
+    @DisplayName("测试 发送异常时关闭会话 不再接收消息")
+    @Test
+    public void testSendError() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        WebSocketSession session = openSession();
+        Mockito.doAnswer(invocation -> {
+            failed.countDown();
+            throw new IOException("broken pipe");
+        }).when(session).sendMessage(Mockito.any());
+        WebSocketConnection connection = new WebSocketConnection(1L, session, 100, 10000, 1024 * 1024);
+
+        Assertions.assertTrue(connection.send(new TextMessage("m0")));
+        failed.await();
+        Mockito.verify(session, Mockito.timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        Assertions.assertFalse(connection.send(new TextMessage("m1")));
+    }
+
+    @DisplayName("测试 发送线程数有上限 阻塞的会话不会无限创建线程")
+    @Test
+    public void testBoundedSendThreads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int sessions = WebSocketConnection.SEND_THREADS + 2;
+        CountDownLatch done = new CountDownLatch(sessions);
+        for (int i = 0; i < sessions; i++) {
+            WebSocketSession session = openSession();
+            Mockito.doAnswer(invocation -> {
+                release.await();
+                done.countDown();
+                return null;
+            }).when(session).sendMessage(Mockito.any());
+            new WebSocketConnection((long) i, session, 100, 10000, 1024 * 1024).send(new TextMessage("m"));
+        }
+        while (WebSocketConnection.getPendingDrains() < 2) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        Assertions.assertEquals(WebSocketConnection.SEND_THREADS, WebSocketConnection.getActiveSendThreads());
+
+        release.countDown();
+        done.await();
+        Assertions.assertEquals(0, WebSocketConnection.getPendingDrains());
+    }
+
+    private static WebSocketSession openSession() {
+        WebSocketSession session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.isOpen()).thenReturn(true);
+        Mockito.when(session.getId()).thenReturn("test");
+        return session;
+    }
+
+    /**
+     * 发送时阻塞直到 release 放行 返回的计数器在开始发送时归零
+     */
+    private static CountDownLatch blockSend(WebSocketSession session, CountDownLatch release) throws IOException {
+        CountDownLatch sending = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(session).sendMessage(Mockito.any());
+        return sending;
+    }
+
+    private static void awaitEmpty(WebSocketConnection connection) throws InterruptedException {
+        while (connection.getQueueSize() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+}
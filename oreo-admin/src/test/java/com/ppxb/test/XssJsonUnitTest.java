@@ -0,0 +1,98 @@
+package com.ppxb.test;
+import cn.hutool.core.io.IoUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.json.utils.JsonUtils;
+import com.ppxb.common.web.filter.XssHttpServletRequestWrapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * XSS过滤 json 请求体单元测试
+ * <p>
+ * 只加载 jackson 与 spring 工具类 不启动完整应用
+ *
+ * @author ruoyi
+ */
+@SpringBootTest(classes = {JacksonAutoConfiguration.class, SpringUtils.class})
+@DisplayName("XSS过滤 json 请求体单元测试")
+public class XssJsonUnitTest {
+
+    private static XssHttpServletRequestWrapper wrap(String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return new XssHttpServletRequestWrapper(request);
+    }
+
+    private static JsonNode clean(String json) throws IOException {
+        return JsonUtils.getObjectMapper().readTree(wrap(json).getBody());
+    }
+
+    @DisplayName("测试 嵌套对象与数组中的字符串值均被过滤")
+    @Test
+    public void testNested() throws IOException {
+        JsonNode node = clean("""
+            {"a":{"b":["<script>alert(1)</script>x",{"c":"<b>bold</b>"}],"d":[["<i>deep</i>"]]},
+             "e":"<img src=x onerror=alert(1)>tail"}
+            """);
+        Assertions.assertEquals("alert(1)x", node.at("/a/b/0").asText());
+        Assertions.assertEquals("bold", node.at("/a/b/1/c").asText());
+        Assertions.assertEquals("deep", node.at("/a/d/0/0").asText());
+        Assertions.assertEquals("tail", node.at("/e").asText());
+    }
+
+    @DisplayName("测试 非字符串值与字段名保持不变")
+    @Test
+    public void testNonString() throws IOException {
+        String body = new String(wrap("""
+            {"<k>":"<b>v</b>","n":12.50,"big":12345678901234567890,"t":true,"z":null,"arr":[1,false,null]}
+            """).getBody(), StandardCharsets.UTF_8);
+        Assertions.assertEquals("{\"<k>\":\"v\",\"n\":12.50,\"big\":12345678901234567890,\"t\":true,\"z\":null,\"arr\":[1,false,null]}", body);
+    }
+
+    @DisplayName("测试 unicode 转义的标签同样被过滤")
+    @Test
+    public void testUnicodeEscape() throws IOException {
+        JsonNode node = clean("{\"a\":[\"\\u003cb\\u003ex\\u003c/b\\u003e\"]}");
+        Assertions.assertEquals("x", node.at("/a/0").asText());
+    }
+
+    @DisplayName("测试 不含标签时原样返回")
+    @Test
+    public void testUnchanged() throws IOException {
+        String plain = "{\"a\":{\"b\":[\"x\",1]}}";
+        Assertions.assertEquals(plain, new String(wrap(plain).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("测试 非法 json 整体过滤 末尾多余内容不能绕过")
+    @Test
+    public void testInvalid() throws IOException {
+        // 反序列化默认忽略末尾多余内容 仍会读取第一个值
+        JsonNode node = clean("{\"a\":\"<script>alert(1)</script>\"} x");
+        Assertions.assertEquals("alert(1)", node.at("/a").asText());
+        node = clean("{\"a\":\"\\u003cscript\\u003ealert(1)\\u003c/script\\u003e\"} x");
+        Assertions.assertEquals("alert(1)", node.at("/a").asText());
+        String invalid = "{\"a\":\"<b>x</b>\"";
+        Assertions.assertEquals("{\"a\":\"x\"", new String(wrap(invalid).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("测试 过滤后的请求体可重复读取")
+    @Test
+    public void testRepeatRead() throws IOException {
+        XssHttpServletRequestWrapper wrapper = wrap("{\"a\":[\"<b>x</b>\"]}");
+        String first = IoUtil.read(wrapper.getInputStream(), StandardCharsets.UTF_8);
+        String second = IoUtil.read(wrapper.getReader());
+        Assertions.assertEquals("{\"a\":[\"x\"]}", first);
+        Assertions.assertEquals(first, second);
+    }
+
+}
@@ -4,7 +4,9 @@ import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.utils.SpringUtils;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 
 import java.util.Arrays;
@@ -22,13 +24,23 @@ public class AsyncConfig implements AsyncConfigurer {
 
     /**
      * 自定义 @Async 注解使用系统线程池
+     * 存在唯一的 TaskDecorator 时(如传递登录上下文)装饰提交的任务
      */
     @Override
     public Executor getAsyncExecutor() {
+        Executor executor;
         if(SpringUtils.isVirtual()) {
-            return new VirtualThreadTaskExecutor("async-");
+            executor = new VirtualThreadTaskExecutor("async-");
+        } else {
+            executor = SpringUtils.getBean("scheduledExecutorService");
         }
-        return SpringUtils.getBean("scheduledExecutorService");
+        TaskDecorator taskDecorator = SpringUtils.context().getBeanProvider(TaskDecorator.class).getIfUnique();
+        if (taskDecorator == null) {
+            return executor;
+        }
+        TaskExecutorAdapter adapter = new TaskExecutorAdapter(executor);
+        adapter.setTaskDecorator(taskDecorator);
+        return adapter;
     }
 
     /**
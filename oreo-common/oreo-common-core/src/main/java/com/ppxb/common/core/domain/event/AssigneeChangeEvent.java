@@ -0,0 +1,29 @@
+package com.ppxb.common.core.domain.event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 办理人变更事件
+ * <p>
+ * 用户、角色、部门、岗位及其关联关系变更时发布 用于失效按办理人标识缓存的用户与名称
+ *
+ * @author may
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssigneeChangeEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 租户ID
+     */
+    private String tenantId;
+
+}
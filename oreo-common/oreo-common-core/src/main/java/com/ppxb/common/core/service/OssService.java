@@ -1,6 +1,7 @@
 package com.ppxb.common.core.service;
 import com.ppxb.common.core.domain.dto.OssDTO;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 通用 OSS服务
@@ -24,4 +25,12 @@ public interface OssService {
      * @return 列表
      */
     List<OssDTO> selectByIds(String ossIds);
+
+    /**
+     * 通过ossId列表批量查询url
+     *
+     * @param ossIds ossId列表
+     * @return Map，其中 key 为 ossId，value 为对应的url
+     */
+    Map<Long, String> selectUrlsByIds(List<Long> ossIds);
 }
@@ -90,6 +90,30 @@ public interface UserService {
      */
     List<UserDTO> selectUsersByPostIds(List<Long> postIds);
 
+    /**
+     * 通过角色ID查询用户 按角色分组
+     *
+     * @param roleIds 角色ids
+     * @return Map，其中 key 为角色 ID，value 为该角色下的用户
+     */
+    Map<Long, List<UserDTO>> selectUserMapByRoleIds(List<Long> roleIds);
+
+    /**
+     * 通过部门ID查询用户 按部门分组
+     *
+     * @param deptIds 部门ids
+     * @return Map，其中 key 为部门 ID，value 为该部门下的用户
+     */
+    Map<Long, List<UserDTO>> selectUserMapByDeptIds(List<Long> deptIds);
+
+    /**
+     * 通过岗位ID查询用户 按岗位分组
+     *
+     * @param postIds 岗位ids
+     * @return Map，其中 key 为岗位 ID，value 为该岗位下的用户
+     */
+    Map<Long, List<UserDTO>> selectUserMapByPostIds(List<Long> postIds);
+
     /**
      * 根据用户 ID 列表查询用户名称映射关系
      *
@@ -98,4 +122,12 @@ public interface UserService {
      */
     Map<Long, String> selectUserNamesByIds(List<Long> userIds);
 
+    /**
+     * 根据用户 ID 列表查询用户账户映射关系
+     *
+     * @param userIds 用户 ID 列表
+     * @return Map，其中 key 为用户 ID，value 为对应的用户账户
+     */
+    Map<Long, String> selectUserAccountsByIds(List<Long> userIds);
+
 }
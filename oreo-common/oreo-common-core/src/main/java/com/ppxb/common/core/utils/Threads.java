@@ -2,6 +2,8 @@ package com.ppxb.common.core.utils;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 import java.util.concurrent.*;
 
@@ -37,6 +39,21 @@ public class Threads {
         }
     }
 
+    /**
+     * 创建守护线程工厂 开启虚拟线程时创建虚拟线程 否则创建平台线程
+     *
+     * @param namePrefix 线程名前缀
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        BasicThreadFactory.Builder builder = new BasicThreadFactory.Builder()
+            .namingPattern(namePrefix + "%d")
+            .daemon(true);
+        if (SpringUtils.isVirtual()) {
+            builder.wrappedFactory(new VirtualThreadTaskExecutor().getVirtualThreadFactory());
+        }
+        return builder.build();
+    }
+
     /**
      * 打印线程异常信息
      */
@@ -21,6 +21,11 @@ public class DictPatternValidator implements ConstraintValidator<DictPattern, St
      */
     private String separator = ",";
 
+    /**
+     * 字典服务
+     */
+    private DictService dictService;
+
     /**
      * 初始化校验器，提取注解上的字典类型
      *
@@ -32,6 +37,7 @@ public class DictPatternValidator implements ConstraintValidator<DictPattern, St
         if (StringUtils.isNotBlank(annotation.separator())) {
             this.separator = annotation.separator();
         }
+        this.dictService = SpringUtils.getBean(DictService.class);
     }
 
     /**
@@ -46,7 +52,7 @@ public class DictPatternValidator implements ConstraintValidator<DictPattern, St
         if (StringUtils.isBlank(dictType) || StringUtils.isBlank(value)) {
             return false;
         }
-        String dictLabel = SpringUtils.getBean(DictService.class).getDictLabel(dictType, value, separator);
+        String dictLabel = dictService.getDictLabel(dictType, value, separator);
         return StringUtils.isNotBlank(dictLabel);
     }
 
@@ -29,17 +29,17 @@ public class EncryptorAutoConfiguration {
 
     @Bean
     public EncryptorManager encryptorManager(MybatisPlusProperties mybatisPlusProperties) {
-        return new EncryptorManager(mybatisPlusProperties.getTypeAliasesPackage());
+        return new EncryptorManager(mybatisPlusProperties.getTypeAliasesPackage(), properties);
     }
 
     @Bean
     public MybatisEncryptInterceptor mybatisEncryptInterceptor(EncryptorManager encryptorManager) {
-        return new MybatisEncryptInterceptor(encryptorManager, properties);
+        return new MybatisEncryptInterceptor(encryptorManager);
     }
 
     @Bean
     public MybatisDecryptInterceptor mybatisDecryptInterceptor(EncryptorManager encryptorManager) {
-        return new MybatisDecryptInterceptor(encryptorManager, properties);
+        return new MybatisDecryptInterceptor(encryptorManager);
     }
 
 }
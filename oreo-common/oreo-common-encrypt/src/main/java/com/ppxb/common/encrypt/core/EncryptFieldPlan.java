@@ -0,0 +1,72 @@
+package com.ppxb.common.encrypt.core;
+import com.ppxb.common.encrypt.enumd.EncodeType;
+import lombok.Getter;
+
+import java.lang.invoke.VarHandle;
+import java.util.function.Function;
+
+/**
+ * 加密字段执行计划
+ * <p>
+ * 扫描实体时预先解析注解与默认配置 通过 VarHandle 读写字段 加解密时无需再反射读取注解或构建上下文
+ *
+ * @author 老马
+ */
+public class EncryptFieldPlan {
+
+    @Getter
+    private final String fieldName;
+
+    private final VarHandle handle;
+
+    @Getter
+    private final EncryptContext context;
+
+    /**
+     * 根据上下文获取加密执行者 首次使用时解析 秘钥配置错误时与原逻辑一样在使用时抛出异常
+     */
+    private final Function<EncryptContext, IEncryptor> resolver;
+
+    private volatile IEncryptor encryptor;
+
+    public EncryptFieldPlan(String fieldName, VarHandle handle, EncryptContext context,
+                            Function<EncryptContext, IEncryptor> resolver) {
+        this.fieldName = fieldName;
+        this.handle = handle;
+        this.context = context;
+        this.resolver = resolver;
+    }
+
+    /**
+     * 加密对象中的该字段
+     */
+    public void encrypt(Object target) {
+        String value = (String) handle.get(target);
+        if (value == null) {
+            return;
+        }
+        EncodeType encode = context.getEncode();
+        handle.set(target, getEncryptor().encrypt(value, encode));
+    }
+
+    /**
+     * 解密对象中的该字段
+     */
+    public void decrypt(Object target) {
+        String value = (String) handle.get(target);
+        if (value == null) {
+            return;
+        }
+        handle.set(target, getEncryptor().decrypt(value));
+    }
+
+    private IEncryptor getEncryptor() {
+        IEncryptor current = encryptor;
+        if (current == null) {
+            current = resolver.apply(context);
+            encryptor = current;
+        }
+        return current;
+    }
+
+}
@@ -7,6 +7,9 @@ import org.apache.ibatis.io.Resources;
 import com.ppxb.common.core.utils.ObjectUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.encrypt.annotation.EncryptField;
+import com.ppxb.common.encrypt.enumd.AlgorithmType;
+import com.ppxb.common.encrypt.enumd.EncodeType;
+import com.ppxb.common.encrypt.properties.EncryptorProperties;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
@@ -15,9 +18,13 @@ import org.springframework.core.type.ClassMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.util.ClassUtils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,30 +41,39 @@ import java.util.stream.Collectors;
 public class EncryptorManager {
 
     /**
-     * 缓存加密器
+     * 缓存加密器 以加密上下文本身作为key(基于全部配置项的 equals) 避免 hashCode 冲突取到错误的加密器
      */
-    Map<Integer, IEncryptor> encryptorMap = new ConcurrentHashMap<>();
+    Map<EncryptContext, IEncryptor> encryptorMap = new ConcurrentHashMap<>();
 
     /**
-     * 类加密字段缓存
+     * 类加密字段执行计划缓存
      */
-    Map<Class<?>, Set<Field>> fieldCache = new ConcurrentHashMap<>();
+    Map<Class<?>, List<EncryptFieldPlan>> planCache = new ConcurrentHashMap<>();
+
+    /**
+     * 默认加密配置
+     */
+    private EncryptorProperties defaultProperties;
 
     /**
      * 构造方法传入类加密字段缓存
      *
      * @param typeAliasesPackage 实体类包
+     * @param defaultProperties  默认加密配置
      */
-    public EncryptorManager(String typeAliasesPackage) {
+    public EncryptorManager(String typeAliasesPackage, EncryptorProperties defaultProperties) {
+        this.defaultProperties = defaultProperties;
         scanEncryptClasses(typeAliasesPackage);
     }
 
 
     /**
-     * 获取类加密字段缓存
+     * 获取类加密字段执行计划
+     *
+     * @return 不是加密实体时返回 null
      */
-    public Set<Field> getFieldCache(Class<?> sourceClazz) {
-        return ObjectUtils.notNullGetter(fieldCache, f -> f.get(sourceClazz));
+    public List<EncryptFieldPlan> getCryptoPlan(Class<?> sourceClazz) {
+        return ObjectUtils.notNullGetter(planCache, f -> f.get(sourceClazz));
     }
 
     /**
@@ -66,13 +82,8 @@ public class EncryptorManager {
      * @param encryptContext 加密执行者需要的相关配置参数
      */
     public IEncryptor registAndGetEncryptor(EncryptContext encryptContext) {
-        int key = encryptContext.hashCode();
-        if (encryptorMap.containsKey(key)) {
-            return encryptorMap.get(key);
-        }
-        IEncryptor encryptor = ReflectUtil.newInstance(encryptContext.getAlgorithm().getClazz(), encryptContext);
-        encryptorMap.put(key, encryptor);
-        return encryptor;
+        return encryptorMap.computeIfAbsent(encryptContext,
+            k -> ReflectUtil.newInstance(k.getAlgorithm().getClazz(), k));
     }
 
     /**
@@ -81,7 +92,7 @@ public class EncryptorManager {
      * @param encryptContext 加密执行者需要的相关配置参数
      */
     public void removeEncryptor(EncryptContext encryptContext) {
-        this.encryptorMap.remove(encryptContext.hashCode());
+        this.encryptorMap.remove(encryptContext);
     }
 
     /**
@@ -123,7 +134,7 @@ public class EncryptorManager {
                     Class<?> clazz = Resources.classForName(classMetadata.getClassName());
                     Set<Field> encryptFieldSet = getEncryptFieldSetFromClazz(clazz);
                     if (CollUtil.isNotEmpty(encryptFieldSet)) {
-                        fieldCache.put(clazz, encryptFieldSet);
+                        planCache.put(clazz, buildCryptoPlan(encryptFieldSet));
                     }
                 }
             }
@@ -149,10 +160,27 @@ public class EncryptorManager {
         fieldSet = fieldSet.stream().filter(field ->
                 field.isAnnotationPresent(EncryptField.class) && field.getType() == String.class)
             .collect(Collectors.toSet());
-        for (Field field : fieldSet) {
-            field.setAccessible(true);
-        }
         return fieldSet;
     }
 
+    /**
+     * 为加密字段生成执行计划 注解配置与默认配置在此一次性合并
+     */
+    private List<EncryptFieldPlan> buildCryptoPlan(Set<Field> fields) throws IllegalAccessException {
+        List<EncryptFieldPlan> plans = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            EncryptField encryptField = field.getAnnotation(EncryptField.class);
+            EncryptContext encryptContext = new EncryptContext();
+            encryptContext.setAlgorithm(encryptField.algorithm() == AlgorithmType.DEFAULT ? defaultProperties.getAlgorithm() : encryptField.algorithm());
+            encryptContext.setEncode(encryptField.encode() == EncodeType.DEFAULT ? defaultProperties.getEncode() : encryptField.encode());
+            encryptContext.setPassword(StringUtils.isBlank(encryptField.password()) ? defaultProperties.getPassword() : encryptField.password());
+            encryptContext.setPrivateKey(StringUtils.isBlank(encryptField.privateKey()) ? defaultProperties.getPrivateKey() : encryptField.privateKey());
+            encryptContext.setPublicKey(StringUtils.isBlank(encryptField.publicKey()) ? defaultProperties.getPublicKey() : encryptField.publicKey());
+            VarHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                .unreflectVarHandle(field);
+            plans.add(new EncryptFieldPlan(field.getName(), handle, encryptContext, this::registAndGetEncryptor));
+        }
+        return plans;
+    }
+
 }
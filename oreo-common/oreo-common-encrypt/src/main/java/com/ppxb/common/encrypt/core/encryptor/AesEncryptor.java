@@ -1,21 +1,29 @@
 package com.ppxb.common.encrypt.core.encryptor;
+import cn.hutool.crypto.symmetric.AES;
 import com.ppxb.common.encrypt.core.EncryptContext;
 import com.ppxb.common.encrypt.enumd.AlgorithmType;
 import com.ppxb.common.encrypt.enumd.EncodeType;
 import com.ppxb.common.encrypt.utils.EncryptUtils;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * AES算法实现
+ * <p>
+ * 已初始化秘钥的 AES 实例放入有界池中复用 避免每次加解密重新创建 Cipher 以及线程间争用
  *
  * @author 老马
  * @version 4.6.0
  */
 public class AesEncryptor extends AbstractEncryptor {
 
-    private final EncryptContext context;
+    private final SymmetricCryptoPool<AES> aes;
 
     public AesEncryptor(EncryptContext context) {
         super(context);
-        this.context = context;
+        String password = context.getPassword();
+        this.aes = new SymmetricCryptoPool<>(() -> EncryptUtils.createAes(password),
+            SymmetricCryptoPool.DEFAULT_CAPACITY);
     }
 
     /**
@@ -35,9 +43,9 @@ public class AesEncryptor extends AbstractEncryptor {
     @Override
     public String encrypt(String value, EncodeType encodeType) {
         if (encodeType == EncodeType.HEX) {
-            return EncryptUtils.encryptByAesHex(value, context.getPassword());
+            return aes.execute(crypto -> crypto.encryptHex(value, StandardCharsets.UTF_8));
         } else {
-            return EncryptUtils.encryptByAes(value, context.getPassword());
+            return aes.execute(crypto -> crypto.encryptBase64(value, StandardCharsets.UTF_8));
         }
     }
 
@@ -48,6 +56,6 @@ public class AesEncryptor extends AbstractEncryptor {
      */
     @Override
     public String decrypt(String value) {
-        return EncryptUtils.decryptByAes(value, context.getPassword());
+        return aes.execute(crypto -> crypto.decryptStr(value, StandardCharsets.UTF_8));
     }
 }
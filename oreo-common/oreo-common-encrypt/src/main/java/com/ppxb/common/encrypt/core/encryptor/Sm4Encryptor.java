@@ -1,21 +1,29 @@
 package com.ppxb.common.encrypt.core.encryptor;
+import cn.hutool.crypto.symmetric.SM4;
 import com.ppxb.common.encrypt.core.EncryptContext;
 import com.ppxb.common.encrypt.enumd.AlgorithmType;
 import com.ppxb.common.encrypt.enumd.EncodeType;
 import com.ppxb.common.encrypt.utils.EncryptUtils;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * sm4算法实现
+ * <p>
+ * 已初始化秘钥的 SM4 实例放入有界池中复用 避免每次加解密重新创建 Cipher 以及线程间争用
  *
  * @author 老马
  * @version 4.6.0
  */
 public class Sm4Encryptor extends AbstractEncryptor {
 
-    private final EncryptContext context;
+    private final SymmetricCryptoPool<SM4> sm4;
 
     public Sm4Encryptor(EncryptContext context) {
         super(context);
-        this.context = context;
+        String password = context.getPassword();
+        this.sm4 = new SymmetricCryptoPool<>(() -> EncryptUtils.createSm4(password),
+            SymmetricCryptoPool.DEFAULT_CAPACITY);
     }
 
     /**
@@ -35,9 +43,9 @@ public class Sm4Encryptor extends AbstractEncryptor {
     @Override
     public String encrypt(String value, EncodeType encodeType) {
         if (encodeType == EncodeType.HEX) {
-            return EncryptUtils.encryptBySm4Hex(value, context.getPassword());
+            return sm4.execute(crypto -> crypto.encryptHex(value, StandardCharsets.UTF_8));
         } else {
-            return EncryptUtils.encryptBySm4(value, context.getPassword());
+            return sm4.execute(crypto -> crypto.encryptBase64(value, StandardCharsets.UTF_8));
         }
     }
 
@@ -48,6 +56,6 @@ public class Sm4Encryptor extends AbstractEncryptor {
      */
     @Override
     public String decrypt(String value) {
-        return EncryptUtils.decryptBySm4(value, context.getPassword());
+        return sm4.execute(crypto -> crypto.decryptStr(value, StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,54 @@
+package com.ppxb.common.encrypt.core.encryptor;
+
+import cn.hutool.crypto.symmetric.SymmetricCrypto;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 对称加密实例池
+ * <p>
+ * 空闲实例放入有界队列 使用时借出 用完归还 池空时临时创建 池满时丢弃
+ * 不依赖线程本地变量 虚拟线程下同样可以复用
+ *
+ * @author 老马
+ */
+final class SymmetricCryptoPool<T extends SymmetricCrypto> {
+
+    /**
+     * 默认最多保留的空闲实例数
+     */
+    static final int DEFAULT_CAPACITY = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final Supplier<T> factory;
+
+    private final BlockingQueue<T> idle;
+
+    /**
+     * @param factory  实例创建方法 创建时校验秘钥 秘钥不合法时在此抛出异常
+     * @param capacity 最多保留的空闲实例数
+     */
+    SymmetricCryptoPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.idle.offer(factory.get());
+    }
+
+    /**
+     * 借出一个实例执行加解密
+     */
+    <R> R execute(Function<T, R> action) {
+        T crypto = idle.poll();
+        if (crypto == null) {
+            crypto = factory.get();
+        }
+        try {
+            return action.apply(crypto);
+        } finally {
+            idle.offer(crypto);
+        }
+    }
+
+}
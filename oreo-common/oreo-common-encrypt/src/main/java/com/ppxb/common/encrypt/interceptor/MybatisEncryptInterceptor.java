@@ -1,6 +1,5 @@
 package com.ppxb.common.encrypt.interceptor;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ObjectUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,14 +8,8 @@ import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Signature;
-import com.ppxb.common.core.utils.StringUtils;
-import com.ppxb.common.encrypt.annotation.EncryptField;
-import com.ppxb.common.encrypt.core.EncryptContext;
+import com.ppxb.common.encrypt.core.EncryptFieldPlan;
 import com.ppxb.common.encrypt.core.EncryptorManager;
-import com.ppxb.common.encrypt.enumd.AlgorithmType;
-import com.ppxb.common.encrypt.enumd.EncodeType;
-import com.ppxb.common.encrypt.properties.EncryptorProperties;
-import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.util.*;
 
@@ -36,7 +29,6 @@ import java.util.*;
 public class MybatisEncryptInterceptor implements Interceptor {
 
     private final EncryptorManager encryptorManager;
-    private final EncryptorProperties defaultProperties;
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
@@ -74,48 +66,26 @@ public class MybatisEncryptInterceptor implements Interceptor {
             }
             // 判断第一个元素是否含有注解。如果没有直接返回，提高效率
             Object firstItem = list.get(0);
-            if (ObjectUtil.isNull(firstItem) || CollUtil.isEmpty(encryptorManager.getFieldCache(firstItem.getClass()))) {
+            if (ObjectUtil.isNull(firstItem) || CollUtil.isEmpty(encryptorManager.getCryptoPlan(firstItem.getClass()))) {
                 return;
             }
             list.forEach(this::encryptHandler);
             return;
         }
         // 不在缓存中的类,就是没有加密注解的类(当然也有可能是typeAliasesPackage写错)
-        Set<Field> fields = encryptorManager.getFieldCache(sourceObject.getClass());
-        if(ObjectUtil.isNull(fields)){
+        List<EncryptFieldPlan> plans = encryptorManager.getCryptoPlan(sourceObject.getClass());
+        if (ObjectUtil.isNull(plans)) {
             return;
         }
         try {
-            for (Field field : fields) {
-                field.set(sourceObject, this.encryptField(Convert.toStr(field.get(sourceObject)), field));
+            for (EncryptFieldPlan plan : plans) {
+                plan.encrypt(sourceObject);
             }
         } catch (Exception e) {
             log.error("处理加密字段时出错", e);
         }
     }
 
-    /**
-     * 字段值进行加密。通过字段的批注注册新的加密算法
-     *
-     * @param value 待加密的值
-     * @param field 待加密字段
-     * @return 加密后结果
-     */
-    private String encryptField(String value, Field field) {
-        if (ObjectUtil.isNull(value)) {
-            return null;
-        }
-        EncryptField encryptField = field.getAnnotation(EncryptField.class);
-        EncryptContext encryptContext = new EncryptContext();
-        encryptContext.setAlgorithm(encryptField.algorithm() == AlgorithmType.DEFAULT ? defaultProperties.getAlgorithm() : encryptField.algorithm());
-        encryptContext.setEncode(encryptField.encode() == EncodeType.DEFAULT ? defaultProperties.getEncode() : encryptField.encode());
-        encryptContext.setPassword(StringUtils.isBlank(encryptField.password()) ? defaultProperties.getPassword() : encryptField.password());
-        encryptContext.setPrivateKey(StringUtils.isBlank(encryptField.privateKey()) ? defaultProperties.getPrivateKey() : encryptField.privateKey());
-        encryptContext.setPublicKey(StringUtils.isBlank(encryptField.publicKey()) ? defaultProperties.getPublicKey() : encryptField.publicKey());
-        return this.encryptorManager.encrypt(value, encryptContext);
-    }
-
-
     @Override
     public void setProperties(Properties properties) {
     }
@@ -7,6 +7,8 @@ import cn.hutool.crypto.SmUtil;
 import cn.hutool.crypto.asymmetric.KeyType;
 import cn.hutool.crypto.asymmetric.RSA;
 import cn.hutool.crypto.asymmetric.SM2;
+import cn.hutool.crypto.symmetric.AES;
+import cn.hutool.crypto.symmetric.SM4;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -50,13 +52,12 @@ public class EncryptUtils {
     }
 
     /**
-     * AES加密
+     * 校验秘钥并创建 AES 实例
      *
-     * @param data     待加密数据
      * @param password 秘钥字符串
-     * @return 加密后字符串, 采用Base64编码
+     * @return AES 实例
      */
-    public static String encryptByAes(String data, String password) {
+    public static AES createAes(String password) {
         if (StrUtil.isBlank(password)) {
             throw new IllegalArgumentException("AES需要传入秘钥信息");
         }
@@ -65,7 +66,36 @@ public class EncryptUtils {
         if (!ArrayUtil.contains(array, password.length())) {
             throw new IllegalArgumentException("AES秘钥长度要求为16位、24位、32位");
         }
-        return SecureUtil.aes(password.getBytes(StandardCharsets.UTF_8)).encryptBase64(data, StandardCharsets.UTF_8);
+        return SecureUtil.aes(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 校验秘钥并创建 SM4 实例
+     *
+     * @param password 秘钥字符串
+     * @return SM4 实例
+     */
+    public static SM4 createSm4(String password) {
+        if (StrUtil.isBlank(password)) {
+            throw new IllegalArgumentException("SM4需要传入秘钥信息");
+        }
+        // sm4算法的秘钥要求是16位长度
+        int sm4PasswordLength = 16;
+        if (sm4PasswordLength != password.length()) {
+            throw new IllegalArgumentException("SM4秘钥长度要求为16位");
+        }
+        return SmUtil.sm4(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * AES加密
+     *
+     * @param data     待加密数据
+     * @param password 秘钥字符串
+     * @return 加密后字符串, 采用Base64编码
+     */
+    public static String encryptByAes(String data, String password) {
+        return createAes(password).encryptBase64(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -76,15 +106,7 @@ public class EncryptUtils {
      * @return 加密后字符串, 采用Hex编码
      */
     public static String encryptByAesHex(String data, String password) {
-        if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("AES需要传入秘钥信息");
-        }
-        // aes算法的秘钥要求是16位、24位、32位
-        int[] array = {16, 24, 32};
-        if (!ArrayUtil.contains(array, password.length())) {
-            throw new IllegalArgumentException("AES秘钥长度要求为16位、24位、32位");
-        }
-        return SecureUtil.aes(password.getBytes(StandardCharsets.UTF_8)).encryptHex(data, StandardCharsets.UTF_8);
+        return createAes(password).encryptHex(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -95,15 +117,7 @@ public class EncryptUtils {
      * @return 解密后字符串
      */
     public static String decryptByAes(String data, String password) {
-        if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("AES需要传入秘钥信息");
-        }
-        // aes算法的秘钥要求是16位、24位、32位
-        int[] array = {16, 24, 32};
-        if (!ArrayUtil.contains(array, password.length())) {
-            throw new IllegalArgumentException("AES秘钥长度要求为16位、24位、32位");
-        }
-        return SecureUtil.aes(password.getBytes(StandardCharsets.UTF_8)).decryptStr(data, StandardCharsets.UTF_8);
+        return createAes(password).decryptStr(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -114,15 +128,7 @@ public class EncryptUtils {
      * @return 加密后字符串, 采用Base64编码
      */
     public static String encryptBySm4(String data, String password) {
-        if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("SM4需要传入秘钥信息");
-        }
-        // sm4算法的秘钥要求是16位长度
-        int sm4PasswordLength = 16;
-        if (sm4PasswordLength != password.length()) {
-            throw new IllegalArgumentException("SM4秘钥长度要求为16位");
-        }
-        return SmUtil.sm4(password.getBytes(StandardCharsets.UTF_8)).encryptBase64(data, StandardCharsets.UTF_8);
+        return createSm4(password).encryptBase64(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -133,15 +139,7 @@ public class EncryptUtils {
      * @return 加密后字符串, 采用Hex编码
      */
     public static String encryptBySm4Hex(String data, String password) {
-        if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("SM4需要传入秘钥信息");
-        }
-        // sm4算法的秘钥要求是16位长度
-        int sm4PasswordLength = 16;
-        if (sm4PasswordLength != password.length()) {
-            throw new IllegalArgumentException("SM4秘钥长度要求为16位");
-        }
-        return SmUtil.sm4(password.getBytes(StandardCharsets.UTF_8)).encryptHex(data, StandardCharsets.UTF_8);
+        return createSm4(password).encryptHex(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -152,15 +150,7 @@ public class EncryptUtils {
      * @return 解密后字符串
      */
     public static String decryptBySm4(String data, String password) {
-        if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("SM4需要传入秘钥信息");
-        }
-        // sm4算法的秘钥要求是16位长度
-        int sm4PasswordLength = 16;
-        if (sm4PasswordLength != password.length()) {
-            throw new IllegalArgumentException("SM4秘钥长度要求为16位");
-        }
-        return SmUtil.sm4(password.getBytes(StandardCharsets.UTF_8)).decryptStr(data, StandardCharsets.UTF_8);
+        return createSm4(password).decryptStr(data, StandardCharsets.UTF_8);
     }
 
     /**
@@ -25,6 +25,11 @@ import java.lang.reflect.Field;
 @Slf4j
 public class ExcelDictConvert implements Converter<Object> {
 
+    /**
+     * 字典服务 首次使用时获取 避免逐个单元格查找 Bean
+     */
+    private DictService dictService;
+
     @Override
     public Class<Object> supportJavaTypeKey() {
         return Object.class;
@@ -44,7 +49,7 @@ public class ExcelDictConvert implements Converter<Object> {
         if (StringUtils.isBlank(type)) {
             value = ExcelUtil.reverseByExp(label, anno.readConverterExp(), anno.separator());
         } else {
-            value = SpringUtils.getBean(DictService.class).getDictValue(type, label, anno.separator());
+            value = getDictService().getDictValue(type, label, anno.separator());
         }
         return Convert.convert(contentProperty.getField().getType(), value);
     }
@@ -61,11 +66,18 @@ public class ExcelDictConvert implements Converter<Object> {
         if (StringUtils.isBlank(type)) {
             label = ExcelUtil.convertByExp(value, anno.readConverterExp(), anno.separator());
         } else {
-            label = SpringUtils.getBean(DictService.class).getDictLabel(type, value, anno.separator());
+            label = getDictService().getDictLabel(type, value, anno.separator());
         }
         return new WriteCellData<>(label);
     }
 
+    private DictService getDictService() {
+        if (dictService == null) {
+            dictService = SpringUtils.getBean(DictService.class);
+        }
+        return dictService;
+    }
+
     private ExcelDictFormat getAnnotation(Field field) {
         return AnnotationUtil.getAnnotation(field, ExcelDictFormat.class);
     }
@@ -21,6 +21,10 @@ import java.util.*;
 
 /**
  * 列值重复合并策略
+ * <p>
+ * 列表模式: 构造时传入全部数据 一次计算所有合并区域
+ * 流式模式: 构造时只传入类型 每批数据写入前调用 {@link #prepare(List)} 增量计算合并区域
+ * 内存只与合并区域数量相关 与行数无关
  *
  * @author Lion Li
  */
@@ -31,15 +35,151 @@ public class CellMergeStrategy extends AbstractMergeStrategy implements Workbook
     private final boolean hasTitle;
     private int rowIndex;
 
+    /**
+     * 流式模式的合并字段 列表模式为 null
+     */
+    private final List<Field> mergeFields;
+    private final List<Integer> mergeFieldsIndex;
+
+    /**
+     * 流式模式 每个合并字段当前连续区间的起始行与值
+     */
+    private RepeatCell[] openCells;
+
+    /**
+     * 流式模式 上一行数据 用于 mergeBy 比对
+     */
+    private Object previous;
+
+    /**
+     * 流式模式 当前工作表已处理的数据行数
+     */
+    private int rowCount;
+
+    /**
+     * 流式模式 当前批次中需要清空的单元格 (行 << 16 | 列)
+     */
+    private final Set<Long> blankCells = new HashSet<>();
+
     public CellMergeStrategy(List<?> list, boolean hasTitle) {
         this.hasTitle = hasTitle;
         // 行合并开始下标
         this.rowIndex = hasTitle ? 1 : 0;
+        this.mergeFields = null;
+        this.mergeFieldsIndex = null;
         this.cellList = handle(list, hasTitle);
     }
 
+    /**
+     * 流式模式
+     *
+     * @param clazz    数据类型
+     * @param hasTitle 是否有标题行
+     */
+    public CellMergeStrategy(Class<?> clazz, boolean hasTitle) {
+        this.hasTitle = hasTitle;
+        this.rowIndex = hasTitle ? 1 : 0;
+        this.cellList = new ArrayList<>();
+        this.mergeFields = new ArrayList<>();
+        this.mergeFieldsIndex = new ArrayList<>();
+        Field[] fields = ReflectUtils.getFields(clazz, field -> !"serialVersionUID".equals(field.getName()));
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (field.isAnnotationPresent(CellMerge.class)) {
+                CellMerge cm = field.getAnnotation(CellMerge.class);
+                mergeFields.add(field);
+                mergeFieldsIndex.add(cm.index() == -1 ? i : cm.index());
+                if (hasTitle) {
+                    ExcelProperty property = field.getAnnotation(ExcelProperty.class);
+                    rowIndex = Math.max(rowIndex, property.value().length);
+                }
+            }
+        }
+        this.openCells = new RepeatCell[mergeFields.size()];
+    }
+
+    /**
+     * 流式模式 写入一批数据前计算该批数据的合并区域
+     * <p>
+     * 与上一批末尾值相同的行会接续上一批的合并区域 已结束的区域放入待合并列表 由 {@link #flush(Sheet)} 写入工作表
+     *
+     * @param list 即将写入当前工作表的一批数据
+     */
+    public void prepare(List<?> list) {
+        blankCells.clear();
+        if (CollUtil.isEmpty(mergeFields) || CollUtil.isEmpty(list)) {
+            rowCount += CollUtil.size(list);
+            return;
+        }
+        for (Object current : list) {
+            int i = rowCount++;
+            for (int j = 0; j < mergeFields.size(); j++) {
+                Field field = mergeFields.get(j);
+                Object val = ReflectUtils.invokeGetter(current, field.getName());
+                RepeatCell repeatCell = openCells[j];
+                if (repeatCell != null) {
+                    Object cellValue = repeatCell.getValue();
+                    if (cellValue != null && !"".equals(cellValue) && cellValue.equals(val)
+                        && isMerge(previous, current, field)) {
+                        // 接续当前区间 非首行单元格写入时清空
+                        blankCells.add(((long) (i + rowIndex) << 16) | mergeFieldsIndex.get(j));
+                        continue;
+                    }
+                    closeCell(j, i - 1);
+                }
+                openCells[j] = new RepeatCell(val, i);
+            }
+            previous = current;
+        }
+    }
+
+    /**
+     * 流式模式 将已结束的合并区域写入工作表
+     *
+     * @param sheet 当前工作表
+     */
+    public void flush(Sheet sheet) {
+        for (CellRangeAddress item : cellList) {
+            sheet.addMergedRegionUnsafe(item);
+        }
+        cellList.clear();
+    }
+
+    /**
+     * 流式模式 结束当前工作表 写入所有未结束的合并区域 并重置状态以便写入下一个工作表
+     *
+     * @param sheet 当前工作表
+     */
+    public void finishSheet(Sheet sheet) {
+        if (openCells != null) {
+            for (int j = 0; j < openCells.length; j++) {
+                closeCell(j, rowCount - 1);
+                openCells[j] = null;
+            }
+        }
+        flush(sheet);
+        blankCells.clear();
+        previous = null;
+        rowCount = 0;
+    }
+
+    private void closeCell(int j, int lastRow) {
+        RepeatCell repeatCell = openCells[j];
+        if (repeatCell != null && lastRow > repeatCell.getCurrent()) {
+            int colNum = mergeFieldsIndex.get(j);
+            cellList.add(new CellRangeAddress(repeatCell.getCurrent() + rowIndex, lastRow + rowIndex, colNum, colNum));
+        }
+    }
+
     @Override
     protected void merge(Sheet sheet, Cell cell, Head head, Integer relativeRowIndex) {
+        if (mergeFields != null) {
+            // 流式模式 只需判断当前批次中该单元格是否为区间的非首行
+            if (blankCells.contains(((long) cell.getRowIndex() << 16) | cell.getColumnIndex())) {
+                cell.setBlank();
+            }
+            return;
+        }
         //单元格写入了,遍历合并区域,如果该Cell在区域内,但非首行,则清空
         final int rowIndex = cell.getRowIndex();
         if (CollUtil.isNotEmpty(cellList)){
@@ -54,6 +194,10 @@ public class CellMergeStrategy extends AbstractMergeStrategy implements Workbook
 
     @Override
     public void afterWorkbookDispose(final WorkbookWriteHandlerContext context) {
+        if (mergeFields != null) {
+            // 流式模式由写入方在每个工作表结束时调用 finishSheet
+            return;
+        }
         //当前表格写完后，统一写入
         if (CollUtil.isNotEmpty(cellList)){
             for (CellRangeAddress item : cellList) {
@@ -132,14 +276,18 @@ public class CellMergeStrategy extends AbstractMergeStrategy implements Workbook
     }
 
     private boolean isMerge(List<?> list, int i, Field field) {
+        return isMerge(list.get(i - 1), list.get(i), field);
+    }
+
+    private boolean isMerge(Object pre, Object current, Field field) {
         boolean isMerge = true;
         CellMerge cm = field.getAnnotation(CellMerge.class);
         final String[] mergeBy = cm.mergeBy();
         if (StrUtil.isAllNotBlank(mergeBy)) {
             //比对当前list(i)和list(i - 1)的各个属性值一一比对 如果全为真 则为真
             for (String fieldName : mergeBy) {
-                final Object valCurrent = ReflectUtil.getFieldValue(list.get(i), fieldName);
-                final Object valPre = ReflectUtil.getFieldValue(list.get(i - 1), fieldName);
+                final Object valCurrent = ReflectUtil.getFieldValue(current, fieldName);
+                final Object valPre = ReflectUtil.getFieldValue(pre, fieldName);
                 if (!Objects.equals(valPre, valCurrent)) {
                     //依赖字段如有任一不等值,则标记为不可合并
                     isMerge = false;
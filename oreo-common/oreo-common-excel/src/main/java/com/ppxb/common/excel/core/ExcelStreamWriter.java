@@ -0,0 +1,197 @@
+package com.ppxb.common.excel.core;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.idev.excel.ExcelWriter;
+import cn.idev.excel.FastExcel;
+import cn.idev.excel.write.builder.ExcelWriterBuilder;
+import cn.idev.excel.write.metadata.WriteSheet;
+import cn.idev.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
+import com.ppxb.common.excel.convert.ExcelBigNumberConvert;
+import com.ppxb.common.excel.handler.DataWriteHandler;
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Excel 流式写入
+ * <p>
+ * 数据按批写入 已写入的行由 SXSSF 刷到临时文件 内存占用与总行数无关
+ * 单个工作表超过行数上限时自动新建工作表 (名称依次追加序号)
+ * 未调用 {@link #finish()} 即关闭或写入过程中出错时中止导出 不输出工作簿并清理临时文件
+ *
+ * @author Lion Li
+ */
+public class ExcelStreamWriter<T> implements AutoCloseable {
+
+    /**
+     * 单个工作表默认最大数据行数 (xlsx 上限为 1048576 行)
+     */
+    public static final int DEFAULT_SHEET_ROW_LIMIT = 1000000;
+
+    private final ExcelWriter excelWriter;
+
+    private final String sheetName;
+
+    private final int sheetRowLimit;
+
+    private final CellMergeStrategy mergeStrategy;
+
+    private WriteSheet writeSheet;
+
+    private int sheetNo;
+
+    private int sheetRows;
+
+    /**
+     * 已写入的数据行数
+     */
+    @Getter
+    private long totalRows;
+
+    private boolean finished;
+
+    private boolean aborted;
+
+    /**
+     * @param os            输出流
+     * @param sheetName     工作表名称
+     * @param clazz         实体类
+     * @param merge         是否合并单元格
+     * @param options       级联下拉选
+     * @param sheetRowLimit 单个工作表最大数据行数
+     */
+    public ExcelStreamWriter(OutputStream os, String sheetName, Class<T> clazz, boolean merge,
+                             List<DropDownOptions> options, int sheetRowLimit) {
+        this.sheetName = sheetName;
+        this.sheetRowLimit = sheetRowLimit;
+        this.mergeStrategy = merge ? new CellMergeStrategy(clazz, true) : null;
+        ExcelWriterBuilder builder = FastExcel.write(os, clazz)
+            .autoCloseStream(false)
+            // 自动适配
+            .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy())
+            // 大数值自动转换 防止失真
+            .registerConverter(new ExcelBigNumberConvert())
+            .registerWriteHandler(new DataWriteHandler(clazz))
+            // 添加下拉框操作
+            .registerWriteHandler(new ExcelDownHandler(options));
+        if (mergeStrategy != null) {
+            // 合并处理器
+            builder.registerWriteHandler(mergeStrategy);
+        }
+        this.excelWriter = builder.build();
+        this.writeSheet = FastExcel.writerSheet(sheetNo, sheetName).build();
+    }
+
+    /**
+     * 写入一批数据 超出当前工作表行数上限的部分写入新的工作表
+     *
+     * @param list 一批数据
+     */
+    public void write(List<T> list) {
+        if (aborted) {
+            throw new IllegalStateException("Excel 导出已中止");
+        }
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        try {
+            doWrite(list);
+        } catch (RuntimeException | Error e) {
+            abort();
+            throw e;
+        }
+    }
+
+    private void doWrite(List<T> list) {
+        int from = 0;
+        while (from < list.size()) {
+            if (sheetRows >= sheetRowLimit) {
+                nextSheet();
+            }
+            int to = Math.min(list.size(), from + sheetRowLimit - sheetRows);
+            List<T> chunk = from == 0 && to == list.size() ? list : list.subList(from, to);
+            if (mergeStrategy != null) {
+                mergeStrategy.prepare(chunk);
+            }
+            excelWriter.write(chunk, writeSheet);
+            if (mergeStrategy != null) {
+                mergeStrategy.flush(currentSheet());
+            }
+            sheetRows += chunk.size();
+            totalRows += chunk.size();
+            from = to;
+        }
+    }
+
+    /**
+     * 完成写入
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        if (aborted) {
+            throw new IllegalStateException("Excel 导出已中止");
+        }
+        try {
+            if (sheetRows == 0 && sheetNo == 0) {
+                // 无数据时也输出表头
+                excelWriter.write(List.of(), writeSheet);
+            }
+            if (mergeStrategy != null) {
+                mergeStrategy.finishSheet(currentSheet());
+            }
+            excelWriter.finish();
+            finished = true;
+        } catch (RuntimeException | Error e) {
+            abort();
+            throw e;
+        }
+    }
+
+    /**
+     * 中止写入 不输出工作簿 释放 SXSSF 临时文件
+     */
+    public void abort() {
+        if (finished || aborted) {
+            return;
+        }
+        aborted = true;
+        Workbook workbook = excelWriter.writeContext().writeWorkbookHolder().getWorkbook();
+        try {
+            excelWriter.writeContext().finish(true);
+        } finally {
+            if (workbook instanceof SXSSFWorkbook sxssfWorkbook) {
+                sxssfWorkbook.dispose();
+            }
+        }
+    }
+
+    /**
+     * 未完成写入时中止 完成写入需显式调用 {@link #finish()}
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            abort();
+        }
+    }
+
+    private void nextSheet() {
+        if (mergeStrategy != null) {
+            mergeStrategy.finishSheet(currentSheet());
+        }
+        sheetNo++;
+        sheetRows = 0;
+        writeSheet = FastExcel.writerSheet(sheetNo, sheetName + "_" + (sheetNo + 1)).build();
+    }
+
+    private Sheet currentSheet() {
+        return excelWriter.writeContext().writeSheetHolder().getSheet();
+    }
+
+}
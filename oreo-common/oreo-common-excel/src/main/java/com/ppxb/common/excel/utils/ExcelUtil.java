@@ -25,6 +25,7 @@ import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Excel相关处理
@@ -201,6 +202,61 @@ public class ExcelUtil {
         builder.doWrite(list);
     }
 
+    /**
+     * 流式导出excel(适用于大数据量)
+     * <p>
+     * 数据由 source 分批提供(如 keyset 分页查询) 每批写入后即可释放 不会一次性加载全部数据
+     *
+     * @param source    数据源 每查询到一批数据调用一次传入的写入函数
+     * @param sheetName 工作表的名称
+     * @param clazz     实体类
+     * @param response  响应体
+     */
+    public static <T> void exportExcel(Consumer<Consumer<List<T>>> source, String sheetName, Class<T> clazz, HttpServletResponse response) {
+        exportExcel(source, sheetName, clazz, false, response);
+    }
+
+    /**
+     * 流式导出excel(适用于大数据量)
+     *
+     * @param source    数据源 每查询到一批数据调用一次传入的写入函数
+     * @param sheetName 工作表的名称
+     * @param clazz     实体类
+     * @param merge     是否合并单元格 合并区域随写入增量计算
+     * @param response  响应体
+     */
+    public static <T> void exportExcel(Consumer<Consumer<List<T>>> source, String sheetName, Class<T> clazz, boolean merge, HttpServletResponse response) {
+        try {
+            resetResponse(sheetName, response);
+            ServletOutputStream os = response.getOutputStream();
+            exportExcel(source, sheetName, clazz, merge, os, null);
+        } catch (IOException e) {
+            throw new RuntimeException("导出Excel异常");
+        }
+    }
+
+    /**
+     * 流式导出excel(适用于大数据量)
+     * <p>
+     * 单个工作表超过 {@link ExcelStreamWriter#DEFAULT_SHEET_ROW_LIMIT} 行时自动写入新的工作表
+     *
+     * @param source    数据源 每查询到一批数据调用一次传入的写入函数
+     * @param sheetName 工作表的名称
+     * @param clazz     实体类
+     * @param merge     是否合并单元格 合并区域随写入增量计算
+     * @param os        输出流
+     * @param options   级联下拉选内容
+     */
+    public static <T> void exportExcel(Consumer<Consumer<List<T>>> source, String sheetName, Class<T> clazz, boolean merge,
+                                       OutputStream os, List<DropDownOptions> options) {
+        try (ExcelStreamWriter<T> writer = new ExcelStreamWriter<>(os, sheetName, clazz, merge, options,
+            ExcelStreamWriter.DEFAULT_SHEET_ROW_LIMIT)) {
+            source.accept(writer::write);
+            // 数据源异常时不会执行到这里 关闭时中止导出
+            writer.finish();
+        }
+    }
+
     /**
      * 单表多数据模板导出 模板格式为 {.属性}
      *
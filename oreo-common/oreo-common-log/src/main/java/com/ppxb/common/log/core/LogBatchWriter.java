@@ -0,0 +1,256 @@
+package com.ppxb.common.log.core;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 日志批量写入器
+ * <p>
+ * 业务线程只负责写入 {@link LogRingBuffer} 由独立的消费线程按 数量 或 时间 合并后批量写入
+ * 缓冲区满时短暂自旋等待消费线程腾出空间 仍失败则丢弃并计数 保证业务线程不被阻塞
+ * 批量写入失败时逐条重试 单条异常数据只影响自身
+ * <p>
+ * 创建后需调用 {@link #start()} 启动消费线程 通常在所属 bean 的 @PostConstruct 中启动
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class LogBatchWriter<T> implements MeterBinder {
+
+    /**
+     * 缓冲区满时的重试次数
+     */
+    private static final int OFFER_RETRIES = 64;
+
+    /**
+     * 关闭时等待剩余日志写入的最长时间 (单位: 毫秒)
+     */
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
+    /**
+     * 关闭后丢弃日志的告警间隔
+     */
+    private static final long REJECT_REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final String name;
+    private final LogRingBuffer<T> ringBuffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<T>> flusher;
+    private final Thread drainer;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private long reportedDropped;
+
+    /**
+     * 关闭后拒绝的数量 首次拒绝时告警 之后按间隔汇总告警
+     */
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong reportedRejected = new AtomicLong();
+    private final AtomicLong nextRejectReport = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile boolean started;
+
+    /**
+     * @param name          名称 用于线程命名与日志输出
+     * @param capacity      缓冲区容量
+     * @param batchSize     单批最大写入数量
+     * @param flushInterval 最长写入间隔 (单位: 毫秒)
+     * @param flusher       批量写入逻辑 在消费线程中执行
+     */
+    public LogBatchWriter(String name, int capacity, int batchSize, long flushInterval, Consumer<List<T>> flusher) {
+        this.name = name;
+        this.ringBuffer = new LogRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        this.flusher = flusher;
+        this.drainer = new Thread(this::run, "log-writer-" + name);
+        this.drainer.setDaemon(true);
+    }
+
+    /**
+     * 启动消费线程 重复调用无效
+     */
+    public synchronized void start() {
+        if (!started && running) {
+            started = true;
+            drainer.start();
+        }
+    }
+
+    /**
+     * 写入日志 不阻塞调用线程
+     *
+     * @return 缓冲区已满或已关闭导致丢弃时返回 false
+     */
+    public boolean offer(T element) {
+        if (!running) {
+            dropped.increment();
+            rejected.increment();
+            reportRejected();
+            return false;
+        }
+        for (int i = 0; i < OFFER_RETRIES; i++) {
+            if (ringBuffer.offer(element)) {
+                if (ringBuffer.size() >= batchSize) {
+                    LockSupport.unpark(drainer);
+                }
+                return true;
+            }
+            // 缓冲区已满 唤醒消费线程尽快腾出空间
+            LockSupport.unpark(drainer);
+            Thread.onSpinWait();
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 停止接收新日志 并等待缓冲区剩余日志写入完成
+     */
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+        }
+        if (!started) {
+            // 消费线程未启动 由关闭线程写入已缓冲的日志
+            drain();
+            return;
+        }
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (drainer.isAlive()) {
+            log.warn("日志写入器[{}]关闭超时 剩余 {} 条未写入", name, ringBuffer.size());
+        } else if (ringBuffer.size() > 0) {
+            // 关闭期间并发写入的日志 消费线程已退出 由关闭线程补写
+            drain();
+        }
+    }
+
+    /**
+     * 注册写入、丢弃、失败与待写入数量指标 以 name 区分不同写入器
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("log.writer.written", this, LogBatchWriter::getWrittenCount)
+            .tag("name", name).description("已写入的日志数").register(registry);
+        FunctionCounter.builder("log.writer.dropped", this, LogBatchWriter::getDroppedCount)
+            .tag("name", name).description("缓冲区满或关闭后丢弃的日志数").register(registry);
+        FunctionCounter.builder("log.writer.failed", this, LogBatchWriter::getFailedCount)
+            .tag("name", name).description("写入失败的日志数").register(registry);
+        Gauge.builder("log.writer.pending", this, LogBatchWriter::getPendingCount)
+            .tag("name", name).description("缓冲区待写入的日志数").register(registry);
+    }
+
+    /**
+     * 已写入数量
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 缓冲区满或关闭后丢弃的数量
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 写入失败的数量
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * 缓冲区待写入数量
+     */
+    public int getPendingCount() {
+        return ringBuffer.size();
+    }
+
+    private void run() {
+        while (running) {
+            if (ringBuffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            drain();
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (ringBuffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        long total = dropped.sum() - rejected.sum();
+        if (total > reportedDropped) {
+            log.warn("日志写入器[{}]缓冲区已满 丢弃 {} 条日志 累计丢弃 {} 条", name, total - reportedDropped, total);
+            reportedDropped = total;
+        }
+    }
+
+    /**
+     * 汇总输出关闭后丢弃的数量 同一间隔内只输出一次
+     */
+    private void reportRejected() {
+        long now = System.nanoTime();
+        long next = nextRejectReport.get();
+        if (next != 0 && now - next < 0) {
+            return;
+        }
+        if (!nextRejectReport.compareAndSet(next, now + REJECT_REPORT_INTERVAL)) {
+            return;
+        }
+        long total = rejected.sum();
+        long previous = reportedRejected.getAndSet(total);
+        log.warn("日志写入器[{}]已关闭 丢弃 {} 条日志 累计丢弃 {} 条", name, total - previous, total);
+    }
+
+    private void flush(List<T> batch) {
+        try {
+            flusher.accept(batch);
+            written.add(batch.size());
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                failed.increment();
+                log.error("日志写入器[{}]写入日志失败: {}", name, batch.get(0), e);
+                return;
+            }
+            log.warn("日志写入器[{}]批量写入 {} 条日志失败 改为逐条写入", name, batch.size(), e);
+        }
+        // 逐条重试 找出并跳过异常数据
+        for (T element : batch) {
+            try {
+                flusher.accept(List.of(element));
+                written.increment();
+            } catch (Exception e) {
+                failed.increment();
+                log.error("日志写入器[{}]写入日志失败: {}", name, element, e);
+            }
+        }
+    }
+
+}
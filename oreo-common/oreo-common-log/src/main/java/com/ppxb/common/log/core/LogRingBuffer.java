@@ -0,0 +1,114 @@
+package com.ppxb.common.log.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区(多生产者 单消费者)
+ * <p>
+ * 每个槽位维护一个序号 生产者通过 CAS 抢占写入位置 消费者按序号顺序读取
+ * 缓冲区满时 {@link #offer(Object)} 直接返回 false 不阻塞调用线程
+ *
+ * @author Lion Li
+ */
+public class LogRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> buffer;
+    private final AtomicLongArray sequence;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity 容量 向上取整为 2 的幂
+     */
+    public LogRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素
+     *
+     * @return 缓冲区已满时返回 false
+     */
+    public boolean offer(T element) {
+        long pos = tail.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequence.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.set(index, element);
+                    sequence.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 读取元素(仅允许单个消费线程调用)
+     *
+     * @return 缓冲区为空时返回 null
+     */
+    public T poll() {
+        long pos = head.get();
+        int index = (int) (pos & mask);
+        if (sequence.get(index) - (pos + 1) < 0) {
+            return null;
+        }
+        T element = buffer.get(index);
+        buffer.set(index, null);
+        head.set(pos + 1);
+        sequence.set(index, pos + mask + 1);
+        return element;
+    }
+
+    /**
+     * 批量读取元素(仅允许单个消费线程调用)
+     *
+     * @param list 接收元素的集合
+     * @param max  最大读取数量
+     * @return 实际读取数量
+     */
+    public int drainTo(List<T> list, int max) {
+        int count = 0;
+        T element;
+        while (count < max && (element = poll()) != null) {
+            list.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素数量(近似值)
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * 容量
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -1,13 +1,14 @@
 package com.ppxb.common.log.event;
 import lombok.Data;
 
-import jakarta.servlet.http.HttpServletRequest;
-
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Date;
 
 /**
  * 登录事件
+ * <p>
+ * 发布时在请求线程中采集所需的请求信息 事件本身不持有请求对象 可安全地交给其他线程处理
  *
  * @author Lion Li
  */
@@ -39,9 +40,24 @@ public class LogininforEvent implements Serializable {
     private String message;
 
     /**
-     * 请求体
+     * 登录IP地址 在请求线程中采集
+     */
+    private String ipaddr;
+
+    /**
+     * 请求头 User-Agent 在请求线程中采集
+     */
+    private String userAgent;
+
+    /**
+     * 请求头 clientid 在请求线程中采集
+     */
+    private String clientId;
+
+    /**
+     * 登录时间
      */
-    private HttpServletRequest request;
+    private Date loginTime;
 
     /**
      * 其他参数
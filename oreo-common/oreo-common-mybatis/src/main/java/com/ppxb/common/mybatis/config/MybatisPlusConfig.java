@@ -4,10 +4,14 @@ import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.core.handlers.PostInitTableInfoHandler;
 import com.baomidou.mybatisplus.core.incrementer.DefaultIdentifierGenerator;
 import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.extension.parser.JsqlParserGlobal;
+import com.baomidou.mybatisplus.extension.parser.cache.JdkSerialCaffeineJsqlParseCache;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ppxb.common.core.factory.YmlPropertySourceFactory;
 import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.mybatis.aspect.DataPermissionAspect;
@@ -15,6 +19,8 @@ import com.ppxb.common.mybatis.handler.InjectionMetaObjectHandler;
 import com.ppxb.common.mybatis.handler.MybatisExceptionHandler;
 import com.ppxb.common.mybatis.handler.PlusPostInitTableInfoHandler;
 import com.ppxb.common.mybatis.interceptor.PlusDataPermissionInterceptor;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.beans.BeansException;
 import org.springframework.context.annotation.Bean;
@@ -31,8 +37,18 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @PropertySource(value = "classpath:common-mybatis.yml", factory = YmlPropertySourceFactory.class)
 public class MybatisPlusConfig {
 
+    /**
+     * jsqlparser 解析缓存 key 为原始 sql value 为序列化后的语法树(命中时反序列化出副本 各插件可安全修改)
+     */
+    private final Cache<String, byte[]> jsqlParseCache = Caffeine.newBuilder()
+        .maximumSize(2048)
+        .recordStats()
+        .build();
+
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        // 租户、数据权限、分页插件共享同一份 sql 解析缓存
+        JsqlParserGlobal.setJsqlParseCache(new JdkSerialCaffeineJsqlParseCache(jsqlParseCache));
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
         // 多租户插件 必须放到第一位
         try {
@@ -56,6 +72,14 @@ public class MybatisPlusConfig {
         return new PlusDataPermissionInterceptor(SpringUtils.getProperty("mybatis-plus.mapperPackage"));
     }
 
+    /**
+     * sql 解析缓存指标(命中/未命中/淘汰/容量)
+     */
+    @Bean
+    public MeterBinder jsqlParseCacheMetrics() {
+        return registry -> CaffeineCacheMetrics.monitor(registry, jsqlParseCache, "jsqlparser");
+    }
+
     /**
      * 数据权限切面处理器
      */
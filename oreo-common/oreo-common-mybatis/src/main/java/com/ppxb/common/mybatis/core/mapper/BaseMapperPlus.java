@@ -2,10 +2,12 @@ package com.ppxb.common.mybatis.core.mapper;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.reflect.GenericTypeUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.toolkit.Db;
 import org.apache.ibatis.logging.Log;
@@ -16,7 +18,9 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 自定义 Mapper 接口, 实现 自定义扩展
@@ -317,6 +321,45 @@ public interface BaseMapperPlus<T, V> extends BaseMapper<T> {
         return (P) voPage;
     }
 
+    /**
+     * 按游标列分批查询VO对象 每批从上一批最后一条记录之后继续查询(keyset 分页)
+     * <p>
+     * 不使用 offset 深分页也不会越查越慢 调用方只需持有一批数据 适用于大数据量导出
+     *
+     * @param wrapperSupplier 每批查询条件的构造函数 条件中不应包含排序(按游标列排序)
+     * @param keyColumn       游标列 必须唯一且有索引 通常为主键
+     * @param asc             是否按游标列升序
+     * @param batchSize       每批数量
+     * @param consumer        每批数据的处理函数
+     * @param <K>             游标列的类型
+     */
+    default <K> void selectVoBatch(Supplier<LambdaQueryWrapper<T>> wrapperSupplier, SFunction<T, K> keyColumn,
+                                   boolean asc, int batchSize, Consumer<List<V>> consumer) {
+        Class<V> voClass = this.currentVoClass();
+        K lastKey = null;
+        while (true) {
+            LambdaQueryWrapper<T> wrapper = wrapperSupplier.get();
+            if (lastKey != null) {
+                if (asc) {
+                    wrapper.gt(keyColumn, lastKey);
+                } else {
+                    wrapper.lt(keyColumn, lastKey);
+                }
+            }
+            wrapper.orderBy(true, asc, keyColumn);
+            // 不查询总数 只取第一页
+            List<T> list = this.selectList(new Page<>(1, batchSize, false), wrapper);
+            if (CollUtil.isEmpty(list)) {
+                return;
+            }
+            lastKey = keyColumn.apply(list.get(list.size() - 1));
+            consumer.accept(MapstructUtils.convert(list, voClass));
+            if (list.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
     /**
      * 根据条件查询符合条件的对象，并将其转换为指定类型的对象列表
      *
@@ -2,6 +2,8 @@ package com.ppxb.common.mybatis.handler;
 import cn.hutool.core.annotation.AnnotationUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.JSQLParserException;
@@ -10,6 +12,7 @@ import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import org.apache.ibatis.io.Resources;
+import com.ppxb.common.core.constant.CacheNames;
 import com.ppxb.common.core.domain.dto.RoleDTO;
 import com.ppxb.common.core.domain.model.LoginUser;
 import com.ppxb.common.core.exception.ServiceException;
@@ -20,7 +23,10 @@ import com.ppxb.common.mybatis.annotation.DataColumn;
 import com.ppxb.common.mybatis.annotation.DataPermission;
 import com.ppxb.common.mybatis.enums.DataScopeType;
 import com.ppxb.common.mybatis.helper.DataPermissionHelper;
+import com.ppxb.common.redis.manager.PlusSpringCacheManager;
 import com.ppxb.common.satoken.utils.LoginHelper;
+import org.springframework.beans.BeansException;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.io.Resource;
@@ -30,14 +36,19 @@ import org.springframework.core.type.ClassMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.expression.*;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * 数据权限过滤
@@ -54,9 +65,33 @@ public class PlusDataPermissionHandler {
     private final Map<String, DataPermission> dataPermissionCacheMap = new ConcurrentHashMap<>();
 
     /**
-     * spel 解析器
+     * 数据权限 sql 片段缓存 key 为影响 sql 结果的全部因素 value 为解析完成的 sql 表达式(空表示不过滤)
+     * <p>
+     * 缓存的表达式会被多个语句共享 只允许只读使用
      */
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final Cache<SqlSegmentKey, Optional<Expression>> sqlSegmentCache = Caffeine.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(Duration.ofMinutes(30))
+        .build();
+
+    /**
+     * 数据权限改写后的完整 sql 缓存 key 为 (改写前 sql, sql 片段缓存 key)
+     */
+    private final Cache<RewriteSqlKey, String> rewriteSqlCache = Caffeine.newBuilder()
+        .maximumSize(2048)
+        .expireAfterWrite(Duration.ofMinutes(30))
+        .build();
+
+    /**
+     * 预编译的 spel 模板缓存
+     */
+    private final Map<String, org.springframework.expression.Expression> spelCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * spel 解析器 可编译时编译 类型变化或无法编译时回退为解释执行
+     */
+    private final ExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, PlusDataPermissionHandler.class.getClassLoader()));
     private final ParserContext parserContext = new TemplateParserContext();
     /**
      * bean解析器 用于处理 spel 表达式中对 bean 的调用
@@ -70,6 +105,43 @@ public class PlusDataPermissionHandler {
      */
     public PlusDataPermissionHandler(String mapperPackage) {
         scanMapperClasses(mapperPackage);
+        registerCacheInvalidateListener();
+    }
+
+    /**
+     * 改写 sql 并缓存改写结果 相同 sql 与相同数据权限因素直接复用上次改写结果
+     * <p>
+     * 管理员或无法确定缓存 key 时直接执行改写
+     *
+     * @param sql               原始 sql
+     * @param mappedStatementId Mapper 方法的 ID
+     * @param isSelect          是否为查询语句
+     * @param rewriter          sql 改写方法
+     * @return 改写后的 sql
+     */
+    public String rewriteSql(String sql, String mappedStatementId, boolean isSelect, UnaryOperator<String> rewriter) {
+        SqlSegmentKey segmentKey = null;
+        DataPermission dataPermission = getDataPermission(mappedStatementId);
+        LoginUser currentUser = DataPermissionHelper.getVariable("user");
+        if (ObjectUtil.isNull(currentUser)) {
+            currentUser = LoginHelper.getLoginUser();
+            DataPermissionHelper.setVariable("user", currentUser);
+        }
+        if (ObjectUtil.isNotNull(dataPermission) && !LoginHelper.isSuperAdmin() && !LoginHelper.isTenantAdmin()) {
+            segmentKey = buildSqlSegmentKey(dataPermission, mappedStatementId, isSelect);
+        }
+        if (ObjectUtil.isNull(segmentKey)) {
+            return rewriter.apply(sql);
+        }
+        RewriteSqlKey key = new RewriteSqlKey(sql, segmentKey);
+        String rewritten = rewriteSqlCache.getIfPresent(key);
+        if (rewritten != null) {
+            DataPermissionHelper.removePermission();
+            return rewritten;
+        }
+        rewritten = rewriter.apply(sql);
+        rewriteSqlCache.put(key, rewritten);
+        return rewritten;
     }
 
     /**
@@ -95,11 +167,10 @@ public class PlusDataPermissionHandler {
                 return where;
             }
             // 构造数据过滤条件的 SQL 片段
-            String dataFilterSql = buildDataFilter(dataPermission, isSelect);
-            if (StringUtils.isBlank(dataFilterSql)) {
+            Expression expression = getDataFilterExpression(dataPermission, mappedStatementId, isSelect);
+            if (ObjectUtil.isNull(expression)) {
                 return where;
             }
-            Expression expression = CCJSqlParserUtil.parseExpression(dataFilterSql);
             // 数据权限使用单独的括号 防止与其他条件冲突
             ParenthesedExpressionList<Expression> parenthesis = new ParenthesedExpressionList<>(expression);
             if (ObjectUtil.isNotNull(where)) {
@@ -107,13 +178,107 @@ public class PlusDataPermissionHandler {
             } else {
                 return parenthesis;
             }
-        } catch (JSQLParserException e) {
-            throw new ServiceException("数据权限解析异常 => " + e.getMessage());
         } finally {
             DataPermissionHelper.removePermission();
         }
     }
 
+    /**
+     * 获取数据过滤条件表达式 优先从缓存读取
+     *
+     * @param dataPermission    数据权限注解
+     * @param mappedStatementId Mapper 方法的 ID
+     * @param isSelect          是否为查询语句
+     * @return 数据过滤条件表达式 无需过滤时返回 null
+     */
+    private Expression getDataFilterExpression(DataPermission dataPermission, String mappedStatementId, boolean isSelect) {
+        SqlSegmentKey key = buildSqlSegmentKey(dataPermission, mappedStatementId, isSelect);
+        if (ObjectUtil.isNull(key)) {
+            return parseDataFilter(buildDataFilter(dataPermission, isSelect));
+        }
+        // 不使用 Cache#get 原子加载 避免 spel 中的 sql 查询长时间占用缓存锁
+        Optional<Expression> cached = sqlSegmentCache.getIfPresent(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(parseDataFilter(buildDataFilter(dataPermission, isSelect)));
+            sqlSegmentCache.put(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * 解析数据过滤条件 sql
+     */
+    private Expression parseDataFilter(String dataFilterSql) {
+        if (StringUtils.isBlank(dataFilterSql)) {
+            return null;
+        }
+        try {
+            return CCJSqlParserUtil.parseExpression(dataFilterSql);
+        } catch (JSQLParserException e) {
+            throw new ServiceException("数据权限解析异常 => " + e.getMessage());
+        }
+    }
+
+    /**
+     * 构建 sql 片段缓存 key
+     * <p>
+     * 上下文中存在除 user 以外的自定义变量时 模板结果无法确定 不进行缓存
+     *
+     * @return 缓存 key 不可缓存时返回 null
+     */
+    private SqlSegmentKey buildSqlSegmentKey(DataPermission dataPermission, String mappedStatementId, boolean isSelect) {
+        Map<String, Object> variables = DataPermissionHelper.getContext();
+        if (variables.size() != 1 || !variables.containsKey("user")) {
+            return null;
+        }
+        LoginUser user = DataPermissionHelper.getVariable("user");
+        if (ObjectUtil.isNull(user) || CollUtil.isEmpty(user.getRoles())) {
+            return null;
+        }
+        DataColumn[] dataColumns = dataPermission.value();
+        BitSet ignoreColumns = new BitSet(dataColumns.length);
+        for (int i = 0; i < dataColumns.length; i++) {
+            if (StringUtils.isNotBlank(dataColumns[i].permission()) &&
+                CollUtil.contains(user.getMenuPermission(), dataColumns[i].permission())) {
+                ignoreColumns.set(i);
+            }
+        }
+        boolean dependOnUserId = false;
+        for (RoleDTO role : user.getRoles()) {
+            DataScopeType type = DataScopeType.findCode(role.getDataScope());
+            if (ObjectUtil.isNotNull(type) && StringUtils.contains(type.getSqlTemplate(), "#user.userId")) {
+                dependOnUserId = true;
+            }
+        }
+        String roleScopes = user.getRoles().stream()
+            .sorted(Comparator.comparing(RoleDTO::getRoleId, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .map(role -> role.getRoleId() + ":" + role.getDataScope())
+            .collect(Collectors.joining(","));
+        return new SqlSegmentKey(mappedStatementId, dataPermission, isSelect, user.getTenantId(),
+            user.getDeptId(), dependOnUserId ? user.getUserId() : null, roleScopes, ignoreColumns);
+    }
+
+    /**
+     * 注册缓存失效监听 角色自定义权限或部门及以下权限缓存变更时清空 sql 片段缓存
+     */
+    private void registerCacheInvalidateListener() {
+        String roleCustom = StringUtils.substringBefore(CacheNames.SYS_ROLE_CUSTOM, "#");
+        String deptAndChild = StringUtils.substringBefore(CacheNames.SYS_DEPT_AND_CHILD, "#");
+        try {
+            if (SpringUtils.getBean(CacheManager.class) instanceof PlusSpringCacheManager cacheManager) {
+                cacheManager.addInvalidateListener((cacheName, key) -> {
+                    if (StringUtils.equalsAny(cacheName, roleCustom, deptAndChild)
+                        || StringUtils.endsWithAny(cacheName, ":" + roleCustom, ":" + deptAndChild)) {
+                        sqlSegmentCache.invalidateAll();
+                        rewriteSqlCache.invalidateAll();
+                    }
+                });
+            }
+        } catch (BeansException e) {
+            log.warn("未找到缓存管理器 数据权限 sql 片段缓存仅依赖过期时间失效");
+        }
+    }
+
     /**
      * 构建数据过滤条件的 SQL 语句
      *
@@ -186,7 +351,7 @@ public class PlusDataPermissionHandler {
                 }
                 // 忽略数据权限 防止spel表达式内有其他sql查询导致死循环调用
                 String sql = DataPermissionHelper.ignore(() ->
-                    parser.parseExpression(type.getSqlTemplate(), parserContext).getValue(context, String.class)
+                    getSpelExpression(type.getSqlTemplate()).getValue(context, String.class)
                 );
                 // 解析sql模板并填充
                 conditions.add(joinStr + sql);
@@ -205,6 +370,16 @@ public class PlusDataPermissionHandler {
         return StringUtils.EMPTY;
     }
 
+    /**
+     * 获取预编译的 spel 模板表达式
+     *
+     * @param template spel 模板
+     * @return 模板表达式
+     */
+    private org.springframework.expression.Expression getSpelExpression(String template) {
+        return spelCacheMap.computeIfAbsent(template, k -> parser.parseExpression(k, parserContext));
+    }
+
     /**
      * 扫描指定包下的 Mapper 类，并查找其中带有特定注解的方法或类
      *
@@ -293,6 +468,24 @@ public class PlusDataPermissionHandler {
         return getDataPermission(mapperId) == null;
     }
 
+    /**
+     * sql 片段缓存 key 包含所有影响数据权限 sql 结果的因素
+     *
+     * @param userId        仅当角色模板依赖用户id时有值
+     * @param roleScopes    按角色id排序的 角色id:数据范围 列表
+     * @param ignoreColumns 因拥有权限标识而跳过的 {@link DataColumn} 下标
+     */
+    private record SqlSegmentKey(String mappedStatementId, DataPermission dataPermission, boolean isSelect,
+                                 String tenantId, Long deptId, Long userId, String roleScopes,
+                                 BitSet ignoreColumns) {
+    }
+
+    /**
+     * 改写 sql 缓存 key
+     */
+    private record RewriteSqlKey(String sql, SqlSegmentKey segmentKey) {
+    }
+
     /**
      * 对所有null变量找不到的变量返回默认值
      */
@@ -12,6 +12,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数据库助手
@@ -23,15 +26,31 @@ public class DataBaseHelper {
 
     private static final DynamicRoutingDataSource DS = SpringUtils.getBean(DynamicRoutingDataSource.class);
 
+    /**
+     * 数据源 -> 数据库类型 数据库类型在数据源生命周期内不会变化 每个数据源只获取一次连接
+     * 按数据源实例缓存 @DS 切换数据源时各自命中 未识别的数据库类型缓存为空
+     */
+    private static final Map<DataSource, Optional<DataBaseType>> TYPE_CACHE = new ConcurrentHashMap<>();
+
     /**
      * 获取当前数据库类型
      */
     public static DataBaseType getDataBaseType() {
         DataSource dataSource = DS.determineDataSource();
+        Optional<DataBaseType> type = TYPE_CACHE.get(dataSource);
+        if (type == null) {
+            // 新数据源 顺带清理已从动态数据源中移除的缓存
+            TYPE_CACHE.keySet().retainAll(DS.getDataSources().values());
+            type = TYPE_CACHE.computeIfAbsent(dataSource, DataBaseHelper::loadDataBaseType);
+        }
+        return type.orElse(null);
+    }
+
+    private static Optional<DataBaseType> loadDataBaseType(DataSource dataSource) {
         try (Connection conn = dataSource.getConnection()) {
             DatabaseMetaData metaData = conn.getMetaData();
             String databaseProductName = metaData.getDatabaseProductName();
-            return DataBaseType.find(databaseProductName);
+            return Optional.ofNullable(DataBaseType.find(databaseProductName));
         } catch (SQLException e) {
             throw new ServiceException(e.getMessage());
         }
@@ -26,6 +26,8 @@ public class DataPermissionHelper {
 
     private static final String DATA_PERMISSION_KEY = "data:permission";
 
+    private static final String DATA_PERMISSION_MEMO_KEY = "data:permission:memo";
+
     private static final ThreadLocal<Stack<Integer>> REENTRANT_IGNORE = ThreadLocal.withInitial(Stack::new);
 
     private static final ThreadLocal<DataPermission> PERMISSION_CACHE = new ThreadLocal<>();
@@ -97,6 +99,44 @@ public class DataPermissionHelper {
         throw new NullPointerException("data permission context type exception");
     }
 
+    /**
+     * 在当前请求内缓存计算结果 同一请求内相同 key 只计算一次
+     * <p>
+     * 与数据权限上下文分开存放 不影响 sql 片段缓存的判断 不在请求范围内时直接计算
+     *
+     * @param key    缓存 key
+     * @param loader 计算方法
+     * @return 计算结果
+     */
+    public static <T> T memoize(String key, Supplier<T> loader) {
+        if (!SaHolder.getContext().isValid()) {
+            return loader.get();
+        }
+        SaStorage saStorage = SaHolder.getStorage();
+        Map<String, Object> memo = (Map<String, Object>) saStorage.get(DATA_PERMISSION_MEMO_KEY);
+        if (ObjectUtil.isNull(memo)) {
+            memo = new HashMap<>();
+            saStorage.set(DATA_PERMISSION_MEMO_KEY, memo);
+        }
+        Object value = memo.get(key);
+        if (value == null) {
+            value = loader.get();
+            if (value != null) {
+                memo.put(key, value);
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * 清空当前请求内缓存的计算结果 角色或部门变更后调用
+     */
+    public static void clearMemo() {
+        if (SaHolder.getContext().isValid()) {
+            SaHolder.getStorage().delete(DATA_PERMISSION_MEMO_KEY);
+        }
+    }
+
     private static IgnoreStrategy getIgnoreStrategy() {
         Object ignoreStrategyLocal = ReflectUtils.getStaticFieldValue(ReflectUtils.getField(InterceptorIgnoreHelper.class, "IGNORE_STRATEGY_LOCAL"));
         if (ignoreStrategyLocal instanceof ThreadLocal<?> IGNORE_STRATEGY_LOCAL) {
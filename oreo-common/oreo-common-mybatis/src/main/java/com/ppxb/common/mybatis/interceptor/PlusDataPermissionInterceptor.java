@@ -66,8 +66,9 @@ public class PlusDataPermissionInterceptor extends BaseMultiTableInnerIntercepto
             return;
         }
         // 解析 sql 分配对应方法
+        // 相同 sql 与相同数据权限因素复用改写结果
         PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
-        mpBs.sql(parserSingle(mpBs.sql(), ms.getId()));
+        mpBs.sql(dataPermissionHandler.rewriteSql(mpBs.sql(), ms.getId(), true, sql -> parserSingle(sql, ms.getId())));
     }
 
     /**
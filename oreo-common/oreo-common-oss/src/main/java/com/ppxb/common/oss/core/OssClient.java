@@ -1,12 +1,13 @@
 package com.ppxb.common.oss.core;
 
-import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.IdUtil;
 import com.ppxb.common.core.constant.Constants;
 import com.ppxb.common.core.utils.DateUtils;
+import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.core.utils.file.FileUtils;
 import com.ppxb.common.oss.constant.OssConstant;
+import com.ppxb.common.oss.entity.ObjectInfo;
 import com.ppxb.common.oss.entity.UploadResult;
 import com.ppxb.common.oss.enums.AccessPolicyType;
 import com.ppxb.common.oss.exception.OssException;
@@ -20,7 +21,9 @@ import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.transfer.s3.S3TransferManager;
 import software.amazon.awssdk.transfer.s3.model.*;
@@ -31,7 +34,10 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -42,6 +48,33 @@ import java.util.function.Consumer;
  */
 public class OssClient {
 
+    /**
+     * 超过该大小时分片并行上传
+     */
+    private static final long MULTIPART_THRESHOLD = 16 * 1024 * 1024;
+
+    /**
+     * 分片大小
+     */
+    private static final long MULTIPART_PART_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * 上传额度单位 (1MB)
+     */
+    private static final long BUDGET_UNIT = 1024 * 1024;
+
+    /**
+     * 本节点同时上传的总大小上限 (单位: MB) 所有服务商共享
+     */
+    private static final int UPLOAD_BUDGET = SpringUtils.getProperty("oss.upload-budget", Integer.class, 1024);
+
+    private static final Semaphore UPLOAD_PERMITS = new Semaphore(UPLOAD_BUDGET, true);
+
+    /**
+     * 等待上传额度的最长时间 (单位: 秒)
+     */
+    private static final long UPLOAD_WAIT_SECONDS = 60;
+
     /**
      * 服务商 key
      */
@@ -90,6 +123,12 @@ public class OssClient {
                     .endpointOverride(URI.create(getEndpoint()))
                     .region(of())
                     .forcePathStyle(isStyle)
+                    // 超过阈值自动分片并行上传
+                    .multipartEnabled(true)
+                    .multipartConfiguration(MultipartConfiguration.builder()
+                            .thresholdInBytes(MULTIPART_THRESHOLD)
+                            .minimumPartSizeInBytes(MULTIPART_PART_SIZE)
+                            .build())
                     .httpClient(NettyNioAsyncHttpClient.builder()
                             .connectionTimeout(Duration.ofSeconds(60)).build())
                     .build();
@@ -128,7 +167,9 @@ public class OssClient {
      * @throws OssException 如果上传失败，抛出自定义异常
      */
     public UploadResult upload(Path filePath, String key, String md5Digest, String contentType) {
+        int permits = 0;
         try {
+            permits = acquireBudget(Files.size(filePath));
             // 构建上传请求对象
             FileUpload fileUpload = transferManager.uploadFile(
                     x -> x.putObjectRequest(
@@ -149,10 +190,13 @@ public class OssClient {
 
             // 提取上传结果中的 ETag，并构建一个自定义的 UploadResult 对象
             return UploadResult.builder().url(getUrl() + StringUtils.SLASH + key).filename(key).eTag(eTag).build();
+        } catch (OssException e) {
+            throw e;
         } catch (Exception e) {
             // 捕获异常并抛出自定义异常
             throw new OssException("上传文件失败，请检查配置信息:[" + e.getMessage() + "]");
         } finally {
+            releaseBudget(permits);
             // 无论上传是否成功，最终都会删除临时文件
             FileUtils.del(filePath);
         }
@@ -163,16 +207,24 @@ public class OssClient {
      *
      * @param inputStream 要上传的输入流
      * @param key         在 Amazon S3 中的对象键
-     * @param length      输入流的长度
+     * @param length      输入流的长度 为空时先写入临时文件
      * @param contentType 文件内容类型
      * @return UploadResult 包含上传后的文件信息
      * @throws OssException 如果上传失败，抛出自定义异常
      */
     public UploadResult upload(InputStream inputStream, String key, Long length, String contentType) {
-        // 如果输入流不是 ByteArrayInputStream，则将其读取为字节数组再创建 ByteArrayInputStream
-        if (!(inputStream instanceof ByteArrayInputStream)) {
-            inputStream = new ByteArrayInputStream(IoUtil.readBytes(inputStream));
+        if (length == null) {
+            // 长度未知时写入临时文件而不是读入内存
+            Path tempFilePath = FileUtils.createTempFile().toPath();
+            try (inputStream) {
+                Files.copy(inputStream, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                FileUtils.del(tempFilePath);
+                throw new OssException("上传文件失败，读取文件流异常:[" + e.getMessage() + "]");
+            }
+            return upload(tempFilePath, key, null, contentType);
         }
+        int permits = acquireBudget(length);
         try {
             // 创建异步请求体（length如果为空会报错）
             BlockingInputStreamAsyncRequestBody body = BlockingInputStreamAsyncRequestBody.builder()
@@ -193,7 +245,7 @@ public class OssClient {
                                             .build())
                             .build());
 
-            // 将输入流写入请求体
+            // 将输入流直接写入请求体 不在堆中缓存整个文件
             body.writeInputStream(inputStream);
 
             // 等待文件上传操作完成
@@ -204,6 +256,32 @@ public class OssClient {
             return UploadResult.builder().url(getUrl() + StringUtils.SLASH + key).filename(key).eTag(eTag).build();
         } catch (Exception e) {
             throw new OssException("上传文件失败，请检查配置信息:[" + e.getMessage() + "]");
+        } finally {
+            releaseBudget(permits);
+        }
+    }
+
+    /**
+     * 申请上传额度 本节点同时上传的总大小超过上限时等待
+     *
+     * @param length 文件大小
+     * @return 占用的额度
+     */
+    private static int acquireBudget(long length) {
+        int permits = (int) Math.min(UPLOAD_BUDGET, Math.max(1, (length + BUDGET_UNIT - 1) / BUDGET_UNIT));
+        try {
+            if (UPLOAD_PERMITS.tryAcquire(permits, UPLOAD_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                return permits;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new OssException("当前上传任务过多，请稍后再试");
+    }
+
+    private static void releaseBudget(int permits) {
+        if (permits > 0) {
+            UPLOAD_PERMITS.release(permits);
         }
     }
 
@@ -231,6 +309,79 @@ public class OssClient {
         return tempFilePath;
     }
 
+    /**
+     * 下载文件从 Amazon S3 到指定位置
+     *
+     * @param key         文件在 Amazon S3 中的对象键
+     * @param destination 本地文件路径
+     * @throws OssException 如果下载失败，抛出自定义异常
+     */
+    public void fileDownload(String key, Path destination) {
+        try {
+            transferManager.downloadFile(
+                    x -> x.getObjectRequest(
+                                    y -> y.bucket(properties.getBucketName())
+                                            .key(key)
+                                            .build())
+                            .destination(destination)
+                            .build())
+                    .completionFuture().join();
+        } catch (Exception e) {
+            throw new OssException("文件下载失败，错误信息:[" + e.getMessage() + "]");
+        }
+    }
+
+    /**
+     * 获取对象元数据
+     *
+     * @param key 文件在 Amazon S3 中的对象键
+     * @return 对象元数据
+     * @throws OssException 如果获取失败，抛出自定义异常
+     */
+    public ObjectInfo getObjectInfo(String key) {
+        try {
+            HeadObjectResponse response = client.headObject(
+                    x -> x.bucket(properties.getBucketName())
+                            .key(key)
+                            .build()).join();
+            return ObjectInfo.builder()
+                    .key(key)
+                    .eTag(response.eTag())
+                    .contentLength(response.contentLength())
+                    .contentType(response.contentType())
+                    .build();
+        } catch (Exception e) {
+            throw new OssException("获取文件信息失败，错误信息:[" + e.getMessage() + "]");
+        }
+    }
+
+    /**
+     * 下载文件的指定字节范围从 Amazon S3 到 输出流
+     *
+     * @param key   文件在 Amazon S3 中的对象键
+     * @param out   输出流
+     * @param start 起始位置（含）
+     * @param end   结束位置（含）
+     * @throws OssException 如果下载失败，抛出自定义异常
+     */
+    public void download(String key, OutputStream out, long start, long end) {
+        try {
+            DownloadRequest<ResponseInputStream<GetObjectResponse>> downloadRequest = DownloadRequest.builder()
+                    .getObjectRequest(y -> y.bucket(properties.getBucketName())
+                            .key(key)
+                            .range("bytes=" + start + "-" + end)
+                            .build())
+                    .responseTransformer(AsyncResponseTransformer.toBlockingInputStream())
+                    .build();
+            Download<ResponseInputStream<GetObjectResponse>> responseFuture = transferManager.download(downloadRequest);
+            try (ResponseInputStream<GetObjectResponse> responseStream = responseFuture.completionFuture().join().result()) {
+                responseStream.transferTo(out);
+            }
+        } catch (Exception e) {
+            throw new OssException("文件下载失败，错误信息:[" + e.getMessage() + "]");
+        }
+    }
+
     /**
      * 下载文件从 Amazon S3 到 输出流
      *
@@ -338,6 +489,19 @@ public class OssClient {
         return upload(file.toPath(), getPath(properties.getPrefix(), suffix), null, FileUtils.getMimeType(suffix));
     }
 
+    /**
+     * 上传文件到 Amazon S3，使用指定的后缀构造对象键 上传完成后删除该文件
+     *
+     * @param file        要上传的文件
+     * @param suffix      对象键的后缀
+     * @param contentType 文件内容类型
+     * @return UploadResult 包含上传后的文件信息
+     * @throws OssException 如果上传失败，抛出自定义异常
+     */
+    public UploadResult uploadSuffix(File file, String suffix, String contentType) {
+        return upload(file.toPath(), getPath(properties.getPrefix(), suffix), null, contentType);
+    }
+
     /**
      * 获取文件输入流
      *
@@ -0,0 +1,193 @@
+package com.ppxb.common.oss.core;
+import cn.hutool.core.util.IdUtil;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.core.utils.Threads;
+import com.ppxb.common.core.utils.file.FileUtils;
+import com.ppxb.common.oss.entity.ObjectInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点对象本地磁盘缓存
+ * <p>
+ * 下载过的对象异步拉取到本地磁盘 按最近访问淘汰 总大小不超过上限
+ * 对象键包含 uuid 内容不会变化 缓存以 对象地址 + ETag 标识
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class OssObjectCache {
+
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * 缓存总大小上限 为 0 时关闭缓存
+     */
+    private static final long MAX_SIZE = SpringUtils.getProperty("oss.cache.max-size", Long.class, 2048L) * MB;
+
+    /**
+     * 单个对象大小上限 超过时不缓存
+     */
+    private static final long MAX_OBJECT_SIZE = SpringUtils.getProperty("oss.cache.max-object-size", Long.class, 256L) * MB;
+
+    /**
+     * 缓存目录 每个进程独立创建 同一主机的多个实例互不影响
+     */
+    private static final Path CACHE_DIR = createCacheDir();
+
+    /**
+     * 按访问顺序排列的缓存项 由 LOCK 保护
+     */
+    private static final LinkedHashMap<String, CachedObject> ENTRIES = new LinkedHashMap<>(64, 0.75f, true);
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * 正在拉取的缓存key
+     */
+    private static final Set<String> LOADING = ConcurrentHashMap.newKeySet();
+
+    private static final ExecutorService LOADER = Executors.newCachedThreadPool(
+        Threads.newThreadFactory("oss-cache-"));
+
+    private static long totalSize;
+
+    /**
+     * 是否开启
+     */
+    public static boolean isEnable() {
+        return MAX_SIZE > 0 && CACHE_DIR != null;
+    }
+
+    private static Path createCacheDir() {
+        if (MAX_SIZE <= 0) {
+            return null;
+        }
+        try {
+            Path dir = Files.createTempDirectory("oreo-oss-cache-");
+            // 缓存索引只在内存中 进程退出时删除本进程的缓存目录
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> FileUtils.del(dir.toFile()), "oss-cache-cleaner"));
+            return dir;
+        } catch (Exception e) {
+            log.warn("创建OSS对象缓存目录失败 关闭本地缓存 {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 获取缓存的对象
+     *
+     * @param cacheKey 缓存key (对象完整地址)
+     * @return 缓存的对象 不存在时返回 null
+     */
+    public static CachedObject get(String cacheKey) {
+        if (!isEnable()) {
+            return null;
+        }
+        LOCK.lock();
+        try {
+            CachedObject cached = ENTRIES.get(cacheKey);
+            if (cached != null && !Files.exists(cached.path())) {
+                // 缓存文件被外部清理
+                ENTRIES.remove(cacheKey);
+                totalSize -= cached.contentLength();
+                return null;
+            }
+            return cached;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * 异步拉取对象到缓存 同一对象同时只拉取一次
+     *
+     * @param client   对象存储客户端
+     * @param cacheKey 缓存key
+     * @param info     对象元数据
+     */
+    public static void loadAsync(OssClient client, String cacheKey, ObjectInfo info) {
+        if (!isEnable() || info.getContentLength() > MAX_OBJECT_SIZE || info.getContentLength() > MAX_SIZE) {
+            return;
+        }
+        if (!LOADING.add(cacheKey)) {
+            return;
+        }
+        try {
+            LOADER.execute(() -> load(client, cacheKey, info));
+        } catch (Exception e) {
+            LOADING.remove(cacheKey);
+        }
+    }
+
+    private static void load(OssClient client, String cacheKey, ObjectInfo info) {
+        Path tempFile = CACHE_DIR.resolve(IdUtil.fastSimpleUUID() + ".tmp");
+        try {
+            client.fileDownload(info.getKey(), tempFile);
+            Path target = CACHE_DIR.resolve(UUID.nameUUIDFromBytes((cacheKey + ":" + info.getETag()).getBytes(StandardCharsets.UTF_8)).toString());
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            put(cacheKey, new CachedObject(target, info.getETag(), Files.size(target)));
+        } catch (Exception e) {
+            log.warn("OSS对象缓存失败 key:{} {}", info.getKey(), e.getMessage());
+            FileUtils.del(tempFile.toFile());
+        } finally {
+            LOADING.remove(cacheKey);
+        }
+    }
+
+    private static void put(String cacheKey, CachedObject cached) {
+        LOCK.lock();
+        try {
+            CachedObject old = ENTRIES.put(cacheKey, cached);
+            if (old != null) {
+                totalSize -= old.contentLength();
+                if (!old.path().equals(cached.path())) {
+                    delete(old);
+                }
+            }
+            totalSize += cached.contentLength();
+            Iterator<Map.Entry<String, CachedObject>> it = ENTRIES.entrySet().iterator();
+            while (totalSize > MAX_SIZE && it.hasNext()) {
+                CachedObject eldest = it.next().getValue();
+                it.remove();
+                totalSize -= eldest.contentLength();
+                delete(eldest);
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void delete(CachedObject cached) {
+        try {
+            // 正在读取的文件删除后仍可继续读取
+            Files.deleteIfExists(cached.path());
+        } catch (Exception e) {
+            log.warn("删除OSS缓存文件失败 {}", cached.path(), e);
+        }
+    }
+
+    /**
+     * 缓存的对象
+     *
+     * @param path          本地文件
+     * @param eTag          实体标记
+     * @param contentLength 对象大小
+     */
+    public record CachedObject(Path path, String eTag, long contentLength) {
+    }
+
+}
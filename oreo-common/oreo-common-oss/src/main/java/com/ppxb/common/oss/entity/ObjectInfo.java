@@ -0,0 +1,34 @@
+package com.ppxb.common.oss.entity;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 对象元数据
+ *
+ * @author Lion Li
+ */
+@Data
+@Builder
+public class ObjectInfo {
+
+    /**
+     * 对象键
+     */
+    private String key;
+
+    /**
+     * 实体标记
+     */
+    private String eTag;
+
+    /**
+     * 对象大小
+     */
+    private long contentLength;
+
+    /**
+     * 内容类型
+     */
+    private String contentType;
+
+}
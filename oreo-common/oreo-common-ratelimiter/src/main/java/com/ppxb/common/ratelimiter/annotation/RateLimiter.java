@@ -1,4 +1,5 @@
 package com.ppxb.common.ratelimiter.annotation;
+import com.ppxb.common.ratelimiter.enums.LimitMode;
 import com.ppxb.common.ratelimiter.enums.LimitType;
 import java.lang.annotation.*;
 
@@ -32,6 +33,16 @@ public @interface RateLimiter {
      */
     LimitType limitType() default LimitType.DEFAULT;
 
+    /**
+     * 限流模式
+     */
+    LimitMode mode() default LimitMode.STRICT;
+
+    /**
+     * 租约模式下每次向 redis 申请的令牌数 小于等于 0 时取限流次数的十分之一(至少为1)
+     */
+    int leaseSize() default 0;
+
     /**
      * 提示消息 支持国际化 格式为 {code}
      */
@@ -1,4 +1,6 @@
 package com.ppxb.common.ratelimiter.aspectj;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,6 +13,8 @@ import com.ppxb.common.core.utils.ServletUtils;
 import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.ratelimiter.annotation.RateLimiter;
+import com.ppxb.common.ratelimiter.core.LeasedTokenBucket;
+import com.ppxb.common.ratelimiter.enums.LimitMode;
 import com.ppxb.common.ratelimiter.enums.LimitType;
 import com.ppxb.common.redis.utils.RedisUtils;
 import org.redisson.api.RateType;
@@ -18,16 +22,25 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 限流处理
+ * <p>
+ * 严格模式每次调用向 redis 申请令牌 租约模式由本地令牌桶批量向 redis 申请令牌
  *
  * @author Lion Li
  */
@@ -35,10 +48,16 @@ import java.lang.reflect.Method;
 @Aspect
 public class RateLimiterAspect {
 
+    /**
+     * 租约模式 redis 拒绝后本地直接拒绝的最长时间 (单位: 毫秒)
+     */
+    private static final long MAX_DENY_MILLIS = 1000;
+
     /**
      * 定义spel表达式解析器
      */
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, RateLimiterAspect.class.getClassLoader()));
     /**
      * 定义spel解析模版
      */
@@ -48,6 +67,24 @@ public class RateLimiterAspect {
      */
     private final ParameterNameDiscoverer pnd = new DefaultParameterNameDiscoverer();
 
+    /**
+     * 方法 -> 已解析的限流key表达式
+     */
+    private final Map<Method, Expression> expressionCache = new ConcurrentHashMap<>();
+
+    /**
+     * 限流key -> 租约令牌桶
+     */
+    private final Cache<String, LeasedTokenBucket> bucketCache = Caffeine.newBuilder()
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .maximumSize(10000)
+        .build();
+
+    private volatile BeanResolver beanResolver;
+
+    private final LongAdder strictRejected = new LongAdder();
+    private final LongAdder leasedRejected = new LongAdder();
+    private final LongAdder leaseRefills = new LongAdder();
 
     @Before("@annotation(rateLimiter)")
     public void doBefore(JoinPoint point, RateLimiter rateLimiter) {
@@ -60,15 +97,26 @@ public class RateLimiterAspect {
             if (rateLimiter.limitType() == LimitType.CLUSTER) {
                 rateType = RateType.PER_CLIENT;
             }
-            long number = RedisUtils.rateLimiter(combineKey, rateType, count, time, timeout);
-            if (number == -1) {
+            boolean acquired;
+            if (rateLimiter.mode() == LimitMode.LEASED) {
+                acquired = tryAcquireLeased(combineKey, rateType, rateLimiter);
+                if (!acquired) {
+                    leasedRejected.increment();
+                }
+            } else {
+                acquired = RedisUtils.rateLimiter(combineKey, rateType, count, time, timeout, 1);
+                if (!acquired) {
+                    strictRejected.increment();
+                }
+            }
+            if (!acquired) {
                 String message = rateLimiter.message();
                 if (StringUtils.startsWith(message, "{") && StringUtils.endsWith(message, "}")) {
                     message = MessageUtils.message(StringUtils.substring(message, 1, message.length() - 1));
                 }
                 throw new ServiceException(message);
             }
-            log.info("限制令牌 => {}, 剩余令牌 => {}, 缓存key => '{}'", count, number, combineKey);
+            log.debug("限制令牌 => {}, 缓存key => '{}'", count, combineKey);
         } catch (Exception e) {
             if (e instanceof ServiceException) {
                 throw e;
@@ -78,6 +126,43 @@ public class RateLimiterAspect {
         }
     }
 
+    /**
+     * 严格模式被拒绝次数
+     */
+    public long getStrictRejectedCount() {
+        return strictRejected.sum();
+    }
+
+    /**
+     * 租约模式被拒绝次数
+     */
+    public long getLeasedRejectedCount() {
+        return leasedRejected.sum();
+    }
+
+    /**
+     * 租约模式向 redis 续租成功次数
+     */
+    public long getLeaseRefillCount() {
+        return leaseRefills.sum();
+    }
+
+    private boolean tryAcquireLeased(String combineKey, RateType rateType, RateLimiter rateLimiter) {
+        int count = rateLimiter.count();
+        int time = rateLimiter.time();
+        int leaseSize = rateLimiter.leaseSize() > 0 ? Math.min(rateLimiter.leaseSize(), count) : Math.max(1, count / 10);
+        // 拒绝后等待约一个令牌的生成时间再向 redis 申请
+        long denyMillis = Math.min(MAX_DENY_MILLIS, Math.max(1, time * 1000L / count));
+        LeasedTokenBucket bucket = bucketCache.get(combineKey, k -> new LeasedTokenBucket());
+        return bucket.tryAcquire(leaseSize, time * 1000L, denyMillis, permits -> {
+            boolean granted = RedisUtils.rateLimiter(combineKey, rateType, count, time, rateLimiter.timeout(), permits);
+            if (granted) {
+                leaseRefills.increment();
+            }
+            return granted;
+        });
+    }
+
     private String getCombineKey(RateLimiter rateLimiter, JoinPoint point) {
         String key = rateLimiter.key();
         // 判断 key 不为空 和 不是表达式
@@ -87,14 +172,8 @@ public class RateLimiterAspect {
             Object[] args = point.getArgs();
             MethodBasedEvaluationContext context =
                 new MethodBasedEvaluationContext(null, targetMethod, args, pnd);
-            context.setBeanResolver(new BeanFactoryResolver(SpringUtils.getBeanFactory()));
-            Expression expression;
-            if (StringUtils.startsWith(key, parserContext.getExpressionPrefix())
-                && StringUtils.endsWith(key, parserContext.getExpressionSuffix())) {
-                expression = parser.parseExpression(key, parserContext);
-            } else {
-                expression = parser.parseExpression(key);
-            }
+            context.setBeanResolver(getBeanResolver());
+            Expression expression = expressionCache.computeIfAbsent(targetMethod, m -> parseKey(rateLimiter.key()));
             key = expression.getValue(context, String.class);
         }
         StringBuilder stringBuffer = new StringBuilder(GlobalConstants.RATE_LIMIT_KEY);
@@ -108,4 +187,19 @@ public class RateLimiterAspect {
         }
         return stringBuffer.append(key).toString();
     }
+
+    private Expression parseKey(String key) {
+        if (StringUtils.startsWith(key, parserContext.getExpressionPrefix())
+            && StringUtils.endsWith(key, parserContext.getExpressionSuffix())) {
+            return parser.parseExpression(key, parserContext);
+        }
+        return parser.parseExpression(key);
+    }
+
+    private BeanResolver getBeanResolver() {
+        if (beanResolver == null) {
+            beanResolver = new BeanFactoryResolver(SpringUtils.getBeanFactory());
+        }
+        return beanResolver;
+    }
 }
@@ -1,5 +1,7 @@
 package com.ppxb.common.ratelimiter.config;
 import com.ppxb.common.ratelimiter.aspectj.RateLimiterAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.connection.RedisConfiguration;
@@ -16,4 +18,19 @@ public class RateLimiterConfig {
         return new RateLimiterAspect();
     }
 
+    /**
+     * 限流拒绝与租约续租指标
+     */
+    @Bean
+    public MeterBinder rateLimiterMetrics(RateLimiterAspect rateLimiterAspect) {
+        return registry -> {
+            FunctionCounter.builder("ratelimiter.rejected", rateLimiterAspect, RateLimiterAspect::getStrictRejectedCount)
+                .tag("mode", "strict").description("限流拒绝次数").register(registry);
+            FunctionCounter.builder("ratelimiter.rejected", rateLimiterAspect, RateLimiterAspect::getLeasedRejectedCount)
+                .tag("mode", "leased").description("限流拒绝次数").register(registry);
+            FunctionCounter.builder("ratelimiter.lease.refills", rateLimiterAspect, RateLimiterAspect::getLeaseRefillCount)
+                .description("租约模式向 redis 续租次数").register(registry);
+        };
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.ppxb.common.ratelimiter.core;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * 租约令牌桶
+ * <p>
+ * 本地令牌通过 CAS 无锁扣减 耗尽后由单个线程向 redis 批量申请令牌(租约)
+ * 租约在限流时间窗口结束后失效 未用完的令牌随之丢弃
+ * redis 拒绝后在短时间内直接本地拒绝 避免并发请求同时打到 redis
+ *
+ * @author Lion Li
+ */
+public class LeasedTokenBucket {
+
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    private volatile Lease lease = new Lease(0, new AtomicLong());
+
+    /**
+     * 在此时间之前直接拒绝 (单位: 毫秒时间戳)
+     */
+    private volatile long deniedUntil;
+
+    /**
+     * 获取一个令牌
+     *
+     * @param leaseSize   每次租约申请的令牌数
+     * @param leaseMillis 租约有效期 (单位: 毫秒)
+     * @param denyMillis  redis 拒绝后本地直接拒绝的时长 (单位: 毫秒)
+     * @param leaser      向 redis 申请指定数量令牌 成功返回 true
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(int leaseSize, long leaseMillis, long denyMillis, IntPredicate leaser) {
+        if (tryTake()) {
+            return true;
+        }
+        if (System.currentTimeMillis() < deniedUntil) {
+            return false;
+        }
+        refillLock.lock();
+        try {
+            // 等待锁期间可能已被其他线程续租
+            if (tryTake()) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            if (now < deniedUntil) {
+                return false;
+            }
+            int granted = leaser.test(leaseSize) ? leaseSize : 0;
+            // 剩余令牌不足一个租约时 退化为申请单个令牌
+            if (granted == 0 && leaseSize > 1 && leaser.test(1)) {
+                granted = 1;
+            }
+            if (granted == 0) {
+                deniedUntil = now + denyMillis;
+                return false;
+            }
+            lease = new Lease(now + leaseMillis, new AtomicLong(granted - 1));
+            return true;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private boolean tryTake() {
+        Lease current = lease;
+        if (System.currentTimeMillis() >= current.expireAt()) {
+            return false;
+        }
+        AtomicLong permits = current.permits();
+        long value;
+        do {
+            value = permits.get();
+            if (value <= 0) {
+                return false;
+            }
+        } while (!permits.compareAndSet(value, value - 1));
+        return true;
+    }
+
+    /**
+     * @param expireAt 失效时间 (单位: 毫秒时间戳)
+     * @param permits  剩余令牌数
+     */
+    private record Lease(long expireAt, AtomicLong permits) {
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.ppxb.common.ratelimiter.enums;
+/**
+ * 限流模式
+ *
+ * @author Lion Li
+ */
+public enum LimitMode {
+
+    /**
+     * 严格模式 每次调用都向 redis 申请令牌 全局限流精确
+     */
+    STRICT,
+
+    /**
+     * 租约模式 本地令牌桶按批向 redis 申请令牌 大幅减少 redis 调用 全局限流近似生效
+     * <p>
+     * 适用于限流次数较大的高频接口 各节点可能持有少量未用完的令牌
+     */
+    LEASED
+}
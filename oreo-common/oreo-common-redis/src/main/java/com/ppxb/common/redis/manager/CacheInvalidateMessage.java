@@ -0,0 +1,33 @@
+package com.ppxb.common.redis.manager;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 一级缓存集群失效消息
+ *
+ * @author Lion Li
+ */
+@Data
+public class CacheInvalidateMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发送节点标识 用于忽略本节点发出的消息
+     */
+    private String nodeId;
+
+    /**
+     * 缓存组名称(已包含租户前缀)
+     */
+    private String cacheName;
+
+    /**
+     * 缓存key 为 null 时表示清空整个缓存组
+     */
+    private String key;
+
+}
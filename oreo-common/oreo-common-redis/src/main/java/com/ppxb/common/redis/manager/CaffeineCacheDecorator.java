@@ -1,25 +1,47 @@
 package com.ppxb.common.redis.manager;
-import com.ppxb.common.core.utils.SpringUtils;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
 
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Cache 装饰器模式(用于扩展 Caffeine 一级缓存)
+ * <p>
+ * 每个缓存组独享一个 Caffeine 实例 写入、删除与清空均广播到集群其他节点 其他节点清理对应的一级缓存
  *
  * @author LionLi
  */
 public class CaffeineCacheDecorator implements Cache {
 
-    private static final com.github.benmanes.caffeine.cache.Cache<Object, Object>
-        CAFFEINE = SpringUtils.getBean("caffeine");
-
     private final String name;
     private final Cache cache;
 
-    public CaffeineCacheDecorator(String name, Cache cache) {
+    /**
+     * 本缓存组独享的一级缓存 统一存放 {@link ValueWrapper}
+     * <p>
+     * key 与 redis 一致使用字符串形式 保证跨节点失效时 key 类型一致
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> caffeine;
+
+    /**
+     * 集群失效通知 参数为缓存key 为 null 时表示清空整个缓存组
+     */
+    private final Consumer<String> invalidator;
+
+    /**
+     * 仅通知集群其他节点 不触发本节点失效监听器 参数为缓存key
+     */
+    private final Consumer<String> publisher;
+
+    public CaffeineCacheDecorator(String name, Cache cache,
+                                  com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> caffeine,
+                                  Consumer<String> invalidator, Consumer<String> publisher) {
         this.name = name;
         this.cache = cache;
+        this.caffeine = caffeine;
+        this.invalidator = invalidator;
+        this.publisher = publisher;
     }
 
     @Override
@@ -32,33 +54,48 @@ public class CaffeineCacheDecorator implements Cache {
         return cache.getNativeCache();
     }
 
-    public String getUniqueKey(Object key) {
-        return name + ":" + key;
-    }
-
     @Override
     public ValueWrapper get(Object key) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key));
-        return (ValueWrapper) o;
+        return caffeine.get(getLocalKey(key), k -> cache.get(key));
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T get(Object key, Class<T> type) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key, type));
-        return (T) o;
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
     }
 
+    /**
+     * 写入后本节点一级缓存直接保存新值 其他节点清理该 key 下次读取时从 redis 加载
+     * <p>
+     * 本节点值未失效 不触发本节点失效监听器
+     */
     @Override
     public void put(Object key, Object value) {
-        CAFFEINE.invalidate(getUniqueKey(key));
         cache.put(key, value);
+        String localKey = getLocalKey(key);
+        caffeine.put(localKey, new SimpleValueWrapper(value));
+        publisher.accept(localKey);
     }
 
     @Override
     public ValueWrapper putIfAbsent(Object key, Object value) {
-        CAFFEINE.invalidate(getUniqueKey(key));
-        return cache.putIfAbsent(key, value);
+        ValueWrapper wrapper = cache.putIfAbsent(key, value);
+        String localKey = getLocalKey(key);
+        caffeine.put(localKey, wrapper == null ? new SimpleValueWrapper(value) : wrapper);
+        if (wrapper == null) {
+            publisher.accept(localKey);
+        }
+        return wrapper;
     }
 
     @Override
@@ -69,28 +106,53 @@ public class CaffeineCacheDecorator implements Cache {
     @Override
     public boolean evictIfPresent(Object key) {
         boolean b = cache.evictIfPresent(key);
-        if (b) {
-            CAFFEINE.invalidate(getUniqueKey(key));
-        }
+        invalidateLocal(getLocalKey(key));
         return b;
     }
 
     @Override
     public void clear() {
-        CAFFEINE.invalidateAll();
         cache.clear();
+        invalidateLocal(null);
     }
 
     @Override
     public boolean invalidate() {
-        return cache.invalidate();
+        boolean b = cache.invalidate();
+        invalidateLocal(null);
+        return b;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key, valueLoader));
-        return (T) o;
+        ValueWrapper wrapper = caffeine.get(getLocalKey(key), k -> new SimpleValueWrapper(cache.get(key, valueLoader)));
+        return wrapper == null ? null : (T) wrapper.get();
+    }
+
+    public String getLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * 仅清理本节点一级缓存(收到集群失效通知时调用)
+     *
+     * @param key 缓存key 为 null 时清空整个缓存组
+     */
+    public void evictLocal(String key) {
+        if (key == null) {
+            caffeine.invalidateAll();
+        } else {
+            caffeine.invalidate(key);
+        }
+    }
+
+    /**
+     * 清理本节点一级缓存并通知集群其他节点
+     */
+    private void invalidateLocal(String key) {
+        evictLocal(key);
+        invalidator.accept(key);
     }
 
 }
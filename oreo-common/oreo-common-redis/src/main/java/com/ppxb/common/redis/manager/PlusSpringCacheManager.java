@@ -14,7 +14,11 @@
  * limitations under the License.
  */
 package com.ppxb.common.redis.manager;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ppxb.common.core.constant.GlobalConstants;
 import com.ppxb.common.redis.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RMap;
 import org.redisson.api.RMapCache;
 import org.redisson.spring.cache.CacheConfig;
@@ -25,11 +29,16 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 /**
  * A {@link org.springframework.cache.CacheManager} implementation
@@ -37,13 +46,42 @@ import java.util.concurrent.ConcurrentMap;
  * <p>
  * 修改 RedissonSpringCacheManager 源码
  * 重写 cacheName 处理方法 支持多参数
+ * 每个缓存组独享 Caffeine 一级缓存 写入、删除与清空通过 redis 主题广播失效到集群所有节点
  *
  * @author Nikita Koksharov
  *
  */
+@Slf4j
 @SuppressWarnings("unchecked")
 public class PlusSpringCacheManager implements CacheManager {
 
+    /**
+     * 一级缓存集群失效通知主题
+     */
+    public static final String CACHE_INVALIDATE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "cache_invalidate";
+
+    /**
+     * 一级缓存默认最大条数(未配置 maxSize 时使用)
+     */
+    private static final int LOCAL_DEFAULT_MAX_SIZE = 1000;
+
+    /**
+     * 一级缓存最长存活时间 作为丢失失效消息时的兜底
+     */
+    private static final Duration LOCAL_MAX_TTL = Duration.ofMinutes(10);
+
+    /**
+     * 当前节点标识
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    /**
+     * 一级缓存失效监听器(本节点删除、清空与集群失效通知均会触发 本节点写入不触发)
+     */
+    private final List<BiConsumer<String, String>> invalidateListeners = new CopyOnWriteArrayList<>();
+
     private boolean dynamic = true;
 
     private boolean allowNullValues = true;
@@ -52,6 +90,7 @@ public class PlusSpringCacheManager implements CacheManager {
 
     Map<String, CacheConfig> configMap = new ConcurrentHashMap<>();
     ConcurrentMap<String, Cache> instanceMap = new ConcurrentHashMap<>();
+    ConcurrentMap<String, CaffeineCacheDecorator> localCacheMap = new ConcurrentHashMap<>();
 
     /**
      * Creates CacheManager supplied by Redisson instance
@@ -83,6 +122,18 @@ public class PlusSpringCacheManager implements CacheManager {
         this.transactionAware = transactionAware;
     }
 
+    /**
+     * 注册一级缓存失效监听器
+     * <p>
+     * 参数依次为缓存组名称(已包含租户前缀)与缓存key(为 null 时表示清空整个缓存组)
+     * 仅开启本地缓存的缓存组会触发
+     *
+     * @param listener 监听器
+     */
+    public void addInvalidateListener(BiConsumer<String, String> listener) {
+        invalidateListeners.add(listener);
+    }
+
     /**
      * Defines 'fixed' cache names.
      * A new cache instance will not be created in dynamic for non-defined names.
@@ -161,7 +212,7 @@ public class PlusSpringCacheManager implements CacheManager {
 
         Cache cache = new RedissonCache(map, allowNullValues);
         if (local == 1) {
-            cache = new CaffeineCacheDecorator(name, cache);
+            cache = createLocalCache(name, config, cache);
         }
         if (transactionAware) {
             cache = new TransactionAwareCacheDecorator(cache);
@@ -178,7 +229,7 @@ public class PlusSpringCacheManager implements CacheManager {
 
         Cache cache = new RedissonCache(map, config, allowNullValues);
         if (local == 1) {
-            cache = new CaffeineCacheDecorator(name, cache);
+            cache = createLocalCache(name, config, cache);
         }
         if (transactionAware) {
             cache = new TransactionAwareCacheDecorator(cache);
@@ -192,6 +243,78 @@ public class PlusSpringCacheManager implements CacheManager {
         return cache;
     }
 
+    private Cache createLocalCache(String name, CacheConfig config, Cache cache) {
+        subscribeInvalidate();
+        return localCacheMap.computeIfAbsent(name, k ->
+            new CaffeineCacheDecorator(name, cache, buildCaffeine(config), key -> {
+                publishInvalidate(name, key);
+                notifyInvalidate(name, key);
+            }, key -> publishInvalidate(name, key)));
+    }
+
+    /**
+     * 按缓存组配置构建一级缓存
+     * <p>
+     * ttl/maxIdleTime 与 redis 保持一致(不超过 {@link #LOCAL_MAX_TTL}) maxSize 未配置时使用默认值
+     */
+    private com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> buildCaffeine(CacheConfig config) {
+        long ttl = config.getTTL() > 0 ? Math.min(config.getTTL(), LOCAL_MAX_TTL.toMillis()) : LOCAL_MAX_TTL.toMillis();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(ttl))
+            .maximumSize(config.getMaxSize() > 0 ? config.getMaxSize() : LOCAL_DEFAULT_MAX_SIZE);
+        if (config.getMaxIdleTime() > 0) {
+            builder.expireAfterAccess(Duration.ofMillis(config.getMaxIdleTime()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 广播一级缓存失效消息
+     *
+     * @param name 缓存组名称
+     * @param key  缓存key 为 null 时清空整个缓存组
+     */
+    private void publishInvalidate(String name, String key) {
+        CacheInvalidateMessage message = new CacheInvalidateMessage();
+        message.setNodeId(nodeId);
+        message.setCacheName(name);
+        message.setKey(key);
+        try {
+            RedisUtils.publish(CACHE_INVALIDATE_TOPIC, message);
+        } catch (Exception e) {
+            log.warn("一级缓存失效消息发送失败 cacheName:{} key:{}", name, key, e);
+        }
+    }
+
+    /**
+     * 订阅一级缓存失效消息 仅清理本节点对应缓存组的 key
+     */
+    private void subscribeInvalidate() {
+        if (!subscribed.compareAndSet(false, true)) {
+            return;
+        }
+        RedisUtils.subscribe(CACHE_INVALIDATE_TOPIC, CacheInvalidateMessage.class, message -> {
+            if (nodeId.equals(message.getNodeId())) {
+                return;
+            }
+            CaffeineCacheDecorator local = localCacheMap.get(message.getCacheName());
+            if (local != null) {
+                local.evictLocal(message.getKey());
+            }
+            notifyInvalidate(message.getCacheName(), message.getKey());
+        });
+    }
+
+    private void notifyInvalidate(String name, String key) {
+        for (BiConsumer<String, String> listener : invalidateListeners) {
+            try {
+                listener.accept(name, key);
+            } catch (Exception e) {
+                log.warn("一级缓存失效监听器执行失败 cacheName:{} key:{}", name, key, e);
+            }
+        }
+    }
+
     @Override
     public Collection<String> getCacheNames() {
         return Collections.unmodifiableSet(configMap.keySet());
@@ -57,4 +57,13 @@ public class CacheUtils {
         CACHE_MANAGER.getCache(cacheNames).clear();
     }
 
+    /**
+     * 立即清空缓存值(不等待事务提交 用于事务提交回调中)
+     *
+     * @param cacheNames 缓存组名称
+     */
+    public static void invalidate(String cacheNames) {
+        CACHE_MANAGER.getCache(cacheNames).invalidate();
+    }
+
 }
@@ -59,6 +59,23 @@ public class RedisUtils {
         }
     }
 
+    /**
+     * 限流 一次申请多个令牌
+     *
+     * @param key          限流key
+     * @param rateType     限流类型
+     * @param rate         速率
+     * @param rateInterval 速率间隔
+     * @param timeout      超时时间
+     * @param permits      申请的令牌数
+     * @return 是否申请成功
+     */
+    public static boolean rateLimiter(String key, RateType rateType, int rate, int rateInterval, int timeout, int permits) {
+        RRateLimiter rateLimiter = CLIENT.getRateLimiter(key);
+        rateLimiter.trySetRate(rateType, rate, Duration.ofSeconds(rateInterval), Duration.ofSeconds(timeout));
+        return rateLimiter.tryAcquire(permits);
+    }
+
     /**
      * 获取客户端实例
      */
@@ -4,12 +4,16 @@ import cn.dev33.satoken.jwt.StpLogicJwtForSimple;
 import cn.dev33.satoken.stp.StpInterface;
 import cn.dev33.satoken.stp.StpLogic;
 import com.ppxb.common.core.factory.YmlPropertySourceFactory;
+import com.ppxb.common.satoken.core.context.LoginContextFilter;
+import com.ppxb.common.satoken.core.context.LoginContextHolder;
 import com.ppxb.common.satoken.core.dao.PlusSaTokenDao;
 import com.ppxb.common.satoken.core.service.SaPermissionImpl;
 import com.ppxb.common.satoken.handler.SaTokenExceptionHandler;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.task.TaskDecorator;
 
 /**
  * sa-token 配置
@@ -42,6 +46,27 @@ public class SaTokenConfig {
         return new PlusSaTokenDao();
     }
 
+    /**
+     * 登录上下文过滤器 每个请求只解析一次 token
+     */
+    @Bean
+    public FilterRegistrationBean<LoginContextFilter> loginContextFilterRegistration() {
+        FilterRegistrationBean<LoginContextFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new LoginContextFilter());
+        registration.addUrlPatterns("/*");
+        registration.setName("loginContextFilter");
+        registration.setOrder(FilterRegistrationBean.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 异步任务传递登录上下文
+     */
+    @Bean
+    public TaskDecorator loginContextTaskDecorator() {
+        return LoginContextHolder.taskDecorator();
+    }
+
     /**
      * 异常处理器
      */
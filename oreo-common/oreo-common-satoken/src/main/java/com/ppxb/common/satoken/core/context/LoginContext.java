@@ -0,0 +1,114 @@
+package com.ppxb.common.satoken.core.context;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.jwt.SaJwtUtil;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.convert.Convert;
+import com.ppxb.common.core.domain.model.LoginUser;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.satoken.utils.LoginHelper;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 登录上下文
+ * <p>
+ * 一次性解析并校验 token(jwt) 得到的登录信息 创建后不再变化
+ * 登录用户只在首次使用时按 token 读取 Token-Session 之后复用 不依赖请求线程 可传递到异步任务中使用
+ *
+ * @author Lion Li
+ */
+@Getter
+public final class LoginContext {
+
+    /**
+     * 未登录或 token 无效
+     */
+    public static final LoginContext ANONYMOUS = new LoginContext(null, Collections.emptyMap());
+
+    private final String token;
+
+    private final String tenantId;
+
+    private final Long userId;
+
+    private final String username;
+
+    private final Long deptId;
+
+    private final String deptName;
+
+    private final String deptCategory;
+
+    private final String clientId;
+
+    private volatile LoginUser loginUser;
+
+    private LoginContext(String token, Map<String, Object> payloads) {
+        this.token = token;
+        this.tenantId = Convert.toStr(payloads.get(LoginHelper.TENANT_KEY));
+        this.userId = Convert.toLong(payloads.get(LoginHelper.USER_KEY));
+        this.username = Convert.toStr(payloads.get(LoginHelper.USER_NAME_KEY));
+        this.deptId = Convert.toLong(payloads.get(LoginHelper.DEPT_KEY));
+        this.deptName = Convert.toStr(payloads.get(LoginHelper.DEPT_NAME_KEY));
+        this.deptCategory = Convert.toStr(payloads.get(LoginHelper.DEPT_CATEGORY_KEY));
+        this.clientId = Convert.toStr(payloads.get(LoginHelper.CLIENT_KEY));
+    }
+
+    /**
+     * 解析当前请求的 token 只校验一次签名
+     *
+     * @return 登录上下文 未登录或 token 无效时为 {@link #ANONYMOUS}
+     */
+    public static LoginContext resolve() {
+        LoginContext context = tryResolve();
+        return context == null ? ANONYMOUS : context;
+    }
+
+    /**
+     * 解析当前请求的 token
+     *
+     * @return 登录上下文 未携带 token 时为 {@link #ANONYMOUS} 解析出错时为 null 调用方不应缓存
+     */
+    static LoginContext tryResolve() {
+        try {
+            String token = StpUtil.getTokenValue();
+            if (StringUtils.isBlank(token)) {
+                return ANONYMOUS;
+            }
+            return new LoginContext(token, SaJwtUtil.getPayloads(token, StpUtil.getLoginType(),
+                SaManager.getConfig().getJwtSecretKey()));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取登录用户 首次取到后复用
+     * <p>
+     * 未登录、token 无效或会话已失效时与 {@link StpUtil#getTokenSession()} 一致抛出 NotLoginException
+     *
+     * @return 登录用户
+     */
+    @SuppressWarnings("unchecked cast")
+    public <T extends LoginUser> T getLoginUser() {
+        LoginUser user = loginUser;
+        if (user != null) {
+            return (T) user;
+        }
+        if (token != null) {
+            SaSession session = StpUtil.getStpLogic().getTokenSessionByToken(token, false);
+            user = session == null ? null : (LoginUser) session.get(LoginHelper.LOGIN_USER_KEY);
+            if (user != null) {
+                loginUser = user;
+                return (T) user;
+            }
+        }
+        // 取不到登录用户时走 Sa-Token 的校验 抛出对应的未登录异常
+        return (T) StpUtil.getTokenSession().get(LoginHelper.LOGIN_USER_KEY);
+    }
+
+}
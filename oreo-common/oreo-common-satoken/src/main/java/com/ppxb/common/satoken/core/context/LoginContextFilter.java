@@ -0,0 +1,31 @@
+package com.ppxb.common.satoken.core.context;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+/**
+ * 登录上下文过滤器
+ * <p>
+ * 为每个请求开启登录上下文范围 请求内多次获取登录信息只解析一次 token
+ *
+ * @author Lion Li
+ */
+public class LoginContextFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        LoginContextHolder.Scope previous = LoginContextHolder.open(null);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LoginContextHolder.close(previous);
+        }
+    }
+
+}
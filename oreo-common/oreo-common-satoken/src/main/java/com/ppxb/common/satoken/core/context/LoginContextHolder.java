@@ -0,0 +1,112 @@
+package com.ppxb.common.satoken.core.context;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 登录上下文持有者
+ * <p>
+ * 请求范围内由 {@link LoginContextFilter} 开启 首次使用时解析并保存 请求结束时清除
+ * 不在请求范围内(如定时任务)时每次调用都重新解析
+ * 异步任务通过 {@link #wrap(Runnable)} 或 {@link #taskDecorator()} 传递提交时的上下文
+ *
+ * @author Lion Li
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class LoginContextHolder {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    /**
+     * 获取当前登录上下文
+     */
+    public static LoginContext current() {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return LoginContext.resolve();
+        }
+        LoginContext context = scope.context;
+        if (context == null) {
+            context = LoginContext.tryResolve();
+            if (context == null) {
+                // 解析出错不缓存 下次使用时重新解析
+                return LoginContext.ANONYMOUS;
+            }
+            scope.context = context;
+        }
+        return context;
+    }
+
+    /**
+     * 丢弃当前请求已解析的上下文 登录、注销后 token 变化时调用 下次使用时重新解析
+     */
+    public static void reset() {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.context = null;
+        }
+    }
+
+    /**
+     * 包装任务 在执行线程中使用提交时的登录上下文
+     *
+     * @param task 任务
+     * @return 包装后的任务 不在请求范围内提交时原样返回
+     */
+    public static Runnable wrap(Runnable task) {
+        if (SCOPE.get() == null) {
+            return task;
+        }
+        LoginContext context = current();
+        return () -> {
+            Scope previous = open(context);
+            try {
+                task.run();
+            } finally {
+                close(previous);
+            }
+        };
+    }
+
+    /**
+     * 传递登录上下文的任务装饰器
+     */
+    public static TaskDecorator taskDecorator() {
+        return LoginContextHolder::wrap;
+    }
+
+    /**
+     * 开启上下文范围
+     *
+     * @param context 已解析的上下文 为 null 时首次使用再解析
+     * @return 之前的范围 关闭时恢复
+     */
+    static Scope open(LoginContext context) {
+        Scope previous = SCOPE.get();
+        Scope scope = new Scope();
+        scope.context = context;
+        SCOPE.set(scope);
+        return previous;
+    }
+
+    /**
+     * 关闭上下文范围 恢复之前的范围
+     */
+    static void close(Scope previous) {
+        if (previous == null) {
+            SCOPE.remove();
+        } else {
+            SCOPE.set(previous);
+        }
+    }
+
+    /**
+     * 上下文范围 只在所属线程内读写
+     */
+    static final class Scope {
+
+        private LoginContext context;
+    }
+
+}
@@ -1,27 +1,56 @@
 package com.ppxb.common.satoken.core.dao;
 import cn.dev33.satoken.dao.auto.SaTokenDaoBySessionFollowObject;
 import cn.dev33.satoken.util.SaFoxUtil;
+import cn.hutool.core.util.IdUtil;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ppxb.common.core.constant.GlobalConstants;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.redis.manager.CacheInvalidateMessage;
 import com.ppxb.common.redis.utils.RedisUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Sa-Token持久层接口(使用框架自带RedisUtils实现 协议统一)
  * <p>
  * 采用 caffeine + redis 多级缓存 优化并发查询效率
  * <p>
+ * 1. 本地缓存同时保存值与过期时间 未命中时通过 pipeline 一次往返读取 值 + ttl
+ * 2. 写入与删除通过 redis 主题广播 集群所有节点同步失效本地缓存
+ * 3. 续期(updateTimeout)合并后异步批量写入 redis
+ * <p>
  * SaTokenDaoBySessionFollowObject 是 SaTokenDao 子集简化了session方法处理
  *
  * @author Lion Li
  */
+@Slf4j
 public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
 
-    private static final Cache<String, Object> CAFFEINE = Caffeine.newBuilder()
+    /**
+     * 本地缓存集群失效通知主题
+     */
+    private static final String INVALIDATE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "satoken_invalidate";
+
+    /**
+     * 续期批量写入间隔 (单位: 毫秒)
+     */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private static final Cache<String, CacheEntry> CAFFEINE = Caffeine.newBuilder()
         // 设置最后一次写入或访问后经过固定时间过期
         .expireAfterWrite(5, TimeUnit.SECONDS)
         // 初始的缓存空间大小
@@ -30,13 +59,23 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
         .maximumSize(1000)
         .build();
 
+    /**
+     * 待写入的续期 key -> 过期时间 (单位: 秒) 同一 key 多次续期只保留最后一次
+     */
+    private static final Map<String, Long> PENDING_TIMEOUT = new ConcurrentHashMap<>();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
     /**
      * 获取Value，如无返空
      */
     @Override
     public String get(String key) {
-        Object o = CAFFEINE.get(key, k -> RedisUtils.getCacheObject(key));
-        return (String) o;
+        return (String) load(key).value();
     }
 
     /**
@@ -47,13 +86,14 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
         if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
             return;
         }
+        PENDING_TIMEOUT.remove(key);
         // 判断是否为永不过期
         if (timeout == NEVER_EXPIRE) {
             RedisUtils.setCacheObject(key, value);
         } else {
             RedisUtils.setCacheObject(key, value, Duration.ofSeconds(timeout));
         }
-        CAFFEINE.invalidate(key);
+        invalidate(key);
     }
 
     /**
@@ -61,10 +101,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void update(String key, String value) {
-        if (RedisUtils.hasKey(key)) {
-            RedisUtils.setCacheObject(key, value, true);
-            CAFFEINE.invalidate(key);
-        }
+        doUpdate(key, value);
     }
 
     /**
@@ -72,7 +109,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void delete(String key) {
-        RedisUtils.deleteObject(key);
+        doDelete(key);
     }
 
     /**
@@ -80,9 +117,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public long getTimeout(String key) {
-        long timeout = RedisUtils.getTimeToLive(key);
-        // 加1的目的 解决sa-token使用秒 redis是毫秒导致1秒的精度问题 手动补偿
-        return timeout < 0 ? timeout : timeout / 1000 + 1;
+        return load(key).timeout();
     }
 
     /**
@@ -90,7 +125,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void updateTimeout(String key, long timeout) {
-        RedisUtils.expire(key, Duration.ofSeconds(timeout));
+        doUpdateTimeout(key, timeout);
     }
 
 
@@ -99,8 +134,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public Object getObject(String key) {
-        Object o = CAFFEINE.get(key, k -> RedisUtils.getCacheObject(key));
-        return o;
+        return load(key).value();
     }
 
     /**
@@ -112,8 +146,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
     @SuppressWarnings("unchecked cast")
     @Override
     public <T> T getObject(String key, Class<T> classType) {
-        Object o = CAFFEINE.get(key, k -> RedisUtils.getCacheObject(key));
-        return (T) o;
+        return (T) load(key).value();
     }
 
     /**
@@ -124,13 +157,14 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
         if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
             return;
         }
+        PENDING_TIMEOUT.remove(key);
         // 判断是否为永不过期
         if (timeout == NEVER_EXPIRE) {
             RedisUtils.setCacheObject(key, object);
         } else {
             RedisUtils.setCacheObject(key, object, Duration.ofSeconds(timeout));
         }
-        CAFFEINE.invalidate(key);
+        invalidate(key);
     }
 
     /**
@@ -138,10 +172,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void updateObject(String key, Object object) {
-        if (RedisUtils.hasKey(key)) {
-            RedisUtils.setCacheObject(key, object, true);
-            CAFFEINE.invalidate(key);
-        }
+        doUpdate(key, object);
     }
 
     /**
@@ -149,7 +180,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void deleteObject(String key) {
-        RedisUtils.deleteObject(key);
+        doDelete(key);
     }
 
     /**
@@ -157,9 +188,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public long getObjectTimeout(String key) {
-        long timeout = RedisUtils.getTimeToLive(key);
-        // 加1的目的 解决sa-token使用秒 redis是毫秒导致1秒的精度问题 手动补偿
-        return timeout < 0 ? timeout : timeout / 1000 + 1;
+        return load(key).timeout();
     }
 
     /**
@@ -167,7 +196,7 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
      */
     @Override
     public void updateObjectTimeout(String key, long timeout) {
-        RedisUtils.expire(key, Duration.ofSeconds(timeout));
+        doUpdateTimeout(key, timeout);
     }
 
     /**
@@ -180,7 +209,176 @@ public class PlusSaTokenDao implements SaTokenDaoBySessionFollowObject {
         return (List<String>) CAFFEINE.get(keyStr, k -> {
             Collection<String> keys = RedisUtils.keys(keyStr);
             List<String> list = new ArrayList<>(keys);
-            return SaFoxUtil.searchList(list, start, size, sortType);
+            return new CacheEntry(SaFoxUtil.searchList(list, start, size, sortType), NEVER_EXPIRE);
+        }).value();
+    }
+
+    /**
+     * 更新值 (过期时间不变)
+     * <p>
+     * 使用 KEEPTTL 写入 过期时间以 redis 为准 其他节点的续期不会被本地缓存的旧过期时间覆盖
+     * 本地缓存只用于判断 key 是否存在 本地已过期时再向 redis 确认
+     */
+    private void doUpdate(String key, Object object) {
+        CacheEntry entry = load(key);
+        if (entry.value() == null) {
+            return;
+        }
+        if (entry.expireAt() != NEVER_EXPIRE && entry.expireAt() <= System.currentTimeMillis()
+            && !RedisUtils.hasKey(key)) {
+            CAFFEINE.invalidate(key);
+            return;
+        }
+        RedisUtils.setCacheObject(key, object, true);
+        invalidate(key);
+    }
+
+    private void doDelete(String key) {
+        PENDING_TIMEOUT.remove(key);
+        RedisUtils.deleteObject(key);
+        invalidate(key);
+    }
+
+    /**
+     * 修改剩余存活时间 (单位: 秒)
+     * <p>
+     * 仅更新本地缓存并登记续期 由后台任务合并后批量写入 redis
+     */
+    private void doUpdateTimeout(String key, long timeout) {
+        CacheEntry entry = CAFFEINE.getIfPresent(key);
+        if (entry != null && entry.value() != null) {
+            CAFFEINE.put(key, new CacheEntry(entry.value(), toExpireAt(timeout)));
+        }
+        PENDING_TIMEOUT.put(key, timeout);
+        scheduleFlush();
+    }
+
+    /**
+     * 关闭前写入剩余续期
+     */
+    @PreDestroy
+    public void destroy() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Sa-Token续期关闭前写入失败 {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将待写入的续期批量刷入 redis
+     */
+    public void flush() {
+        if (PENDING_TIMEOUT.isEmpty()) {
+            return;
+        }
+        Map<String, Long> timeouts = new HashMap<>();
+        for (String key : PENDING_TIMEOUT.keySet()) {
+            Long timeout = PENDING_TIMEOUT.remove(key);
+            if (timeout != null) {
+                timeouts.put(key, timeout);
+            }
+        }
+        if (timeouts.isEmpty()) {
+            return;
+        }
+        RBatch batch = RedisUtils.getClient().createBatch();
+        timeouts.forEach((key, timeout) -> {
+            RBucketAsync<Object> bucket = batch.getBucket(key);
+            if (timeout == NEVER_EXPIRE) {
+                bucket.clearExpireAsync();
+            } else {
+                bucket.expireAsync(Duration.ofSeconds(timeout));
+            }
+        });
+        batch.execute();
+    }
+
+    /**
+     * 读取本地缓存 未命中时通过 pipeline 一次往返读取 值 + ttl
+     */
+    private CacheEntry load(String key) {
+        subscribeInvalidate();
+        return CAFFEINE.get(key, k -> {
+            RBatch batch = RedisUtils.getClient().createBatch();
+            RBucketAsync<Object> bucket = batch.getBucket(key);
+            bucket.getAsync();
+            bucket.remainTimeToLiveAsync();
+            List<?> responses = batch.execute().getResponses();
+            Object value = responses.get(0);
+            long ttl = (Long) responses.get(1);
+            if (value == null || ttl == NOT_VALUE_EXPIRE) {
+                return new CacheEntry(null, NOT_VALUE_EXPIRE);
+            }
+            return new CacheEntry(value, ttl == NEVER_EXPIRE ? NEVER_EXPIRE : System.currentTimeMillis() + ttl);
         });
     }
+
+    /**
+     * 失效本节点缓存并通知集群其他节点
+     */
+    private void invalidate(String key) {
+        CAFFEINE.invalidate(key);
+        CacheInvalidateMessage message = new CacheInvalidateMessage();
+        message.setNodeId(nodeId);
+        message.setKey(key);
+        try {
+            RedisUtils.publish(INVALIDATE_TOPIC, message);
+        } catch (Exception e) {
+            log.warn("Sa-Token本地缓存失效消息发送失败 key:{}", key, e);
+        }
+    }
+
+    private void subscribeInvalidate() {
+        if (!subscribed.compareAndSet(false, true)) {
+            return;
+        }
+        RedisUtils.subscribe(INVALIDATE_TOPIC, CacheInvalidateMessage.class, message -> {
+            if (!nodeId.equals(message.getNodeId())) {
+                CAFFEINE.invalidate(message.getKey());
+            }
+        });
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduledExecutorService = SpringUtils.getBean("scheduledExecutorService");
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Sa-Token续期批量写入失败", e);
+            }
+        }, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private static long toExpireAt(long timeout) {
+        return timeout == NEVER_EXPIRE ? NEVER_EXPIRE : System.currentTimeMillis() + timeout * 1000;
+    }
+
+    /**
+     * 本地缓存项
+     *
+     * @param value    缓存值 为 null 表示 redis 中不存在
+     * @param expireAt 过期时间戳 (单位: 毫秒) -1 永不过期 -2 不存在
+     */
+    private record CacheEntry(Object value, long expireAt) {
+
+        /**
+         * 剩余存活时间 (单位: 秒)
+         */
+        long timeout() {
+            if (value == null) {
+                return NOT_VALUE_EXPIRE;
+            }
+            if (expireAt == NEVER_EXPIRE) {
+                return NEVER_EXPIRE;
+            }
+            long remain = expireAt - System.currentTimeMillis();
+            // 加1的目的 解决sa-token使用秒 redis是毫秒导致1秒的精度问题 手动补偿
+            return remain <= 0 ? NOT_VALUE_EXPIRE : remain / 1000 + 1;
+        }
+    }
 }
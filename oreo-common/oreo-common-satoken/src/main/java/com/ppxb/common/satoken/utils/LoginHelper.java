@@ -11,6 +11,8 @@ import com.ppxb.common.core.constant.SystemConstants;
 import com.ppxb.common.core.constant.TenantConstants;
 import com.ppxb.common.core.domain.model.LoginUser;
 import com.ppxb.common.core.enums.UserType;
+import com.ppxb.common.satoken.core.context.LoginContext;
+import com.ppxb.common.satoken.core.context.LoginContextHolder;
 import java.util.Set;
 
 
@@ -56,18 +58,22 @@ public class LoginHelper {
                 .setExtra(DEPT_CATEGORY_KEY, loginUser.getDeptCategory())
         );
         StpUtil.getTokenSession().set(LOGIN_USER_KEY, loginUser);
+        // 本次请求已生成新 token 丢弃登录前解析的上下文
+        LoginContextHolder.reset();
+    }
+
+    /**
+     * 获取当前登录上下文 同一请求内只解析一次 token
+     */
+    public static LoginContext getContext() {
+        return LoginContextHolder.current();
     }
 
     /**
      * 获取用户(多级缓存)
      */
-    @SuppressWarnings("unchecked cast")
     public static <T extends LoginUser> T getLoginUser() {
-        SaSession session = StpUtil.getTokenSession();
-        if (ObjectUtil.isNull(session)) {
-            return null;
-        }
-        return (T) session.get(LOGIN_USER_KEY);
+        return getContext().getLoginUser();
     }
 
     /**
@@ -86,63 +92,56 @@ public class LoginHelper {
      * 获取用户id
      */
     public static Long getUserId() {
-        return Convert.toLong(getExtra(USER_KEY));
+        return getContext().getUserId();
     }
 
     /**
      * 获取用户id
      */
     public static String getUserIdStr() {
-        return Convert.toStr(getExtra(USER_KEY));
+        return Convert.toStr(getContext().getUserId());
     }
 
     /**
      * 获取用户账户
      */
     public static String getUsername() {
-        return Convert.toStr(getExtra(USER_NAME_KEY));
+        return getContext().getUsername();
     }
 
     /**
      * 获取租户ID
      */
     public static String getTenantId() {
-        return Convert.toStr(getExtra(TENANT_KEY));
+        return getContext().getTenantId();
     }
 
     /**
      * 获取部门ID
      */
     public static Long getDeptId() {
-        return Convert.toLong(getExtra(DEPT_KEY));
+        return getContext().getDeptId();
     }
 
     /**
      * 获取部门名
      */
     public static String getDeptName() {
-        return Convert.toStr(getExtra(DEPT_NAME_KEY));
+        return getContext().getDeptName();
     }
 
     /**
      * 获取部门类别编码
      */
     public static String getDeptCategory() {
-        return Convert.toStr(getExtra(DEPT_CATEGORY_KEY));
+        return getContext().getDeptCategory();
     }
 
     /**
-     * 获取当前 Token 的扩展信息
-     *
-     * @param key 键值
-     * @return 对应的扩展数据
+     * 获取客户端ID
      */
-    private static Object getExtra(String key) {
-        try {
-            return StpUtil.getExtra(key);
-        } catch (Exception e) {
-            return null;
-        }
+    public static String getClientId() {
+        return getContext().getClientId();
     }
 
     /**
@@ -2,11 +2,17 @@ package com.ppxb.common.sse.config;
 import com.ppxb.common.sse.controller.SseController;
 import com.ppxb.common.sse.core.SseEmitterManager;
 import com.ppxb.common.sse.listener.SseTopicListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * SSE 自动装配
  *
@@ -18,8 +24,9 @@ import org.springframework.context.annotation.Bean;
 public class SseAutoConfiguration {
 
     @Bean
-    public SseEmitterManager sseEmitterManager() {
-        return new SseEmitterManager();
+    public SseEmitterManager sseEmitterManager(SseProperties sseProperties,
+                                               @Qualifier("scheduledExecutorService") ScheduledExecutorService scheduledExecutorService) {
+        return new SseEmitterManager(sseProperties, scheduledExecutorService);
     }
 
     @Bean
@@ -32,4 +39,27 @@ public class SseAutoConfiguration {
         return new SseController(sseEmitterManager);
     }
 
+    /**
+     * SSE 连接与消息投递指标
+     */
+    @Bean
+    public MeterBinder sseMetrics(SseEmitterManager sseEmitterManager) {
+        return registry -> {
+            Gauge.builder("sse.connections", sseEmitterManager, SseEmitterManager::getConnectionCount)
+                .description("本机 SSE 连接数").register(registry);
+            Gauge.builder("sse.messages.queued", sseEmitterManager, SseEmitterManager::getQueuedCount)
+                .description("发送队列中等待发送的消息数").register(registry);
+            Gauge.builder("sse.messages.inflight", sseEmitterManager, SseEmitterManager::getInFlightCount)
+                .description("正在发送中的消息数").register(registry);
+            Gauge.builder("sse.send.pending", sseEmitterManager, SseEmitterManager::getPendingDrainCount)
+                .description("等待发送线程的连接数").register(registry);
+            FunctionCounter.builder("sse.messages.sent", sseEmitterManager, SseEmitterManager::getSentCount)
+                .description("已发送消息数").register(registry);
+            FunctionCounter.builder("sse.messages.dropped", sseEmitterManager, SseEmitterManager::getDroppedCount)
+                .description("发送队列已满被丢弃的消息数").register(registry);
+            FunctionCounter.builder("sse.connections.reaped", sseEmitterManager, SseEmitterManager::getReapedCount)
+                .description("因发送停滞被回收的连接数").register(registry);
+        };
+    }
+
 }
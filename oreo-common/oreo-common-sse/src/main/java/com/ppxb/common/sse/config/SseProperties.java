@@ -17,4 +17,19 @@ public class SseProperties {
      * 路径
      */
     private String path;
+
+    /**
+     * 单个连接发送队列容量 超出后丢弃新消息
+     */
+    private Integer queueCapacity = 256;
+
+    /**
+     * 心跳间隔 (单位: 秒) 在线登记有效期为三倍心跳间隔
+     */
+    private Integer heartbeatInterval = 30;
+
+    /**
+     * 发送线程数上限 所有连接共用 每个连接同一时间最多占用一个线程
+     */
+    private Integer sendThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
 }
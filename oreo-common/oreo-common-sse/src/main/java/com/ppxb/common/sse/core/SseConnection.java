@@ -0,0 +1,75 @@
+package com.ppxb.common.sse.core;
+
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个 SSE 连接
+ * <p>
+ * 每个连接持有独立的有界发送队列 同一时刻最多只有一个线程在发送 慢客户端只会积压自己的队列
+ *
+ * @author Lion Li
+ */
+@Getter
+public class SseConnection {
+
+    private final Long userId;
+
+    private final String token;
+
+    private final SseEmitter emitter;
+
+    /**
+     * 待发送事件队列
+     */
+    private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+
+    /**
+     * 是否已有线程在发送队列中的事件
+     */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 连续心跳时队列仍处于已满状态的次数
+     */
+    private int stalledBeats;
+
+    public SseConnection(Long userId, String token, SseEmitter emitter, int queueCapacity) {
+        this.userId = userId;
+        this.token = token;
+        this.emitter = emitter;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 标记连接关闭
+     *
+     * @return 首次关闭时返回 true
+     */
+    boolean markClosed() {
+        return closed.compareAndSet(false, true);
+    }
+
+    /**
+     * 心跳检查 队列持续已满视为连接停滞
+     *
+     * @return 连续停滞次数
+     */
+    int checkStalled() {
+        stalledBeats = queue.remainingCapacity() == 0 ? stalledBeats + 1 : 0;
+        return stalledBeats;
+    }
+
+}
@@ -1,17 +1,45 @@
 package com.ppxb.common.sse.core;
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.IdUtil;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import com.ppxb.common.core.constant.GlobalConstants;
+import com.ppxb.common.core.utils.Threads;
 import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.sse.config.SseProperties;
 import com.ppxb.common.sse.dto.SseMessageDto;
+import org.redisson.api.RBatch;
+import org.redisson.api.RSetAsync;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
  * 管理 Server-Sent Events (SSE) 连接
+ * <p>
+ * 1. redis 中维护 用户 -> 节点 在线登记 定向消息只发布到目标用户所在节点的主题 群发仍走全局主题
+ * 2. 每个连接独享有界发送队列 由发送线程串行发送 慢客户端不影响其他连接
+ *    发送线程数上限为 sse.send-threads 单次最多连续发送 {@link #DRAIN_BATCH} 条 仍有积压时重新排队
+ * 3. 定时心跳 队列持续积压的连接视为失效并回收
  *
  * @author Lion Li
  */
@@ -19,11 +47,63 @@ import java.util.function.Consumer;
 public class SseEmitterManager {
 
     /**
-     * 订阅的频道
+     * 订阅的频道(群发)
      */
     private final static String SSE_TOPIC = "global:sse";
 
-    private final static Map<Long, Map<String, SseEmitter>> USER_TOKEN_EMITTERS = new ConcurrentHashMap<>();
+    /**
+     * 节点频道前缀 每个节点只订阅自己的频道
+     */
+    private final static String SSE_NODE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "sse:node:";
+
+    /**
+     * 用户在线节点登记 key 前缀
+     */
+    private final static String SSE_PRESENCE_KEY = GlobalConstants.GLOBAL_REDIS_KEY + "sse:presence:";
+
+    /**
+     * 连续心跳队列已满达到该次数后回收连接
+     */
+    private final static int MAX_STALLED_BEATS = 2;
+
+    /**
+     * 单次连续发送的消息数上限
+     */
+    private final static int DRAIN_BATCH = 64;
+
+    private final static Map<Long, Map<String, SseConnection>> USER_TOKEN_CONNECTIONS = new ConcurrentHashMap<>();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final SseProperties properties;
+
+    /**
+     * 每个连接最多一个待执行的发送任务 任务队列长度不超过连接数
+     */
+    private final ThreadPoolExecutor sendExecutor;
+
+    private final ScheduledFuture<?> heartbeatFuture;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder reaped = new LongAdder();
+
+    public SseEmitterManager(SseProperties properties, ScheduledExecutorService scheduledExecutorService) {
+        this.properties = properties;
+        int sendThreads = properties.getSendThreads();
+        this.sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), Threads.newThreadFactory("sse-send-"));
+        this.sendExecutor.allowCoreThreadTimeOut(true);
+        long interval = properties.getHeartbeatInterval();
+        this.heartbeatFuture = scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (Exception e) {
+                log.error("SSE心跳处理失败", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
 
     /**
      * 建立与指定用户的 SSE 连接
@@ -33,41 +113,34 @@ public class SseEmitterManager {
      * @return 返回一个 SseEmitter 实例，客户端可以通过该实例接收 SSE 事件
      */
     public SseEmitter connect(Long userId, String token) {
-        // 从 USER_TOKEN_EMITTERS 中获取或创建当前用户的 SseEmitter 映射表（ConcurrentHashMap）
-        // 每个用户可以有多个 SSE 连接，通过 token 进行区分
-        Map<String, SseEmitter> emitters = USER_TOKEN_EMITTERS.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
-
         // 创建一个新的 SseEmitter 实例，超时时间设置为一天 避免连接之后直接关闭浏览器导致连接停滞
         SseEmitter emitter = new SseEmitter(86400000L);
+        SseConnection connection = new SseConnection(userId, token, emitter, properties.getQueueCapacity());
 
-        emitters.put(token, emitter);
-
-        // 当 emitter 完成、超时或发生错误时，从映射表中移除对应的 token
-        emitter.onCompletion(() -> {
-            SseEmitter remove = emitters.remove(token);
-            if (remove != null) {
-                remove.complete();
-            }
-        });
-        emitter.onTimeout(() -> {
-            SseEmitter remove = emitters.remove(token);
-            if (remove != null) {
-                remove.complete();
-            }
-        });
-        emitter.onError((e) -> {
-            SseEmitter remove = emitters.remove(token);
-            if (remove != null) {
-                remove.complete();
-            }
+        // 每个用户可以有多个 SSE 连接，通过 token 进行区分
+        // 在 compute 中写入 与 remove 的空表清理互斥 避免写入已被移除的映射表
+        SseConnection[] old = new SseConnection[1];
+        USER_TOKEN_CONNECTIONS.compute(userId, (k, v) -> {
+            Map<String, SseConnection> connections = v == null ? new ConcurrentHashMap<>() : v;
+            old[0] = connections.put(token, connection);
+            return connections;
         });
+        if (old[0] != null) {
+            remove(old[0]);
+        }
 
+        // 当 emitter 完成、超时或发生错误时，移除对应的连接
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError((e) -> remove(connection));
+
+        registerPresence(userId);
         try {
             // 向客户端发送一条连接成功的事件
             emitter.send(SseEmitter.event().comment("connected"));
         } catch (IOException e) {
-            // 如果发送消息失败，则从映射表中移除 emitter
-            emitters.remove(token);
+            // 如果发送消息失败，则移除连接
+            remove(connection);
         }
         return emitter;
     }
@@ -82,52 +155,45 @@ public class SseEmitterManager {
         if (userId == null || token == null) {
             return;
         }
-        Map<String, SseEmitter> emitters = USER_TOKEN_EMITTERS.get(userId);
-        if (MapUtil.isNotEmpty(emitters)) {
-            try {
-                SseEmitter sseEmitter = emitters.get(token);
-                sseEmitter.send(SseEmitter.event().comment("disconnected"));
-                sseEmitter.complete();
-            } catch (Exception ignore) {
-            }
-            emitters.remove(token);
-        } else {
-            USER_TOKEN_EMITTERS.remove(userId);
+        Map<String, SseConnection> connections = USER_TOKEN_CONNECTIONS.get(userId);
+        if (MapUtil.isEmpty(connections)) {
+            return;
         }
+        SseConnection connection = connections.get(token);
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.getEmitter().send(SseEmitter.event().comment("disconnected"));
+        } catch (Exception ignore) {
+        }
+        remove(connection);
     }
 
     /**
-     * 订阅SSE消息主题，并提供一个消费者函数来处理接收到的消息
+     * 订阅SSE消息主题(群发主题与本节点主题)，并提供一个消费者函数来处理接收到的消息
      *
      * @param consumer 处理SSE消息的消费者函数
      */
     public void subscribeMessage(Consumer<SseMessageDto> consumer) {
         RedisUtils.subscribe(SSE_TOPIC, SseMessageDto.class, consumer);
+        RedisUtils.subscribe(SSE_NODE_TOPIC + nodeId, SseMessageDto.class, consumer);
     }
 
     /**
-     * 向指定的用户会话发送消息
+     * 向指定的用户会话发送消息(仅本机)
      *
      * @param userId  要发送消息的用户id
      * @param message 要发送的消息内容
      */
     public void sendMessage(Long userId, String message) {
-        Map<String, SseEmitter> emitters = USER_TOKEN_EMITTERS.get(userId);
-        if (MapUtil.isNotEmpty(emitters)) {
-            for (Map.Entry<String, SseEmitter> entry : emitters.entrySet()) {
-                try {
-                    entry.getValue().send(SseEmitter.event()
-                        .name("message")
-                        .data(message));
-                } catch (Exception e) {
-                    SseEmitter remove = emitters.remove(entry.getKey());
-                    if (remove != null) {
-                        remove.complete();
-                    }
-                }
-            }
-        } else {
-            USER_TOKEN_EMITTERS.remove(userId);
+        Map<String, SseConnection> connections = USER_TOKEN_CONNECTIONS.get(userId);
+        if (MapUtil.isEmpty(connections)) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> data = buildMessage(message);
+        for (SseConnection connection : connections.values()) {
+            enqueue(connection, data);
         }
     }
 
@@ -137,23 +203,42 @@ public class SseEmitterManager {
      * @param message 要发送的消息内容
      */
     public void sendMessage(String message) {
-        for (Long userId : USER_TOKEN_EMITTERS.keySet()) {
-            sendMessage(userId, message);
+        // 事件内容只构建一次 所有连接共享
+        Set<ResponseBodyEmitter.DataWithMediaType> data = buildMessage(message);
+        for (Map<String, SseConnection> connections : USER_TOKEN_CONNECTIONS.values()) {
+            for (SseConnection connection : connections.values()) {
+                enqueue(connection, data);
+            }
         }
     }
 
     /**
      * 发布SSE订阅消息
+     * <p>
+     * 按在线登记将目标用户分组 只发布到用户所在节点的主题 本节点用户直接发送
      *
      * @param sseMessageDto 要发布的SSE消息对象
      */
     public void publishMessage(SseMessageDto sseMessageDto) {
-        SseMessageDto broadcastMessage = new SseMessageDto();
-        broadcastMessage.setMessage(sseMessageDto.getMessage());
-        broadcastMessage.setUserIds(sseMessageDto.getUserIds());
-        RedisUtils.publish(SSE_TOPIC, broadcastMessage, consumer -> {
-            log.info("SSE发送主题订阅消息topic:{} session keys:{} message:{}",
-                SSE_TOPIC, sseMessageDto.getUserIds(), sseMessageDto.getMessage());
+        if (CollUtil.isEmpty(sseMessageDto.getUserIds())) {
+            publishAll(sseMessageDto.getMessage());
+            return;
+        }
+        Map<String, List<Long>> nodeUsers = lookupNodes(sseMessageDto.getUserIds());
+        nodeUsers.forEach((node, userIds) -> {
+            if (nodeId.equals(node)) {
+                userIds.forEach(userId -> sendMessage(userId, sseMessageDto.getMessage()));
+                return;
+            }
+            SseMessageDto nodeMessage = new SseMessageDto();
+            nodeMessage.setMessage(sseMessageDto.getMessage());
+            nodeMessage.setUserIds(userIds);
+            long receivers = RedisUtils.getClient().getTopic(SSE_NODE_TOPIC + node).publish(nodeMessage);
+            if (receivers == 0) {
+                // 节点已下线 清理残留登记
+                userIds.forEach(userId -> RedisUtils.getClient().getSet(SSE_PRESENCE_KEY + userId).removeAsync(node));
+            }
+            log.debug("SSE发送节点订阅消息node:{} session keys:{} message:{}", node, userIds, sseMessageDto.getMessage());
         });
     }
 
@@ -169,4 +254,222 @@ public class SseEmitterManager {
             log.info("SSE发送主题订阅消息topic:{} message:{}", SSE_TOPIC, message);
         });
     }
+
+    /**
+     * 本机连接数
+     */
+    public long getConnectionCount() {
+        long count = 0;
+        for (Map<String, SseConnection> connections : USER_TOKEN_CONNECTIONS.values()) {
+            count += connections.size();
+        }
+        return count;
+    }
+
+    /**
+     * 本机所有连接队列中等待发送的消息数
+     */
+    public long getQueuedCount() {
+        long count = 0;
+        for (Map<String, SseConnection> connections : USER_TOKEN_CONNECTIONS.values()) {
+            for (SseConnection connection : connections.values()) {
+                count += connection.getQueue().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 正在发送中的消息数
+     */
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * 等待发送线程的连接数
+     */
+    public long getPendingDrainCount() {
+        return sendExecutor.getQueue().size();
+    }
+
+    /**
+     * 已发送消息数
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * 队列已满被丢弃的消息数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 因停滞被回收的连接数
+     */
+    public long getReapedCount() {
+        return reaped.sum();
+    }
+
+    /**
+     * 关闭本机全部连接并清理在线登记
+     */
+    @PreDestroy
+    public void destroy() {
+        heartbeatFuture.cancel(false);
+        for (Map<String, SseConnection> connections : USER_TOKEN_CONNECTIONS.values()) {
+            for (SseConnection connection : connections.values()) {
+                remove(connection);
+            }
+        }
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * 写入连接发送队列 并在没有发送线程时启动一个发送线程
+     */
+    private void enqueue(SseConnection connection, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        if (connection.isClosed()) {
+            return;
+        }
+        if (!connection.getQueue().offer(data)) {
+            dropped.increment();
+            return;
+        }
+        if (connection.getDraining().compareAndSet(false, true)) {
+            try {
+                sendExecutor.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                connection.getDraining().set(false);
+            }
+        }
+    }
+
+    private void drain(SseConnection connection) {
+        for (int batch = 0; !connection.isClosed(); batch++) {
+            if (batch >= DRAIN_BATCH) {
+                // 让出线程 保留发送标记重新排队
+                try {
+                    sendExecutor.execute(() -> drain(connection));
+                } catch (RejectedExecutionException e) {
+                    connection.getDraining().set(false);
+                }
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> data = connection.getQueue().poll();
+            if (data == null) {
+                connection.getDraining().set(false);
+                // 释放发送标记后再次检查 避免与并发入队竞争导致消息滞留
+                if (connection.getQueue().isEmpty() || !connection.getDraining().compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            try {
+                connection.getEmitter().send(data);
+                sent.increment();
+            } catch (Exception e) {
+                remove(connection);
+                return;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 移除连接 用户在本机已无连接时同时移除在线登记
+     */
+    private void remove(SseConnection connection) {
+        if (!connection.markClosed()) {
+            return;
+        }
+        connection.getQueue().clear();
+        Long userId = connection.getUserId();
+        boolean[] offline = new boolean[1];
+        USER_TOKEN_CONNECTIONS.computeIfPresent(userId, (k, v) -> {
+            v.remove(connection.getToken(), connection);
+            offline[0] = v.isEmpty();
+            return offline[0] ? null : v;
+        });
+        if (offline[0]) {
+            RedisUtils.getClient().getSet(SSE_PRESENCE_KEY + userId).removeAsync(nodeId);
+        }
+        try {
+            connection.getEmitter().complete();
+        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * 心跳 回收停滞连接 并续期本机用户的在线登记
+     */
+    private void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("heartbeat").build();
+        for (Map<String, SseConnection> connections : USER_TOKEN_CONNECTIONS.values()) {
+            for (SseConnection connection : connections.values()) {
+                if (connection.checkStalled() >= MAX_STALLED_BEATS) {
+                    log.warn("SSE连接发送停滞 回收连接 userId:{}", connection.getUserId());
+                    reaped.increment();
+                    remove(connection);
+                } else {
+                    enqueue(connection, ping);
+                }
+            }
+        }
+        refreshPresence(USER_TOKEN_CONNECTIONS.keySet());
+    }
+
+    private void registerPresence(Long userId) {
+        refreshPresence(List.of(userId));
+    }
+
+    private void refreshPresence(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Duration ttl = Duration.ofSeconds(properties.getHeartbeatInterval() * 3L);
+        RBatch batch = RedisUtils.getClient().createBatch();
+        for (Long userId : userIds) {
+            RSetAsync<String> set = batch.getSet(SSE_PRESENCE_KEY + userId);
+            set.addAsync(nodeId);
+            set.expireAsync(ttl);
+        }
+        batch.executeAsync();
+    }
+
+    /**
+     * 查询目标用户所在节点 通过 pipeline 一次往返完成
+     *
+     * @return 节点 -> 该节点上的目标用户
+     */
+    private Map<String, List<Long>> lookupNodes(List<Long> userIds) {
+        RBatch batch = RedisUtils.getClient().createBatch();
+        for (Long userId : userIds) {
+            batch.getSet(SSE_PRESENCE_KEY + userId).readAllAsync();
+        }
+        List<?> responses = batch.execute().getResponses();
+        Map<String, List<Long>> nodeUsers = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            Collection<?> nodes = (Collection<?>) responses.get(i);
+            if (CollUtil.isEmpty(nodes)) {
+                continue;
+            }
+            for (Object node : nodes) {
+                nodeUsers.computeIfAbsent(String.valueOf(node), k -> new ArrayList<>()).add(userIds.get(i));
+            }
+        }
+        return nodeUsers;
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> buildMessage(String message) {
+        return SseEmitter.event()
+            .name("message")
+            .data(message)
+            .build();
+    }
 }
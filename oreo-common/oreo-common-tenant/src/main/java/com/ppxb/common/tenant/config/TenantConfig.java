@@ -8,6 +8,7 @@ import com.ppxb.common.redis.config.properties.RedissonProperties;
 import com.ppxb.common.tenant.core.TenantSaTokenDao;
 import com.ppxb.common.tenant.handle.PlusTenantLineHandler;
 import com.ppxb.common.tenant.handle.TenantKeyPrefixHandler;
+import com.ppxb.common.tenant.interceptor.PlusTenantLineInnerInterceptor;
 import com.ppxb.common.tenant.manager.TenantSpringCacheManager;
 import com.ppxb.common.tenant.properties.TenantProperties;
 import org.redisson.config.ClusterServersConfig;
@@ -40,7 +41,7 @@ public class TenantConfig {
          */
         @Bean
         public TenantLineInnerInterceptor tenantLineInnerInterceptor(TenantProperties tenantProperties) {
-            return new TenantLineInnerInterceptor(new PlusTenantLineHandler(tenantProperties));
+            return new PlusTenantLineInnerInterceptor(new PlusTenantLineHandler(tenantProperties));
         }
 
     }
@@ -1,8 +1,6 @@
 package com.ppxb.common.tenant.core;
 import com.ppxb.common.core.constant.GlobalConstants;
-import com.ppxb.common.redis.utils.RedisUtils;
 import com.ppxb.common.satoken.core.dao.PlusSaTokenDao;
-import java.time.Duration;
 import java.util.List;
 
 /**
@@ -27,12 +25,7 @@ public class TenantSaTokenDao extends PlusSaTokenDao {
      */
     @Override
     public void update(String key, String value) {
-        long expire = getTimeout(key);
-        // -2 = 无此键
-        if (expire == NOT_VALUE_EXPIRE) {
-            return;
-        }
-        this.set(key, value, expire);
+        super.update(GlobalConstants.GLOBAL_REDIS_KEY + key, value);
     }
 
     /**
@@ -67,7 +60,7 @@ public class TenantSaTokenDao extends PlusSaTokenDao {
             }
             return;
         }
-        RedisUtils.expire(GlobalConstants.GLOBAL_REDIS_KEY + key, Duration.ofSeconds(timeout));
+        super.updateTimeout(GlobalConstants.GLOBAL_REDIS_KEY + key, timeout);
     }
 
 
@@ -103,12 +96,7 @@ public class TenantSaTokenDao extends PlusSaTokenDao {
      */
     @Override
     public void updateObject(String key, Object object) {
-        long expire = getObjectTimeout(key);
-        // -2 = 无此键
-        if (expire == NOT_VALUE_EXPIRE) {
-            return;
-        }
-        this.setObject(key, object, expire);
+        super.updateObject(GlobalConstants.GLOBAL_REDIS_KEY + key, object);
     }
 
     /**
@@ -143,7 +131,7 @@ public class TenantSaTokenDao extends PlusSaTokenDao {
             }
             return;
         }
-        RedisUtils.expire(GlobalConstants.GLOBAL_REDIS_KEY + key, Duration.ofSeconds(timeout));
+        super.updateObjectTimeout(GlobalConstants.GLOBAL_REDIS_KEY + key, timeout);
     }
 
     /**
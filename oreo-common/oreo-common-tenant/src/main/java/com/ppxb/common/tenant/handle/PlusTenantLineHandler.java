@@ -1,7 +1,5 @@
 package com.ppxb.common.tenant.handle;
-import cn.hutool.core.collection.ListUtil;
 import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.NullValue;
@@ -9,22 +7,68 @@ import net.sf.jsqlparser.expression.StringValue;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.common.tenant.properties.TenantProperties;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * 自定义租户处理器
+ * <p>
+ * 排除表预先构建为小写的不可变集合 配置的排除表列表被替换(如配置刷新)时重建
+ * 拦截器改写单条语句期间绑定已解析的租户id 语句中的每张表不再重复获取租户
  *
  * @author Lion Li
  */
 @Slf4j
-@AllArgsConstructor
 public class PlusTenantLineHandler implements TenantLineHandler {
 
+    /**
+     * 非业务表
+     */
+    private static final List<String> DEFAULT_EXCLUDES = List.of(
+        "gen_table",
+        "gen_table_column"
+    );
+
     private final TenantProperties tenantProperties;
 
+    /**
+     * 当前线程正在改写的语句所属租户id 未绑定时实时获取
+     */
+    private final ThreadLocal<String> statementTenantId = new ThreadLocal<>();
+
+    private volatile Excludes excludes;
+
+    public PlusTenantLineHandler(TenantProperties tenantProperties) {
+        this.tenantProperties = tenantProperties;
+        this.excludes = Excludes.of(tenantProperties.getExcludes(), 0);
+    }
+
+    /**
+     * 在绑定的租户id下改写语句
+     *
+     * @param tenantId 本条语句的租户id
+     * @param handle   改写方法
+     */
+    public <T> T withTenantId(String tenantId, Supplier<T> handle) {
+        String previous = statementTenantId.get();
+        statementTenantId.set(StringUtils.defaultString(tenantId));
+        try {
+            return handle.get();
+        } finally {
+            if (previous == null) {
+                statementTenantId.remove();
+            } else {
+                statementTenantId.set(previous);
+            }
+        }
+    }
+
     @Override
     public Expression getTenantId() {
-        String tenantId = TenantHelper.getTenantId();
+        String tenantId = currentTenantId();
         if (StringUtils.isBlank(tenantId)) {
             log.error("无法获取有效的租户id -> Null");
             return new NullValue();
@@ -35,20 +79,65 @@ public class PlusTenantLineHandler implements TenantLineHandler {
 
     @Override
     public boolean ignoreTable(String tableName) {
-        String tenantId = TenantHelper.getTenantId();
         // 判断是否有租户
-        if (StringUtils.isNotBlank(tenantId)) {
-            // 不需要过滤租户的表
-            List<String> excludes = tenantProperties.getExcludes();
-            // 非业务表
-            List<String> tables = ListUtil.toList(
-                "gen_table",
-                "gen_table_column"
-            );
-            tables.addAll(excludes);
-            return StringUtils.equalsAnyIgnoreCase(tableName, tables.toArray(new String[0]));
+        if (StringUtils.isBlank(currentTenantId())) {
+            return true;
+        }
+        // 不需要过滤租户的表
+        return tableName != null && getExcludes().tables.contains(tableName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 排除表集合的版本号 排除表重建后变化 改写结果缓存以此区分新旧配置
+     */
+    public long getExcludesVersion() {
+        return getExcludes().version;
+    }
+
+    private String currentTenantId() {
+        String tenantId = statementTenantId.get();
+        return tenantId != null ? tenantId : TenantHelper.getTenantId();
+    }
+
+    private Excludes getExcludes() {
+        Excludes current = excludes;
+        List<String> configured = tenantProperties.getExcludes();
+        if (current.source != configured) {
+            synchronized (this) {
+                current = excludes;
+                if (current.source != configured) {
+                    // 配置已被替换 重建排除表集合
+                    current = Excludes.of(configured, current.version + 1);
+                    excludes = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 排除表集合
+     *
+     * @param source  构建时的配置列表
+     * @param tables  小写表名
+     * @param version 版本号 每次重建加一
+     */
+    private record Excludes(List<String> source, Set<String> tables, long version) {
+
+        static Excludes of(List<String> configured, long version) {
+            Set<String> tables = new HashSet<>();
+            for (String table : DEFAULT_EXCLUDES) {
+                tables.add(table.toLowerCase(Locale.ROOT));
+            }
+            if (configured != null) {
+                for (String table : configured) {
+                    if (StringUtils.isNotBlank(table)) {
+                        tables.add(table.trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return new Excludes(configured, Set.copyOf(tables), version);
         }
-        return true;
     }
 
 }
@@ -135,7 +135,9 @@ public class TenantHelper {
         }
         String cacheKey = DYNAMIC_TENANT_KEY + ":" + LoginHelper.getUserId();
         RedisUtils.setCacheObject(cacheKey, tenantId);
-        SaHolder.getStorage().set(cacheKey, tenantId);
+        if (SaHolder.getContext().isValid()) {
+            SaHolder.getStorage().set(cacheKey, tenantId);
+        }
     }
 
     /**
@@ -155,8 +157,12 @@ public class TenantHelper {
         if (StringUtils.isNotBlank(tenantId)) {
             return tenantId;
         }
-        SaStorage storage = SaHolder.getStorage();
         String cacheKey = DYNAMIC_TENANT_KEY + ":" + LoginHelper.getUserId();
+        if (!SaHolder.getContext().isValid()) {
+            // 非请求线程(如传递了登录上下文的异步任务) 没有请求级缓存 直接查redis
+            return RedisUtils.getCacheObject(cacheKey);
+        }
+        SaStorage storage = SaHolder.getStorage();
         tenantId = storage.getString(cacheKey);
         // 如果为 -1 说明已经查过redis并且不存在值 则直接返回null
         if (StringUtils.isNotBlank(tenantId)) {
@@ -181,7 +187,9 @@ public class TenantHelper {
         TEMP_DYNAMIC_TENANT.remove();
         String cacheKey = DYNAMIC_TENANT_KEY + ":" + LoginHelper.getUserId();
         RedisUtils.deleteObject(cacheKey);
-        SaHolder.getStorage().delete(cacheKey);
+        if (SaHolder.getContext().isValid()) {
+            SaHolder.getStorage().delete(cacheKey);
+        }
     }
 
     /**
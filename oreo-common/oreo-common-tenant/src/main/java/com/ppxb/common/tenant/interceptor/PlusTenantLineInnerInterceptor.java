@@ -0,0 +1,88 @@
+package com.ppxb.common.tenant.interceptor;
+import com.baomidou.mybatisplus.core.plugins.InterceptorIgnoreHelper;
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.tenant.handle.PlusTenantLineHandler;
+import com.ppxb.common.tenant.helper.TenantHelper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 多租户插件
+ * <p>
+ * 查询语句的改写结果只与 sql、租户id 和排除表配置有关 按 (sql, 租户id, 排除表版本) 缓存改写结果 避免重复解析与改写
+ * 排除表配置变化后旧版本的缓存不再命中 闲置后过期淘汰
+ * 每条语句只获取一次租户id 改写期间绑定到租户处理器
+ *
+ * @author Lion Li
+ */
+public class PlusTenantLineInnerInterceptor extends TenantLineInnerInterceptor {
+
+    /**
+     * 租户改写后的查询 sql 缓存
+     */
+    private final Cache<RewriteSqlKey, String> rewriteSqlCache = Caffeine.newBuilder()
+        .maximumSize(2048)
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
+
+    private final PlusTenantLineHandler tenantLineHandler;
+
+    public PlusTenantLineInnerInterceptor(PlusTenantLineHandler tenantLineHandler) {
+        super(tenantLineHandler);
+        this.tenantLineHandler = tenantLineHandler;
+    }
+
+    @Override
+    public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        if (InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId())) {
+            return;
+        }
+        PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
+        String tenantId = TenantHelper.getTenantId();
+        if (StringUtils.isBlank(tenantId)) {
+            mpBs.sql(tenantLineHandler.withTenantId(tenantId, () -> parserSingle(mpBs.sql(), null)));
+            return;
+        }
+        RewriteSqlKey key = new RewriteSqlKey(mpBs.sql(), tenantId, tenantLineHandler.getExcludesVersion());
+        String rewritten = rewriteSqlCache.getIfPresent(key);
+        if (rewritten == null) {
+            rewritten = tenantLineHandler.withTenantId(tenantId, () -> parserSingle(mpBs.sql(), null));
+            rewriteSqlCache.put(key, rewritten);
+        }
+        mpBs.sql(rewritten);
+    }
+
+    @Override
+    public void beforePrepare(StatementHandler sh, Connection connection, Integer transactionTimeout) {
+        MappedStatement ms = PluginUtils.mpStatementHandler(sh).mappedStatement();
+        SqlCommandType sct = ms.getSqlCommandType();
+        if (sct == SqlCommandType.SELECT || InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId())) {
+            super.beforePrepare(sh, connection, transactionTimeout);
+            return;
+        }
+        tenantLineHandler.withTenantId(TenantHelper.getTenantId(), () -> {
+            super.beforePrepare(sh, connection, transactionTimeout);
+            return null;
+        });
+    }
+
+    /**
+     * 改写 sql 缓存 key
+     */
+    private record RewriteSqlKey(String sql, String tenantId, long excludesVersion) {
+    }
+
+}
@@ -1,5 +1,17 @@
 package com.ppxb.common.translation.core;
+import cn.hutool.core.convert.Convert;
+import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.translation.annotation.TranslationType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * 翻译接口 (实现类需标注 {@link TranslationType} 注解标明翻译类型)
  *
@@ -15,4 +27,58 @@ public interface TranslationInterface<T> {
      * @return 返回键对应的值
      */
     T translation(Object key, String other);
+
+    /**
+     * 批量翻译 序列化集合前一次性翻译所有行的键
+     * <p>
+     * 默认逐个调用 {@link #translation(Object, String)} 实现类可覆盖为一次批量查询
+     *
+     * @param keys  需要被翻译的键集合(不为空 元素不为空)
+     * @param other 其他参数
+     * @return 键 -> 翻译值 未能翻译的键对应 null
+     */
+    default Map<Object, T> translationBatch(Collection<Object> keys, String other) {
+        Map<Object, T> map = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            map.put(key, translation(key, other));
+        }
+        return map;
+    }
+
+    /**
+     * 批量翻译 id 类型的键(Long 或 逗号分隔的 id 字符串) 所有 id 合并为一次查询
+     *
+     * @param keys   需要被翻译的键集合
+     * @param loader 根据 id 列表批量查询 id -> 名称
+     * @return 键 -> 翻译值 字符串键按原顺序以逗号拼接
+     */
+    static Map<Object, String> translationIds(Collection<Object> keys, Function<List<Long>, Map<Long, String>> loader) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Object key : keys) {
+            if (key instanceof Long id) {
+                ids.add(id);
+            } else if (key instanceof String str) {
+                ids.addAll(StringUtils.splitTo(str, Convert::toLong));
+            }
+        }
+        Map<Long, String> names = ids.isEmpty() ? Map.of() : loader.apply(new ArrayList<>(ids));
+        Map<Object, String> map = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            if (key instanceof Long id) {
+                map.put(key, names.get(id));
+            } else if (key instanceof String str) {
+                List<String> list = new ArrayList<>();
+                for (Long id : StringUtils.splitTo(str, Convert::toLong)) {
+                    String name = names.get(id);
+                    if (StringUtils.isNotBlank(name)) {
+                        list.add(name);
+                    }
+                }
+                map.put(key, String.join(StringUtils.SEPARATOR, list));
+            } else {
+                map.put(key, null);
+            }
+        }
+        return map;
+    }
 }
@@ -1,13 +1,15 @@
 package com.ppxb.common.translation.core.handler;
 import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.type.CollectionType;
 
 import java.util.List;
 
 /**
- * Bean 序列化修改器 解决 Null 被单独处理问题
+ * Bean 序列化修改器 解决 Null 被单独处理问题 并为集合启用批量翻译
  *
  * @author Lion Li
  */
@@ -25,4 +27,11 @@ public class TranslationBeanSerializerModifier extends BeanSerializerModifier {
         return beanProperties;
     }
 
+    @Override
+    public JsonSerializer<?> modifyCollectionSerializer(SerializationConfig config, CollectionType valueType,
+                                                        BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        // 集合序列化前批量翻译所有元素 元素类型在运行时判断(泛型擦除后无法静态确定)
+        return new TranslationCollectionSerializer(serializer);
+    }
+
 }
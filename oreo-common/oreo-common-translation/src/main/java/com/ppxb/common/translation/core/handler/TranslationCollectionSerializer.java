@@ -0,0 +1,195 @@
+package com.ppxb.common.translation.core.handler;
+import cn.hutool.core.util.ReflectUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.core.utils.reflect.ReflectUtils;
+import com.ppxb.common.translation.annotation.Translation;
+import com.ppxb.common.translation.core.TranslationInterface;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 集合批量翻译序列化器
+ * <p>
+ * 序列化集合前收集所有元素上 {@link Translation} 字段的键 每种翻译类型通过
+ * {@link TranslationInterface#translationBatch} 一次批量翻译 结果存放在本次序列化的上下文属性中
+ * 元素序列化时 {@link TranslationHandler} 优先从中取值 避免逐行查询
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class TranslationCollectionSerializer extends JsonSerializer<Object> implements ContextualSerializer, ResolvableSerializer {
+
+    /**
+     * 本次序列化的批量翻译结果 翻译类型:其他参数 -> (键 -> 翻译值)
+     */
+    static final Object BATCH_ATTRIBUTE = TranslationCollectionSerializer.class;
+
+    /**
+     * 类 -> 标注了 {@link Translation} 的字段
+     */
+    private static final Map<Class<?>, List<TranslationField>> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    private final JsonSerializer<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    public TranslationCollectionSerializer(JsonSerializer<?> delegate) {
+        this.delegate = (JsonSerializer<Object>) delegate;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        prefetch(value, serializers);
+        delegate.serialize(value, gen, serializers);
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        prefetch(value, serializers);
+        delegate.serializeWithType(value, gen, serializers, typeSer);
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+        if (delegate instanceof ContextualSerializer contextual) {
+            JsonSerializer<?> serializer = contextual.createContextual(prov, property);
+            if (serializer != delegate) {
+                return new TranslationCollectionSerializer(serializer);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Object value) {
+        return delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public Class<Object> handledType() {
+        return delegate.handledType();
+    }
+
+    /**
+     * 查询本次序列化中已批量翻译的值
+     *
+     * @return 未批量翻译时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> getBatchValues(SerializerProvider serializers, Translation translation) {
+        Map<String, Map<Object, Object>> batch = (Map<String, Map<Object, Object>>) serializers.getAttribute(BATCH_ATTRIBUTE);
+        if (batch == null) {
+            return null;
+        }
+        return batch.get(buildGroupKey(translation));
+    }
+
+    /**
+     * 收集集合所有元素的翻译键 按翻译类型批量翻译
+     */
+    @SuppressWarnings("unchecked")
+    private void prefetch(Object value, SerializerProvider serializers) {
+        if (!(value instanceof Collection<?> collection) || collection.size() < 2) {
+            return;
+        }
+        Map<String, Map<Object, Object>> batch = (Map<String, Map<Object, Object>>) serializers.getAttribute(BATCH_ATTRIBUTE);
+        Map<String, Set<Object>> groupKeys = new LinkedHashMap<>();
+        Map<String, Translation> groupTranslations = new HashMap<>();
+        Class<?> lastClass = null;
+        List<TranslationField> fields = List.of();
+        for (Object element : collection) {
+            if (element == null) {
+                continue;
+            }
+            if (element.getClass() != lastClass) {
+                lastClass = element.getClass();
+                fields = getFields(lastClass);
+            }
+            for (TranslationField field : fields) {
+                Translation translation = field.translation();
+                if (!TranslationHandler.TRANSLATION_MAPPER.containsKey(translation.type())) {
+                    continue;
+                }
+                Object key = StringUtils.isNotBlank(translation.mapper())
+                    ? ReflectUtils.invokeGetter(element, translation.mapper())
+                    : ReflectUtil.getFieldValue(element, field.field());
+                if (key == null) {
+                    continue;
+                }
+                String groupKey = buildGroupKey(translation);
+                if (batch != null && batch.containsKey(groupKey) && batch.get(groupKey).containsKey(key)) {
+                    continue;
+                }
+                groupKeys.computeIfAbsent(groupKey, k -> new LinkedHashSet<>()).add(key);
+                groupTranslations.putIfAbsent(groupKey, translation);
+            }
+        }
+        if (groupKeys.isEmpty()) {
+            return;
+        }
+        if (batch == null) {
+            batch = new HashMap<>();
+            serializers.setAttribute(BATCH_ATTRIBUTE, batch);
+        }
+        for (Map.Entry<String, Set<Object>> entry : groupKeys.entrySet()) {
+            Translation translation = groupTranslations.get(entry.getKey());
+            TranslationInterface<?> trans = TranslationHandler.TRANSLATION_MAPPER.get(translation.type());
+            try {
+                Map<Object, ?> result = trans.translationBatch(entry.getValue(), translation.other());
+                Map<Object, Object> values = batch.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+                // 未翻译出的键也记录为 null 避免序列化时回退为逐行查询
+                for (Object key : entry.getValue()) {
+                    values.put(key, result.get(key));
+                }
+            } catch (Exception e) {
+                // 批量翻译失败时回退为逐行翻译
+                log.warn("批量翻译失败 type:{} 回退为逐行翻译 {}", translation.type(), e.getMessage());
+            }
+        }
+    }
+
+    private static List<TranslationField> getFields(Class<?> clazz) {
+        return FIELD_CACHE.computeIfAbsent(clazz, c -> {
+            List<TranslationField> list = new ArrayList<>();
+            for (Field field : ReflectUtil.getFields(c)) {
+                Translation translation = field.getAnnotation(Translation.class);
+                if (translation != null) {
+                    list.add(new TranslationField(field, translation));
+                }
+            }
+            return list.isEmpty() ? List.of() : list;
+        });
+    }
+
+    private static String buildGroupKey(Translation translation) {
+        return translation.type() + ":" + translation.other();
+    }
+
+    private record TranslationField(Field field, Translation translation) {
+    }
+}
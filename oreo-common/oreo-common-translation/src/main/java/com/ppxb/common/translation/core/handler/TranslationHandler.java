@@ -45,6 +45,12 @@ public class TranslationHandler extends JsonSerializer<Object> implements Contex
                 gen.writeNull();
                 return;
             }
+            // 优先使用集合序列化前批量翻译的结果
+            Map<Object, Object> batchValues = TranslationCollectionSerializer.getBatchValues(serializers, translation);
+            if (batchValues != null && batchValues.containsKey(value)) {
+                gen.writeObject(batchValues.get(value));
+                return;
+            }
             Object result = trans.translation(value, translation.other());
             gen.writeObject(result);
         } else {
@@ -4,6 +4,10 @@ import com.ppxb.common.core.service.UserService;
 import com.ppxb.common.translation.annotation.TranslationType;
 import com.ppxb.common.translation.constant.TransConstant;
 import com.ppxb.common.translation.core.TranslationInterface;
+
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 用户名称翻译实现
  *
@@ -24,4 +28,9 @@ public class NicknameTranslationImpl implements TranslationInterface<String> {
         }
         return null;
     }
+
+    @Override
+    public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+        return TranslationInterface.translationIds(keys, userService::selectUserNamesByIds);
+    }
 }
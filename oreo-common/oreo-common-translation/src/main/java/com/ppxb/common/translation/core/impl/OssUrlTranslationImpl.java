@@ -5,6 +5,9 @@ import com.ppxb.common.translation.constant.TransConstant;
 import com.ppxb.common.translation.core.TranslationInterface;
 import lombok.AllArgsConstructor;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * OSS翻译实现
  *
@@ -25,4 +28,9 @@ public class OssUrlTranslationImpl implements TranslationInterface<String> {
         }
         return null;
     }
+
+    @Override
+    public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+        return TranslationInterface.translationIds(keys, ossService::selectUrlsByIds);
+    }
 }
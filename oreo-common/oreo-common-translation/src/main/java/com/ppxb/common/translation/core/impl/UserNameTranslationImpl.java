@@ -5,6 +5,9 @@ import com.ppxb.common.translation.constant.TransConstant;
 import com.ppxb.common.translation.core.TranslationInterface;
 import lombok.AllArgsConstructor;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 用户名翻译实现
  *
@@ -23,4 +26,12 @@ public class UserNameTranslationImpl implements TranslationInterface<String> {
         }
         return null;
     }
+
+    @Override
+    public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+        Map<Object, String> map = TranslationInterface.translationIds(keys, userService::selectUserAccountsByIds);
+        // 与单个翻译保持一致 仅支持 Long 类型的键
+        map.replaceAll((key, value) -> key instanceof Long ? value : null);
+        return map;
+    }
 }
@@ -0,0 +1,54 @@
+package com.ppxb.common.web.config;
+
+import com.ppxb.common.web.config.properties.RequestTelemetryProperties;
+import com.ppxb.common.web.core.RequestTelemetry;
+import com.ppxb.common.web.core.RequestTelemetryEndpoint;
+import com.ppxb.common.web.interceptor.RequestTelemetryInterceptor;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 请求统计配置
+ *
+ * @author Lion Li
+ */
+@AutoConfiguration
+@ConditionalOnProperty(value = "request-telemetry.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RequestTelemetryProperties.class)
+public class RequestTelemetryConfig implements WebMvcConfigurer {
+
+    private final RequestTelemetryProperties properties;
+
+    private final RequestTelemetry requestTelemetry;
+
+    public RequestTelemetryConfig(RequestTelemetryProperties properties) {
+        this.properties = properties;
+        this.requestTelemetry = new RequestTelemetry(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 全局请求统计
+        registry.addInterceptor(new RequestTelemetryInterceptor(requestTelemetry, properties));
+    }
+
+    /**
+     * 请求统计 同时作为 Micrometer 指标绑定
+     */
+    @Bean
+    public RequestTelemetry requestTelemetry() {
+        return requestTelemetry;
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public RequestTelemetryEndpoint requestTelemetryEndpoint() {
+        return new RequestTelemetryEndpoint(requestTelemetry);
+    }
+
+}
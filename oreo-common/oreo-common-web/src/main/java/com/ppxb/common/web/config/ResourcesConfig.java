@@ -2,14 +2,12 @@ package com.ppxb.common.web.config;
 import cn.hutool.core.date.DateUtil;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.web.handler.GlobalExceptionHandler;
-import com.ppxb.common.web.interceptor.PlusWebInvokeTimeInterceptor;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -23,12 +21,6 @@ import java.util.Date;
 @AutoConfiguration
 public class ResourcesConfig implements WebMvcConfigurer {
 
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        // 全局访问性能拦截
-        registry.addInterceptor(new PlusWebInvokeTimeInterceptor());
-    }
-
     @Override
     public void addFormatters(FormatterRegistry registry) {
         // 全局日期格式转换配置
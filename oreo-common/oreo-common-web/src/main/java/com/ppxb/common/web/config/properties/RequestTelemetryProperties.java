@@ -0,0 +1,45 @@
+package com.ppxb.common.web.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 请求统计 配置属性
+ *
+ * @author Lion Li
+ */
+@Data
+@ConfigurationProperties(prefix = "request-telemetry")
+public class RequestTelemetryProperties {
+
+    /**
+     * 是否开启请求统计
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 慢请求阈值 超过阈值的请求以 WARN 级别打印参数 (单位: 毫秒)
+     */
+    private Long slowThreshold = 1000L;
+
+    /**
+     * 普通请求的参数日志采样率 取值 0-1 为 0 时只打印慢请求
+     */
+    private Double sampleRate = 0D;
+
+    /**
+     * 日志中请求参数的最大长度 超出部分截断
+     */
+    private Integer maxParamLength = 2048;
+
+    /**
+     * 最多统计的路由数 超出后归入同一个统计项 避免路由数量失控
+     */
+    private Integer maxRoutes = 1000;
+
+    /**
+     * 延迟分位数的统计窗口 (单位: 秒)
+     */
+    private Integer windowSeconds = 60;
+
+}
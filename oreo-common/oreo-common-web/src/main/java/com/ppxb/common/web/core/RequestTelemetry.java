@@ -0,0 +1,275 @@
+package com.ppxb.common.web.core;
+
+import com.ppxb.common.web.config.properties.RequestTelemetryProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 请求统计
+ * <p>
+ * 按 请求方式 + 路由模板 统计请求数(按状态码分类)、请求/响应字节数与延迟分布
+ * 写入路径只有 LongAdder 累加与 HdrHistogram Recorder 记录 均为无锁操作 读取时再汇总
+ * 延迟分位数取最近一到两个统计窗口内的请求 通过 Micrometer 与 actuator 端点 requests 暴露
+ *
+ * @author Lion Li
+ */
+public class RequestTelemetry implements MeterBinder {
+
+    /**
+     * 路由数超出上限后归入的统计项
+     */
+    public static final String OTHER_ROUTE = "OTHER";
+
+    /**
+     * 直方图有效数字位数 2 位即可保证 1% 以内的误差
+     */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * 快照缓存时间 避免同一次采集的多个指标重复汇总
+     */
+    private static final long SNAPSHOT_TTL = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final int maxRoutes;
+
+    private final long windowNanos;
+
+    /**
+     * 请求方式 -> (路由模板 -> 统计)
+     */
+    private final Map<String, Map<String, RouteStats>> routes = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    public RequestTelemetry(RequestTelemetryProperties properties) {
+        this.maxRoutes = properties.getMaxRoutes();
+        this.windowNanos = TimeUnit.SECONDS.toNanos(properties.getWindowSeconds());
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param method        请求方式
+     * @param route         路由模板
+     * @param status        响应状态码
+     * @param elapsedNanos  耗时 (单位: 纳秒)
+     * @param requestBytes  请求体字节数 未知时为 -1
+     * @param responseBytes 响应体字节数 未知时为 -1
+     */
+    public void record(String method, String route, int status, long elapsedNanos, long requestBytes, long responseBytes) {
+        getStats(method, route).record(status, elapsedNanos, requestBytes, responseBytes);
+    }
+
+    /**
+     * 所有路由的统计快照 按请求数倒序
+     */
+    public List<RouteSnapshot> snapshots() {
+        List<RouteSnapshot> list = new ArrayList<>();
+        for (Map<String, RouteStats> byRoute : routes.values()) {
+            for (RouteStats stats : byRoute.values()) {
+                list.add(stats.snapshot(windowNanos));
+            }
+        }
+        list.sort(Comparator.comparingLong(RouteSnapshot::count).reversed());
+        return list;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        for (Map<String, RouteStats> byRoute : routes.values()) {
+            for (RouteStats stats : byRoute.values()) {
+                register(registry, stats);
+            }
+        }
+    }
+
+    private RouteStats getStats(String method, String route) {
+        Map<String, RouteStats> byRoute = routes.computeIfAbsent(method, k -> new ConcurrentHashMap<>());
+        RouteStats stats = byRoute.get(route);
+        if (stats != null) {
+            return stats;
+        }
+        if (countRoutes() >= maxRoutes) {
+            route = OTHER_ROUTE;
+        }
+        return byRoute.computeIfAbsent(route, k -> {
+            RouteStats created = new RouteStats(method, k);
+            MeterRegistry current = registry;
+            if (current != null) {
+                register(current, created);
+            }
+            return created;
+        });
+    }
+
+    private int countRoutes() {
+        int count = 0;
+        for (Map<String, RouteStats> byRoute : routes.values()) {
+            count += byRoute.size();
+        }
+        return count;
+    }
+
+    private void register(MeterRegistry registry, RouteStats stats) {
+        Tags tags = Tags.of("method", stats.method, "uri", stats.uri);
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            LongAdder adder = stats.statuses[i];
+            FunctionCounter.builder("http.route.requests", adder, LongAdder::sum)
+                .tags(tags).tag("status", STATUS_CLASSES[i])
+                .description("路由请求数").register(registry);
+        }
+        FunctionCounter.builder("http.route.request.size", stats.requestBytes, LongAdder::sum)
+            .tags(tags).baseUnit(BaseUnits.BYTES)
+            .description("路由请求体字节数").register(registry);
+        FunctionCounter.builder("http.route.response.size", stats.responseBytes, LongAdder::sum)
+            .tags(tags).baseUnit(BaseUnits.BYTES)
+            .description("路由响应体字节数").register(registry);
+        for (double percentile : PERCENTILES) {
+            registerLatency(registry, stats, tags.and("quantile", String.valueOf(percentile / 100)),
+                s -> s.percentiles().get(percentile));
+        }
+        registerLatency(registry, stats, tags.and("quantile", "1.0"), RouteSnapshot::max);
+    }
+
+    private void registerLatency(MeterRegistry registry, RouteStats stats, Tags tags, ToDoubleFunction<RouteSnapshot> value) {
+        Gauge.builder("http.route.latency", stats, s -> value.applyAsDouble(s.snapshot(windowNanos)))
+            .tags(tags).baseUnit(BaseUnits.MILLISECONDS)
+            .description("路由延迟分位数").register(registry);
+    }
+
+    /**
+     * 单个路由的统计
+     */
+    private static final class RouteStats {
+
+        private final String method;
+
+        private final String uri;
+
+        /**
+         * 延迟记录器 (单位: 微秒)
+         */
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+        private final LongAdder[] statuses = new LongAdder[STATUS_CLASSES.length];
+
+        private final LongAdder requestBytes = new LongAdder();
+
+        private final LongAdder responseBytes = new LongAdder();
+
+        /**
+         * 以下字段只在 snapshot 中持锁访问
+         */
+        private Histogram interval;
+
+        private Histogram current = new Histogram(SIGNIFICANT_DIGITS);
+
+        private Histogram previous = new Histogram(SIGNIFICANT_DIGITS);
+
+        private long windowStart = System.nanoTime();
+
+        private RouteSnapshot cached;
+
+        private long cachedAt;
+
+        RouteStats(String method, String uri) {
+            this.method = method;
+            this.uri = uri;
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+
+        void record(int status, long elapsedNanos, long requestLength, long responseLength) {
+            recorder.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 0));
+            statuses[Math.min(Math.max(status / 100, 1), STATUS_CLASSES.length) - 1].increment();
+            if (requestLength > 0) {
+                requestBytes.add(requestLength);
+            }
+            if (responseLength > 0) {
+                responseBytes.add(responseLength);
+            }
+        }
+
+        synchronized RouteSnapshot snapshot(long windowNanos) {
+            long now = System.nanoTime();
+            if (cached != null && now - cachedAt < SNAPSHOT_TTL) {
+                return cached;
+            }
+            interval = recorder.getIntervalHistogram(interval);
+            current.add(interval);
+            if (now - windowStart >= windowNanos) {
+                // 滚动窗口 上一个窗口的直方图复用为新窗口
+                Histogram recycled = previous;
+                recycled.reset();
+                previous = current;
+                current = recycled;
+                windowStart = now;
+            }
+            Histogram latency = previous.copy();
+            latency.add(current);
+
+            Map<String, Long> statusCounts = new LinkedHashMap<>(STATUS_CLASSES.length * 2);
+            long count = 0;
+            for (int i = 0; i < statuses.length; i++) {
+                long sum = statuses[i].sum();
+                if (sum > 0) {
+                    statusCounts.put(STATUS_CLASSES[i], sum);
+                }
+                count += sum;
+            }
+            Map<Double, Double> percentiles = new LinkedHashMap<>(PERCENTILES.length * 2);
+            for (double percentile : PERCENTILES) {
+                percentiles.put(percentile, toMillis(latency.getValueAtPercentile(percentile)));
+            }
+            cached = new RouteSnapshot(method, uri, count, statusCounts, requestBytes.sum(), responseBytes.sum(),
+                toMillis(latency.getMean()), toMillis(latency.getMaxValue()), percentiles);
+            cachedAt = now;
+            return cached;
+        }
+
+        private static double toMillis(double micros) {
+            return micros / 1000D;
+        }
+    }
+
+    /**
+     * 路由统计快照
+     *
+     * @param method        请求方式
+     * @param uri           路由模板
+     * @param count         累计请求数
+     * @param statuses      按状态码分类的累计请求数
+     * @param requestBytes  累计请求体字节数
+     * @param responseBytes 累计响应体字节数
+     * @param mean          统计窗口内的平均延迟 (单位: 毫秒)
+     * @param max           统计窗口内的最大延迟 (单位: 毫秒)
+     * @param percentiles   统计窗口内的延迟分位数 百分位 -> 延迟 (单位: 毫秒)
+     */
+    public record RouteSnapshot(String method, String uri, long count, Map<String, Long> statuses,
+                                long requestBytes, long responseBytes, double mean, double max,
+                                Map<Double, Double> percentiles) {
+    }
+
+}
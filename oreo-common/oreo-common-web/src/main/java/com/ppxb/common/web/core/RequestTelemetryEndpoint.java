@@ -0,0 +1,28 @@
+package com.ppxb.common.web.core;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * 请求统计端点 /actuator/requests
+ *
+ * @author Lion Li
+ */
+@RequiredArgsConstructor
+@Endpoint(id = "requests")
+public class RequestTelemetryEndpoint {
+
+    private final RequestTelemetry requestTelemetry;
+
+    /**
+     * 所有路由的统计快照 按请求数倒序
+     */
+    @ReadOperation
+    public List<RequestTelemetry.RouteSnapshot> routes() {
+        return requestTelemetry.snapshots();
+    }
+
+}
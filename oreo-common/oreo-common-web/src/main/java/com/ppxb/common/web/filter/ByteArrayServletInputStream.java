@@ -0,0 +1,54 @@
+package com.ppxb.common.web.filter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+/**
+ * 基于已缓存请求体的输入流 多个输入流可共享同一个字节数组
+ *
+ * @author Lion Li
+ */
+public class ByteArrayServletInputStream extends ServletInputStream {
+
+    private final byte[] buf;
+
+    private int pos;
+
+    public ByteArrayServletInputStream(byte[] buf) {
+        this.buf = buf;
+    }
+
+    @Override
+    public int read() {
+        return pos < buf.length ? buf[pos++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (pos >= buf.length) {
+            return -1;
+        }
+        int n = Math.min(len, buf.length - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buf.length - pos;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return pos >= buf.length;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+    }
+}
@@ -1,16 +1,15 @@
 package com.ppxb.common.web.filter;
 import cn.hutool.core.io.IoUtil;
 import com.ppxb.common.core.constant.Constants;
-import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 构建可重复读取inputStream的request
@@ -25,42 +24,28 @@ public class RepeatedlyRequestWrapper extends HttpServletRequestWrapper {
         request.setCharacterEncoding(Constants.UTF8);
         response.setCharacterEncoding(Constants.UTF8);
 
-        body = IoUtil.readBytes(request.getInputStream(), false);
+        if (request instanceof XssHttpServletRequestWrapper xssRequest && xssRequest.isJsonRequest()) {
+            // XSS 过滤时已缓存过滤后的请求体 直接共享 不再复制
+            body = xssRequest.getBody();
+        } else {
+            body = IoUtil.readBytes(request.getInputStream(), false);
+        }
+    }
+
+    /**
+     * 获取缓存的请求体
+     */
+    public byte[] getBody() {
+        return body;
     }
 
     @Override
     public BufferedReader getReader() throws IOException {
-        return new BufferedReader(new InputStreamReader(getInputStream()));
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
     }
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
-        final ByteArrayInputStream bais = new ByteArrayInputStream(body);
-        return new ServletInputStream() {
-            @Override
-            public int read() throws IOException {
-                return bais.read();
-            }
-
-            @Override
-            public int available() throws IOException {
-                return body.length;
-            }
-
-            @Override
-            public boolean isFinished() {
-                return false;
-            }
-
-            @Override
-            public boolean isReady() {
-                return false;
-            }
-
-            @Override
-            public void setReadListener(ReadListener readListener) {
-
-            }
-        };
+        return new ByteArrayServletInputStream(body);
     }
 }
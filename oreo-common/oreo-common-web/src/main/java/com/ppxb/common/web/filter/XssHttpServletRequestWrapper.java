@@ -1,29 +1,55 @@
 package com.ppxb.common.web.filter;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.map.MapUtil;
-import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.StrUtil;
 import cn.hutool.http.HtmlUtil;
-import jakarta.servlet.ReadListener;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.json.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * XSS过滤处理
+ * <p>
+ * json 请求体逐个 token 过滤 只处理字符串值 过滤结果缓存在请求内 可重复读取
  *
  * @author ruoyi
  */
+@Slf4j
 public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
+
+    /**
+     * json 中 unicode 转义的 '<'
+     */
+    private static final Pattern UNICODE_LT = Pattern.compile("\\\\u003[cC]");
+
+    /**
+     * 过滤后的 json 请求体
+     */
+    private byte[] body;
+
+    /**
+     * 过滤后的请求参数
+     */
+    private Map<String, String[]> parameterMap;
+
     /**
      * @param request
      */
@@ -33,50 +59,22 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
     @Override
     public String getParameter(String name) {
-        String value = super.getParameter(name);
-        if (value == null) {
-            return null;
-        }
-        return HtmlUtil.cleanHtmlTag(value).trim();
+        String[] values = getParameterMap().get(name);
+        return values == null || values.length == 0 ? null : values[0];
     }
 
     @Override
     public Map<String, String[]> getParameterMap() {
-        Map<String, String[]> valueMap = super.getParameterMap();
-        if (MapUtil.isEmpty(valueMap)) {
-            return valueMap;
+        if (parameterMap == null) {
+            parameterMap = cleanParameterMap(super.getParameterMap());
         }
-        // 避免某些容器不允许改参数的情况 copy一份重新改
-        Map<String, String[]> map = new HashMap<>(valueMap.size());
-        map.putAll(valueMap);
-        for (Map.Entry<String, String[]> entry : map.entrySet()) {
-            String[] values = entry.getValue();
-            if (values != null) {
-                int length = values.length;
-                String[] escapseValues = new String[length];
-                for (int i = 0; i < length; i++) {
-                    // 防xss攻击和过滤前后空格
-                    escapseValues[i] = HtmlUtil.cleanHtmlTag(values[i]).trim();
-                }
-                map.put(entry.getKey(), escapseValues);
-            }
-        }
-        return map;
+        return parameterMap;
     }
 
     @Override
     public String[] getParameterValues(String name) {
-        String[] values = super.getParameterValues(name);
-        if (ArrayUtil.isEmpty(values)) {
-            return values;
-        }
-        int length = values.length;
-        String[] escapseValues = new String[length];
-        for (int i = 0; i < length; i++) {
-            // 防xss攻击和过滤前后空格
-            escapseValues[i] = HtmlUtil.cleanHtmlTag(values[i]).trim();
-        }
-        return escapseValues;
+        String[] values = getParameterMap().get(name);
+        return values == null ? null : values.clone();
     }
 
     @Override
@@ -85,49 +83,109 @@ public class XssHttpServletRequestWrapper extends HttpServletRequestWrapper {
         if (!isJsonRequest()) {
             return super.getInputStream();
         }
+        return new ByteArrayServletInputStream(getBody());
+    }
 
-        // 为空，直接返回
-        String json = StrUtil.str(IoUtil.readBytes(super.getInputStream(), false), StandardCharsets.UTF_8);
-        if (StringUtils.isEmpty(json)) {
-            return super.getInputStream();
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (!isJsonRequest()) {
+            return super.getReader();
         }
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
 
-        // xss过滤
-        json = HtmlUtil.cleanHtmlTag(json).trim();
-        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
-        final ByteArrayInputStream bis = IoUtil.toStream(jsonBytes);
-        return new ServletInputStream() {
-            @Override
-            public boolean isFinished() {
-                return true;
-            }
+    /**
+     * 获取过滤后的 json 请求体 首次调用时读取并过滤
+     */
+    public byte[] getBody() throws IOException {
+        if (body == null) {
+            body = cleanJson(IoUtil.readBytes(super.getInputStream(), false));
+        }
+        return body;
+    }
 
-            @Override
-            public boolean isReady() {
-                return true;
-            }
+    /**
+     * 是否是Json请求
+     */
+    public boolean isJsonRequest() {
+        String header = super.getHeader(HttpHeaders.CONTENT_TYPE);
+        return StringUtils.startsWithIgnoreCase(header, MediaType.APPLICATION_JSON_VALUE);
+    }
 
-            @Override
-            public int available() throws IOException {
-                return jsonBytes.length;
+    private static Map<String, String[]> cleanParameterMap(Map<String, String[]> valueMap) {
+        if (MapUtil.isEmpty(valueMap)) {
+            return valueMap;
+        }
+        // 避免某些容器不允许改参数的情况 copy一份重新改
+        Map<String, String[]> map = new HashMap<>(valueMap.size() * 2);
+        for (Map.Entry<String, String[]> entry : valueMap.entrySet()) {
+            String[] values = entry.getValue();
+            if (values != null) {
+                int length = values.length;
+                String[] escapseValues = new String[length];
+                for (int i = 0; i < length; i++) {
+                    // 防xss攻击和过滤前后空格
+                    escapseValues[i] = cleanHtml(values[i]).trim();
+                }
+                values = escapseValues;
             }
+            map.put(entry.getKey(), values);
+        }
+        return Collections.unmodifiableMap(map);
+    }
 
-            @Override
-            public void setReadListener(ReadListener readListener) {
+    /**
+     * 单次遍历 json 只过滤字符串值 不含标签时原样返回
+     */
+    private static byte[] cleanJson(byte[] json) throws IOException {
+        if (json.length == 0 || !containsTag(json)) {
+            return json;
+        }
+        JsonFactory factory = JsonUtils.getObjectMapper().getFactory();
+        ByteArrayBuilder out = new ByteArrayBuilder(json.length);
+        try (JsonParser parser = factory.createParser(json);
+             JsonGenerator generator = factory.createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_STRING) {
+                    generator.writeString(cleanHtml(parser.getText()));
+                } else {
+                    generator.copyCurrentEventExact(parser);
+                }
             }
+        } catch (IOException e) {
+            // 非法 json 仍可能被宽松的反序列化读取(如末尾多余内容) 退化为整体过滤
+            log.debug("XSS过滤 json 解析失败 改为整体过滤: {}", e.getMessage());
+            return cleanText(json);
+        }
+        return out.toByteArray();
+    }
 
-            @Override
-            public int read() throws IOException {
-                return bis.read();
-            }
-        };
+    /**
+     * 整体过滤请求体 转义的 '<' 先还原再过滤 避免绕过
+     */
+    private static byte[] cleanText(byte[] json) {
+        String text = new String(json, StandardCharsets.UTF_8);
+        text = UNICODE_LT.matcher(text).replaceAll("<");
+        return HtmlUtil.cleanHtmlTag(text).trim().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
-     * 是否是Json请求
+     * html 标签都以 '<' 开头 不含时无需过滤
      */
-    public boolean isJsonRequest() {
-        String header = super.getHeader(HttpHeaders.CONTENT_TYPE);
-        return StringUtils.startsWithIgnoreCase(header, MediaType.APPLICATION_JSON_VALUE);
+    private static String cleanHtml(String value) {
+        return value.indexOf('<') < 0 ? value : HtmlUtil.cleanHtmlTag(value);
+    }
+
+    /**
+     * 含 '<' 或 unicode 转义 (可能为转义后的 '<') 时需要过滤
+     */
+    private static boolean containsTag(byte[] json) {
+        for (int i = 0; i < json.length; i++) {
+            if (json[i] == '<' || (json[i] == '\\' && i + 1 < json.length && json[i + 1] == 'u')) {
+                return true;
+            }
+        }
+        return false;
     }
 }
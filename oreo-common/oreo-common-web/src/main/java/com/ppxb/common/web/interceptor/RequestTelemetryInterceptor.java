@@ -0,0 +1,137 @@
+package com.ppxb.common.web.interceptor;
+
+import cn.hutool.core.map.MapUtil;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.json.utils.JsonUtils;
+import com.ppxb.common.web.config.properties.RequestTelemetryProperties;
+import com.ppxb.common.web.core.RequestTelemetry;
+import com.ppxb.common.web.filter.RepeatedlyRequestWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求统计拦截器
+ * <p>
+ * 每个请求只记录耗时、状态码与字节数到 {@link RequestTelemetry}
+ * 请求参数只在慢请求或按采样率命中时才读取并打印
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class RequestTelemetryInterceptor implements HandlerInterceptor {
+
+    private static final String START_TIME_ATTRIBUTE = RequestTelemetryInterceptor.class.getName() + ".START_TIME";
+
+    /**
+     * 未匹配到路由模板的请求(如 404)统一归入的统计项
+     */
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final RequestTelemetry telemetry;
+
+    private final long slowThresholdNanos;
+
+    private final double sampleRate;
+
+    private final int maxParamLength;
+
+    public RequestTelemetryInterceptor(RequestTelemetry telemetry, RequestTelemetryProperties properties) {
+        this.telemetry = telemetry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowThreshold());
+        this.sampleRate = properties.getSampleRate();
+        this.maxParamLength = properties.getMaxParamLength();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(START_TIME_ATTRIBUTE) instanceof Long startTime)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startTime;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+        telemetry.record(request.getMethod(), route, response.getStatus(), elapsed,
+            request.getContentLengthLong(), getContentLength(response));
+
+        if (elapsed >= slowThresholdNanos) {
+            log.warn("[PLUS]慢请求 => URL[{} {}],耗时:[{}]毫秒,参数:[{}]", request.getMethod(), request.getRequestURI(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), getParams(request));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && log.isInfoEnabled()) {
+            log.info("[PLUS]请求采样 => URL[{} {}],耗时:[{}]毫秒,参数:[{}]", request.getMethod(), request.getRequestURI(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), getParams(request));
+        }
+    }
+
+    /**
+     * 请求参数 json 请求取缓存的请求体 其他请求取参数表 超出长度截断
+     */
+    private String getParams(HttpServletRequest request) {
+        if (isJsonRequest(request)) {
+            RepeatedlyRequestWrapper wrapper = WebUtils.getNativeRequest(request, RepeatedlyRequestWrapper.class);
+            if (wrapper == null) {
+                return StringUtils.EMPTY;
+            }
+            byte[] body = wrapper.getBody();
+            if (body.length <= maxParamLength) {
+                return new String(body, StandardCharsets.UTF_8);
+            }
+            return new String(body, 0, maxParamLength, StandardCharsets.UTF_8) + "...(" + body.length + " bytes)";
+        }
+        Map<String, String[]> parameterMap = request.getParameterMap();
+        if (MapUtil.isEmpty(parameterMap)) {
+            return StringUtils.EMPTY;
+        }
+        String parameters = JsonUtils.toJsonString(parameterMap);
+        if (parameters.length() <= maxParamLength) {
+            return parameters;
+        }
+        return parameters.substring(0, maxParamLength) + "...";
+    }
+
+    /**
+     * 响应头中声明的响应体长度 分块传输时未知
+     */
+    private long getContentLength(HttpServletResponse response) {
+        String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 判断本次请求的数据类型是否为json
+     *
+     * @param request request
+     * @return boolean
+     */
+    private boolean isJsonRequest(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null) {
+            return StringUtils.startsWithIgnoreCase(contentType, MediaType.APPLICATION_JSON_VALUE);
+        }
+        return false;
+    }
+
+}
@@ -1,9 +1,14 @@
 package com.ppxb.common.websocket.config;
 import cn.hutool.core.util.StrUtil;
 import com.ppxb.common.websocket.config.properties.WebSocketProperties;
+import com.ppxb.common.websocket.core.WebSocketConnection;
 import com.ppxb.common.websocket.handler.PlusWebSocketHandler;
+import com.ppxb.common.websocket.holder.WebSocketSessionHolder;
 import com.ppxb.common.websocket.interceptor.PlusWebSocketInterceptor;
 import com.ppxb.common.websocket.listener.WebSocketTopicListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -51,12 +56,37 @@ public class WebSocketConfig {
     }
 
     @Bean
-    public WebSocketHandler webSocketHandler() {
-        return new PlusWebSocketHandler();
+    public WebSocketHandler webSocketHandler(WebSocketProperties webSocketProperties) {
+        return new PlusWebSocketHandler(webSocketProperties);
     }
 
     @Bean
     public WebSocketTopicListener topicListener() {
         return new WebSocketTopicListener();
     }
+
+    /**
+     * WebSocket 会话与消息投递指标
+     */
+    @Bean
+    public MeterBinder webSocketMetrics() {
+        return registry -> {
+            Gauge.builder("websocket.sessions", WebSocketSessionHolder::getSessionCount)
+                .description("本机 WebSocket 会话数").register(registry);
+            Gauge.builder("websocket.messages.queued", WebSocketSessionHolder::getQueuedCount)
+                .description("发送队列中等待发送的消息数").register(registry);
+            Gauge.builder("websocket.messages.buffered.bytes", WebSocketSessionHolder::getBufferedBytes)
+                .description("发送队列中等待发送的字节数").register(registry);
+            FunctionCounter.builder("websocket.messages.sent", WebSocketConnection.class, c -> WebSocketConnection.getSentCount())
+                .description("已发送消息数").register(registry);
+            FunctionCounter.builder("websocket.messages.dropped", WebSocketConnection.class, c -> WebSocketConnection.getDroppedCount())
+                .description("被丢弃的消息数").register(registry);
+            FunctionCounter.builder("websocket.sessions.slow", WebSocketConnection.class, c -> WebSocketConnection.getSlowConsumerCount())
+                .description("因发送过慢被关闭的会话数").register(registry);
+            Gauge.builder("websocket.send.threads.active", WebSocketConnection::getActiveSendThreads)
+                .description("正在发送的线程数 上限 " + WebSocketConnection.SEND_THREADS).register(registry);
+            Gauge.builder("websocket.send.pending", WebSocketConnection::getPendingDrains)
+                .description("等待发送线程的会话数").register(registry);
+        };
+    }
 }
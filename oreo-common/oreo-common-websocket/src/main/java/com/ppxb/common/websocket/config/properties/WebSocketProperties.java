@@ -22,4 +22,19 @@ public class WebSocketProperties {
      *  设置访问源地址
      */
     private String allowedOrigins;
+
+    /**
+     * 单个会话发送队列容量 超出后视为慢客户端关闭会话
+     */
+    private Integer queueCapacity = 1000;
+
+    /**
+     * 单条消息发送时间上限 (单位: 毫秒) 超出后视为慢客户端关闭会话
+     */
+    private Integer sendTimeLimit = 10000;
+
+    /**
+     * 单个会话发送队列积压字节数上限 超出后视为慢客户端关闭会话
+     */
+    private Integer bufferSizeLimit = 512 * 1024;
 }
@@ -11,6 +11,11 @@ public interface WebSocketConstants {
      */
     String LOGIN_USER_KEY = "loginUser";
 
+    /**
+     * websocketSession中发送队列的key
+     */
+    String CONNECTION_KEY = "connection";
+
     /**
      * 订阅的频道
      */
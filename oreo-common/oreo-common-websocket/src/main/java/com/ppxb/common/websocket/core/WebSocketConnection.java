@@ -0,0 +1,256 @@
+package com.ppxb.common.websocket.core;
+
+import com.ppxb.common.core.utils.Threads;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 WebSocket 会话
+ * <p>
+ * 每个会话持有独立的有界发送队列 由发送线程串行发送 慢客户端只会积压自己的队列
+ * 参考 ConcurrentWebSocketSessionDecorator 单次发送超过时间限制或积压超过缓冲上限时关闭会话
+ * <p>
+ * 所有会话共用 {@link #SEND_THREADS} 个发送线程 每个会话同一时间最多占用一个线程
+ * 单次最多连续发送 {@link #DRAIN_BATCH} 条 仍有积压时重新排队 避免个别会话长期占用线程
+ *
+ * @author zendwang
+ */
+@Slf4j
+public class WebSocketConnection {
+
+    /**
+     * 发送线程数上限 空闲 60 秒后回收
+     */
+    public static final int SEND_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * 单次连续发送的消息数上限
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * 每个会话最多一个待执行的发送任务 任务队列长度不超过会话数
+     */
+    private static final ThreadPoolExecutor SEND_EXECUTOR = new ThreadPoolExecutor(SEND_THREADS, SEND_THREADS,
+        60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), Threads.newThreadFactory("ws-send-"));
+
+    static {
+        SEND_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private static final LongAdder SENT = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder SLOW_CONSUMERS = new LongAdder();
+
+    @Getter
+    private final Long userId;
+
+    @Getter
+    private final WebSocketSession session;
+
+    /**
+     * 待发送消息队列
+     */
+    private final BlockingQueue<WebSocketMessage<?>> queue;
+
+    /**
+     * 单次发送时间上限 (单位: 毫秒)
+     */
+    private final long sendTimeLimit;
+
+    /**
+     * 队列积压字节数上限
+     */
+    private final long bufferSizeLimit;
+
+    /**
+     * 队列积压字节数
+     */
+    private final AtomicLong bufferSize = new AtomicLong();
+
+    /**
+     * 是否已有线程在发送队列中的消息
+     */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 当前消息开始发送的时间 空闲时为 0
+     */
+    private volatile long sendStartTime;
+
+    public WebSocketConnection(Long userId, WebSocketSession session, int queueCapacity,
+                               long sendTimeLimit, long bufferSizeLimit) {
+        this.userId = userId;
+        this.session = session;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    /**
+     * 写入发送队列 并在没有发送线程时启动一个发送线程
+     * <p>
+     * 同一条消息对象可写入多个会话的队列 群发时只需构建一次
+     *
+     * @return 是否已入队
+     */
+    public boolean send(WebSocketMessage<?> message) {
+        if (closed.get() || !session.isOpen()) {
+            return false;
+        }
+        long start = sendStartTime;
+        if (start > 0 && System.currentTimeMillis() - start > sendTimeLimit) {
+            terminate("发送超时 " + sendTimeLimit + "ms");
+            return false;
+        }
+        int size = message.getPayloadLength();
+        if (bufferSize.addAndGet(size) > bufferSizeLimit || !queue.offer(message)) {
+            bufferSize.addAndGet(-size);
+            terminate("发送队列已满 积压 " + queue.size() + " 条");
+            return false;
+        }
+        if (draining.compareAndSet(false, true)) {
+            try {
+                SEND_EXECUTOR.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 当前积压的消息数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 当前积压的字节数
+     */
+    public long getBufferSize() {
+        return bufferSize.get();
+    }
+
+    /**
+     * 标记关闭并清空队列 不主动关闭底层会话
+     */
+    public void markClosed() {
+        if (closed.compareAndSet(false, true)) {
+            DROPPED.add(queue.size());
+            queue.clear();
+            bufferSize.set(0);
+        }
+    }
+
+    /**
+     * 关闭会话
+     */
+    public void close(CloseStatus status) {
+        markClosed();
+        try {
+            session.close(status);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void drain() {
+        for (int sent = 0; !closed.get(); sent++) {
+            if (sent >= DRAIN_BATCH) {
+                // 让出线程 保留发送标记重新排队
+                try {
+                    SEND_EXECUTOR.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+                return;
+            }
+            WebSocketMessage<?> message = queue.poll();
+            if (message == null) {
+                draining.set(false);
+                // 释放发送标记后再次检查 避免与并发入队竞争导致消息滞留
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            bufferSize.addAndGet(-message.getPayloadLength());
+            sendStartTime = System.currentTimeMillis();
+            try {
+                session.sendMessage(message);
+                SENT.increment();
+            } catch (Exception e) {
+                log.warn("[send] session({}) 发送消息异常 {}", session.getId(), e.getMessage());
+                DROPPED.increment();
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            } finally {
+                sendStartTime = 0;
+            }
+        }
+    }
+
+    /**
+     * 慢客户端 关闭会话并丢弃积压消息
+     */
+    private void terminate(String reason) {
+        if (closed.get()) {
+            return;
+        }
+        SLOW_CONSUMERS.increment();
+        DROPPED.increment();
+        log.warn("[send] session({}) userId:{} {} 关闭会话", session.getId(), userId, reason);
+        close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    /**
+     * 已发送消息数
+     */
+    public static long getSentCount() {
+        return SENT.sum();
+    }
+
+    /**
+     * 被丢弃的消息数
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * 因发送过慢被关闭的会话数
+     */
+    public static long getSlowConsumerCount() {
+        return SLOW_CONSUMERS.sum();
+    }
+
+    /**
+     * 正在发送的线程数
+     */
+    public static int getActiveSendThreads() {
+        return SEND_EXECUTOR.getActiveCount();
+    }
+
+    /**
+     * 等待发送线程的会话数
+     */
+    public static int getPendingDrains() {
+        return SEND_EXECUTOR.getQueue().size();
+    }
+
+}
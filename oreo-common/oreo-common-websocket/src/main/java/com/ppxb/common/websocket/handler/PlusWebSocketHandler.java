@@ -1,7 +1,10 @@
 package com.ppxb.common.websocket.handler;
 import cn.hutool.core.util.ObjectUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.ppxb.common.core.domain.model.LoginUser;
+import com.ppxb.common.websocket.config.properties.WebSocketProperties;
+import com.ppxb.common.websocket.core.WebSocketConnection;
 import com.ppxb.common.websocket.dto.WebSocketMessageDto;
 import com.ppxb.common.websocket.holder.WebSocketSessionHolder;
 import com.ppxb.common.websocket.utils.WebSocketUtils;
@@ -11,6 +14,7 @@ import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 import java.io.IOException;
 import java.util.List;
 
+import static com.ppxb.common.websocket.constant.WebSocketConstants.CONNECTION_KEY;
 import static com.ppxb.common.websocket.constant.WebSocketConstants.LOGIN_USER_KEY;
 /**
  * WebSocketHandler 实现类
@@ -18,8 +22,11 @@ import static com.ppxb.common.websocket.constant.WebSocketConstants.LOGIN_USER_K
  * @author zendwang
  */
 @Slf4j
+@RequiredArgsConstructor
 public class PlusWebSocketHandler extends AbstractWebSocketHandler {
 
+    private final WebSocketProperties properties;
+
     /**
      * 连接成功后
      */
@@ -31,7 +38,10 @@ public class PlusWebSocketHandler extends AbstractWebSocketHandler {
             log.info("[connect] invalid token received. sessionId: {}", session.getId());
             return;
         }
-        WebSocketSessionHolder.addSession(loginUser.getUserId(), session);
+        WebSocketConnection connection = new WebSocketConnection(loginUser.getUserId(), session,
+            properties.getQueueCapacity(), properties.getSendTimeLimit(), properties.getBufferSizeLimit());
+        session.getAttributes().put(CONNECTION_KEY, connection);
+        WebSocketSessionHolder.addSession(loginUser.getUserId(), connection);
         log.info("[connect] sessionId: {},userId:{},userType:{}", session.getId(), loginUser.getUserId(), loginUser.getUserType());
     }
 
@@ -103,7 +113,7 @@ public class PlusWebSocketHandler extends AbstractWebSocketHandler {
             log.info("[disconnect] invalid token received. sessionId: {}", session.getId());
             return;
         }
-        WebSocketSessionHolder.removeSession(loginUser.getUserId());
+        WebSocketSessionHolder.removeSession(loginUser.getUserId(), session);
         log.info("[disconnect] sessionId: {},userId:{},userType:{}", session.getId(), loginUser.getUserId(), loginUser.getUserType());
     }
 
@@ -1,44 +1,74 @@
 package com.ppxb.common.websocket.holder;
+import com.ppxb.common.websocket.core.WebSocketConnection;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * WebSocketSession 用于保存当前所有在线的会话信息
+ * <p>
+ * 同一用户可同时保持多个会话(多标签页/多端)
  *
  * @author zendwang
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class WebSocketSessionHolder {
 
-    private static final Map<Long, WebSocketSession> USER_SESSION_MAP = new ConcurrentHashMap<>();
+    /**
+     * 用户id -> (会话id -> 会话)
+     */
+    private static final Map<Long, Map<String, WebSocketConnection>> USER_SESSION_MAP = new ConcurrentHashMap<>();
 
     /**
      * 将WebSocket会话添加到用户会话Map中
      *
      * @param sessionKey 会话键，用于检索会话
-     * @param session    要添加的WebSocket会话
+     * @param connection 要添加的WebSocket会话
+     */
+    public static void addSession(Long sessionKey, WebSocketConnection connection) {
+        USER_SESSION_MAP.compute(sessionKey, (k, v) -> {
+            Map<String, WebSocketConnection> connections = v == null ? new ConcurrentHashMap<>() : v;
+            connections.put(connection.getSession().getId(), connection);
+            return connections;
+        });
+    }
+
+    /**
+     * 从用户会话Map中移除指定的WebSocket会话
+     *
+     * @param sessionKey 会话键
+     * @param session    要移除的会话
      */
-    public static void addSession(Long sessionKey, WebSocketSession session) {
-        removeSession(sessionKey);
-        USER_SESSION_MAP.put(sessionKey, session);
+    public static void removeSession(Long sessionKey, WebSocketSession session) {
+        WebSocketConnection[] removed = new WebSocketConnection[1];
+        USER_SESSION_MAP.computeIfPresent(sessionKey, (k, v) -> {
+            removed[0] = v.remove(session.getId());
+            return v.isEmpty() ? null : v;
+        });
+        if (removed[0] != null) {
+            removed[0].markClosed();
+        }
     }
 
     /**
-     * 从用户会话Map中移除指定会话键对应的WebSocket会话
+     * 移除并关闭指定会话键对应的所有WebSocket会话
      *
      * @param sessionKey 要移除的会话键
      */
     public static void removeSession(Long sessionKey) {
-        WebSocketSession session = USER_SESSION_MAP.remove(sessionKey);
-        try {
-            session.close(CloseStatus.BAD_DATA);
-        } catch (Exception ignored) {
+        Map<String, WebSocketConnection> connections = USER_SESSION_MAP.remove(sessionKey);
+        if (connections == null) {
+            return;
+        }
+        for (WebSocketConnection connection : connections.values()) {
+            connection.close(CloseStatus.BAD_DATA);
         }
     }
 
@@ -46,10 +76,11 @@ public class WebSocketSessionHolder {
      * 根据会话键从用户会话Map中获取WebSocket会话
      *
      * @param sessionKey 要获取的会话键
-     * @return 与给定会话键对应的WebSocket会话，如果不存在则返回null
+     * @return 与给定会话键对应的所有WebSocket会话，如果不存在则返回空集合
      */
-    public static WebSocketSession getSessions(Long sessionKey) {
-        return USER_SESSION_MAP.get(sessionKey);
+    public static Collection<WebSocketConnection> getSessions(Long sessionKey) {
+        Map<String, WebSocketConnection> connections = USER_SESSION_MAP.get(sessionKey);
+        return connections == null ? List.of() : connections.values();
     }
 
     /**
@@ -70,4 +101,41 @@ public class WebSocketSessionHolder {
     public static Boolean existSession(Long sessionKey) {
         return USER_SESSION_MAP.containsKey(sessionKey);
     }
+
+    /**
+     * 本机会话数
+     */
+    public static int getSessionCount() {
+        int count = 0;
+        for (Map<String, WebSocketConnection> connections : USER_SESSION_MAP.values()) {
+            count += connections.size();
+        }
+        return count;
+    }
+
+    /**
+     * 所有会话发送队列中积压的消息数
+     */
+    public static long getQueuedCount() {
+        long count = 0;
+        for (Map<String, WebSocketConnection> connections : USER_SESSION_MAP.values()) {
+            for (WebSocketConnection connection : connections.values()) {
+                count += connection.getQueueSize();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 所有会话发送队列中积压的字节数
+     */
+    public static long getBufferedBytes() {
+        long bytes = 0;
+        for (Map<String, WebSocketConnection> connections : USER_SESSION_MAP.values()) {
+            for (WebSocketConnection connection : connections.values()) {
+                bytes += connection.getBufferSize();
+            }
+        }
+        return bytes;
+    }
 }
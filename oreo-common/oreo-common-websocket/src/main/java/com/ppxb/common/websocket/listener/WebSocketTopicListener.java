@@ -1,11 +1,11 @@
 package com.ppxb.common.websocket.listener;
 import cn.hutool.core.collection.CollUtil;
 import lombok.extern.slf4j.Slf4j;
-import com.ppxb.common.websocket.holder.WebSocketSessionHolder;
 import com.ppxb.common.websocket.utils.WebSocketUtils;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.Ordered;
+import org.springframework.web.socket.TextMessage;
 
 /**
  * WebSocket 主题订阅监听器
@@ -25,18 +25,13 @@ public class WebSocketTopicListener implements ApplicationRunner, Ordered {
     public void run(ApplicationArguments args) throws Exception {
         // 订阅WebSocket消息
         WebSocketUtils.subscribeMessage((message) -> {
-            log.info("WebSocket主题订阅收到消息session keys={} message={}", message.getSessionKeys(), message.getMessage());
+            log.debug("WebSocket主题订阅收到消息session keys={} message={}", message.getSessionKeys(), message.getMessage());
             // 如果key不为空就按照key发消息 如果为空就群发
             if (CollUtil.isNotEmpty(message.getSessionKeys())) {
-                message.getSessionKeys().forEach(key -> {
-                    if (WebSocketSessionHolder.existSession(key)) {
-                        WebSocketUtils.sendMessage(key, message.getMessage());
-                    }
-                });
+                TextMessage textMessage = new TextMessage(message.getMessage());
+                message.getSessionKeys().forEach(key -> WebSocketUtils.sendMessage(key, textMessage));
             } else {
-                WebSocketSessionHolder.getSessionsAll().forEach(key -> {
-                    WebSocketUtils.sendMessage(key, message.getMessage());
-                });
+                WebSocketUtils.sendMessageAll(message.getMessage());
             }
         });
         log.info("初始化WebSocket主题订阅监听器成功");
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.websocket.core.WebSocketConnection;
 import com.ppxb.common.websocket.dto.WebSocketMessageDto;
 import com.ppxb.common.websocket.holder.WebSocketSessionHolder;
 import org.springframework.web.socket.PongMessage;
@@ -11,11 +12,11 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
+import static com.ppxb.common.websocket.constant.WebSocketConstants.CONNECTION_KEY;
 import static com.ppxb.common.websocket.constant.WebSocketConstants.WEB_SOCKET_TOPIC;
 /**
  * 工具类
@@ -33,8 +34,33 @@ public class WebSocketUtils {
      * @param message    要发送的消息内容
      */
     public static void sendMessage(Long sessionKey, String message) {
-        WebSocketSession session = WebSocketSessionHolder.getSessions(sessionKey);
-        sendMessage(session, message);
+        sendMessage(sessionKey, new TextMessage(message));
+    }
+
+    /**
+     * 向指定用户的所有WebSocket会话发送消息
+     * <p>
+     * 消息写入各会话的发送队列后立即返回 同一消息对象可复用于多个用户 群发时只构建一次
+     *
+     * @param sessionKey 要发送消息的用户id
+     * @param message    要发送的WebSocket消息对象
+     */
+    public static void sendMessage(Long sessionKey, WebSocketMessage<?> message) {
+        for (WebSocketConnection connection : WebSocketSessionHolder.getSessions(sessionKey)) {
+            connection.send(message);
+        }
+    }
+
+    /**
+     * 向本机所有WebSocket会话发送消息
+     *
+     * @param message 要发送的消息内容
+     */
+    public static void sendMessageAll(String message) {
+        TextMessage textMessage = new TextMessage(message);
+        for (Long sessionKey : WebSocketSessionHolder.getSessionsAll()) {
+            sendMessage(sessionKey, textMessage);
+        }
     }
 
     /**
@@ -53,10 +79,11 @@ public class WebSocketUtils {
      */
     public static void publishMessage(WebSocketMessageDto webSocketMessage) {
         List<Long> unsentSessionKeys = new ArrayList<>();
+        TextMessage textMessage = new TextMessage(webSocketMessage.getMessage());
         // 当前服务内session,直接发送消息
         for (Long sessionKey : webSocketMessage.getSessionKeys()) {
             if (WebSocketSessionHolder.existSession(sessionKey)) {
-                WebSocketUtils.sendMessage(sessionKey, webSocketMessage.getMessage());
+                WebSocketUtils.sendMessage(sessionKey, textMessage);
                 continue;
             }
             unsentSessionKeys.add(sessionKey);
@@ -67,7 +94,7 @@ public class WebSocketUtils {
             broadcastMessage.setMessage(webSocketMessage.getMessage());
             broadcastMessage.setSessionKeys(unsentSessionKeys);
             RedisUtils.publish(WEB_SOCKET_TOPIC, broadcastMessage, consumer -> {
-                log.info(" WebSocket发送主题订阅消息topic:{} session keys:{} message:{}",
+                log.debug("WebSocket发送主题订阅消息topic:{} session keys:{} message:{}",
                     WEB_SOCKET_TOPIC, unsentSessionKeys, webSocketMessage.getMessage());
             });
         }
@@ -82,7 +109,7 @@ public class WebSocketUtils {
         WebSocketMessageDto broadcastMessage = new WebSocketMessageDto();
         broadcastMessage.setMessage(message);
         RedisUtils.publish(WEB_SOCKET_TOPIC, broadcastMessage, consumer -> {
-            log.info("WebSocket发送主题订阅消息topic:{} message:{}", WEB_SOCKET_TOPIC, message);
+            log.debug("WebSocket发送主题订阅消息topic:{} message:{}", WEB_SOCKET_TOPIC, message);
         });
     }
 
@@ -107,19 +134,21 @@ public class WebSocketUtils {
 
     /**
      * 向指定的WebSocket会话发送WebSocket消息对象
+     * <p>
+     * 已登记的会话写入其发送队列 保证同一会话不会被并发写入 不同会话之间互不阻塞
      *
      * @param session WebSocket会话
      * @param message 要发送的WebSocket消息对象
      */
-    private synchronized static void sendMessage(WebSocketSession session, WebSocketMessage<?> message) {
+    private static void sendMessage(WebSocketSession session, WebSocketMessage<?> message) {
         if (session == null || !session.isOpen()) {
             log.warn("[send] session会话已经关闭");
+            return;
+        }
+        if (session.getAttributes().get(CONNECTION_KEY) instanceof WebSocketConnection connection) {
+            connection.send(message);
         } else {
-            try {
-                session.sendMessage(message);
-            } catch (IOException e) {
-                log.error("[send] session({}) 发送消息({}) 异常", session, message, e);
-            }
+            log.warn("[send] session({}) 未登记 消息未发送", session.getId());
         }
     }
 }
@@ -19,8 +19,6 @@ import com.ppxb.system.service.ISysLogininforService;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 系统访问记录
  *
@@ -50,8 +48,7 @@ public class SysLogininforController extends BaseController {
     @SaCheckPermission("monitor:logininfor:export")
     @PostMapping("/export")
     public void export(SysLogininforBo logininfor, HttpServletResponse response) {
-        List<SysLogininforVo> list = logininforService.selectLogininforList(logininfor);
-        ExcelUtil.exportExcel(list, "登录日志", SysLogininforVo.class, response);
+        ExcelUtil.exportExcel(consumer -> logininforService.selectLogininforList(logininfor, consumer), "登录日志", SysLogininforVo.class, response);
     }
 
     /**
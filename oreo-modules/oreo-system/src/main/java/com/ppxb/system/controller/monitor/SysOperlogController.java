@@ -16,8 +16,6 @@ import com.ppxb.system.service.ISysOperLogService;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 操作日志记录
  *
@@ -47,8 +45,7 @@ public class SysOperlogController extends BaseController {
     @SaCheckPermission("monitor:operlog:export")
     @PostMapping("/export")
     public void export(SysOperLogBo operLog, HttpServletResponse response) {
-        List<SysOperLogVo> list = operLogService.selectOperLogList(operLog);
-        ExcelUtil.exportExcel(list, "操作日志", SysOperLogVo.class, response);
+        ExcelUtil.exportExcel(consumer -> operLogService.selectOperLogList(operLog, consumer), "操作日志", SysOperLogVo.class, response);
     }
 
     /**
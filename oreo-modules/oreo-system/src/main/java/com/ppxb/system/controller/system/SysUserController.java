@@ -72,8 +72,7 @@ public class SysUserController extends BaseController {
     @SaCheckPermission("system:user:export")
     @PostMapping("/export")
     public void export(SysUserBo user, HttpServletResponse response) {
-        List<SysUserExportVo> list = userService.selectUserExportList(user);
-        ExcelUtil.exportExcel(list, "用户数据", SysUserExportVo.class, response);
+        ExcelUtil.exportExcel(consumer -> userService.selectUserExportList(user, consumer), "用户数据", SysUserExportVo.class, response);
     }
 
     /**
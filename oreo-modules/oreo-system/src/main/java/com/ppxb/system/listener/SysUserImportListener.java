@@ -1,6 +1,5 @@
 package com.ppxb.system.listener;
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.crypto.digest.BCrypt;
 import cn.hutool.http.HtmlUtil;
 import cn.idev.excel.context.AnalysisContext;
@@ -10,27 +9,41 @@ import jakarta.validation.ConstraintViolationException;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StreamUtils;
+import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.core.utils.ValidatorUtils;
 import com.ppxb.common.excel.core.ExcelListener;
 import com.ppxb.common.excel.core.ExcelResult;
 import com.ppxb.common.satoken.utils.LoginHelper;
+import com.ppxb.common.sse.dto.SseMessageDto;
+import com.ppxb.common.sse.utils.SseMessageUtils;
 import com.ppxb.system.domain.bo.SysUserBo;
 import com.ppxb.system.domain.vo.SysUserImportVo;
-import com.ppxb.system.domain.vo.SysUserVo;
 import com.ppxb.system.service.ISysConfigService;
 import com.ppxb.system.service.ISysUserService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 系统用户自定义导入
+ * <p>
+ * 按批处理: 一次查询整批账号是否存在 新增/更新分别在各自事务内批量写入
+ * 批量写入失败时逐行重试 保证失败信息精确到行
  *
  * @author Lion Li
  */
 @Slf4j
 public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo> implements ExcelListener<SysUserImportVo> {
 
+    /**
+     * 每批处理的行数
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final ISysUserService userService;
 
     private final String password;
@@ -41,9 +54,16 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
 
     private int successNum = 0;
     private int failureNum = 0;
+    private int processedNum = 0;
     private final StringBuilder successMsg = new StringBuilder();
     private final StringBuilder failureMsg = new StringBuilder();
 
+    /**
+     * 当前批次的行 与其中的账号
+     */
+    private final List<SysUserImportVo> batch = new ArrayList<>(BATCH_SIZE);
+    private final Set<String> batchUserNames = new HashSet<>();
+
     public SysUserImportListener(Boolean isUpdateSupport) {
         String initPassword = SpringUtils.getBean(ISysConfigService.class).selectConfigByKey("sys.user.initPassword");
         this.userService = SpringUtils.getBean(ISysUserService.class);
@@ -54,47 +74,161 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
 
     @Override
     public void invoke(SysUserImportVo userVo, AnalysisContext context) {
-        SysUserVo sysUser = this.userService.selectUserByUserName(userVo.getUserName());
+        if (!batchUserNames.add(userVo.getUserName())) {
+            // 同一批中账号重复 先处理之前的行 保证与逐行导入的结果一致
+            flush();
+            batchUserNames.add(userVo.getUserName());
+        }
+        batch.add(userVo);
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+    }
+
+    /**
+     * 处理当前批次
+     */
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ImportRow> rows = StreamUtils.toList(batch, ImportRow::new);
+        batch.clear();
+        batchUserNames.clear();
+
+        // 一次查询整批账号
+        Map<String, Long> existUserIds = userService.selectUserIdsByUserNames(
+            StreamUtils.toSet(StreamUtils.filter(rows, r -> StringUtils.isNotBlank(r.vo.getUserName())), r -> r.vo.getUserName()));
+        List<ImportRow> candidates = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Long userId = existUserIds.get(row.vo.getUserName());
+            if (userId != null && !isUpdateSupport) {
+                row.exists = true;
+                continue;
+            }
+            row.user = BeanUtil.toBean(row.vo, SysUserBo.class);
+            row.user.setUserId(userId);
+            row.update = userId != null;
+            candidates.add(row);
+        }
+
+        List<ImportRow> inserts = new ArrayList<>();
+        List<ImportRow> updates = new ArrayList<>();
+        for (ImportRow row : candidates) {
+            // 在当前线程校验 校验信息使用请求的语言环境
+            try {
+                ValidatorUtils.validate(row.user);
+            } catch (Exception e) {
+                row.error = e;
+                continue;
+            }
+            if (row.update) {
+                try {
+                    userService.checkUserAllowed(row.user.getUserId());
+                    row.user.setUpdateBy(operUserId);
+                    updates.add(row);
+                } catch (Exception e) {
+                    row.error = e;
+                }
+            } else {
+                row.user.setPassword(password);
+                row.user.setCreateBy(operUserId);
+                inserts.add(row);
+            }
+        }
+        if (!updates.isEmpty()) {
+            Set<Long> allowed = userService.selectUserIdsInDataScope(StreamUtils.toList(updates, r -> r.user.getUserId()));
+            updates.removeIf(row -> {
+                if (allowed.contains(row.user.getUserId())) {
+                    return false;
+                }
+                row.error = new ServiceException("没有权限访问用户数据！");
+                return true;
+            });
+        }
+
+        write(inserts, false);
+        write(updates, true);
+
+        for (ImportRow row : rows) {
+            appendResult(row);
+        }
+        processedNum += rows.size();
+        publishProgress();
+    }
+
+    /**
+     * 批量写入 失败时回退为逐行写入以定位出错的行
+     */
+    private void write(List<ImportRow> rows, boolean update) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<SysUserBo> users = StreamUtils.toList(rows, r -> r.user);
         try {
-            // 验证是否存在这个用户
-            if (ObjectUtil.isNull(sysUser)) {
-                SysUserBo user = BeanUtil.toBean(userVo, SysUserBo.class);
-                ValidatorUtils.validate(user);
-                user.setPassword(password);
-                user.setCreateBy(operUserId);
-                userService.insertUser(user);
-                successNum++;
-                successMsg.append("<br/>").append(successNum).append("、账号 ").append(user.getUserName()).append(" 导入成功");
-            } else if (isUpdateSupport) {
-                Long userId = sysUser.getUserId();
-                SysUserBo user = BeanUtil.toBean(userVo, SysUserBo.class);
-                user.setUserId(userId);
-                ValidatorUtils.validate(user);
-                userService.checkUserAllowed(user.getUserId());
-                userService.checkUserDataScope(user.getUserId());
-                user.setUpdateBy(operUserId);
-                userService.updateUser(user);
-                successNum++;
-                successMsg.append("<br/>").append(successNum).append("、账号 ").append(user.getUserName()).append(" 更新成功");
+            if (update) {
+                userService.updateUserBatch(users);
             } else {
-                failureNum++;
-                failureMsg.append("<br/>").append(failureNum).append("、账号 ").append(sysUser.getUserName()).append(" 已存在");
+                userService.insertUserBatch(users);
             }
+            return;
         } catch (Exception e) {
+            log.warn("用户批量{}失败 改为逐行处理 共 {} 条: {}", update ? "更新" : "新增", rows.size(), e.getMessage());
+        }
+        for (ImportRow row : rows) {
+            try {
+                if (update) {
+                    userService.updateUser(row.user);
+                } else {
+                    row.user.setUserId(null);
+                    userService.insertUser(row.user);
+                }
+            } catch (Exception e) {
+                row.error = e;
+            }
+        }
+    }
+
+    private void appendResult(ImportRow row) {
+        if (row.exists) {
+            failureNum++;
+            failureMsg.append("<br/>").append(failureNum).append("、账号 ").append(row.vo.getUserName()).append(" 已存在");
+        } else if (row.error != null) {
             failureNum++;
-            String msg = "<br/>" + failureNum + "、账号 " + HtmlUtil.cleanHtmlTag(userVo.getUserName()) + " 导入失败：";
-            String message = e.getMessage();
-            if (e instanceof ConstraintViolationException cvException) {
+            String msg = "<br/>" + failureNum + "、账号 " + HtmlUtil.cleanHtmlTag(row.vo.getUserName()) + " 导入失败：";
+            String message = row.error.getMessage();
+            if (row.error instanceof ConstraintViolationException cvException) {
                 message = StreamUtils.join(cvException.getConstraintViolations(), ConstraintViolation::getMessage, ", ");
             }
             failureMsg.append(msg).append(message);
-            log.error(msg, e);
+            log.error(msg, row.error);
+        } else {
+            successNum++;
+            successMsg.append("<br/>").append(successNum).append("、账号 ").append(row.user.getUserName())
+                .append(row.update ? " 更新成功" : " 导入成功");
         }
     }
 
-    @Override
-    public void doAfterAllAnalysed(AnalysisContext context) {
-
+    /**
+     * 通过 SSE 推送导入进度
+     */
+    private void publishProgress() {
+        if (operUserId == null) {
+            return;
+        }
+        try {
+            SseMessageDto dto = new SseMessageDto();
+            dto.setUserIds(List.of(operUserId));
+            dto.setMessage("用户导入进度：已处理 " + processedNum + " 条，成功 " + successNum + " 条，失败 " + failureNum + " 条");
+            SseMessageUtils.publishMessage(dto);
+        } catch (Exception e) {
+            log.warn("用户导入进度推送失败: {}", e.getMessage());
+        }
     }
 
     @Override
@@ -123,4 +257,27 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
             }
         };
     }
+
+    /**
+     * 单行导入状态
+     */
+    private static class ImportRow {
+
+        private final SysUserImportVo vo;
+
+        private SysUserBo user;
+
+        /**
+         * 账号已存在且不允许更新
+         */
+        private boolean exists;
+
+        private boolean update;
+
+        private Exception error;
+
+        ImportRow(SysUserImportVo vo) {
+            this.vo = vo;
+        }
+    }
 }
@@ -2,11 +2,9 @@ package com.ppxb.system.mapper;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.mybatis.annotation.DataColumn;
 import com.ppxb.common.mybatis.annotation.DataPermission;
 import com.ppxb.common.mybatis.core.mapper.BaseMapperPlus;
-import com.ppxb.common.mybatis.helper.DataBaseHelper;
 import com.ppxb.system.domain.SysDept;
 import com.ppxb.system.domain.vo.SysDeptVo;
 import java.util.List;
@@ -90,31 +88,6 @@ public interface SysDeptMapper extends BaseMapperPlus<SysDept, SysDeptVo> {
         return this.selectCount(new LambdaQueryWrapper<SysDept>().eq(SysDept::getDeptId, deptId));
     }
 
-    /**
-     * 根据父部门ID查询其所有子部门的列表
-     *
-     * @param parentId 父部门ID
-     * @return 包含子部门的列表
-     */
-    default List<SysDept> selectListByParentId(Long parentId) {
-        return this.selectList(new LambdaQueryWrapper<SysDept>()
-            .select(SysDept::getDeptId)
-            .apply(DataBaseHelper.findInSet(parentId, "ancestors")));
-    }
-
-    /**
-     * 查询某个部门及其所有子部门ID（含自身）
-     *
-     * @param parentId 父部门ID
-     * @return 部门ID集合
-     */
-    default List<Long> selectDeptAndChildById(Long parentId) {
-        List<SysDept> deptList = this.selectListByParentId(parentId);
-        List<Long> deptIds = StreamUtils.toList(deptList, SysDept::getDeptId);
-        deptIds.add(parentId);
-        return deptIds;
-    }
-
     /**
      * 根据角色ID查询部门树信息
      *
@@ -1,4 +1,5 @@
 package com.ppxb.system.mapper;
+import cn.hutool.core.convert.Convert;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Constants;
@@ -10,6 +11,7 @@ import com.ppxb.common.mybatis.core.mapper.BaseMapperPlus;
 import com.ppxb.system.domain.SysUser;
 import com.ppxb.system.domain.vo.SysUserExportVo;
 import com.ppxb.system.domain.vo.SysUserVo;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -60,6 +62,19 @@ public interface SysUserMapper extends BaseMapperPlus<SysUser, SysUserVo> {
     })
     List<SysUserExportVo> selectUserExportList(@Param(Constants.WRAPPER) Wrapper<SysUser> queryWrapper);
 
+    /**
+     * 根据条件查询一页导出用户列表(不查询总数)
+     *
+     * @param page         分页信息
+     * @param queryWrapper 查询条件
+     * @return 用户信息集合信息
+     */
+    @DataPermission({
+        @DataColumn(key = "deptName", value = "d.dept_id"),
+        @DataColumn(key = "userName", value = "u.create_by")
+    })
+    List<SysUserExportVo> selectUserExportPage(@Param("page") Page<SysUser> page, @Param(Constants.WRAPPER) Wrapper<SysUser> queryWrapper);
+
     /**
      * 根据条件分页查询已配用户角色列表
      *
@@ -99,6 +114,21 @@ public interface SysUserMapper extends BaseMapperPlus<SysUser, SysUserVo> {
         return this.selectCount(new LambdaQueryWrapper<SysUser>().eq(SysUser::getUserId, userId));
     }
 
+    /**
+     * 筛选有数据权限的用户ID
+     *
+     * @param userIds 用户ID集合
+     * @return 有数据权限的用户ID集合
+     */
+    @DataPermission({
+        @DataColumn(key = "deptName", value = "dept_id"),
+        @DataColumn(key = "userName", value = "create_by")
+    })
+    default List<Long> selectUserIdsInScope(Collection<Long> userIds) {
+        return this.selectObjs(new LambdaQueryWrapper<SysUser>()
+            .select(SysUser::getUserId).in(SysUser::getUserId, userIds), x -> Convert.toLong(x));
+    }
+
     /**
      * 根据条件更新用户数据
      *
@@ -22,4 +22,20 @@ public interface ISysDataScopeService {
      */
     String getDeptAndChild(Long deptId);
 
+    /**
+     * 获取角色自定义权限的部门id
+     *
+     * @param roleId 角色id
+     * @return 升序逗号拼接的部门id
+     */
+    String getRoleCustomIds(Long roleId);
+
+    /**
+     * 获取部门及以下的部门id
+     *
+     * @param deptId 部门id
+     * @return 升序逗号拼接的部门id
+     */
+    String getDeptAndChildIds(Long deptId);
+
 }
@@ -4,6 +4,7 @@ import com.ppxb.common.mybatis.core.page.TableDataInfo;
 import com.ppxb.system.domain.bo.SysLogininforBo;
 import com.ppxb.system.domain.vo.SysLogininforVo;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 系统访问日志情况信息 服务层
@@ -36,6 +37,14 @@ public interface ISysLogininforService {
      */
     List<SysLogininforVo> selectLogininforList(SysLogininforBo logininfor);
 
+    /**
+     * 分批查询系统登录日志集合(按访问ID倒序 keyset 分页)
+     *
+     * @param logininfor 访问日志对象
+     * @param consumer   每批登录记录的处理函数
+     */
+    void selectLogininforList(SysLogininforBo logininfor, Consumer<List<SysLogininforVo>> consumer);
+
     /**
      * 批量删除系统登录日志
      *
@@ -4,6 +4,7 @@ import com.ppxb.common.mybatis.core.page.TableDataInfo;
 import com.ppxb.system.domain.bo.SysOperLogBo;
 import com.ppxb.system.domain.vo.SysOperLogVo;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 操作日志 服务层
@@ -36,6 +37,14 @@ public interface ISysOperLogService {
      */
     List<SysOperLogVo> selectOperLogList(SysOperLogBo operLog);
 
+    /**
+     * 分批查询系统操作日志集合(按操作ID倒序 keyset 分页)
+     *
+     * @param operLog  操作日志对象
+     * @param consumer 每批操作日志的处理函数
+     */
+    void selectOperLogList(SysOperLogBo operLog, Consumer<List<SysOperLogVo>> consumer);
+
     /**
      * 批量删除系统操作日志
      *
@@ -4,7 +4,11 @@ import com.ppxb.common.mybatis.core.page.TableDataInfo;
 import com.ppxb.system.domain.bo.SysUserBo;
 import com.ppxb.system.domain.vo.SysUserExportVo;
 import com.ppxb.system.domain.vo.SysUserVo;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 用户 业务层
@@ -31,6 +35,14 @@ public interface ISysUserService {
      */
     List<SysUserExportVo> selectUserExportList(SysUserBo user);
 
+    /**
+     * 分批导出用户列表(按用户ID升序 keyset 分页)
+     *
+     * @param user     用户信息
+     * @param consumer 每批用户信息的处理函数
+     */
+    void selectUserExportList(SysUserBo user, Consumer<List<SysUserExportVo>> consumer);
+
     /**
      * 根据条件分页查询已分配用户角色列表
      *
@@ -57,6 +69,14 @@ public interface ISysUserService {
      */
     SysUserVo selectUserByUserName(String userName);
 
+    /**
+     * 通过用户名批量查询用户ID
+     *
+     * @param userNames 用户名集合
+     * @return 用户名 -> 用户ID 不存在的用户名不包含在内
+     */
+    Map<String, Long> selectUserIdsByUserNames(Collection<String> userNames);
+
     /**
      * 通过手机号查询用户
      *
@@ -136,6 +156,14 @@ public interface ISysUserService {
      */
     void checkUserDataScope(Long userId);
 
+    /**
+     * 筛选当前用户有数据权限的用户ID
+     *
+     * @param userIds 用户ID集合
+     * @return 有数据权限的用户ID集合
+     */
+    Set<Long> selectUserIdsInDataScope(Collection<Long> userIds);
+
     /**
      * 新增用户信息
      *
@@ -160,6 +188,20 @@ public interface ISysUserService {
      */
     int updateUser(SysUserBo user);
 
+    /**
+     * 批量新增用户信息 (同一事务)
+     *
+     * @param users 用户信息 新增后回填用户ID
+     */
+    void insertUserBatch(List<SysUserBo> users);
+
+    /**
+     * 批量修改用户信息 (同一事务)
+     *
+     * @param users 用户信息
+     */
+    void updateUserBatch(List<SysUserBo> users);
+
     /**
      * 用户授权角色
      *
@@ -1,23 +1,29 @@
 package com.ppxb.system.service.impl;
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.CacheNames;
-import com.ppxb.common.core.utils.StreamUtils;
+import com.ppxb.common.core.utils.SpringUtils;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.mybatis.helper.DataPermissionHelper;
+import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.system.domain.SysRoleDept;
-import com.ppxb.system.mapper.SysDeptMapper;
 import com.ppxb.system.mapper.SysRoleDeptMapper;
 import com.ppxb.system.service.ISysDataScopeService;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 数据权限 实现
  * <p>
+ * 部门id以升序逗号拼接的字符串缓存 同一请求内相同角色/部门只生成一次 sql 片段
+ * 角色自定义部门数量超过 mybatis-plus.dataScopeInThreshold 时按角色id子查询 避免超长的 IN 列表
+ * 部门及以下直接使用部门树索引计算出的部门id
+ * <p>
  * 注意: 此Service内不允许调用标注`数据权限`注解的方法
  * 例如: deptMapper.selectList 此 selectList 方法标注了`数据权限`注解 会出现循环解析的问题
  *
@@ -27,45 +33,110 @@ import java.util.List;
 @Service("sdss")
 public class SysDataScopeServiceImpl implements ISysDataScopeService {
 
+    /**
+     * 无任何部门时的占位id
+     */
+    private static final String NONE = "-1";
+
     private final SysRoleDeptMapper roleDeptMapper;
-    private final SysDeptMapper deptMapper;
+    private final SysDeptTreeIndex deptTreeIndex;
 
     /**
      * 获取角色自定义权限
      *
      * @param roleId 角色Id
+     * @return 部门Id组 或查询部门Id的子查询
+     */
+    @Override
+    public String getRoleCustom(Long roleId) {
+        if (ObjectUtil.isNull(roleId)) {
+            return NONE;
+        }
+        return DataPermissionHelper.memoize(memoKey("role_custom", roleId), () ->
+            toInList(SpringUtils.getAopProxy(this).getRoleCustomIds(roleId),
+                "SELECT dept_id FROM sys_role_dept WHERE role_id = " + roleId));
+    }
+
+    /**
+     * 获取部门及以下权限
+     *
+     * @param deptId 部门Id
      * @return 部门Id组
      */
+    @Override
+    public String getDeptAndChild(Long deptId) {
+        if (ObjectUtil.isNull(deptId)) {
+            return NONE;
+        }
+        return DataPermissionHelper.memoize(memoKey("dept_and_child", deptId), () ->
+            toInList(SpringUtils.getAopProxy(this).getDeptAndChildIds(deptId), null));
+    }
+
+    /**
+     * 获取角色自定义权限的部门id
+     *
+     * @param roleId 角色id
+     * @return 升序逗号拼接的部门id 无部门时为 -1
+     */
     @Cacheable(cacheNames = CacheNames.SYS_ROLE_CUSTOM, key = "#roleId", condition = "#roleId != null")
     @Override
-    public String getRoleCustom(Long roleId) {
+    public String getRoleCustomIds(Long roleId) {
         if (ObjectUtil.isNull(roleId)) {
-            return "-1";
+            return NONE;
         }
         List<SysRoleDept> list = roleDeptMapper.selectList(
             new LambdaQueryWrapper<SysRoleDept>()
                 .select(SysRoleDept::getDeptId)
                 .eq(SysRoleDept::getRoleId, roleId));
-        if (CollUtil.isNotEmpty(list)) {
-            return StreamUtils.join(list, rd -> Convert.toStr(rd.getDeptId()));
-        }
-        return "-1";
+        return joinIds(list.stream().map(SysRoleDept::getDeptId).toList());
     }
 
     /**
-     * 获取部门及以下权限
+     * 获取部门及以下的部门id
      *
-     * @param deptId 部门Id
-     * @return 部门Id组
+     * @param deptId 部门id
+     * @return 升序逗号拼接的部门id 无部门时为 -1
      */
     @Cacheable(cacheNames = CacheNames.SYS_DEPT_AND_CHILD, key = "#deptId", condition = "#deptId != null")
     @Override
-    public String getDeptAndChild(Long deptId) {
+    public String getDeptAndChildIds(Long deptId) {
         if (ObjectUtil.isNull(deptId)) {
-            return "-1";
+            return NONE;
+        }
+        return joinIds(deptTreeIndex.selectDeptAndChildIds(deptId));
+    }
+
+    /**
+     * 升序去重后以逗号拼接 缓存值为字符串 redis json 编解码时无需类型信息
+     */
+    private static String joinIds(List<Long> deptIds) {
+        String ids = deptIds.stream().filter(Objects::nonNull).sorted().distinct()
+            .map(String::valueOf).collect(Collectors.joining(StringUtils.SEPARATOR));
+        return StringUtils.isEmpty(ids) ? NONE : ids;
+    }
+
+    /**
+     * 生成 IN 条件内容 数量超过阈值时使用子查询
+     *
+     * @param deptIds  逗号拼接的部门id
+     * @param subQuery 查询相同部门id的子查询 为空时始终使用部门id
+     */
+    private String toInList(String deptIds, String subQuery) {
+        if (StringUtils.isEmpty(deptIds)) {
+            return NONE;
+        }
+        if (subQuery == null) {
+            return deptIds;
+        }
+        int threshold = SpringUtils.getProperty("mybatis-plus.dataScopeInThreshold", Integer.class, 1000);
+        if (threshold > 0 && StringUtils.countMatches(deptIds, StringUtils.SEPARATOR) >= threshold) {
+            return subQuery;
         }
-        List<Long> deptIds = deptMapper.selectDeptAndChildById(deptId);
-        return CollUtil.isNotEmpty(deptIds) ? StreamUtils.join(deptIds, Convert::toStr) : "-1";
+        return deptIds;
+    }
+
+    private String memoKey(String type, Long id) {
+        return "sdss:" + type + ":" + TenantHelper.getTenantId() + ":" + id;
     }
 
 }
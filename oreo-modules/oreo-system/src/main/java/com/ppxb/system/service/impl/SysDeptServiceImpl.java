@@ -12,14 +12,16 @@ import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.CacheNames;
 import com.ppxb.common.core.constant.SystemConstants;
 import com.ppxb.common.core.domain.dto.DeptDTO;
+import com.ppxb.common.core.domain.event.AssigneeChangeEvent;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.DeptService;
 import com.ppxb.common.core.utils.*;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
-import com.ppxb.common.mybatis.helper.DataBaseHelper;
+import com.ppxb.common.mybatis.helper.DataPermissionHelper;
 import com.ppxb.common.redis.utils.CacheUtils;
 import com.ppxb.common.satoken.utils.LoginHelper;
+import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.system.domain.SysDept;
 import com.ppxb.system.domain.SysRole;
 import com.ppxb.system.domain.SysUser;
@@ -31,7 +33,6 @@ import com.ppxb.system.mapper.SysUserMapper;
 import com.ppxb.system.service.ISysDeptService;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,6 +50,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
     private final SysDeptMapper baseMapper;
     private final SysRoleMapper roleMapper;
     private final SysUserMapper userMapper;
+    private final SysDeptTreeIndex deptTreeIndex;
 
     /**
      * 分页查询部门管理数据
@@ -106,7 +108,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
         if (ObjectUtil.isNotNull(bo.getBelongDeptId())) {
             //部门树搜索
             lqw.and(x -> {
-                List<Long> deptIds = baseMapper.selectDeptAndChildById(bo.getBelongDeptId());
+                List<Long> deptIds = deptTreeIndex.selectDeptAndChildIds(bo.getBelongDeptId());
                 x.in(SysDept::getDeptId, deptIds);
             });
         }
@@ -227,9 +229,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @Override
     public long selectNormalChildrenDeptById(Long deptId) {
-        return baseMapper.selectCount(new LambdaQueryWrapper<SysDept>()
-            .eq(SysDept::getStatus, SystemConstants.NORMAL)
-            .apply(DataBaseHelper.findInSet(deptId, "ancestors")));
+        return deptTreeIndex.countNormalChildren(deptId);
     }
 
     /**
@@ -295,7 +295,6 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @param bo 部门信息
      * @return 结果
      */
-    @CacheEvict(cacheNames = CacheNames.SYS_DEPT_AND_CHILD, allEntries = true)
     @Override
     public int insertDept(SysDeptBo bo) {
         SysDept info = baseMapper.selectById(bo.getParentId());
@@ -305,7 +304,10 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
         }
         SysDept dept = MapstructUtils.convert(bo, SysDept.class);
         dept.setAncestors(info.getAncestors() + StringUtils.SEPARATOR + dept.getParentId());
-        return baseMapper.insert(dept);
+        int result = baseMapper.insert(dept);
+        deptTreeIndex.invalidate();
+        DataPermissionHelper.clearMemo();
+        return result;
     }
 
     /**
@@ -314,10 +316,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @param bo 部门信息
      * @return 结果
      */
-    @Caching(evict = {
-        @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#bo.deptId"),
-        @CacheEvict(cacheNames = CacheNames.SYS_DEPT_AND_CHILD, allEntries = true)
-    })
+    @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#bo.deptId")
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int updateDept(SysDeptBo bo) {
@@ -347,6 +346,9 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
             // 如果该部门是启用状态，则启用该部门的所有上级部门
             updateParentDeptStatusNormal(dept);
         }
+        deptTreeIndex.invalidate();
+        DataPermissionHelper.clearMemo();
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return result;
     }
 
@@ -371,8 +373,17 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @param oldAncestors 旧的父ID集合
      */
     private void updateDeptChildren(Long deptId, String newAncestors, String oldAncestors) {
-        List<SysDept> children = baseMapper.selectList(new LambdaQueryWrapper<SysDept>()
-            .apply(DataBaseHelper.findInSet(deptId, "ancestors")));
+        List<Long> childIds = deptTreeIndex.selectChildIds(deptId);
+        if (CollUtil.isEmpty(childIds)) {
+            return;
+        }
+        List<SysDept> children = new ArrayList<>(childIds.size());
+        // 分批查询 避免 IN 参数超出数据库限制
+        for (List<Long> ids : CollUtil.split(childIds, 1000)) {
+            children.addAll(baseMapper.selectList(new LambdaQueryWrapper<SysDept>()
+                .select(SysDept::getDeptId, SysDept::getAncestors)
+                .in(SysDept::getDeptId, ids)));
+        }
         List<SysDept> list = new ArrayList<>();
         for (SysDept child : children) {
             SysDept dept = new SysDept();
@@ -393,13 +404,14 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @param deptId 部门ID
      * @return 结果
      */
-    @Caching(evict = {
-        @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#deptId"),
-        @CacheEvict(cacheNames = CacheNames.SYS_DEPT_AND_CHILD, key = "#deptId")
-    })
+    @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#deptId")
     @Override
     public int deleteDeptById(Long deptId) {
-        return baseMapper.deleteById(deptId);
+        int result = baseMapper.deleteById(deptId);
+        deptTreeIndex.invalidate();
+        DataPermissionHelper.clearMemo();
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return result;
     }
 
 
@@ -0,0 +1,379 @@
+package com.ppxb.system.service.impl;
+import cn.hutool.core.util.IdUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ppxb.common.core.constant.CacheNames;
+import com.ppxb.common.core.constant.GlobalConstants;
+import com.ppxb.common.core.constant.SystemConstants;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.redis.utils.CacheUtils;
+import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.tenant.helper.TenantHelper;
+import com.ppxb.system.domain.SysDept;
+import com.ppxb.system.mapper.SysDeptMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 部门树索引
+ * <p>
+ * 按租户在内存中维护部门树 子孙/祖先查询直接在数组上完成 替代 FIND_IN_SET(ancestors) 全表扫描
+ * 部门变更提交后失效本节点索引并通知集群其他节点 下次查询时按 dept_id/parent_id 重新构建
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class SysDeptTreeIndex {
+
+    /**
+     * 部门树失效通知主题
+     */
+    private static final String INVALIDATE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "sys_dept_tree_invalidate";
+
+    /**
+     * 未开启租户时的索引key
+     */
+    private static final String NO_TENANT = "";
+
+    private final SysDeptMapper deptMapper;
+
+    /**
+     * 租户id -> 部门树快照
+     */
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 失效版本号 构建期间发生失效时丢弃构建结果 避免缓存旧树
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    @PostConstruct
+    public void init() {
+        RedisUtils.subscribe(INVALIDATE_TOPIC, String.class, message -> {
+            String sender = StringUtils.substringBefore(message, ":");
+            if (!nodeId.equals(sender)) {
+                evict(StringUtils.substringAfter(message, ":"));
+            }
+        });
+    }
+
+    /**
+     * 查询部门及其所有子部门ID(含自身)
+     *
+     * @param deptId 部门ID
+     * @return 部门ID集合
+     */
+    public List<Long> selectDeptAndChildIds(Long deptId) {
+        List<Long> deptIds = getSnapshot().descendants(deptId);
+        deptIds.add(deptId);
+        return deptIds;
+    }
+
+    /**
+     * 查询所有子部门ID(不含自身)
+     *
+     * @param deptId 部门ID
+     * @return 子部门ID集合
+     */
+    public List<Long> selectChildIds(Long deptId) {
+        return getSnapshot().descendants(deptId);
+    }
+
+    /**
+     * 查询所有祖先部门ID 由近及远
+     *
+     * @param deptId 部门ID
+     * @return 祖先部门ID集合
+     */
+    public List<Long> selectAncestorIds(Long deptId) {
+        return getSnapshot().ancestors(deptId);
+    }
+
+    /**
+     * 统计正常状态的子部门数(不含自身)
+     *
+     * @param deptId 部门ID
+     * @return 子部门数
+     */
+    public long countNormalChildren(Long deptId) {
+        return getSnapshot().countNormalDescendants(deptId);
+    }
+
+    /**
+     * 当前租户部门变更 事务提交后失效索引并通知集群
+     */
+    public void invalidate() {
+        String tenantKey = getTenantKey();
+        if (tenantKey == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(tenantKey);
+                }
+            });
+        } else {
+            doInvalidate(tenantKey);
+        }
+    }
+
+    private void doInvalidate(String tenantKey) {
+        evict(tenantKey);
+        try {
+            RedisUtils.publish(INVALIDATE_TOPIC, nodeId + ":" + tenantKey);
+        } catch (Exception e) {
+            log.warn("部门树失效消息发送失败 tenantId:{}", tenantKey, e);
+        }
+        // 子部门缓存由索引计算 必须在索引失效之后清理 否则可能被旧索引回填
+        // 删除部门时祖先部门的缓存同样包含被删部门 这里整体清空
+        // 已处于提交回调中 clear 会再次注册事务回调而不被执行 需立即清空
+        CacheUtils.invalidate(CacheNames.SYS_DEPT_AND_CHILD);
+    }
+
+    private void evict(String tenantKey) {
+        version.incrementAndGet();
+        snapshots.remove(tenantKey);
+    }
+
+    private Snapshot getSnapshot() {
+        String tenantKey = getTenantKey();
+        if (tenantKey == null) {
+            // 开启租户但无法确定当前租户 不缓存
+            return load(null);
+        }
+        Snapshot snapshot = snapshots.get(tenantKey);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long current = version.get();
+        snapshot = load(tenantKey);
+        // 空租户(如新建中的租户)不缓存 构建期间发生过失效也不缓存
+        if (snapshot.size() > 0 && version.get() == current) {
+            snapshots.putIfAbsent(tenantKey, snapshot);
+            // 放入后再次校验版本 放入前恰好发生失效时移除刚放入的旧树
+            if (version.get() != current) {
+                snapshots.remove(tenantKey, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot load(String tenantKey) {
+        long start = System.currentTimeMillis();
+        LambdaQueryWrapper<SysDept> lqw = new LambdaQueryWrapper<SysDept>()
+            .select(SysDept::getDeptId, SysDept::getParentId, SysDept::getStatus);
+        List<SysDept> list;
+        if (StringUtils.isNotEmpty(tenantKey)) {
+            // 显式按租户过滤 避免忽略租户的上下文把其他租户的部门构建进当前租户的索引
+            lqw.eq(SysDept::getTenantId, tenantKey);
+            list = TenantHelper.ignore(() -> deptMapper.selectList(lqw));
+        } else {
+            list = deptMapper.selectList(lqw);
+        }
+        Snapshot snapshot = new Snapshot(list);
+        log.debug("构建部门树索引 tenantId:{} 部门数:{} 耗时:{}ms", tenantKey, snapshot.size(), System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    /**
+     * @return 未开启租户返回空串 开启租户但无法获取租户时返回 null
+     */
+    private String getTenantKey() {
+        if (!TenantHelper.isEnable()) {
+            return NO_TENANT;
+        }
+        String tenantId = TenantHelper.getTenantId();
+        return StringUtils.isBlank(tenantId) ? null : tenantId;
+    }
+
+    /**
+     * 部门树快照(不可变)
+     * <p>
+     * 节点按先序遍历排列 子树为连续区间 [pos, end[pos]) 通过有序id数组二分定位节点
+     */
+    static final class Snapshot {
+
+        /**
+         * 先序遍历的部门id
+         */
+        private final long[] ids;
+
+        /**
+         * 子树区间结束位置(不含)
+         */
+        private final int[] end;
+
+        /**
+         * 父节点位置 根节点为 -1
+         */
+        private final int[] parent;
+
+        /**
+         * 是否正常状态
+         */
+        private final boolean[] normal;
+
+        /**
+         * 有序部门id 与对应的先序位置
+         */
+        private final long[] sortedIds;
+        private final int[] sortedPos;
+
+        Snapshot(List<SysDept> depts) {
+            int n = depts.size();
+            // 按id排序建立 id -> 原始下标 索引
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(depts.get(a).getDeptId(), depts.get(b).getDeptId()));
+            long[] sorted = new long[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = depts.get(order[i]).getDeptId();
+            }
+            // 原始下标 -> 父节点原始下标
+            int[] parentIdx = new int[n];
+            int[] childCount = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                Long parentId = depts.get(i).getParentId();
+                int p = parentId == null ? -1 : Arrays.binarySearch(sorted, parentId);
+                parentIdx[i] = p >= 0 ? order[p] : -1;
+                if (parentIdx[i] == i) {
+                    parentIdx[i] = -1;
+                }
+                childCount[parentIdx[i] + 1]++;
+            }
+            // 压缩存储子节点 下标 0 为虚拟根
+            int[] offset = new int[n + 2];
+            for (int i = 0; i <= n; i++) {
+                offset[i + 1] = offset[i] + childCount[i];
+            }
+            int[] fill = Arrays.copyOf(offset, n + 1);
+            int[] children = new int[n];
+            for (int i = 0; i < n; i++) {
+                children[fill[parentIdx[i] + 1]++] = i;
+            }
+            // 迭代先序遍历
+            this.ids = new long[n];
+            this.end = new int[n];
+            this.parent = new int[n];
+            this.normal = new boolean[n];
+            int[] posOf = new int[n];
+            Arrays.fill(posOf, -1);
+            int[] stack = new int[n];
+            int[] cursor = new int[n];
+            int pos = 0;
+            for (int r = offset[0]; r < offset[1]; r++) {
+                int sp = 0;
+                stack[sp] = children[r];
+                cursor[sp] = offset[children[r] + 1];
+                pos = visit(depts, children[r], -1, pos, posOf);
+                while (sp >= 0) {
+                    int node = stack[sp];
+                    if (cursor[sp] < offset[node + 2]) {
+                        int child = children[cursor[sp]++];
+                        if (posOf[child] >= 0) {
+                            continue;
+                        }
+                        pos = visit(depts, child, posOf[node], pos, posOf);
+                        stack[++sp] = child;
+                        cursor[sp] = offset[child + 1];
+                    } else {
+                        end[posOf[node]] = pos;
+                        sp--;
+                    }
+                }
+            }
+            if (pos < n) {
+                // 父子关系成环的部门无法从根节点到达 不参与索引
+                log.warn("部门树存在 {} 个无法从根节点到达的部门 请检查 parent_id", n - pos);
+            }
+            this.sortedIds = new long[pos];
+            this.sortedPos = new int[pos];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                int p = posOf[order[i]];
+                if (p >= 0) {
+                    sortedIds[k] = sorted[i];
+                    sortedPos[k++] = p;
+                }
+            }
+        }
+
+        private int visit(List<SysDept> depts, int idx, int parentPos, int pos, int[] posOf) {
+            SysDept dept = depts.get(idx);
+            posOf[idx] = pos;
+            ids[pos] = dept.getDeptId();
+            parent[pos] = parentPos;
+            normal[pos] = SystemConstants.NORMAL.equals(dept.getStatus());
+            return pos + 1;
+        }
+
+        int size() {
+            return sortedIds.length;
+        }
+
+        private int indexOf(Long deptId) {
+            if (deptId == null) {
+                return -1;
+            }
+            int i = Arrays.binarySearch(sortedIds, deptId);
+            return i >= 0 ? sortedPos[i] : -1;
+        }
+
+        List<Long> descendants(Long deptId) {
+            int pos = indexOf(deptId);
+            if (pos < 0) {
+                return new ArrayList<>();
+            }
+            List<Long> list = new ArrayList<>(end[pos] - pos);
+            for (int i = pos + 1; i < end[pos]; i++) {
+                list.add(ids[i]);
+            }
+            return list;
+        }
+
+        List<Long> ancestors(Long deptId) {
+            List<Long> list = new ArrayList<>();
+            int pos = indexOf(deptId);
+            if (pos < 0) {
+                return list;
+            }
+            for (int p = parent[pos]; p >= 0; p = parent[p]) {
+                list.add(ids[p]);
+            }
+            return list;
+        }
+
+        long countNormalDescendants(Long deptId) {
+            int pos = indexOf(deptId);
+            if (pos < 0) {
+                return 0;
+            }
+            long count = 0;
+            for (int i = pos + 1; i < end[pos]; i++) {
+                if (normal[i]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+}
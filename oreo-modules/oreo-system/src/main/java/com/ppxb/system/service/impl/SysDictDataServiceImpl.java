@@ -31,6 +31,7 @@ import java.util.List;
 public class SysDictDataServiceImpl implements ISysDictDataService {
 
     private final SysDictDataMapper baseMapper;
+    private final SysDictSnapshot dictSnapshot;
 
     /**
      * 分页查询字典数据列表
@@ -104,6 +105,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
         List<SysDictData> list = baseMapper.selectByIds(dictCodes);
         baseMapper.deleteByIds(dictCodes);
         list.forEach(x -> CacheUtils.evict(CacheNames.SYS_DICT, x.getDictType()));
+        dictSnapshot.invalidate();
     }
 
     /**
@@ -118,6 +120,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
         SysDictData data = MapstructUtils.convert(bo, SysDictData.class);
         int row = baseMapper.insert(data);
         if (row > 0) {
+            dictSnapshot.invalidate();
             return baseMapper.selectDictDataByType(data.getDictType());
         }
         throw new ServiceException("操作失败");
@@ -135,6 +138,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
         SysDictData data = MapstructUtils.convert(bo, SysDictData.class);
         int row = baseMapper.updateById(data);
         if (row > 0) {
+            dictSnapshot.invalidate();
             return baseMapper.selectDictDataByType(data.getDictType());
         }
         throw new ServiceException("操作失败");
@@ -0,0 +1,223 @@
+package com.ppxb.system.service.impl;
+import cn.hutool.core.util.IdUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ppxb.common.core.constant.GlobalConstants;
+import com.ppxb.common.core.utils.MapstructUtils;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.tenant.helper.TenantHelper;
+import com.ppxb.system.domain.SysDictData;
+import com.ppxb.system.domain.vo.SysDictDataVo;
+import com.ppxb.system.mapper.SysDictDataMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 字典快照
+ * <p>
+ * 按租户在内存中保存每个字典类型预先构建好的 值->标签 标签->值 映射 翻译时直接查表 不经过缓存代理也不重建 Map
+ * 字典变更提交后失效本节点对应租户的快照并通知集群其他节点 下次使用时重新加载
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class SysDictSnapshot {
+
+    /**
+     * 字典快照失效通知主题
+     */
+    private static final String INVALIDATE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "sys_dict_snapshot_invalidate";
+
+    /**
+     * 未开启租户时的快照key
+     */
+    private static final String NO_TENANT = "";
+
+    private final SysDictDataMapper dictDataMapper;
+
+    /**
+     * 租户id -> (字典类型 -> 字典映射)
+     */
+    private final Map<String, Map<String, DictLookup>> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 失效版本号 加载期间发生失效时丢弃加载结果 避免缓存旧数据
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    @PostConstruct
+    public void init() {
+        RedisUtils.subscribe(INVALIDATE_TOPIC, String.class, message -> {
+            String sender = StringUtils.substringBefore(message, ":");
+            if (!nodeId.equals(sender)) {
+                evict(StringUtils.substringAfter(message, ":"));
+            }
+        });
+    }
+
+    /**
+     * 获取当前租户指定字典类型的映射
+     *
+     * @param dictType 字典类型
+     * @return 字典映射 字典类型不存在时为空映射
+     */
+    public DictLookup get(String dictType) {
+        String tenantKey = getTenantKey();
+        if (tenantKey == null || dictType == null) {
+            // 开启租户但无法确定当前租户 不缓存
+            return load(null, dictType);
+        }
+        Map<String, DictLookup> types = snapshots.computeIfAbsent(tenantKey, k -> new ConcurrentHashMap<>());
+        DictLookup lookup = types.get(dictType);
+        if (lookup != null) {
+            return lookup;
+        }
+        long current = version.get();
+        lookup = load(tenantKey, dictType);
+        if (version.get() == current) {
+            types.putIfAbsent(dictType, lookup);
+        }
+        return lookup;
+    }
+
+    /**
+     * 当前租户字典变更 事务提交后失效快照并通知集群
+     */
+    public void invalidate() {
+        String tenantKey = getTenantKey();
+        if (tenantKey == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(tenantKey);
+                }
+            });
+        } else {
+            doInvalidate(tenantKey);
+        }
+    }
+
+    private void doInvalidate(String tenantKey) {
+        evict(tenantKey);
+        try {
+            RedisUtils.publish(INVALIDATE_TOPIC, nodeId + ":" + tenantKey);
+        } catch (Exception e) {
+            log.warn("字典快照失效消息发送失败 tenantId:{}", tenantKey, e);
+        }
+    }
+
+    private void evict(String tenantKey) {
+        version.incrementAndGet();
+        snapshots.remove(tenantKey);
+    }
+
+    private DictLookup load(String tenantKey, String dictType) {
+        if (dictType == null) {
+            return DictLookup.EMPTY;
+        }
+        List<SysDictDataVo> list;
+        if (StringUtils.isNotEmpty(tenantKey)) {
+            // 显式按租户过滤 避免忽略租户的上下文把其他租户的字典加载进当前租户的快照
+            list = TenantHelper.ignore(() -> MapstructUtils.convert(dictDataMapper.selectList(
+                new LambdaQueryWrapper<SysDictData>()
+                    .eq(SysDictData::getTenantId, tenantKey)
+                    .eq(SysDictData::getDictType, dictType)
+                    .orderByAsc(SysDictData::getDictSort)), SysDictDataVo.class));
+        } else {
+            list = dictDataMapper.selectDictDataByType(dictType);
+        }
+        return DictLookup.of(list);
+    }
+
+    /**
+     * @return 未开启租户返回空串 开启租户但无法获取租户时返回 null
+     */
+    private String getTenantKey() {
+        if (!TenantHelper.isEnable()) {
+            return NO_TENANT;
+        }
+        String tenantId = TenantHelper.getTenantId();
+        return StringUtils.isBlank(tenantId) ? null : tenantId;
+    }
+
+    /**
+     * 单个字典类型的映射(不可变)
+     *
+     * @param valueToLabel 字典值 -> 字典标签 按字典排序
+     * @param labelToValue 字典标签 -> 字典值
+     */
+    public record DictLookup(Map<String, String> valueToLabel, Map<String, String> labelToValue) {
+
+        static final DictLookup EMPTY = new DictLookup(Collections.emptyMap(), Collections.emptyMap());
+
+        static DictLookup of(List<SysDictDataVo> list) {
+            if (list == null || list.isEmpty()) {
+                return EMPTY;
+            }
+            Map<String, String> valueToLabel = new LinkedHashMap<>(list.size() * 2);
+            Map<String, String> labelToValue = new HashMap<>(list.size() * 2);
+            for (SysDictDataVo vo : list) {
+                valueToLabel.put(vo.getDictValue(), vo.getDictLabel());
+                labelToValue.put(vo.getDictLabel(), vo.getDictValue());
+            }
+            return new DictLookup(Collections.unmodifiableMap(valueToLabel), Collections.unmodifiableMap(labelToValue));
+        }
+
+        /**
+         * 字典值转标签 多个值以分隔符分隔 未匹配的值转为空串
+         */
+        public String label(String value, String separator) {
+            return translate(valueToLabel, value, separator);
+        }
+
+        /**
+         * 字典标签转值 多个标签以分隔符分隔 未匹配的标签转为空串
+         */
+        public String value(String label, String separator) {
+            return translate(labelToValue, label, separator);
+        }
+
+        private static String translate(Map<String, String> map, String source, String separator) {
+            if (source == null) {
+                return StringUtils.EMPTY;
+            }
+            int index = StringUtils.isEmpty(separator) ? -1 : source.indexOf(separator);
+            if (index < 0) {
+                // 单个值直接查表 不产生新对象
+                return map.getOrDefault(source, StringUtils.EMPTY);
+            }
+            StringBuilder sb = new StringBuilder();
+            int start = 0;
+            while (true) {
+                String part = index < 0 ? source.substring(start) : source.substring(start, index);
+                sb.append(map.getOrDefault(part, StringUtils.EMPTY));
+                if (index < 0) {
+                    return sb.toString();
+                }
+                sb.append(separator);
+                start = index + separator.length();
+                index = source.indexOf(separator, start);
+            }
+        }
+    }
+
+}
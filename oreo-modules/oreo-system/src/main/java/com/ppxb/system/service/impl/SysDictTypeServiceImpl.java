@@ -14,7 +14,6 @@ import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.DictService;
 import com.ppxb.common.core.utils.MapstructUtils;
 import com.ppxb.common.core.utils.SpringUtils;
-import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
@@ -33,7 +32,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 字典 业务层处理
@@ -46,6 +44,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
 
     private final SysDictTypeMapper baseMapper;
     private final SysDictDataMapper dictDataMapper;
+    private final SysDictSnapshot dictSnapshot;
 
     /**
      * 分页查询字典类型列表
@@ -150,6 +149,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
             CacheUtils.evict(CacheNames.SYS_DICT, x.getDictType());
             CacheUtils.evict(CacheNames.SYS_DICT_TYPE, x.getDictType());
         });
+        dictSnapshot.invalidate();
     }
 
     /**
@@ -159,6 +159,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
     public void resetDictCache() {
         CacheUtils.clear(CacheNames.SYS_DICT);
         CacheUtils.clear(CacheNames.SYS_DICT_TYPE);
+        dictSnapshot.invalidate();
     }
 
     /**
@@ -173,6 +174,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
         SysDictType dict = MapstructUtils.convert(bo, SysDictType.class);
         int row = baseMapper.insert(dict);
         if (row > 0) {
+            dictSnapshot.invalidate();
             // 新增 type 下无 data 数据 返回空防止缓存穿透
             return new ArrayList<>();
         }
@@ -198,6 +200,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
         if (row > 0) {
             CacheUtils.evict(CacheNames.SYS_DICT, oldDict.getDictType());
             CacheUtils.evict(CacheNames.SYS_DICT_TYPE, oldDict.getDictType());
+            dictSnapshot.invalidate();
             return dictDataMapper.selectDictDataByType(dict.getDictType());
         }
         throw new ServiceException("操作失败");
@@ -227,15 +230,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      */
     @Override
     public String getDictLabel(String dictType, String dictValue, String separator) {
-        List<SysDictDataVo> datas = SpringUtils.getAopProxy(this).selectDictDataByType(dictType);
-        Map<String, String> map = StreamUtils.toMap(datas, SysDictDataVo::getDictValue, SysDictDataVo::getDictLabel);
-        if (StringUtils.containsAny(dictValue, separator)) {
-            return Arrays.stream(dictValue.split(separator))
-                .map(v -> map.getOrDefault(v, StringUtils.EMPTY))
-                .collect(Collectors.joining(separator));
-        } else {
-            return map.getOrDefault(dictValue, StringUtils.EMPTY);
-        }
+        return dictSnapshot.get(dictType).label(dictValue, separator);
     }
 
     /**
@@ -248,15 +243,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      */
     @Override
     public String getDictValue(String dictType, String dictLabel, String separator) {
-        List<SysDictDataVo> datas = SpringUtils.getAopProxy(this).selectDictDataByType(dictType);
-        Map<String, String> map = StreamUtils.toMap(datas, SysDictDataVo::getDictLabel, SysDictDataVo::getDictValue);
-        if (StringUtils.containsAny(dictLabel, separator)) {
-            return Arrays.stream(dictLabel.split(separator))
-                .map(l -> map.getOrDefault(l, StringUtils.EMPTY))
-                .collect(Collectors.joining(separator));
-        } else {
-            return map.getOrDefault(dictLabel, StringUtils.EMPTY);
-        }
+        return dictSnapshot.get(dictType).value(dictLabel, separator);
     }
 
     /**
@@ -267,13 +254,8 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      */
     @Override
     public Map<String, String> getAllDictByDictType(String dictType) {
-        List<SysDictDataVo> list = SpringUtils.getAopProxy(this).selectDictDataByType(dictType);
-        // 保证顺序
-        LinkedHashMap<String, String> map = new LinkedHashMap<>();
-        for (SysDictDataVo vo : list) {
-            map.put(vo.getDictValue(), vo.getDictLabel());
-        }
-        return map;
+        // 按字典排序的只读映射
+        return dictSnapshot.get(dictType).valueToLabel();
     }
 
     /**
@@ -4,18 +4,20 @@ import cn.hutool.http.useragent.UserAgent;
 import cn.hutool.http.useragent.UserAgentUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.ppxb.common.core.constant.Constants;
 import com.ppxb.common.core.utils.MapstructUtils;
-import com.ppxb.common.core.utils.ServletUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.core.utils.ip.AddressUtils;
+import com.ppxb.common.log.core.LogBatchWriter;
 import com.ppxb.common.log.event.LogininforEvent;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
-import com.ppxb.common.satoken.utils.LoginHelper;
 import com.ppxb.system.domain.SysLogininfor;
 import com.ppxb.system.domain.bo.SysLogininforBo;
 import com.ppxb.system.domain.vo.SysClientVo;
@@ -24,13 +26,17 @@ import com.ppxb.system.mapper.SysLogininforMapper;
 import com.ppxb.system.service.ISysClientService;
 import com.ppxb.system.service.ISysLogininforService;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 系统访问日志情况信息 服务层处理
@@ -40,31 +46,79 @@ import java.util.Map;
 @RequiredArgsConstructor
 @Slf4j
 @Service
-public class SysLogininforServiceImpl implements ISysLogininforService {
+public class SysLogininforServiceImpl implements ISysLogininforService, MeterBinder {
 
     private final SysLogininforMapper baseMapper;
 
     private final ISysClientService clientService;
 
     /**
-     * 记录登录信息
+     * 浏览器与操作系统解析结果缓存的最大条目数
+     */
+    private static final int USER_AGENT_CACHE_SIZE = 1024;
+
+    /**
+     * User-Agent -> [浏览器, 操作系统] 最近使用缓存 只在写入日志时访问
+     * 写入器保证同一时刻只有一个线程写入: 后台线程运行期间只由其写入 关闭时等待后台线程退出后才由关闭线程补写
+     */
+    private final Map<String, String[]> userAgentCache = new LinkedHashMap<>(USER_AGENT_CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+            return size() > USER_AGENT_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * 登录事件批量写入器 缓冲区容量 4096 每批最多 200 条 最长间隔 1 秒
+     * 解析 User-Agent、查询登录地点与客户端均在写入器后台线程中完成 不占用登录请求线程
+     */
+    private LogBatchWriter<LogininforEvent> logininforWriter;
+
+    /**
+     * 记录登录信息 只写入缓冲区 由后台线程补全信息后批量入库
      *
      * @param logininforEvent 登录事件
      */
-    @Async
     @EventListener
     public void recordLogininfor(LogininforEvent logininforEvent) {
-        HttpServletRequest request = logininforEvent.getRequest();
-        final UserAgent userAgent = UserAgentUtil.parse(request.getHeader("User-Agent"));
-        final String ip = ServletUtils.getClientIP(request);
+        if (logininforEvent.getLoginTime() == null) {
+            logininforEvent.setLoginTime(new Date());
+        }
+        logininforWriter.offer(logininforEvent);
+    }
+
+    /**
+     * 补全并批量写入登录日志(在写入器后台线程中执行)
+     * 同一批次内相同的 ip 与客户端只查询一次
+     */
+    private void flushLogininfor(List<LogininforEvent> events) {
+        Map<String, String> addresses = new HashMap<>();
+        Map<String, Optional<SysClientVo>> clients = new HashMap<>();
+        List<SysLogininfor> list = new ArrayList<>(events.size());
+        for (LogininforEvent event : events) {
+            try {
+                list.add(buildLogininfor(event, addresses, clients));
+            } catch (Exception e) {
+                log.error("登录日志处理失败 username:{}", event.getUsername(), e);
+            }
+        }
+        if (!list.isEmpty()) {
+            baseMapper.insertBatch(list);
+        }
+    }
+
+    private SysLogininfor buildLogininfor(LogininforEvent logininforEvent, Map<String, String> addresses,
+                                          Map<String, Optional<SysClientVo>> clients) {
+        final String ip = StringUtils.blankToDefault(logininforEvent.getIpaddr(), "");
         // 客户端信息
-        String clientId = request.getHeader(LoginHelper.CLIENT_KEY);
+        String clientId = logininforEvent.getClientId();
         SysClientVo client = null;
         if (StringUtils.isNotBlank(clientId)) {
-            client = clientService.queryByClientId(clientId);
+            client = clients.computeIfAbsent(clientId,
+                k -> Optional.ofNullable(clientService.queryByClientId(k))).orElse(null);
         }
 
-        String address = AddressUtils.getRealAddressByIP(ip);
+        String address = addresses.computeIfAbsent(ip, AddressUtils::getRealAddressByIP);
         StringBuilder s = new StringBuilder();
         s.append(getBlock(ip));
         s.append(address);
@@ -73,10 +127,8 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
         s.append(getBlock(logininforEvent.getMessage()));
         // 打印信息到日志
         log.info(s.toString(), logininforEvent.getArgs());
-        // 获取客户端操作系统
-        String os = userAgent.getOs().getName();
-        // 获取客户端浏览器
-        String browser = userAgent.getBrowser().getName();
+        // 获取客户端浏览器与操作系统
+        String[] userAgent = parseUserAgent(logininforEvent.getUserAgent());
         // 封装对象
         SysLogininforBo logininfor = new SysLogininforBo();
         logininfor.setTenantId(logininforEvent.getTenantId());
@@ -87,8 +139,8 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
         }
         logininfor.setIpaddr(ip);
         logininfor.setLoginLocation(address);
-        logininfor.setBrowser(browser);
-        logininfor.setOs(os);
+        logininfor.setBrowser(userAgent[0]);
+        logininfor.setOs(userAgent[1]);
         logininfor.setMsg(logininforEvent.getMessage());
         // 日志状态
         if (StringUtils.equalsAny(logininforEvent.getStatus(), Constants.LOGIN_SUCCESS, Constants.LOGOUT, Constants.REGISTER)) {
@@ -96,8 +148,52 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
         } else if (Constants.LOGIN_FAIL.equals(logininforEvent.getStatus())) {
             logininfor.setStatus(Constants.FAIL);
         }
-        // 插入数据
-        insertLogininfor(logininfor);
+        SysLogininfor entity = MapstructUtils.convert(logininfor, SysLogininfor.class);
+        entity.setLoginTime(logininforEvent.getLoginTime());
+        return entity;
+    }
+
+    /**
+     * 解析 User-Agent
+     *
+     * @return [浏览器, 操作系统]
+     */
+    private String[] parseUserAgent(String userAgent) {
+        String key = StringUtils.blankToDefault(userAgent, "");
+        String[] result = userAgentCache.get(key);
+        if (result == null) {
+            UserAgent parsed = UserAgentUtil.parse(key);
+            result = parsed == null
+                ? new String[]{"Unknown", "Unknown"}
+                : new String[]{parsed.getBrowser().getName(), parsed.getOs().getName()};
+            userAgentCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 依赖注入完成后再启动写入器 避免后台线程使用未初始化的字段
+     */
+    @PostConstruct
+    public void init() {
+        logininforWriter = new LogBatchWriter<>("logininfor", 4096, 200, 1000, this::flushLogininfor);
+        logininforWriter.start();
+    }
+
+    /**
+     * 写入器指标
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        logininforWriter.bindTo(registry);
+    }
+
+    /**
+     * 关闭前写入缓冲区剩余日志
+     */
+    @PreDestroy
+    public void destroy() {
+        logininforWriter.shutdown();
     }
 
     private String getBlock(Object msg) {
@@ -116,13 +212,7 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
      */
     @Override
     public TableDataInfo<SysLogininforVo> selectPageLogininforList(SysLogininforBo logininfor, PageQuery pageQuery) {
-        Map<String, Object> params = logininfor.getParams();
-        LambdaQueryWrapper<SysLogininfor> lqw = new LambdaQueryWrapper<SysLogininfor>()
-            .like(StringUtils.isNotBlank(logininfor.getIpaddr()), SysLogininfor::getIpaddr, logininfor.getIpaddr())
-            .eq(StringUtils.isNotBlank(logininfor.getStatus()), SysLogininfor::getStatus, logininfor.getStatus())
-            .like(StringUtils.isNotBlank(logininfor.getUserName()), SysLogininfor::getUserName, logininfor.getUserName())
-            .between(params.get("beginTime") != null && params.get("endTime") != null,
-                SysLogininfor::getLoginTime, params.get("beginTime"), params.get("endTime"));
+        LambdaQueryWrapper<SysLogininfor> lqw = buildQueryWrapper(logininfor);
         if (StringUtils.isBlank(pageQuery.getOrderByColumn())) {
             lqw.orderByDesc(SysLogininfor::getInfoId);
         }
@@ -150,14 +240,28 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
      */
     @Override
     public List<SysLogininforVo> selectLogininforList(SysLogininforBo logininfor) {
+        return baseMapper.selectVoList(buildQueryWrapper(logininfor).orderByDesc(SysLogininfor::getInfoId));
+    }
+
+    /**
+     * 分批查询系统登录日志集合(按访问ID倒序 keyset 分页)
+     *
+     * @param logininfor 访问日志对象
+     * @param consumer   每批登录记录的处理函数
+     */
+    @Override
+    public void selectLogininforList(SysLogininforBo logininfor, Consumer<List<SysLogininforVo>> consumer) {
+        baseMapper.selectVoBatch(() -> buildQueryWrapper(logininfor), SysLogininfor::getInfoId, false, 1000, consumer);
+    }
+
+    private LambdaQueryWrapper<SysLogininfor> buildQueryWrapper(SysLogininforBo logininfor) {
         Map<String, Object> params = logininfor.getParams();
-        return baseMapper.selectVoList(new LambdaQueryWrapper<SysLogininfor>()
+        return new LambdaQueryWrapper<SysLogininfor>()
             .like(StringUtils.isNotBlank(logininfor.getIpaddr()), SysLogininfor::getIpaddr, logininfor.getIpaddr())
             .eq(StringUtils.isNotBlank(logininfor.getStatus()), SysLogininfor::getStatus, logininfor.getStatus())
             .like(StringUtils.isNotBlank(logininfor.getUserName()), SysLogininfor::getUserName, logininfor.getUserName())
             .between(params.get("beginTime") != null && params.get("endTime") != null,
-                SysLogininfor::getLoginTime, params.get("beginTime"), params.get("endTime"))
-            .orderByDesc(SysLogininfor::getInfoId));
+                SysLogininfor::getLoginTime, params.get("beginTime"), params.get("endTime"));
     }
 
     /**
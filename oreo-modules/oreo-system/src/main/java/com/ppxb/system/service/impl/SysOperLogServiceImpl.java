@@ -2,10 +2,15 @@ package com.ppxb.system.service.impl;
 import cn.hutool.core.util.ArrayUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.utils.MapstructUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.core.utils.ip.AddressUtils;
+import com.ppxb.common.log.core.LogBatchWriter;
 import com.ppxb.common.log.event.OperLogEvent;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
@@ -15,13 +20,14 @@ import com.ppxb.system.domain.vo.SysOperLogVo;
 import com.ppxb.system.mapper.SysOperLogMapper;
 import com.ppxb.system.service.ISysOperLogService;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 操作日志 服务层处理
@@ -30,22 +36,67 @@ import java.util.Map;
  */
 @RequiredArgsConstructor
 @Service
-public class SysOperLogServiceImpl implements ISysOperLogService {
+public class SysOperLogServiceImpl implements ISysOperLogService, MeterBinder {
 
     private final SysOperLogMapper baseMapper;
 
+    /**
+     * 操作日志批量写入器 缓冲区容量 4096 每批最多 200 条 最长间隔 1 秒
+     */
+    private LogBatchWriter<OperLogEvent> operLogWriter;
+
     /**
      * 操作日志记录
+     * <p>
+     * 仅写入缓冲区 由后台线程批量入库 不占用业务线程与公共线程池
      *
      * @param operLogEvent 操作日志事件
      */
-    @Async
     @EventListener
     public void recordOper(OperLogEvent operLogEvent) {
-        SysOperLogBo operLog = MapstructUtils.convert(operLogEvent, SysOperLogBo.class);
-        // 远程查询操作地点
-        operLog.setOperLocation(AddressUtils.getRealAddressByIP(operLog.getOperIp()));
-        insertOperlog(operLog);
+        if (operLogEvent.getOperTime() == null) {
+            operLogEvent.setOperTime(new Date());
+        }
+        operLogWriter.offer(operLogEvent);
+    }
+
+    /**
+     * 批量写入操作日志(在写入器后台线程中执行)
+     */
+    private void flushOperLog(List<OperLogEvent> events) {
+        List<SysOperLog> list = new ArrayList<>(events.size());
+        for (OperLogEvent event : events) {
+            SysOperLogBo operLog = MapstructUtils.convert(event, SysOperLogBo.class);
+            // 远程查询操作地点
+            operLog.setOperLocation(AddressUtils.getRealAddressByIP(operLog.getOperIp()));
+            list.add(MapstructUtils.convert(operLog, SysOperLog.class));
+        }
+        baseMapper.insertBatch(list);
+    }
+
+    /**
+     * 依赖注入完成后再启动写入器 避免后台线程使用未初始化的字段
+     */
+    @PostConstruct
+    public void init() {
+        operLogWriter = new LogBatchWriter<>("oper-log", 4096, 200, 1000, this::flushOperLog);
+        operLogWriter.start();
+    }
+
+    /**
+     * 写入器指标
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        operLogWriter.bindTo(registry);
+    }
+
+    /**
+     * 关闭前写入缓冲区剩余日志
+     */
+    @PreDestroy
+    public void destroy() {
+        operLogWriter.shutdown();
     }
 
     /**
@@ -108,6 +159,17 @@ public class SysOperLogServiceImpl implements ISysOperLogService {
         return baseMapper.selectVoList(lqw.orderByDesc(SysOperLog::getOperId));
     }
 
+    /**
+     * 分批查询系统操作日志集合(按操作ID倒序 keyset 分页)
+     *
+     * @param operLog  操作日志对象
+     * @param consumer 每批操作日志的处理函数
+     */
+    @Override
+    public void selectOperLogList(SysOperLogBo operLog, Consumer<List<SysOperLogVo>> consumer) {
+        baseMapper.selectVoBatch(() -> buildQueryWrapper(operLog), SysOperLog::getOperId, false, 1000, consumer);
+    }
+
     /**
      * 批量删除系统操作日志
      *
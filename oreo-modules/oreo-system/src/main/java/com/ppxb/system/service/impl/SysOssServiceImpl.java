@@ -1,10 +1,12 @@
 package com.ppxb.system.service.impl;
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.CacheNames;
@@ -12,6 +14,7 @@ import com.ppxb.common.core.domain.dto.OssDTO;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.OssService;
 import com.ppxb.common.core.utils.MapstructUtils;
+import com.ppxb.common.core.utils.ServletUtils;
 import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.core.utils.StringUtils;
@@ -20,6 +23,8 @@ import com.ppxb.common.json.utils.JsonUtils;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
 import com.ppxb.common.oss.core.OssClient;
+import com.ppxb.common.oss.core.OssObjectCache;
+import com.ppxb.common.oss.entity.ObjectInfo;
 import com.ppxb.common.oss.entity.UploadResult;
 import com.ppxb.common.oss.enums.AccessPolicyType;
 import com.ppxb.common.oss.factory.OssFactory;
@@ -31,15 +36,24 @@ import com.ppxb.system.mapper.SysOssMapper;
 import com.ppxb.system.service.ISysOssService;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -118,6 +132,30 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         return String.join(StringUtils.SEPARATOR, list);
     }
 
+    /**
+     * 根据 ossId 列表批量获取文件 URL 一次查询完成
+     *
+     * @param ossIds ossId 列表
+     * @return ossId -> 文件 URL
+     */
+    @Override
+    public Map<Long, String> selectUrlsByIds(List<Long> ossIds) {
+        if (CollUtil.isEmpty(ossIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysOssVo> list = baseMapper.selectVoByIds(ossIds);
+        Map<Long, String> map = new HashMap<>(list.size());
+        for (SysOssVo vo : list) {
+            try {
+                map.put(vo.getOssId(), this.matchingUrl(vo).getUrl());
+            } catch (Exception ignored) {
+                // 如果oss异常无法连接则将数据直接返回
+                map.put(vo.getOssId(), vo.getUrl());
+            }
+        }
+        return map;
+    }
+
     @Override
     public List<OssDTO> selectByIds(String ossIds) {
         List<OssDTO> list = new ArrayList<>();
@@ -165,7 +203,7 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
 
 
     /**
-     * 文件下载方法，支持一次性下载完整文件
+     * 文件下载方法，支持 Range 分段下载与 If-None-Match 协商缓存 热点文件从本地磁盘缓存读取
      *
      * @param ossId    OSS对象ID
      * @param response HttpServletResponse对象，用于设置响应头和向客户端发送文件内容
@@ -176,10 +214,147 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         if (ObjectUtil.isNull(sysOss)) {
             throw new ServiceException("文件数据不存在!");
         }
+        OssClient storage = OssFactory.instance(sysOss.getService());
+        String key = sysOss.getFileName();
+        // 对象地址包含桶信息 不同租户/服务商不会冲突
+        String cacheKey = storage.getUrl() + StringUtils.SLASH + key;
+        OssObjectCache.CachedObject cached = OssObjectCache.get(cacheKey);
+        String eTag;
+        long length;
+        if (cached != null) {
+            eTag = cached.eTag();
+            length = cached.contentLength();
+        } else {
+            ObjectInfo info = storage.getObjectInfo(key);
+            eTag = info.getETag();
+            length = info.getContentLength();
+            // 未命中时异步拉取到本地缓存 本次请求直接从对象存储读取
+            OssObjectCache.loadAsync(storage, cacheKey, info);
+        }
+
+        HttpServletRequest request = ServletUtils.getRequest();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (StringUtils.isNotBlank(eTag)) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            if (request != null && matchETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        long[] range = parseRange(request, eTag, length);
+        if (range != null && range.length == 0) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
         FileUtils.setAttachmentResponseHeader(response, sysOss.getOriginalName());
         response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE + "; charset=UTF-8");
-        OssClient storage = OssFactory.instance(sysOss.getService());
-        storage.download(sysOss.getFileName(), response.getOutputStream(), response::setContentLengthLong);
+        long start = 0;
+        long end = length - 1;
+        if (range != null) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        if (end < start) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        if (cached != null && transferFromCache(cached, out, start, end - start + 1)) {
+            return;
+        }
+        if (range == null) {
+            storage.download(key, out, null);
+        } else {
+            storage.download(key, out, start, end);
+        }
+    }
+
+    /**
+     * 从本地缓存文件写出
+     * <p>
+     * 目标为 servlet 输出流 transferTo 经通道包装后仍是缓冲复制 并非零拷贝
+     *
+     * @return 缓存文件已被淘汰时返回 false
+     */
+    private boolean transferFromCache(OssObjectCache.CachedObject cached, OutputStream out, long position, long count) throws IOException {
+        try (FileChannel channel = FileChannel.open(cached.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            while (count > 0) {
+                long n = channel.transferTo(position, count, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+                count -= n;
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 判断 If-None-Match 是否命中
+     */
+    static boolean matchETag(String ifNoneMatch, String eTag) {
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if ("*".equals(tag) || eTag.equals(StringUtils.removeStart(tag, "W/"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析单段 Range 请求头
+     *
+     * @return 完整返回时为 null 范围无效时为空数组 否则为 [起始, 结束]（含）
+     */
+    static long[] parseRange(HttpServletRequest request, String eTag, long length) {
+        String range = request == null ? null : request.getHeader(HttpHeaders.RANGE);
+        // 多段范围按完整文件返回
+        if (StringUtils.isBlank(range) || !range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        // If-Range 不匹配说明客户端持有的是旧版本 返回完整文件
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.isNotBlank(ifRange) && !ifRange.equals(eTag)) {
+            return null;
+        }
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // bytes=-n 最后 n 个字节
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     /**
@@ -194,12 +369,16 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         String originalfileName = file.getOriginalFilename();
         String suffix = StringUtils.substring(originalfileName, originalfileName.lastIndexOf("."), originalfileName.length());
         OssClient storage = OssFactory.instance();
-        UploadResult uploadResult;
+        // 转存到临时文件 (磁盘上的上传文件直接移动) 由对象存储按文件分片并行上传 不读入内存
+        File tempFile = FileUtils.createTempFile();
         try {
-            uploadResult = storage.uploadSuffix(file.getBytes(), suffix, file.getContentType());
+            file.transferTo(tempFile);
         } catch (IOException e) {
+            FileUtils.del(tempFile);
             throw new ServiceException(e.getMessage());
         }
+        // 上传完成后临时文件会被删除
+        UploadResult uploadResult = storage.uploadSuffix(tempFile, suffix, file.getContentType());
         SysOssExt ext1 = new SysOssExt();
         ext1.setFileSize(file.getSize());
         ext1.setContentType(file.getContentType());
@@ -6,13 +6,16 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.SystemConstants;
+import com.ppxb.common.core.domain.event.AssigneeChangeEvent;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.PostService;
 import com.ppxb.common.core.utils.MapstructUtils;
+import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
+import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.system.domain.SysPost;
 import com.ppxb.system.domain.SysUserPost;
 import com.ppxb.system.domain.bo.SysPostBo;
@@ -38,6 +41,7 @@ public class SysPostServiceImpl implements ISysPostService, PostService {
 
     private final SysPostMapper baseMapper;
     private final SysDeptMapper deptMapper;
+    private final SysDeptTreeIndex deptTreeIndex;
     private final SysUserPostMapper userPostMapper;
 
     /**
@@ -97,7 +101,7 @@ public class SysPostServiceImpl implements ISysPostService, PostService {
         } else if (ObjectUtil.isNotNull(bo.getBelongDeptId())) {
             //部门树搜索
             wrapper.and(x -> {
-                List<Long> deptIds = deptMapper.selectDeptAndChildById(bo.getBelongDeptId());
+                List<Long> deptIds = deptTreeIndex.selectDeptAndChildIds(bo.getBelongDeptId());
                 x.in(SysPost::getDeptId, deptIds);
             });
         }
@@ -210,7 +214,9 @@ public class SysPostServiceImpl implements ISysPostService, PostService {
      */
     @Override
     public int deletePostById(Long postId) {
-        return baseMapper.deleteById(postId);
+        int rows = baseMapper.deleteById(postId);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -227,7 +233,9 @@ public class SysPostServiceImpl implements ISysPostService, PostService {
                 throw new ServiceException(String.format("%1$s已分配，不能删除!", post.getPostName()));
             }
         }
-        return baseMapper.deleteByIds(postIds);
+        int rows = baseMapper.deleteByIds(postIds);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -251,7 +259,9 @@ public class SysPostServiceImpl implements ISysPostService, PostService {
     @Override
     public int updatePost(SysPostBo bo) {
         SysPost post = MapstructUtils.convert(bo, SysPost.class);
-        return baseMapper.updateById(post);
+        int rows = baseMapper.updateById(post);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -13,15 +13,19 @@ import lombok.RequiredArgsConstructor;
 import com.ppxb.common.core.constant.CacheNames;
 import com.ppxb.common.core.constant.SystemConstants;
 import com.ppxb.common.core.constant.TenantConstants;
+import com.ppxb.common.core.domain.event.AssigneeChangeEvent;
 import com.ppxb.common.core.domain.model.LoginUser;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.RoleService;
 import com.ppxb.common.core.utils.MapstructUtils;
+import com.ppxb.common.core.utils.SpringUtils;
 import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
+import com.ppxb.common.mybatis.helper.DataPermissionHelper;
 import com.ppxb.common.satoken.utils.LoginHelper;
+import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.system.domain.SysRole;
 import com.ppxb.system.domain.SysRoleDept;
 import com.ppxb.system.domain.SysRoleMenu;
@@ -317,6 +321,7 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         baseMapper.updateById(role);
         // 删除角色与菜单关联
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().eq(SysRoleMenu::getRoleId, role.getRoleId()));
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return insertRoleMenu(bo);
     }
 
@@ -332,10 +337,12 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         if (SystemConstants.DISABLE.equals(status) && this.countUserRoleByRoleId(roleId) > 0) {
             throw new ServiceException("角色已分配，不能禁用!");
         }
-        return baseMapper.update(null,
+        int rows = baseMapper.update(null,
             new LambdaUpdateWrapper<SysRole>()
                 .set(SysRole::getStatus, status)
                 .eq(SysRole::getRoleId, roleId));
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -353,6 +360,7 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         baseMapper.updateById(role);
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().eq(SysRoleDept::getRoleId, role.getRoleId()));
+        DataPermissionHelper.clearMemo();
         // 新增角色和部门信息（数据权限）
         return insertRoleDept(bo);
     }
@@ -413,6 +421,8 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().eq(SysRoleMenu::getRoleId, roleId));
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().eq(SysRoleDept::getRoleId, roleId));
+        DataPermissionHelper.clearMemo();
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return baseMapper.deleteById(roleId);
     }
 
@@ -438,6 +448,8 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().in(SysRoleMenu::getRoleId, roleIds));
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().in(SysRoleDept::getRoleId, roleIds));
+        DataPermissionHelper.clearMemo();
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return baseMapper.deleteByIds(roleIds);
     }
 
@@ -457,6 +469,7 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
             .eq(SysUserRole::getUserId, userRole.getUserId()));
         if (rows > 0) {
             cleanOnlineUser(List.of(userRole.getUserId()));
+            SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         }
         return rows;
     }
@@ -479,6 +492,7 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
             .in(SysUserRole::getUserId, ids));
         if (rows > 0) {
             cleanOnlineUser(ids);
+            SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         }
         return rows;
     }
@@ -509,6 +523,7 @@ public class SysRoleServiceImpl implements ISysRoleService, RoleService {
         }
         if (rows > 0) {
             cleanOnlineUser(ids);
+            SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         }
         return rows;
     }
@@ -55,6 +55,7 @@ public class SysTenantServiceImpl implements ISysTenantService {
     private final SysUserRoleMapper userRoleMapper;
     private final SysDictTypeMapper dictTypeMapper;
     private final SysDictDataMapper dictDataMapper;
+    private final SysDictSnapshot dictSnapshot;
     private final SysConfigMapper configMapper;
 
     /**
@@ -195,6 +196,7 @@ public class SysTenantServiceImpl implements ISysTenantService {
         }
         dictTypeMapper.insertBatch(dictTypeList);
         dictDataMapper.insertBatch(dictDataList);
+        TenantHelper.dynamic(tenantId, dictSnapshot::invalidate);
 
         List<SysConfig> sysConfigList = configMapper.selectList(
             new LambdaQueryWrapper<SysConfig>().eq(SysConfig::getTenantId, defaultTenantId));
@@ -503,7 +505,10 @@ public class SysTenantServiceImpl implements ISysTenantService {
             }
         });
         for (String tenantId : syncTenantIds) {
-            TenantHelper.dynamic(tenantId, () -> CacheUtils.clear(CacheNames.SYS_DICT));
+            TenantHelper.dynamic(tenantId, () -> {
+                CacheUtils.clear(CacheNames.SYS_DICT);
+                dictSnapshot.invalidate();
+            });
         }
     }
 
@@ -15,12 +15,15 @@ import lombok.extern.slf4j.Slf4j;
 import com.ppxb.common.core.constant.CacheNames;
 import com.ppxb.common.core.constant.SystemConstants;
 import com.ppxb.common.core.domain.dto.UserDTO;
+import com.ppxb.common.core.domain.event.AssigneeChangeEvent;
 import com.ppxb.common.core.exception.ServiceException;
 import com.ppxb.common.core.service.UserService;
 import com.ppxb.common.core.utils.*;
 import com.ppxb.common.mybatis.core.page.PageQuery;
 import com.ppxb.common.mybatis.core.page.TableDataInfo;
+import com.ppxb.common.redis.utils.CacheUtils;
 import com.ppxb.common.satoken.utils.LoginHelper;
+import com.ppxb.common.tenant.helper.TenantHelper;
 import com.ppxb.system.domain.SysUser;
 import com.ppxb.system.domain.SysUserPost;
 import com.ppxb.system.domain.SysUserRole;
@@ -31,12 +34,16 @@ import com.ppxb.system.domain.vo.SysUserExportVo;
 import com.ppxb.system.domain.vo.SysUserVo;
 import com.ppxb.system.mapper.*;
 import com.ppxb.system.service.ISysUserService;
+import org.apache.ibatis.executor.BatchResult;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 用户 业务层处理
@@ -50,6 +57,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
 
     private final SysUserMapper baseMapper;
     private final SysDeptMapper deptMapper;
+    private final SysDeptTreeIndex deptTreeIndex;
     private final SysRoleMapper roleMapper;
     private final SysPostMapper postMapper;
     private final SysUserRoleMapper userRoleMapper;
@@ -69,6 +77,36 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
      */
     @Override
     public List<SysUserExportVo> selectUserExportList(SysUserBo user) {
+        return baseMapper.selectUserExportList(buildExportWrapper(user).orderByAsc("u.user_id"));
+    }
+
+    /**
+     * 分批导出用户列表(按用户ID升序 keyset 分页)
+     *
+     * @param user     用户信息
+     * @param consumer 每批用户信息的处理函数
+     */
+    @Override
+    public void selectUserExportList(SysUserBo user, Consumer<List<SysUserExportVo>> consumer) {
+        int batchSize = 1000;
+        Long lastUserId = null;
+        while (true) {
+            QueryWrapper<SysUser> wrapper = buildExportWrapper(user)
+                .gt(lastUserId != null, "u.user_id", lastUserId)
+                .orderByAsc("u.user_id");
+            List<SysUserExportVo> list = baseMapper.selectUserExportPage(new Page<>(1, batchSize, false), wrapper);
+            if (CollUtil.isEmpty(list)) {
+                return;
+            }
+            lastUserId = list.get(list.size() - 1).getUserId();
+            consumer.accept(list);
+            if (list.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private QueryWrapper<SysUser> buildExportWrapper(SysUserBo user) {
         Map<String, Object> params = user.getParams();
         QueryWrapper<SysUser> wrapper = Wrappers.query();
         wrapper.eq("u.del_flag", SystemConstants.NORMAL)
@@ -79,10 +117,10 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
             .between(params.get("beginTime") != null && params.get("endTime") != null,
                 "u.create_time", params.get("beginTime"), params.get("endTime"))
             .and(ObjectUtil.isNotNull(user.getDeptId()), w -> {
-                List<Long> deptIds = deptMapper.selectDeptAndChildById(user.getDeptId());
+                List<Long> deptIds = deptTreeIndex.selectDeptAndChildIds(user.getDeptId());
                 w.in("u.dept_id", deptIds);
-            }).orderByAsc("u.user_id");
-        return baseMapper.selectUserExportList(wrapper);
+            });
+        return wrapper;
     }
 
     private Wrapper<SysUser> buildQueryWrapper(SysUserBo user) {
@@ -98,7 +136,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
             .between(params.get("beginTime") != null && params.get("endTime") != null,
                 SysUser::getCreateTime, params.get("beginTime"), params.get("endTime"))
             .and(ObjectUtil.isNotNull(user.getDeptId()), w -> {
-                List<Long> ids = deptMapper.selectDeptAndChildById(user.getDeptId());
+                List<Long> ids = deptTreeIndex.selectDeptAndChildIds(user.getDeptId());
                 w.in(SysUser::getDeptId, ids);
             }).orderByAsc(SysUser::getUserId);
         if (StringUtils.isNotBlank(user.getExcludeUserIds())) {
@@ -157,6 +195,23 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         return baseMapper.selectVoOne(new LambdaQueryWrapper<SysUser>().eq(SysUser::getUserName, userName));
     }
 
+    /**
+     * 通过用户名批量查询用户ID
+     *
+     * @param userNames 用户名集合
+     * @return 用户名 -> 用户ID 不存在的用户名不包含在内
+     */
+    @Override
+    public Map<String, Long> selectUserIdsByUserNames(Collection<String> userNames) {
+        if (CollUtil.isEmpty(userNames)) {
+            return new HashMap<>();
+        }
+        List<SysUser> list = baseMapper.selectList(new LambdaQueryWrapper<SysUser>()
+            .select(SysUser::getUserId, SysUser::getUserName)
+            .in(SysUser::getUserName, userNames));
+        return StreamUtils.toMap(list, SysUser::getUserName, SysUser::getUserId);
+    }
+
     /**
      * 通过手机号查询用户
      *
@@ -300,6 +355,23 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         }
     }
 
+    /**
+     * 筛选当前用户有数据权限的用户ID
+     *
+     * @param userIds 用户ID集合
+     * @return 有数据权限的用户ID集合
+     */
+    @Override
+    public Set<Long> selectUserIdsInDataScope(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return new HashSet<>();
+        }
+        if (LoginHelper.isSuperAdmin()) {
+            return new HashSet<>(userIds);
+        }
+        return new HashSet<>(baseMapper.selectUserIdsInScope(userIds));
+    }
+
     /**
      * 新增保存用户信息
      *
@@ -317,6 +389,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         insertUserPost(user, false);
         // 新增用户与角色管理
         insertUserRole(user, false);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return rows;
     }
 
@@ -332,7 +405,9 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         user.setUpdateBy(0L);
         SysUser sysUser = MapstructUtils.convert(user, SysUser.class);
         sysUser.setTenantId(tenantId);
-        return baseMapper.insert(sysUser) > 0;
+        boolean result = baseMapper.insert(sysUser) > 0;
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(tenantId));
+        return result;
     }
 
     /**
@@ -355,9 +430,61 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         if (flag < 1) {
             throw new ServiceException("修改用户" + user.getUserName() + "信息失败");
         }
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return flag;
     }
 
+    /**
+     * 批量新增用户信息 (同一事务)
+     *
+     * @param users 用户信息 新增后回填用户ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void insertUserBatch(List<SysUserBo> users) {
+        if (CollUtil.isEmpty(users)) {
+            return;
+        }
+        List<SysUser> list = MapstructUtils.convert(users, SysUser.class);
+        baseMapper.insertBatch(list);
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setUserId(list.get(i).getUserId());
+        }
+        insertUserPostBatch(users, false);
+        insertUserRoleBatch(users, false);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+    }
+
+    /**
+     * 批量修改用户信息 (同一事务)
+     *
+     * @param users 用户信息
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void updateUserBatch(List<SysUserBo> users) {
+        if (CollUtil.isEmpty(users)) {
+            return;
+        }
+        insertUserRoleBatch(users, true);
+        insertUserPostBatch(users, true);
+        List<SysUser> list = MapstructUtils.convert(users, SysUser.class);
+        // 逐行检查影响行数 防止错误更新后导致的数据误删除
+        int i = 0;
+        for (BatchResult result : baseMapper.updateById(list)) {
+            for (int count : result.getUpdateCounts()) {
+                if (count < 1 && count != Statement.SUCCESS_NO_INFO) {
+                    throw new ServiceException("修改用户" + users.get(i).getUserName() + "信息失败");
+                }
+                i++;
+            }
+        }
+        for (SysUserBo user : users) {
+            CacheUtils.evict(CacheNames.SYS_NICKNAME, user.getUserId());
+        }
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+    }
+
     /**
      * 用户授权角色
      *
@@ -368,6 +495,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
     @Transactional(rollbackFor = Exception.class)
     public void insertUserAuth(Long userId, Long[] roleIds) {
         insertUserRole(userId, roleIds, true);
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
     }
 
     /**
@@ -379,10 +507,12 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
      */
     @Override
     public int updateUserStatus(Long userId, String status) {
-        return baseMapper.update(null,
+        int rows = baseMapper.update(null,
             new LambdaUpdateWrapper<SysUser>()
                 .set(SysUser::getStatus, status)
                 .eq(SysUser::getUserId, userId));
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -394,13 +524,15 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
     @CacheEvict(cacheNames = CacheNames.SYS_NICKNAME, key = "#user.userId")
     @Override
     public int updateUserProfile(SysUserBo user) {
-        return baseMapper.update(null,
+        int rows = baseMapper.update(null,
             new LambdaUpdateWrapper<SysUser>()
                 .set(ObjectUtil.isNotNull(user.getNickName()), SysUser::getNickName, user.getNickName())
                 .set(SysUser::getPhonenumber, user.getPhonenumber())
                 .set(SysUser::getEmail, user.getEmail())
                 .set(SysUser::getSex, user.getSex())
                 .eq(SysUser::getUserId, user.getUserId()));
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
+        return rows;
     }
 
     /**
@@ -517,6 +649,81 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         userRoleMapper.insertBatch(list);
     }
 
+    /**
+     * 批量新增用户角色信息 角色权限按所有用户的角色合并后校验一次
+     *
+     * @param users 用户对象
+     * @param clear 清除已存在的关联数据
+     */
+    private void insertUserRoleBatch(List<SysUserBo> users, boolean clear) {
+        List<SysUserRole> list = new ArrayList<>();
+        Set<Long> roleIds = new HashSet<>();
+        for (SysUserBo user : users) {
+            if (ArrayUtil.isEmpty(user.getRoleIds())) {
+                continue;
+            }
+            // 非超级管理员，禁止包含超级管理员角色
+            boolean superAdmin = LoginHelper.isSuperAdmin(user.getUserId());
+            for (Long roleId : user.getRoleIds()) {
+                if (!superAdmin && SystemConstants.SUPER_ADMIN_ID.equals(roleId)) {
+                    continue;
+                }
+                SysUserRole ur = new SysUserRole();
+                ur.setUserId(user.getUserId());
+                ur.setRoleId(roleId);
+                list.add(ur);
+                roleIds.add(roleId);
+            }
+        }
+        if (list.isEmpty()) {
+            return;
+        }
+        // 校验是否有权限访问这些角色（含数据权限控制）
+        if (roleMapper.selectRoleCount(new ArrayList<>(roleIds)) != roleIds.size()) {
+            throw new ServiceException("没有权限访问角色的数据");
+        }
+        if (clear) {
+            userRoleMapper.delete(new LambdaQueryWrapper<SysUserRole>()
+                .in(SysUserRole::getUserId, StreamUtils.toSet(list, SysUserRole::getUserId)));
+        }
+        userRoleMapper.insertBatch(list);
+    }
+
+    /**
+     * 批量新增用户岗位信息 岗位权限按所有用户的岗位合并后校验一次
+     *
+     * @param users 用户对象
+     * @param clear 清除已存在的关联数据
+     */
+    private void insertUserPostBatch(List<SysUserBo> users, boolean clear) {
+        List<SysUserPost> list = new ArrayList<>();
+        Set<Long> postIds = new HashSet<>();
+        for (SysUserBo user : users) {
+            if (ArrayUtil.isEmpty(user.getPostIds())) {
+                continue;
+            }
+            for (Long postId : user.getPostIds()) {
+                SysUserPost up = new SysUserPost();
+                up.setUserId(user.getUserId());
+                up.setPostId(postId);
+                list.add(up);
+                postIds.add(postId);
+            }
+        }
+        if (list.isEmpty()) {
+            return;
+        }
+        // 校验是否有权限操作这些岗位（含数据权限控制）
+        if (postMapper.selectPostCount(new ArrayList<>(postIds)) != postIds.size()) {
+            throw new ServiceException("没有权限访问岗位的数据");
+        }
+        if (clear) {
+            userPostMapper.delete(new LambdaQueryWrapper<SysUserPost>()
+                .in(SysUserPost::getUserId, StreamUtils.toSet(list, SysUserPost::getUserId)));
+        }
+        userPostMapper.insertBatch(list);
+    }
+
     /**
      * 通过用户ID删除用户
      *
@@ -535,6 +742,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         if (flag < 1) {
             throw new ServiceException("删除用户失败!");
         }
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return flag;
     }
 
@@ -561,6 +769,7 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         if (flag < 1) {
             throw new ServiceException("删除用户失败!");
         }
+        SpringUtils.context().publishEvent(new AssigneeChangeEvent(TenantHelper.getTenantId()));
         return flag;
     }
 
@@ -749,6 +958,77 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         return this.selectListByIds(new ArrayList<>(userIds));
     }
 
+    /**
+     * 通过角色ID查询用户 按角色分组
+     *
+     * @param roleIds 角色ids
+     * @return Map，其中 key 为角色 ID，value 为该角色下的用户
+     */
+    @Override
+    public Map<Long, List<UserDTO>> selectUserMapByRoleIds(List<Long> roleIds) {
+        if (CollUtil.isEmpty(roleIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysUserRole> userRoles = userRoleMapper.selectList(
+            new LambdaQueryWrapper<SysUserRole>().in(SysUserRole::getRoleId, roleIds));
+        return this.groupUsers(userRoles, SysUserRole::getRoleId, SysUserRole::getUserId);
+    }
+
+    /**
+     * 通过部门ID查询用户 按部门分组
+     *
+     * @param deptIds 部门ids
+     * @return Map，其中 key 为部门 ID，value 为该部门下的用户
+     */
+    @Override
+    public Map<Long, List<UserDTO>> selectUserMapByDeptIds(List<Long> deptIds) {
+        if (CollUtil.isEmpty(deptIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysUserVo> list = baseMapper.selectVoList(new LambdaQueryWrapper<SysUser>()
+            .select(SysUser::getUserId, SysUser::getDeptId, SysUser::getUserName, SysUser::getNickName, SysUser::getEmail, SysUser::getPhonenumber)
+            .eq(SysUser::getStatus, SystemConstants.NORMAL)
+            .in(SysUser::getDeptId, deptIds));
+        return StreamUtils.groupByKey(BeanUtil.copyToList(list, UserDTO.class), UserDTO::getDeptId);
+    }
+
+    /**
+     * 通过岗位ID查询用户 按岗位分组
+     *
+     * @param postIds 岗位ids
+     * @return Map，其中 key 为岗位 ID，value 为该岗位下的用户
+     */
+    @Override
+    public Map<Long, List<UserDTO>> selectUserMapByPostIds(List<Long> postIds) {
+        if (CollUtil.isEmpty(postIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysUserPost> userPosts = userPostMapper.selectList(
+            new LambdaQueryWrapper<SysUserPost>().in(SysUserPost::getPostId, postIds));
+        return this.groupUsers(userPosts, SysUserPost::getPostId, SysUserPost::getUserId);
+    }
+
+    /**
+     * 按关联关系将用户分组 用户只查询一次
+     *
+     * @param relations 用户关联关系(用户角色、用户岗位)
+     * @param groupId   分组id
+     * @param userId    用户id
+     * @return Map，其中 key 为分组 ID，value 为该分组下的正常状态用户
+     */
+    private <T> Map<Long, List<UserDTO>> groupUsers(List<T> relations, Function<T, Long> groupId, Function<T, Long> userId) {
+        Map<Long, UserDTO> userMap = StreamUtils.toIdentityMap(
+            this.selectListByIds(new ArrayList<>(StreamUtils.toSet(relations, userId))), UserDTO::getUserId);
+        Map<Long, List<UserDTO>> result = new HashMap<>();
+        for (T relation : relations) {
+            UserDTO user = userMap.get(userId.apply(relation));
+            if (user != null) {
+                result.computeIfAbsent(groupId.apply(relation), k -> new ArrayList<>()).add(user);
+            }
+        }
+        return result;
+    }
+
     /**
      * 根据用户 ID 列表查询用户名称映射关系
      *
@@ -768,4 +1048,23 @@ public class SysUserServiceImpl implements ISysUserService, UserService {
         return StreamUtils.toMap(list, SysUser::getUserId, SysUser::getNickName);
     }
 
+    /**
+     * 根据用户 ID 列表查询用户账户映射关系
+     *
+     * @param userIds 用户 ID 列表
+     * @return Map，其中 key 为用户 ID，value 为对应的用户账户
+     */
+    @Override
+    public Map<Long, String> selectUserAccountsByIds(List<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysUser> list = baseMapper.selectList(
+            new LambdaQueryWrapper<SysUser>()
+                .select(SysUser::getUserId, SysUser::getUserName)
+                .in(SysUser::getUserId, userIds)
+        );
+        return StreamUtils.toMap(list, SysUser::getUserId, SysUser::getUserName);
+    }
+
 }
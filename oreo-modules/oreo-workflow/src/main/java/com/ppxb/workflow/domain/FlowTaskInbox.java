@@ -0,0 +1,109 @@
+package com.ppxb.workflow.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 待办收件箱对象 flow_task_inbox
+ * <p>
+ * 每个待办任务的每个办理人一行 由 flow_task、flow_user、flow_instance 冗余而来
+ * 流程流转时按流程实例整体重建 待办查询按办理人走索引范围扫描
+ * 流程定义的名称、分类、表单等可在定义修改后变化 不冗余 查询时按主键关联 flow_definition
+ *
+ * @author may
+ */
+@Data
+@TableName("flow_task_inbox")
+public class FlowTaskInbox implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键 取对应 flow_user 记录的id
+     */
+    @TableId(value = "id", type = IdType.INPUT)
+    private Long id;
+
+    /**
+     * 任务id
+     */
+    private Long taskId;
+
+    /**
+     * 流程实例id
+     */
+    private Long instanceId;
+
+    /**
+     * 流程定义id
+     */
+    private Long definitionId;
+
+    /**
+     * 办理人
+     */
+    private String processedBy;
+
+    /**
+     * 办理人类型（1审批人 2转办人 3委托人）
+     */
+    private String type;
+
+    /**
+     * 节点编码
+     */
+    private String nodeCode;
+
+    /**
+     * 节点名称
+     */
+    private String nodeName;
+
+    /**
+     * 节点类型
+     */
+    private Integer nodeType;
+
+    /**
+     * 节点审批表单 为空时使用流程定义的表单
+     */
+    private String formPath;
+
+    /**
+     * 流程状态
+     */
+    private String flowStatus;
+
+    /**
+     * 业务id
+     */
+    private String businessId;
+
+    /**
+     * 申请人id
+     */
+    private String createBy;
+
+    /**
+     * 任务创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 任务更新时间
+     */
+    private Date updateTime;
+
+    /**
+     * 租户ID
+     */
+    private String tenantId;
+
+}
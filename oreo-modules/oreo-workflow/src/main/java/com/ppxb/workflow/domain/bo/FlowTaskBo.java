@@ -51,4 +51,14 @@ public class FlowTaskBo implements Serializable {
      */
     private List<Long> createByIds;
 
+    /**
+     * 游标 上一页最后一条任务的id 传入时从该任务之后继续查询且不统计总数
+     */
+    private Long lastTaskId;
+
+    /**
+     * 是否近似统计总数 为 true 时最多统计到上限 超出按上限返回
+     */
+    private Boolean approximateCount;
+
 }
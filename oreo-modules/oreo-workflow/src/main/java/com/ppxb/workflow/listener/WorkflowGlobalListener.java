@@ -13,6 +13,7 @@ import com.ppxb.workflow.domain.bo.FlowCopyBo;
 import com.ppxb.workflow.handler.FlowProcessEventHandler;
 import com.ppxb.workflow.service.IFlwCommonService;
 import com.ppxb.workflow.service.IFlwInstanceService;
+import com.ppxb.workflow.service.IFlwTaskInboxService;
 import com.ppxb.workflow.service.IFlwTaskService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +46,7 @@ public class WorkflowGlobalListener implements GlobalListener {
     private final FlowProcessEventHandler flowProcessEventHandler;
     private final IFlwCommonService flwCommonService;
     private final InsService insService;
+    private final IFlwTaskInboxService flwTaskInboxService;
 
     /**
      * 创建监听器，任务创建时执行
@@ -53,7 +55,7 @@ public class WorkflowGlobalListener implements GlobalListener {
      */
     @Override
     public void create(ListenerVariable listenerVariable) {
-
+        markInboxChanged(listenerVariable);
     }
 
     /**
@@ -99,6 +101,7 @@ public class WorkflowGlobalListener implements GlobalListener {
      */
     @Override
     public void finish(ListenerVariable listenerVariable) {
+        markInboxChanged(listenerVariable);
         Instance instance = listenerVariable.getInstance();
         Definition definition = listenerVariable.getDefinition();
         Task task = listenerVariable.getTask();
@@ -173,6 +176,18 @@ public class WorkflowGlobalListener implements GlobalListener {
         );
     }
 
+    /**
+     * 标记流程实例的待办收件箱需要重建
+     *
+     * @param listenerVariable 监听器变量
+     */
+    private void markInboxChanged(ListenerVariable listenerVariable) {
+        Instance instance = listenerVariable.getInstance();
+        if (ObjectUtil.isNotNull(instance)) {
+            flwTaskInboxService.markChanged(instance.getId());
+        }
+    }
+
     /**
      * 根据流程实例确定最终状态
      *
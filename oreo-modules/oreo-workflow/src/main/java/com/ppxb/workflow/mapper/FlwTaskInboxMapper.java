@@ -0,0 +1,47 @@
+package com.ppxb.workflow.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ppxb.common.mybatis.core.mapper.BaseMapperPlus;
+import com.ppxb.workflow.domain.FlowTaskInbox;
+import com.ppxb.workflow.domain.vo.FlowTaskVo;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 待办收件箱Mapper接口
+ *
+ * @author may
+ */
+public interface FlwTaskInboxMapper extends BaseMapperPlus<FlowTaskInbox, FlowTaskInbox> {
+
+    /**
+     * 分页查询待办 关联流程定义取名称、分类、表单
+     *
+     * @param page         分页
+     * @param queryWrapper 条件
+     * @return 结果
+     */
+    Page<FlowTaskVo> selectInboxPage(@Param("page") Page<FlowTaskVo> page, @Param(Constants.WRAPPER) Wrapper<FlowTaskInbox> queryWrapper);
+
+    /**
+     * 查询待办任务id
+     *
+     * @param page         分页
+     * @param queryWrapper 条件
+     * @return 任务id
+     */
+    List<Long> selectInboxTaskIds(@Param("page") Page<Long> page, @Param(Constants.WRAPPER) Wrapper<FlowTaskInbox> queryWrapper);
+
+    /**
+     * 按流程实例从任务、办理人、流程实例表组装收件箱记录
+     *
+     * @param instanceIds 流程实例id
+     * @return 收件箱记录
+     */
+    List<FlowTaskInbox> selectInboxByInstanceIds(@Param("instanceIds") Collection<Long> instanceIds);
+
+}
@@ -0,0 +1,48 @@
+package com.ppxb.workflow.service;
+
+import com.ppxb.common.mybatis.core.page.PageQuery;
+import com.ppxb.common.mybatis.core.page.TableDataInfo;
+import com.ppxb.workflow.domain.bo.FlowTaskBo;
+import com.ppxb.workflow.domain.vo.FlowTaskVo;
+
+import java.util.Collection;
+
+/**
+ * 待办收件箱 服务层
+ *
+ * @author may
+ */
+public interface IFlwTaskInboxService {
+
+    /**
+     * 分页查询办理人的待办任务
+     *
+     * @param processedBy 办理人
+     * @param flowTaskBo  参数
+     * @param pageQuery   分页
+     * @return 待办任务
+     */
+    TableDataInfo<FlowTaskVo> pageByProcessedBy(String processedBy, FlowTaskBo flowTaskBo, PageQuery pageQuery);
+
+    /**
+     * 标记流程实例的待办已变更 事务提交前统一重建 无事务时立即重建
+     *
+     * @param instanceId 流程实例id
+     */
+    void markChanged(Long instanceId);
+
+    /**
+     * 标记流程实例的待办已变更 事务提交前统一重建 无事务时立即重建
+     *
+     * @param instanceIds 流程实例id
+     */
+    void markChanged(Collection<Long> instanceIds);
+
+    /**
+     * 按流程实例重建收件箱
+     *
+     * @param instanceIds 流程实例id
+     */
+    void rebuildByInstanceIds(Collection<Long> instanceIds);
+
+}
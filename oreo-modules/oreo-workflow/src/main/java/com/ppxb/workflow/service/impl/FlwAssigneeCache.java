@@ -0,0 +1,219 @@
+package com.ppxb.workflow.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ppxb.common.core.constant.GlobalConstants;
+import com.ppxb.common.core.domain.dto.UserDTO;
+import com.ppxb.common.core.domain.event.AssigneeChangeEvent;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.redis.utils.RedisUtils;
+import com.ppxb.common.tenant.helper.TenantHelper;
+import com.ppxb.workflow.common.ConditionalOnEnable;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 办理人缓存
+ * <p>
+ * 按租户在内存中保存 办理人标识 -> 办理用户 与 办理人标识 -> 名称 的解析结果
+ * 按单个办理人标识缓存 多个标识的办理用户由调用方合并 不同组合共享同一份缓存
+ * 流程流转与设计器回显时直接命中 不再按角色、部门、岗位重复查库
+ * 用户、角色、部门、岗位或 spel 定义变更提交后失效本节点对应租户的缓存并通知集群其他节点
+ *
+ * @author AprilWind
+ */
+@Slf4j
+@ConditionalOnEnable
+@Component
+public class FlwAssigneeCache {
+
+    /**
+     * 办理人缓存失效通知主题
+     */
+    private static final String INVALIDATE_TOPIC = GlobalConstants.GLOBAL_REDIS_KEY + "flow_assignee_invalidate";
+
+    /**
+     * 未开启租户时的缓存key 失效时表示全部租户
+     */
+    private static final String NO_TENANT = "";
+
+    /**
+     * 单个租户缓存的最大条目数 超出后淘汰最少使用的条目
+     */
+    private static final int MAX_ENTRIES = 10000;
+
+    /**
+     * 租户id -> 缓存
+     */
+    private final Map<String, TenantEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 失效版本号 加载期间发生失效时丢弃加载结果 避免缓存旧数据
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    @PostConstruct
+    public void init() {
+        RedisUtils.subscribe(INVALIDATE_TOPIC, String.class, message -> {
+            String sender = StringUtils.substringBefore(message, ":");
+            if (!nodeId.equals(sender)) {
+                evict(StringUtils.substringAfter(message, ":"));
+            }
+        });
+    }
+
+    /**
+     * 当前失效版本号 加载前获取 写入时传回
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 批量获取办理人标识解析出的用户
+     *
+     * @param storageIds 规范化后的办理人标识
+     * @return 办理人标识 -> 用户 只包含命中的标识
+     */
+    public Map<String, List<UserDTO>> getUsers(Collection<String> storageIds) {
+        TenantEntry entry = getEntry();
+        return entry == null ? new HashMap<>() : new HashMap<>(entry.users.getAllPresent(storageIds));
+    }
+
+    /**
+     * 批量写入办理人标识解析出的用户
+     *
+     * @param users   办理人标识 -> 用户
+     * @param version 加载前获取的失效版本号
+     */
+    public void putUsers(Map<String, List<UserDTO>> users, long version) {
+        TenantEntry entry = getEntry();
+        if (entry == null || this.version.get() != version) {
+            return;
+        }
+        users.forEach((storageId, list) -> entry.users.asMap().putIfAbsent(storageId, List.copyOf(list)));
+    }
+
+    /**
+     * 批量获取办理人标识对应的名称
+     *
+     * @param storageIds 办理人标识
+     * @return 办理人标识 -> 名称 只包含命中的标识
+     */
+    public Map<String, String> getNames(Collection<String> storageIds) {
+        TenantEntry entry = getEntry();
+        return entry == null ? new HashMap<>() : new HashMap<>(entry.names.getAllPresent(storageIds));
+    }
+
+    /**
+     * 批量写入办理人标识对应的名称 名称为空的标识不缓存
+     *
+     * @param names   办理人标识 -> 名称
+     * @param version 加载前获取的失效版本号
+     */
+    public void putNames(Map<String, String> names, long version) {
+        TenantEntry entry = getEntry();
+        if (entry == null || this.version.get() != version) {
+            return;
+        }
+        names.forEach((storageId, name) -> {
+            if (name != null) {
+                entry.names.asMap().putIfAbsent(storageId, name);
+            }
+        });
+    }
+
+    /**
+     * 用户、角色、部门、岗位变更 事务提交后失效对应租户的缓存
+     */
+    @EventListener
+    public void onAssigneeChange(AssigneeChangeEvent event) {
+        invalidate(TenantHelper.isEnable() ? StringUtils.blankToDefault(event.getTenantId(), NO_TENANT) : NO_TENANT);
+    }
+
+    /**
+     * 当前租户的办理人数据变更 事务提交后失效缓存并通知集群
+     */
+    public void invalidate() {
+        invalidate(TenantHelper.isEnable() ? StringUtils.blankToDefault(TenantHelper.getTenantId(), NO_TENANT) : NO_TENANT);
+    }
+
+    private void invalidate(String tenantKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(tenantKey);
+                }
+            });
+        } else {
+            doInvalidate(tenantKey);
+        }
+    }
+
+    private void doInvalidate(String tenantKey) {
+        evict(tenantKey);
+        try {
+            RedisUtils.publish(INVALIDATE_TOPIC, nodeId + ":" + tenantKey);
+        } catch (Exception e) {
+            log.warn("办理人缓存失效消息发送失败 tenantId:{}", tenantKey, e);
+        }
+    }
+
+    private void evict(String tenantKey) {
+        version.incrementAndGet();
+        if (NO_TENANT.equals(tenantKey)) {
+            // 未开启租户或无法确定租户 全部失效
+            entries.clear();
+        } else {
+            entries.remove(tenantKey);
+        }
+    }
+
+    /**
+     * @return 当前租户的缓存 开启租户但无法获取租户时返回 null 不缓存
+     */
+    private TenantEntry getEntry() {
+        String tenantKey;
+        if (!TenantHelper.isEnable()) {
+            tenantKey = NO_TENANT;
+        } else {
+            tenantKey = TenantHelper.getTenantId();
+            if (StringUtils.isBlank(tenantKey)) {
+                return null;
+            }
+        }
+        return entries.computeIfAbsent(tenantKey, k -> new TenantEntry());
+    }
+
+    /**
+     * 单个租户的缓存
+     */
+    private static final class TenantEntry {
+
+        /**
+         * 规范化后的办理人标识 -> 用户
+         */
+        private final Cache<String, List<UserDTO>> users = Caffeine.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+        /**
+         * 办理人标识 -> 名称
+         */
+        private final Cache<String, String> names = Caffeine.newBuilder().maximumSize(MAX_ENTRIES).build();
+    }
+
+}
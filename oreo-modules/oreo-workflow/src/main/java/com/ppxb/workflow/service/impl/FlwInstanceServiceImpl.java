@@ -28,6 +28,7 @@ import com.ppxb.workflow.handler.FlowProcessEventHandler;
 import com.ppxb.workflow.mapper.FlwCategoryMapper;
 import com.ppxb.workflow.mapper.FlwInstanceMapper;
 import com.ppxb.workflow.service.IFlwInstanceService;
+import com.ppxb.workflow.service.IFlwTaskInboxService;
 import com.ppxb.workflow.service.IFlwTaskService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -83,6 +84,8 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
 
     private final FlwCategoryMapper flwCategoryMapper;
 
+    private final IFlwTaskInboxService flwTaskInboxService;
+
     /**
      * 分页查询正在运行的流程实例
      *
@@ -196,7 +199,9 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
             log.warn("未找到对应的流程实例信息，无法执行删除操作。");
             return false;
         }
-        return insService.remove(StreamUtils.toList(flowInstances, FlowInstance::getId));
+        List<Long> instanceIds = StreamUtils.toList(flowInstances, FlowInstance::getId);
+        flwTaskInboxService.markChanged(instanceIds);
+        return insService.remove(instanceIds);
     }
 
     /**
@@ -228,6 +233,7 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
                 flowProcessEventHandler.processDeleteHandler(definition.getFlowCode(), instance.getBusinessId());
             });
             // 删除实例
+            flwTaskInboxService.markChanged(instanceIds);
             boolean removed = insService.remove(instanceIds);
             if (!removed) {
                 log.warn("删除流程实例失败!");
@@ -277,6 +283,7 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
             FlowEngine.taskService().deleteByInsIds(instanceIds);
             FlowEngine.hisTaskService().deleteByInsIds(instanceIds);
             FlowEngine.insService().removeByIds(instanceIds);
+            flwTaskInboxService.markChanged(instanceIds);
         } catch (Exception e) {
             log.warn("操作失败!{}", e.getMessage());
             throw new ServiceException(e.getMessage());
@@ -311,6 +318,7 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
                     .handler(userIdStr)
                     .ignore(true);
             taskService.revoke(instance.getId(), flowParams);
+            flwTaskInboxService.markChanged(instance.getId());
         } catch (Exception e) {
             log.error("撤销失败: {}", e.getMessage(), e);
             throw new ServiceException(e.getMessage());
@@ -399,6 +407,7 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
         wrapper.set(FlowInstance::getFlowStatus, status);
         wrapper.eq(FlowInstance::getId, instanceId);
         flowInstanceMapper.update(wrapper);
+        flwTaskInboxService.markChanged(instanceId);
     }
 
     /**
@@ -497,6 +506,7 @@ public class FlwInstanceServiceImpl implements IFlwInstanceService {
                     .hisStatus(TaskStatusEnum.INVALID.getStatus())
                     .ignore(true);
             taskService.terminationByInsId(bo.getId(), flowParams);
+            flwTaskInboxService.markChanged(bo.getId());
             return true;
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -39,6 +39,7 @@ import java.util.Map;
 public class FlwSpelServiceImpl implements IFlwSpelService {
 
     private final FlwSpelMapper baseMapper;
+    private final FlwAssigneeCache assigneeCache;
 
     /**
      * 查询流程spel达式定义
@@ -103,6 +104,7 @@ public class FlwSpelServiceImpl implements IFlwSpelService {
         boolean flag = baseMapper.insert(add) > 0;
         if (flag) {
             bo.setId(add.getId());
+            assigneeCache.invalidate();
         }
         return flag;
     }
@@ -117,7 +119,11 @@ public class FlwSpelServiceImpl implements IFlwSpelService {
     public Boolean updateByBo(FlowSpelBo bo) {
         FlowSpel update = MapstructUtils.convert(bo, FlowSpel.class);
         validEntityBeforeSave(update);
-        return baseMapper.updateById(update) > 0;
+        boolean flag = baseMapper.updateById(update) > 0;
+        if (flag) {
+            assigneeCache.invalidate();
+        }
+        return flag;
     }
 
     /**
@@ -139,7 +145,11 @@ public class FlwSpelServiceImpl implements IFlwSpelService {
         if(isValid){
             //TODO 做一些业务上的校验,判断是否需要校验
         }
-        return baseMapper.deleteByIds(ids) > 0;
+        boolean flag = baseMapper.deleteByIds(ids) > 0;
+        if (flag) {
+            assigneeCache.invalidate();
+        }
+        return flag;
     }
 
     /**
@@ -13,6 +13,7 @@ import com.ppxb.common.core.domain.model.TaskAssigneeBody;
 import com.ppxb.common.core.enums.FormatsType;
 import com.ppxb.common.core.service.*;
 import com.ppxb.common.core.utils.DateUtils;
+import com.ppxb.common.core.utils.StreamUtils;
 import com.ppxb.common.core.utils.StringUtils;
 import org.dromara.warm.flow.ui.dto.HandlerFunDto;
 import org.dromara.warm.flow.ui.dto.HandlerQuery;
@@ -46,6 +47,7 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
     private final RoleService roleService;
     private final PostService postService;
     private final IFlwSpelService spelService;
+    private final FlwAssigneeCache assigneeCache;
 
     /**
      * 获取办理人权限设置列表tabs页签
@@ -78,7 +80,7 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
     }
 
     /**
-     * 办理人权限名称回显
+     * 办理人权限名称回显 名称按办理人标识缓存 只查询未命中的标识
      *
      * @param storageIds 入库主键集合
      * @return 结果
@@ -88,11 +90,17 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
         if (CollUtil.isEmpty(storageIds)) {
             return Collections.emptyList();
         }
-        // 解析并归类 ID，同时记录原始顺序和对应解析结果
+        Set<String> distinctIds = new LinkedHashSet<>(storageIds);
+        long version = assigneeCache.version();
+        Map<String, String> handlerNames = assigneeCache.getNames(distinctIds);
+        // 解析并归类未命中的 ID
         Map<TaskAssigneeEnum, List<Long>> typeIdMap = new EnumMap<>(TaskAssigneeEnum.class);
         Map<String, Pair<TaskAssigneeEnum, Long>> parsedMap = new LinkedHashMap<>();
         List<String> spelList = new ArrayList<>();
-        for (String storageId : storageIds) {
+        for (String storageId : distinctIds) {
+            if (handlerNames.containsKey(storageId)) {
+                continue;
+            }
             Pair<TaskAssigneeEnum, Long> parsed = this.parseStorageId(storageId);
             parsedMap.put(storageId, parsed);
             if (parsed != null) {
@@ -104,20 +112,21 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
             }
         }
 
-        // 查询所有类型对应的 ID 名称映射
-        Map<TaskAssigneeEnum, Map<Long, String>> nameMap = new EnumMap<>(TaskAssigneeEnum.class);
-        typeIdMap.forEach((type, ids) -> nameMap.put(type, this.getNamesByType(type, ids)));
-        Map<String, String> spelMap = spelService.selectRemarksBySpels(spelList);
+        if (!parsedMap.isEmpty()) {
+            // 每种类型一次查询 ID 名称映射
+            Map<TaskAssigneeEnum, Map<Long, String>> nameMap = new EnumMap<>(TaskAssigneeEnum.class);
+            typeIdMap.forEach((type, ids) -> nameMap.put(type, this.getNamesByType(type, ids)));
+            Map<String, String> spelMap = spelService.selectRemarksBySpels(spelList);
+            Map<String, String> loaded = new HashMap<>(parsedMap.size() * 2);
+            parsedMap.forEach((storageId, parsed) -> loaded.put(storageId, (parsed == null) ? spelMap.get(storageId)
+                : nameMap.getOrDefault(parsed.getKey(), Collections.emptyMap()).get(parsed.getValue())));
+            assigneeCache.putNames(loaded, version);
+            handlerNames.putAll(loaded);
+        }
         // 组装返回结果，保持原始顺序
-        return parsedMap.entrySet().stream()
-            .map(entry -> {
-                String storageId = entry.getKey();
-                Pair<TaskAssigneeEnum, Long> parsed = entry.getValue();
-                String handlerName = (parsed == null) ? spelMap.get(storageId)
-                    : nameMap.getOrDefault(parsed.getKey(), Collections.emptyMap())
-                    .get(parsed.getValue());
-                return new HandlerFeedBackVo(storageId, handlerName);
-            }).toList();
+        return distinctIds.stream()
+            .map(storageId -> new HandlerFeedBackVo(storageId, handlerNames.get(storageId)))
+            .toList();
     }
 
     /**
@@ -172,6 +181,7 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
      * 批量解析多个存储标识符（storageIds），按类型分类并合并查询用户列表
      * 输入格式支持多个以逗号分隔的标识（如 "user:123,role:456,789"）
      * 会自动去重返回结果，非法格式的标识将被忽略
+     * 按单个标识缓存解析结果 只查询未命中的标识 标识对应的用户、角色、部门、岗位变更后失效
      *
      * @param storageIds 多个存储标识符字符串（逗号分隔）
      * @return 合并后的用户列表，去重后返回，非法格式的标识将被跳过
@@ -181,36 +191,54 @@ public class FlwTaskAssigneeServiceImpl implements IFlwTaskAssigneeService, Hand
         if (StringUtils.isEmpty(storageIds)) {
             return List.of();
         }
-        Map<TaskAssigneeEnum, List<Long>> typeIdMap = new EnumMap<>(TaskAssigneeEnum.class);
+        Map<String, Pair<TaskAssigneeEnum, Long>> parsedMap = new LinkedHashMap<>();
         for (String storageId : storageIds.split(StringUtils.SEPARATOR)) {
             Pair<TaskAssigneeEnum, Long> parsed = this.parseStorageId(storageId);
             if (parsed != null) {
-                typeIdMap.computeIfAbsent(parsed.getKey(), k -> new ArrayList<>()).add(parsed.getValue());
+                parsedMap.putIfAbsent(parsed.getKey().getCode() + parsed.getValue(), parsed);
             }
         }
-        return typeIdMap.entrySet().stream()
-            .flatMap(entry -> this.getUsersByType(entry.getKey(), entry.getValue()).stream())
+        if (parsedMap.isEmpty()) {
+            return List.of();
+        }
+        long version = assigneeCache.version();
+        Map<String, List<UserDTO>> usersMap = assigneeCache.getUsers(parsedMap.keySet());
+        // 未命中的标识按类型归类 每种类型一次批量查询
+        Map<TaskAssigneeEnum, List<Long>> typeIdMap = new EnumMap<>(TaskAssigneeEnum.class);
+        parsedMap.forEach((key, parsed) -> {
+            if (!usersMap.containsKey(key)) {
+                typeIdMap.computeIfAbsent(parsed.getKey(), k -> new ArrayList<>()).add(parsed.getValue());
+            }
+        });
+        Map<String, List<UserDTO>> loaded = new HashMap<>();
+        typeIdMap.forEach((type, ids) -> {
+            Map<Long, List<UserDTO>> userMap = this.getUserMapByType(type, ids);
+            for (Long id : ids) {
+                loaded.put(type.getCode() + id, userMap.getOrDefault(id, List.of()));
+            }
+        });
+        assigneeCache.putUsers(loaded, version);
+        usersMap.putAll(loaded);
+        return parsedMap.keySet().stream()
+            .flatMap(key -> usersMap.get(key).stream())
             .distinct()
             .toList();
     }
 
     /**
-     * 根据指定的任务分配类型（TaskAssigneeEnum）和 ID 列表，获取对应的用户信息列表
+     * 根据任务分配类型和对应 ID 列表，批量查询 ID 与用户的映射关系
      *
-     * @param type 任务分配类型，表示用户、角色、部门或其他（TaskAssigneeEnum 枚举值）
-     * @param ids  与指定分配类型关联的 ID 列表（例如用户ID、角色ID、部门ID等）
-     * @return 返回包含用户信息的列表。如果类型为用户（USER），则通过用户ID列表查询；
-     * 如果类型为角色（ROLE），则通过角色ID列表查询；
-     * 如果类型为部门（DEPT），则通过部门ID列表查询；
-     * 如果类型为岗位（POST）或无法识别的类型，则返回空列表
+     * @param type 分配类型（用户、角色、部门、岗位）
+     * @param ids  ID 列表（如用户ID、角色ID等）
+     * @return 返回 Map，其中 key 为 ID，value 为该 ID 对应的用户
      */
-    private List<UserDTO> getUsersByType(TaskAssigneeEnum type, List<Long> ids) {
+    private Map<Long, List<UserDTO>> getUserMapByType(TaskAssigneeEnum type, List<Long> ids) {
         return switch (type) {
-            case USER -> userService.selectListByIds(ids);
-            case ROLE -> userService.selectUsersByRoleIds(ids);
-            case DEPT -> userService.selectUsersByDeptIds(ids);
-            case POST -> userService.selectUsersByPostIds(ids);
-            case SPEL -> new ArrayList<>();
+            case USER -> StreamUtils.groupByKey(userService.selectListByIds(ids), UserDTO::getUserId);
+            case ROLE -> userService.selectUserMapByRoleIds(ids);
+            case DEPT -> userService.selectUserMapByDeptIds(ids);
+            case POST -> userService.selectUserMapByPostIds(ids);
+            case SPEL -> new HashMap<>();
         };
     }
 
@@ -0,0 +1,202 @@
+package com.ppxb.workflow.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ppxb.common.core.enums.BusinessStatusEnum;
+import com.ppxb.common.core.utils.StreamUtils;
+import com.ppxb.common.core.utils.StringUtils;
+import com.ppxb.common.mybatis.core.page.PageQuery;
+import com.ppxb.common.mybatis.core.page.TableDataInfo;
+import com.ppxb.workflow.common.ConditionalOnEnable;
+import com.ppxb.workflow.domain.FlowTaskInbox;
+import com.ppxb.workflow.domain.bo.FlowTaskBo;
+import com.ppxb.workflow.domain.vo.FlowTaskVo;
+import com.ppxb.workflow.mapper.FlwCategoryMapper;
+import com.ppxb.workflow.mapper.FlwTaskInboxMapper;
+import com.ppxb.workflow.service.IFlwTaskInboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 待办收件箱 服务层实现
+ * <p>
+ * 流程流转(创建、办理、驳回、转办、委派、加减签、撤销、作废、删除)时标记流程实例
+ * 事务提交前按实例删除旧记录并从 flow_task/flow_user 重新组装 与流程数据在同一事务内保持一致
+ *
+ * @author may
+ */
+@Service
+@ConditionalOnEnable
+@RequiredArgsConstructor
+public class FlwTaskInboxServiceImpl implements IFlwTaskInboxService {
+
+    /**
+     * 近似统计总数的上限
+     */
+    private static final int APPROXIMATE_COUNT_LIMIT = 1000;
+
+    /**
+     * 单次 in 查询的最大参数个数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 当前事务中待重建的流程实例 事务资源key
+     */
+    private static final Object CHANGED_KEY = new Object();
+
+    private final FlwTaskInboxMapper flwTaskInboxMapper;
+    private final FlwCategoryMapper flwCategoryMapper;
+
+    /**
+     * 分页查询办理人的待办任务
+     * <p>
+     * 默认按任务id倒序(任务id为雪花id 与创建时间同序) 传入排序字段时按排序字段
+     * 传入游标时走 keyset 分页 固定按任务id倒序 不统计总数 total 返回 -1
+     *
+     * @param processedBy 办理人
+     * @param flowTaskBo  参数
+     * @param pageQuery   分页
+     */
+    @Override
+    public TableDataInfo<FlowTaskVo> pageByProcessedBy(String processedBy, FlowTaskBo flowTaskBo, PageQuery pageQuery) {
+        Page<FlowTaskVo> page = pageQuery.build();
+        boolean keyset = flowTaskBo.getLastTaskId() != null;
+        QueryWrapper<FlowTaskInbox> wrapper = buildQueryWrapper(processedBy, flowTaskBo);
+        long total = -1;
+        if (keyset) {
+            page = new Page<>(1, page.getSize(), false);
+            wrapper.lt("t.id", flowTaskBo.getLastTaskId());
+        } else if (Boolean.TRUE.equals(flowTaskBo.getApproximateCount())) {
+            // 只取 id 且最多取到上限
+            total = flwTaskInboxMapper.selectInboxTaskIds(new Page<>(1, APPROXIMATE_COUNT_LIMIT, false),
+                buildQueryWrapper(processedBy, flowTaskBo)).size();
+            if (total == 0) {
+                return new TableDataInfo<>(new ArrayList<>(), 0);
+            }
+            page.setSearchCount(false);
+        }
+        if (keyset || CollUtil.isEmpty(page.orders())) {
+            wrapper.orderByDesc("t.id");
+        }
+        page = flwTaskInboxMapper.selectInboxPage(page, wrapper);
+        if (total < 0 && !keyset) {
+            total = page.getTotal();
+        }
+        wrapAssigneeInfo(page.getRecords());
+        return new TableDataInfo<>(page.getRecords(), total);
+    }
+
+    /**
+     * 封装处理人 ID(assigneeIds) 只读收件箱的 (task_id, processed_by) 索引
+     */
+    private void wrapAssigneeInfo(List<FlowTaskVo> taskList) {
+        if (CollUtil.isEmpty(taskList)) {
+            return;
+        }
+        List<FlowTaskInbox> assignees = flwTaskInboxMapper.selectList(new LambdaQueryWrapper<FlowTaskInbox>()
+            .select(FlowTaskInbox::getTaskId, FlowTaskInbox::getProcessedBy)
+            .in(FlowTaskInbox::getTaskId, StreamUtils.toList(taskList, FlowTaskVo::getId)));
+        Map<Long, List<FlowTaskInbox>> taskUserMap = StreamUtils.groupByKey(assignees, FlowTaskInbox::getTaskId);
+        for (FlowTaskVo task : taskList) {
+            task.setAssigneeIds(StreamUtils.join(taskUserMap.get(task.getId()), FlowTaskInbox::getProcessedBy));
+        }
+    }
+
+    private QueryWrapper<FlowTaskInbox> buildQueryWrapper(String processedBy, FlowTaskBo flowTaskBo) {
+        QueryWrapper<FlowTaskInbox> wrapper = Wrappers.query();
+        wrapper.eq("t.processed_by", processedBy);
+        wrapper.eq("t.flow_status", BusinessStatusEnum.WAITING.getStatus());
+        wrapper.like(StringUtils.isNotBlank(flowTaskBo.getNodeName()), "t.node_name", flowTaskBo.getNodeName());
+        wrapper.like(StringUtils.isNotBlank(flowTaskBo.getFlowName()), "t.flow_name", flowTaskBo.getFlowName());
+        wrapper.like(StringUtils.isNotBlank(flowTaskBo.getFlowCode()), "t.flow_code", flowTaskBo.getFlowCode());
+        wrapper.in(CollUtil.isNotEmpty(flowTaskBo.getCreateByIds()), "t.create_by",
+            StreamUtils.toList(flowTaskBo.getCreateByIds(), Convert::toStr));
+        if (StringUtils.isNotBlank(flowTaskBo.getCategory())) {
+            List<Long> categoryIds = flwCategoryMapper.selectCategoryIdsByParentId(Convert.toLong(flowTaskBo.getCategory()));
+            wrapper.in("t.category", StreamUtils.toList(categoryIds, Convert::toStr));
+        }
+        return wrapper;
+    }
+
+    /**
+     * 标记流程实例的待办已变更 事务提交前统一重建 无事务时立即重建
+     *
+     * @param instanceId 流程实例id
+     */
+    @Override
+    public void markChanged(Long instanceId) {
+        if (instanceId != null) {
+            markChanged(List.of(instanceId));
+        }
+    }
+
+    /**
+     * 标记流程实例的待办已变更 事务提交前统一重建 无事务时立即重建
+     *
+     * @param instanceIds 流程实例id
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void markChanged(Collection<Long> instanceIds) {
+        if (CollUtil.isEmpty(instanceIds)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildByInstanceIds(instanceIds);
+            return;
+        }
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(CHANGED_KEY);
+        if (changed == null) {
+            Set<Long> created = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(CHANGED_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // 流程引擎的所有写入都已完成 在同一事务内重建
+                    rebuildByInstanceIds(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGED_KEY);
+                }
+            });
+            changed = created;
+        }
+        changed.addAll(instanceIds);
+    }
+
+    /**
+     * 按流程实例重建收件箱
+     *
+     * @param instanceIds 流程实例id
+     */
+    @Override
+    public void rebuildByInstanceIds(Collection<Long> instanceIds) {
+        if (CollUtil.isEmpty(instanceIds)) {
+            return;
+        }
+        for (List<Long> ids : CollUtil.split(instanceIds, BATCH_SIZE)) {
+            flwTaskInboxMapper.delete(new LambdaQueryWrapper<FlowTaskInbox>().in(FlowTaskInbox::getInstanceId, ids));
+            List<FlowTaskInbox> list = flwTaskInboxMapper.selectInboxByInstanceIds(ids);
+            if (CollUtil.isNotEmpty(list)) {
+                flwTaskInboxMapper.insertBatch(list);
+            }
+        }
+    }
+
+}
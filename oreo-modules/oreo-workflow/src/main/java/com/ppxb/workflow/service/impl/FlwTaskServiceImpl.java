@@ -35,6 +35,7 @@ import com.ppxb.workflow.mapper.FlwCategoryMapper;
 import com.ppxb.workflow.mapper.FlwTaskMapper;
 import com.ppxb.workflow.service.IFlwCommonService;
 import com.ppxb.workflow.service.IFlwNodeExtService;
+import com.ppxb.workflow.service.IFlwTaskInboxService;
 import com.ppxb.workflow.service.IFlwTaskAssigneeService;
 import com.ppxb.workflow.service.IFlwTaskService;
 import lombok.RequiredArgsConstructor;
@@ -87,6 +88,7 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
     private final IFlwCommonService flwCommonService;
     private final IFlwNodeExtService flwNodeExtService;
     private final FlowDefinitionMapper flowDefinitionMapper;
+    private final IFlwTaskInboxService flwTaskInboxService;
 
     /**
      * 启动任务
@@ -115,6 +117,7 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
             List<Task> taskList = taskService.list(new FlowTask().setInstanceId(flowInstance.getId()));
             taskService.mergeVariable(flowInstance, variables);
             insService.updateById(flowInstance);
+            flwTaskInboxService.markChanged(flowInstance.getId());
             StartProcessReturnDTO dto = new StartProcessReturnDTO();
             dto.setProcessInstanceId(taskList.get(0).getInstanceId());
             dto.setTaskId(taskList.get(0).getId());
@@ -136,6 +139,7 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
         } catch (Exception e) {
             throw new ServiceException(e.getMessage());
         }
+        flwTaskInboxService.markChanged(instance.getId());
         // 申请人执行流程
         List<Task> taskList = taskService.list(new FlowTask().setInstanceId(instance.getId()));
         if (taskList.size() > 1) {
@@ -318,13 +322,8 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
      */
     @Override
     public TableDataInfo<FlowTaskVo> pageByTaskWait(FlowTaskBo flowTaskBo, PageQuery pageQuery) {
-        QueryWrapper<FlowTaskBo> queryWrapper = buildQueryWrapper(flowTaskBo);
-        queryWrapper.eq("t.node_type", NodeType.BETWEEN.getKey());
-        queryWrapper.in("t.processed_by", LoginHelper.getUserIdStr());
-        queryWrapper.in("t.flow_status", BusinessStatusEnum.WAITING.getStatus());
-        Page<FlowTaskVo> page = flwTaskMapper.getListRunTask(pageQuery.build(), queryWrapper);
-        this.wrapAssigneeInfo(page.getRecords());
-        return TableDataInfo.build(page);
+        // 从待办收件箱按办理人索引查询 不再关联任务、办理人、流程定义、流程实例四张表
+        return flwTaskInboxService.pageByProcessedBy(LoginHelper.getUserIdStr(), flowTaskBo, pageQuery);
     }
 
     /**
@@ -515,6 +514,7 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
                     .flowStatus(BusinessStatusEnum.TERMINATION.getStatus())
                     .hisStatus(TaskStatusEnum.TERMINATION.getStatus());
             taskService.termination(taskId, flowParams);
+            flwTaskInboxService.markChanged(task.getInstanceId());
             return true;
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -679,6 +679,8 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
         Long taskId = bo.getTaskId();
         Task task = taskService.getById(taskId);
         FlowNode flowNode = getByNodeCode(task.getNodeCode(), task.getDefinitionId());
+        // 转办、委派、加减签都会改变办理人
+        flwTaskInboxService.markChanged(task.getInstanceId());
         if ("addSignature".equals(taskOperation) || "reductionSignature".equals(taskOperation)) {
             if (flowNode.getNodeRatio().compareTo(BigDecimal.ZERO) == 0) {
                 throw new ServiceException(task.getNodeName() + "不是会签节点！");
@@ -738,6 +740,7 @@ public class FlwTaskServiceImpl implements IFlwTaskService {
                 if (CollUtil.isNotEmpty(userList)) {
                     FlowEngine.userService().saveBatch(userList);
                 }
+                flwTaskInboxService.markChanged(StreamUtils.toSet(flowTasks, FlowTask::getInstanceId));
             }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -292,6 +292,48 @@ comment on column FLOW_USER.TENANT_ID is '租户id';
 create index USER_PROCESSED_TYPE on FLOW_USER (PROCESSED_BY, TYPE);
 create index USER_ASSOCIATED_IDX on FLOW_USER (ASSOCIATED);
 
+-- ----------------------------
+-- 待办收件箱表
+-- ----------------------------
+create table FLOW_TASK_INBOX
+(
+    ID            NUMBER(20)    not null,
+    TASK_ID       NUMBER(20)    not null,
+    INSTANCE_ID   NUMBER(20)    not null,
+    DEFINITION_ID NUMBER(20)    not null,
+    PROCESSED_BY  VARCHAR2(80),
+    TYPE          VARCHAR2(1)   not null,
+    NODE_CODE     VARCHAR2(100),
+    NODE_NAME     VARCHAR2(100),
+    NODE_TYPE     NUMBER(1),
+    FORM_PATH     VARCHAR2(100),
+    FLOW_STATUS   VARCHAR2(20),
+    BUSINESS_ID   VARCHAR2(40),
+    CREATE_BY     VARCHAR2(64),
+    CREATE_TIME   DATE,
+    UPDATE_TIME   DATE,
+    TENANT_ID     VARCHAR2(40)
+);
+
+alter table FLOW_TASK_INBOX
+    add constraint PK_FLOW_TASK_INBOX primary key (ID);
+
+comment on table FLOW_TASK_INBOX is '待办收件箱表';
+comment on column FLOW_TASK_INBOX.ID is '主键id(对应flow_user的id)';
+comment on column FLOW_TASK_INBOX.TASK_ID is '任务id';
+comment on column FLOW_TASK_INBOX.INSTANCE_ID is '流程实例id';
+comment on column FLOW_TASK_INBOX.DEFINITION_ID is '流程定义id';
+comment on column FLOW_TASK_INBOX.PROCESSED_BY is '办理人';
+comment on column FLOW_TASK_INBOX.TYPE is '办理人类型（1审批人 2转办人 3委托人）';
+comment on column FLOW_TASK_INBOX.FLOW_STATUS is '流程状态';
+comment on column FLOW_TASK_INBOX.CREATE_BY is '申请人';
+comment on column FLOW_TASK_INBOX.CREATE_TIME is '任务创建时间';
+comment on column FLOW_TASK_INBOX.TENANT_ID is '租户id';
+
+create index IDX_INBOX_PROCESSED on FLOW_TASK_INBOX (PROCESSED_BY, FLOW_STATUS, TASK_ID);
+create index IDX_INBOX_TASK on FLOW_TASK_INBOX (TASK_ID, PROCESSED_BY);
+create index IDX_INBOX_INSTANCE on FLOW_TASK_INBOX (INSTANCE_ID);
+
 -- ----------------------------
 -- 流程分类表
 -- ----------------------------
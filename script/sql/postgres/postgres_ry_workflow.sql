@@ -262,6 +262,43 @@ COMMENT ON COLUMN flow_user.create_by IS '创建人';
 COMMENT ON COLUMN flow_user.update_time IS '更新时间';
 COMMENT ON COLUMN flow_user.del_flag IS '删除标志';
 COMMENT ON COLUMN flow_user.tenant_id IS '租户id';
+-- ----------------------------
+-- 待办收件箱表
+-- ----------------------------
+CREATE TABLE flow_task_inbox
+(
+    id            int8         NOT NULL,     -- 主键id(对应flow_user的id)
+    task_id       int8         NOT NULL,     -- 任务id
+    instance_id   int8         NOT NULL,     -- 流程实例id
+    definition_id int8         NOT NULL,     -- 流程定义id
+    processed_by  varchar(80)  NULL,         -- 办理人
+    "type"        bpchar(1)    NOT NULL,     -- 办理人类型
+    node_code     varchar(100) NULL,         -- 节点编码
+    node_name     varchar(100) NULL,         -- 节点名称
+    node_type     int2         NULL,         -- 节点类型
+    form_path     varchar(100) NULL,         -- 节点审批表单路径
+    flow_status   varchar(20)  NULL,         -- 流程状态
+    business_id   varchar(40)  NULL,         -- 业务id
+    create_by     varchar(64)  NULL,         -- 申请人
+    create_time   timestamp    NULL,         -- 任务创建时间
+    update_time   timestamp    NULL,         -- 任务更新时间
+    tenant_id     varchar(40)  NULL,         -- 租户id
+    CONSTRAINT flow_task_inbox_pk PRIMARY KEY (id)
+);
+CREATE INDEX idx_inbox_processed ON flow_task_inbox USING btree (processed_by, flow_status, task_id);
+CREATE INDEX idx_inbox_task ON flow_task_inbox USING btree (task_id, processed_by);
+CREATE INDEX idx_inbox_instance ON flow_task_inbox USING btree (instance_id);
+COMMENT ON TABLE flow_task_inbox IS '待办收件箱表';
+COMMENT ON COLUMN flow_task_inbox.id IS '主键id(对应flow_user的id)';
+COMMENT ON COLUMN flow_task_inbox.task_id IS '任务id';
+COMMENT ON COLUMN flow_task_inbox.instance_id IS '流程实例id';
+COMMENT ON COLUMN flow_task_inbox.definition_id IS '流程定义id';
+COMMENT ON COLUMN flow_task_inbox.processed_by IS '办理人';
+COMMENT ON COLUMN flow_task_inbox."type" IS '办理人类型（1审批人 2转办人 3委托人）';
+COMMENT ON COLUMN flow_task_inbox.flow_status IS '流程状态';
+COMMENT ON COLUMN flow_task_inbox.create_by IS '申请人';
+COMMENT ON COLUMN flow_task_inbox.create_time IS '任务创建时间';
+COMMENT ON COLUMN flow_task_inbox.tenant_id IS '租户id';
 -- ----------------------------
 -- 流程分类表
 -- ----------------------------
@@ -143,6 +143,32 @@ CREATE TABLE `flow_definition`
     KEY `user_processed_type` (`processed_by`, `type`),
     KEY `user_associated` (`associated`) USING BTREE
 ) ENGINE = InnoDB COMMENT ='流程用户表';
+-- ----------------------------
+-- 待办收件箱表
+-- ----------------------------
+CREATE TABLE `flow_task_inbox`
+(
+    `id`            bigint       NOT NULL COMMENT '主键id(对应flow_user的id)',
+    `task_id`       bigint       NOT NULL COMMENT '任务id',
+    `instance_id`   bigint       NOT NULL COMMENT '流程实例id',
+    `definition_id` bigint       NOT NULL COMMENT '流程定义id',
+    `processed_by`  varchar(80)  DEFAULT NULL COMMENT '办理人',
+    `type`          char(1)      NOT NULL COMMENT '办理人类型（1审批人 2转办人 3委托人）',
+    `node_code`     varchar(100) DEFAULT NULL COMMENT '节点编码',
+    `node_name`     varchar(100) DEFAULT NULL COMMENT '节点名称',
+    `node_type`     tinyint(1)   DEFAULT NULL COMMENT '节点类型',
+    `form_path`     varchar(100) DEFAULT NULL COMMENT '节点审批表单路径',
+    `flow_status`   varchar(20)  DEFAULT NULL COMMENT '流程状态',
+    `business_id`   varchar(40)  DEFAULT NULL COMMENT '业务id',
+    `create_by`     varchar(64)  DEFAULT NULL COMMENT '申请人',
+    `create_time`   datetime     DEFAULT NULL COMMENT '任务创建时间',
+    `update_time`   datetime     DEFAULT NULL COMMENT '任务更新时间',
+    `tenant_id`     varchar(40)  DEFAULT NULL COMMENT '租户id',
+    PRIMARY KEY (`id`) USING BTREE,
+    KEY `idx_inbox_processed` (`processed_by`, `flow_status`, `task_id`),
+    KEY `idx_inbox_task` (`task_id`, `processed_by`),
+    KEY `idx_inbox_instance` (`instance_id`)
+) ENGINE = InnoDB COMMENT ='待办收件箱表';
 -- ----------------------------
 -- 流程分类表
 -- ----------------------------
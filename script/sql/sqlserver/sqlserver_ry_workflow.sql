@@ -874,6 +874,40 @@ EXEC sp_addextendedproperty
 'SCHEMA', N'dbo',
 'TABLE', N'flow_user'
 GO
+CREATE TABLE flow_task_inbox (
+    id bigint NOT NULL,
+    task_id bigint NOT NULL,
+    instance_id bigint NOT NULL,
+    definition_id bigint NOT NULL,
+    processed_by nvarchar(80) NULL,
+    type nchar(1) NOT NULL,
+    node_code nvarchar(100) NULL,
+    node_name nvarchar(100) NULL,
+    node_type tinyint NULL,
+    form_path nvarchar(100) NULL,
+    flow_status nvarchar(20) NULL,
+    business_id nvarchar(40) NULL,
+    create_by nvarchar(64) NULL,
+    create_time datetime2(7) NULL,
+    update_time datetime2(7) NULL,
+    tenant_id nvarchar(40) NULL,
+    CONSTRAINT PK__flow_task_inbox PRIMARY KEY CLUSTERED (id)
+    WITH (PAD_INDEX = OFF, STATISTICS_NORECOMPUTE = OFF, IGNORE_DUP_KEY = OFF, ALLOW_ROW_LOCKS = ON, ALLOW_PAGE_LOCKS = ON)
+    ON [PRIMARY]
+)
+ON [PRIMARY]
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_processed ON flow_task_inbox (processed_by ASC, flow_status ASC, task_id ASC)
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_task ON flow_task_inbox (task_id ASC, processed_by ASC)
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_instance ON flow_task_inbox (instance_id ASC)
+GO
+EXEC sp_addextendedproperty
+'MS_Description', N'待办收件箱表',
+'SCHEMA', N'dbo',
+'TABLE', N'flow_task_inbox'
+GO
 CREATE TABLE flow_category (
     category_id bigint NOT NULL,
     tenant_id nvarchar(20) DEFAULT('000000') NULL,
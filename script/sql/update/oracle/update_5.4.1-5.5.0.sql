@@ -39,4 +39,59 @@ INSERT INTO sys_menu VALUES ('11803', '流程spel达式定义新增', '11801', 2
 INSERT INTO sys_menu VALUES ('11804', '流程spel达式定义修改', '11801', 3, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:edit', '#', 103, 1, SYSDATE, NULL, NULL, '');
 INSERT INTO sys_menu VALUES ('11805', '流程spel达式定义删除', '11801', 4, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:remove', '#', 103, 1, SYSDATE, NULL, NULL, '');
 INSERT INTO sys_menu VALUES ('11806', '流程spel达式定义导出', '11801', 5, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:export', '#', 103, 1, SYSDATE, NULL, NULL, '');
+
+-- ----------------------------
+-- 待办收件箱表
+-- ----------------------------
+create table FLOW_TASK_INBOX
+(
+    ID            NUMBER(20)    not null,
+    TASK_ID       NUMBER(20)    not null,
+    INSTANCE_ID   NUMBER(20)    not null,
+    DEFINITION_ID NUMBER(20)    not null,
+    PROCESSED_BY  VARCHAR2(80),
+    TYPE          VARCHAR2(1)   not null,
+    NODE_CODE     VARCHAR2(100),
+    NODE_NAME     VARCHAR2(100),
+    NODE_TYPE     NUMBER(1),
+    FORM_PATH     VARCHAR2(100),
+    FLOW_STATUS   VARCHAR2(20),
+    BUSINESS_ID   VARCHAR2(40),
+    CREATE_BY     VARCHAR2(64),
+    CREATE_TIME   DATE,
+    UPDATE_TIME   DATE,
+    TENANT_ID     VARCHAR2(40)
+);
+
+alter table FLOW_TASK_INBOX
+    add constraint PK_FLOW_TASK_INBOX primary key (ID);
+
+comment on table FLOW_TASK_INBOX is '待办收件箱表';
+comment on column FLOW_TASK_INBOX.ID is '主键id(对应flow_user的id)';
+comment on column FLOW_TASK_INBOX.TASK_ID is '任务id';
+comment on column FLOW_TASK_INBOX.INSTANCE_ID is '流程实例id';
+comment on column FLOW_TASK_INBOX.DEFINITION_ID is '流程定义id';
+comment on column FLOW_TASK_INBOX.PROCESSED_BY is '办理人';
+comment on column FLOW_TASK_INBOX.TYPE is '办理人类型（1审批人 2转办人 3委托人）';
+comment on column FLOW_TASK_INBOX.FLOW_STATUS is '流程状态';
+comment on column FLOW_TASK_INBOX.CREATE_BY is '申请人';
+comment on column FLOW_TASK_INBOX.CREATE_TIME is '任务创建时间';
+comment on column FLOW_TASK_INBOX.TENANT_ID is '租户id';
+
+create index IDX_INBOX_PROCESSED on FLOW_TASK_INBOX (PROCESSED_BY, FLOW_STATUS, TASK_ID);
+create index IDX_INBOX_TASK on FLOW_TASK_INBOX (TASK_ID, PROCESSED_BY);
+create index IDX_INBOX_INSTANCE on FLOW_TASK_INBOX (INSTANCE_ID);
+
+-- 待办收件箱 初始化已有待办
+insert into flow_task_inbox (id, task_id, instance_id, definition_id, processed_by, type, node_code, node_name, node_type,
+                             form_path, flow_status, business_id, create_by, create_time, update_time, tenant_id)
+select uu.id, t.id, t.instance_id, t.definition_id, uu.processed_by, uu.type, t.node_code, t.node_name, t.node_type,
+       t.form_path, i.flow_status, i.business_id, i.create_by, t.create_time, t.update_time, t.tenant_id
+from flow_task t
+         inner join flow_user uu on uu.associated = t.id
+         left join flow_instance i on t.instance_id = i.id
+where t.node_type = 1
+  and t.del_flag = '0'
+  and uu.del_flag = '0'
+  and uu.type in ('1', '2', '3');
 
\ No newline at end of file
@@ -117,4 +117,52 @@ INSERT sys_menu VALUES (N'11805', N'流程spel达式定义删除', N'11801', 4,
 GO
 INSERT sys_menu VALUES (N'11806', N'流程spel达式定义导出', N'11801', 5, N'#', N'', NULL, 1, 0, N'F', N'0', N'0', N'workflow:spel:export', N'#', 103, 1, GETDATE(), NULL, NULL, N'');
 GO
+
+CREATE TABLE flow_task_inbox (
+    id bigint NOT NULL,
+    task_id bigint NOT NULL,
+    instance_id bigint NOT NULL,
+    definition_id bigint NOT NULL,
+    processed_by nvarchar(80) NULL,
+    type nchar(1) NOT NULL,
+    node_code nvarchar(100) NULL,
+    node_name nvarchar(100) NULL,
+    node_type tinyint NULL,
+    form_path nvarchar(100) NULL,
+    flow_status nvarchar(20) NULL,
+    business_id nvarchar(40) NULL,
+    create_by nvarchar(64) NULL,
+    create_time datetime2(7) NULL,
+    update_time datetime2(7) NULL,
+    tenant_id nvarchar(40) NULL,
+    CONSTRAINT PK__flow_task_inbox PRIMARY KEY CLUSTERED (id)
+    WITH (PAD_INDEX = OFF, STATISTICS_NORECOMPUTE = OFF, IGNORE_DUP_KEY = OFF, ALLOW_ROW_LOCKS = ON, ALLOW_PAGE_LOCKS = ON)
+    ON [PRIMARY]
+)
+ON [PRIMARY]
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_processed ON flow_task_inbox (processed_by ASC, flow_status ASC, task_id ASC)
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_task ON flow_task_inbox (task_id ASC, processed_by ASC)
+GO
+CREATE NONCLUSTERED INDEX idx_inbox_instance ON flow_task_inbox (instance_id ASC)
+GO
+EXEC sp_addextendedproperty
+'MS_Description', N'待办收件箱表',
+'SCHEMA', N'dbo',
+'TABLE', N'flow_task_inbox'
+GO
+-- 待办收件箱 初始化已有待办
+insert into flow_task_inbox (id, task_id, instance_id, definition_id, processed_by, type, node_code, node_name, node_type,
+                             form_path, flow_status, business_id, create_by, create_time, update_time, tenant_id)
+select uu.id, t.id, t.instance_id, t.definition_id, uu.processed_by, uu.type, t.node_code, t.node_name, t.node_type,
+       t.form_path, i.flow_status, i.business_id, i.create_by, t.create_time, t.update_time, t.tenant_id
+from flow_task t
+         inner join flow_user uu on uu.associated = t.id
+         left join flow_instance i on t.instance_id = i.id
+where t.node_type = 1
+  and t.del_flag = '0'
+  and uu.del_flag = '0'
+  and uu.type in ('1', '2', '3');
+GO
 
\ No newline at end of file
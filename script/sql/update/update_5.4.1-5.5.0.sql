@@ -25,4 +25,43 @@ INSERT INTO sys_menu VALUES ('11803', '流程spel达式定义新增', '11801', 2
 INSERT INTO sys_menu VALUES ('11804', '流程spel达式定义修改', '11801', 3, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:edit', '#', 103, 1, sysdate(), NULL, NULL, '');
 INSERT INTO sys_menu VALUES ('11805', '流程spel达式定义删除', '11801', 4, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:remove', '#', 103, 1, sysdate(), NULL, NULL, '');
 INSERT INTO sys_menu VALUES ('11806', '流程spel达式定义导出', '11801', 5, '#', '', NULL, 1, 0, 'F', '0', '0', 'workflow:spel:export', '#', 103, 1, sysdate(), NULL, NULL, '');
+
+-- ----------------------------
+-- 待办收件箱表
+-- ----------------------------
+CREATE TABLE `flow_task_inbox`
+(
+    `id`            bigint       NOT NULL COMMENT '主键id(对应flow_user的id)',
+    `task_id`       bigint       NOT NULL COMMENT '任务id',
+    `instance_id`   bigint       NOT NULL COMMENT '流程实例id',
+    `definition_id` bigint       NOT NULL COMMENT '流程定义id',
+    `processed_by`  varchar(80)  DEFAULT NULL COMMENT '办理人',
+    `type`          char(1)      NOT NULL COMMENT '办理人类型（1审批人 2转办人 3委托人）',
+    `node_code`     varchar(100) DEFAULT NULL COMMENT '节点编码',
+    `node_name`     varchar(100) DEFAULT NULL COMMENT '节点名称',
+    `node_type`     tinyint(1)   DEFAULT NULL COMMENT '节点类型',
+    `form_path`     varchar(100) DEFAULT NULL COMMENT '节点审批表单路径',
+    `flow_status`   varchar(20)  DEFAULT NULL COMMENT '流程状态',
+    `business_id`   varchar(40)  DEFAULT NULL COMMENT '业务id',
+    `create_by`     varchar(64)  DEFAULT NULL COMMENT '申请人',
+    `create_time`   datetime     DEFAULT NULL COMMENT '任务创建时间',
+    `update_time`   datetime     DEFAULT NULL COMMENT '任务更新时间',
+    `tenant_id`     varchar(40)  DEFAULT NULL COMMENT '租户id',
+    PRIMARY KEY (`id`) USING BTREE,
+    KEY `idx_inbox_processed` (`processed_by`, `flow_status`, `task_id`),
+    KEY `idx_inbox_task` (`task_id`, `processed_by`),
+    KEY `idx_inbox_instance` (`instance_id`)
+) ENGINE = InnoDB COMMENT ='待办收件箱表';
+-- 待办收件箱 初始化已有待办
+insert into flow_task_inbox (id, task_id, instance_id, definition_id, processed_by, type, node_code, node_name, node_type,
+                             form_path, flow_status, business_id, create_by, create_time, update_time, tenant_id)
+select uu.id, t.id, t.instance_id, t.definition_id, uu.processed_by, uu.type, t.node_code, t.node_name, t.node_type,
+       t.form_path, i.flow_status, i.business_id, i.create_by, t.create_time, t.update_time, t.tenant_id
+from flow_task t
+         inner join flow_user uu on uu.associated = t.id
+         left join flow_instance i on t.instance_id = i.id
+where t.node_type = 1
+  and t.del_flag = '0'
+  and uu.del_flag = '0'
+  and uu.type in ('1', '2', '3');
 
\ No newline at end of file